@@ -0,0 +1,110 @@
+package com.healthmate.app.db;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.healthmate.app.model.Exercise;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures combined filters and facet counts of the ExerciseCatalog at
+ * 10k and 100k exercises. Results are logged under the class name next to
+ * the 16 ms frame they should fit in; the filter semantics are covered by
+ * ExerciseCatalogTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExerciseCatalogBenchmark {
+    private static final String TAG = "ExerciseCatalogBenchmark";
+
+    private static final String[] BODY_PARTS = {"Arms", "Chest", "Back", "Abs", "Legs", "Full Body"};
+    private static final String[] TARGETS = {
+            "biceps", "triceps", "pectorals", "lats", "abs", "quads", "glutes", "hamstrings",
+            "calves", "delts", "traps", "forearms", "obliques", "cardiovascular system"
+    };
+    private static final String[] EQUIPMENT = {
+            "body weight", "dumbbell", "barbell", "cable", "kettlebell", "band", "leverage machine",
+            "smith machine", "ez barbell", "medicine ball", "stability ball", "rope"
+    };
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    private static final int QUERIES = 200;
+
+    @Test
+    public void benchmarkFacetedQueriesAtTenThousand() {
+        benchmarkFacetedQueries(10000);
+    }
+
+    @Test
+    public void benchmarkFacetedQueriesAtOneHundredThousand() {
+        benchmarkFacetedQueries(100000);
+    }
+
+    private static void benchmarkFacetedQueries(int size) {
+        ExerciseCatalog catalog = new ExerciseCatalog();
+        catalog.onExercisesChanged(synthetic(size, 42));
+
+        Random random = new Random(7);
+        ExerciseCatalog.Filter[] filters = new ExerciseCatalog.Filter[QUERIES];
+        for (int i = 0; i < filters.length; i++) {
+            filters[i] = new ExerciseCatalog.Filter()
+                    .with(ExerciseCatalog.Attribute.BODY_PART, pick(BODY_PARTS, random))
+                    .with(ExerciseCatalog.Attribute.BODY_PART, pick(BODY_PARTS, random))
+                    .with(ExerciseCatalog.Attribute.EQUIPMENT, pick(EQUIPMENT, random))
+                    .with(ExerciseCatalog.Attribute.DIFFICULTY, pick(DIFFICULTIES, random));
+        }
+
+        // Warm up the JIT before timing
+        for (ExerciseCatalog.Filter filter : filters) {
+            catalog.count(filter);
+            catalog.getFacetCounts(filter);
+        }
+
+        long start = System.nanoTime();
+        int matched = 0;
+        for (ExerciseCatalog.Filter filter : filters) {
+            matched += catalog.count(filter);
+        }
+        double queryMs = (System.nanoTime() - start) / 1e6 / filters.length;
+
+        start = System.nanoTime();
+        for (ExerciseCatalog.Filter filter : filters) {
+            catalog.getFacetCounts(filter);
+        }
+        double facetMs = (System.nanoTime() - start) / 1e6 / filters.length;
+
+        Log.i(TAG, String.format("%d exercises: %.3f ms per combined query, %.3f ms for all facet counts",
+                size, queryMs, facetMs));
+        assertTrue(matched > 0);
+    }
+
+    private static List<Exercise> synthetic(int size, long seed) {
+        Random random = new Random(seed);
+        List<Exercise> exercises = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Exercise exercise = new Exercise();
+            exercise.setId(String.valueOf(i));
+            exercise.setName("Exercise " + i);
+            exercise.setBodyPart(pick(BODY_PARTS, random));
+            exercise.setTarget(pick(TARGETS, random));
+            exercise.setEquipment(pick(EQUIPMENT, random));
+            exercise.setDifficultyLevel(pick(DIFFICULTIES, random));
+            exercise.setSecondaryMuscles(Arrays.asList(pick(TARGETS, random), pick(TARGETS, random)));
+            exercises.add(exercise);
+        }
+        return exercises;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,185 @@
+package com.healthmate.app.db;
+
+import android.content.Context;
+import android.database.AbstractWindowedCursor;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.healthmate.app.model.Exercise;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the exercise list projections against the full rows they
+ * replaced. Every query runs over an in-memory copy of the catalog with
+ * realistic descriptions, and reports its time and how many cursor
+ * windows it had to fill. A window holds 2 MB on most devices; a full
+ * row scan spills over it because of the description blobs, while the
+ * list and summary projections leave them out.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ExerciseQueryBenchmark {
+    private static final String TAG = "ExerciseQueryBenchmark";
+
+    private static final int EXERCISES = 10000;
+    private static final int RUNS = 5;
+
+    private static final String[] BODY_PARTS = {"chest", "back", "upper legs", "shoulders", "waist", "cardio"};
+    private static final String[] EQUIPMENT = {"body weight", "dumbbell", "barbell", "cable", "band"};
+    private static final String[] WORDS = {"keep", "your", "back", "straight", "slowly", "lower", "the",
+            "weight", "towards", "chest", "pause", "at", "top", "squeeze", "glutes", "engage", "core",
+            "breathe", "out", "as", "you", "push", "up", "return", "to", "starting", "position", "elbows",
+            "knees", "shoulders", "hips", "feet", "shoulder", "width", "apart", "controlled", "motion",
+            "repeat", "for", "desired", "number", "of", "repetitions", "hold", "stretch", "seconds"};
+
+    private DatabaseHelper dbHelper;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new DatabaseHelper(context, null);
+        dbHelper.upsertExercises(synthetic(EXERCISES, 42));
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void benchmarkListProjections() {
+        String all = "SELECT * FROM " + DatabaseHelper.TABLE_EXERCISES;
+        String list = "SELECT " + DatabaseHelper.EXERCISE_LIST_COLUMNS + " FROM " + DatabaseHelper.TABLE_EXERCISES;
+        String summaries = "SELECT " + DatabaseHelper.EXERCISE_SUMMARY_COLUMNS + " FROM "
+                + DatabaseHelper.TABLE_EXERCISES;
+
+        Scan fullScan = scan(all);
+        Scan listScan = scan(list);
+        Scan summaryScan = scan(summaries);
+
+        Log.i(TAG, fullScan.describe("Full rows"));
+        Log.i(TAG, listScan.describe("List columns"));
+        Log.i(TAG, summaryScan.describe("Summary columns"));
+
+        assertEquals(fullScan.rows, listScan.rows);
+        assertEquals(fullScan.rows, summaryScan.rows);
+        assertTrue("Full rows fit in one window, descriptions are too short to measure", fullScan.windows > 1);
+        assertTrue(listScan.windows < fullScan.windows);
+        assertTrue(summaryScan.windows <= listScan.windows);
+        assertTrue("List columns took " + listScan.bestMs + " ms, full rows " + fullScan.bestMs + " ms",
+                listScan.bestMs < fullScan.bestMs);
+    }
+
+    @Test
+    public void benchmarkHelperQueries() {
+        double allMs = Double.MAX_VALUE;
+        double bodyPartMs = Double.MAX_VALUE;
+        int rows = 0;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            rows = dbHelper.getAllExercises().size();
+            allMs = Math.min(allMs, (System.nanoTime() - start) / 1e6);
+
+            start = System.nanoTime();
+            for (String bodyPart : BODY_PARTS) {
+                dbHelper.getExerciseSummariesByBodyPart(bodyPart);
+            }
+            bodyPartMs = Math.min(bodyPartMs, (System.nanoTime() - start) / 1e6 / BODY_PARTS.length);
+        }
+
+        Log.i(TAG, String.format("getAllExercises: %d rows in %.2f ms, "
+                + "getExerciseSummariesByBodyPart: %.2f ms per body part", rows, allMs, bodyPartMs));
+        assertTrue(rows >= EXERCISES);
+    }
+
+    /**
+     * Run a query RUNS times, reading every column of every row
+     * @param sql Query to run
+     * @return Rows read, cursor windows filled and the best run time
+     */
+    private Scan scan(String sql) {
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Scan scan = new Scan();
+        scan.bestMs = Double.MAX_VALUE;
+
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            Cursor cursor = db.rawQuery(sql, null);
+            int rows = 0;
+            int windows = 0;
+            int windowStart = -1;
+            try {
+                while (cursor.moveToNext()) {
+                    // A new start position means the cursor refilled its window
+                    int position = ((AbstractWindowedCursor) cursor).getWindow().getStartPosition();
+                    if (position != windowStart) {
+                        windowStart = position;
+                        windows++;
+                    }
+                    for (int column = 0; column < cursor.getColumnCount(); column++) {
+                        if (cursor.getType(column) == Cursor.FIELD_TYPE_BLOB) {
+                            cursor.getBlob(column);
+                        } else {
+                            cursor.getString(column);
+                        }
+                    }
+                    rows++;
+                }
+            } finally {
+                cursor.close();
+            }
+            scan.bestMs = Math.min(scan.bestMs, (System.nanoTime() - start) / 1e6);
+            scan.rows = rows;
+            scan.windows = windows;
+        }
+        return scan;
+    }
+
+    private static List<Exercise> synthetic(int count, long seed) {
+        Random random = new Random(seed);
+        List<Exercise> exercises = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Descriptions of 150 to 250 words, about as long as an ExerciseDB instruction text
+            StringBuilder description = new StringBuilder();
+            int words = 150 + random.nextInt(100);
+            for (int w = 0; w < words; w++) {
+                description.append(WORDS[random.nextInt(WORDS.length)]).append(w % 12 == 11 ? ". " : " ");
+            }
+
+            Exercise exercise = new Exercise("bench-" + i, "benchmark exercise " + i,
+                    BODY_PARTS[random.nextInt(BODY_PARTS.length)], description.toString(), null,
+                    10 + random.nextInt(20), 50 + random.nextInt(200), "Medium");
+            exercise.setTarget(WORDS[random.nextInt(WORDS.length)]);
+            exercise.setEquipment(EQUIPMENT[random.nextInt(EQUIPMENT.length)]);
+            exercise.setGifUrl("https://example.com/gif/" + i + ".gif");
+            exercise.setSecondaryMuscles(Arrays.asList("triceps", "shoulders"));
+            exercises.add(exercise);
+        }
+        return exercises;
+    }
+
+    private static class Scan {
+        int rows;
+        int windows;
+        double bestMs;
+
+        String describe(String label) {
+            return String.format("%s: %d rows, %d cursor windows, %.2f ms", label, rows, windows, bestMs);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.healthmate.app.db;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.healthmate.app.model.DailyTotals;
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.Food;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Daily rollups kept by LogStore, checked against rollups rebuilt from the
+ * log tables of an in-memory database
+ */
+@RunWith(AndroidJUnit4.class)
+public class LogStoreTest {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long START = 1700000000000L;
+    private static final int DAYS = 14;
+
+    private DatabaseHelper dbHelper;
+    private LogStore logStore;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        dbHelper = new DatabaseHelper(context, null);
+        logStore = new LogStore(dbHelper);
+    }
+
+    @After
+    public void tearDown() {
+        dbHelper.close();
+    }
+
+    @Test
+    public void loggedEntriesAddUpToTheDailyTotals() {
+        Food rice = food("rice", 130, 2.7f, 28, 0.3f, 0.4f);
+        Exercise run = exercise("run", 300);
+
+        logStore.logFood(rice, 150, START);
+        logStore.logFood(rice, 50, START + 1000);
+        logStore.logExercise(run, 45, START + 2000);
+
+        DailyTotals totals = logStore.getDailyTotals(LogStore.toEpochDay(START));
+        assertEquals(260, totals.getCaloriesIn(), 0.01f);
+        assertEquals(5.4f, totals.getProteins(), 0.01f);
+        assertEquals(56, totals.getCarbs(), 0.01f);
+        assertEquals(450, totals.getCaloriesOut());
+        assertEquals(45, totals.getExerciseMinutes());
+        assertEquals(2, totals.getFoodEntries());
+        assertEquals(1, totals.getExerciseEntries());
+    }
+
+    @Test
+    public void daysWithoutEntriesAreEmpty() {
+        logStore.logFood(food("rice", 130, 2.7f, 28, 0.3f, 0.4f), 100, START);
+
+        long day = LogStore.toEpochDay(START);
+        DailyTotals nextDay = logStore.getDailyTotals(day + 1);
+        assertEquals(day + 1, nextDay.getDay());
+        assertEquals(0, nextDay.getFoodEntries());
+        assertEquals(0, nextDay.getCaloriesIn(), 0f);
+        assertEquals(1, logStore.getDailyTotals(day - 1, day + 1).size());
+    }
+
+    @Test
+    public void rollupsMatchARebuildFromTheLogs() {
+        Random random = new Random(42);
+        Food[] foods = {
+                food("rice", 130, 2.7f, 28, 0.3f, 0.4f),
+                food("dal", 116, 9, 20, 0.4f, 8),
+                food("paneer", 265, 18, 1.2f, 21, 0)
+        };
+        Exercise[] exercises = {exercise("run", 300), exercise("yoga", 120)};
+        for (int i = 0; i < 200; i++) {
+            long loggedAt = START + (long) (random.nextDouble() * DAYS * DAY_MILLIS);
+            if (random.nextInt(4) == 0) {
+                logStore.logExercise(exercises[random.nextInt(exercises.length)], 10 + random.nextInt(50), loggedAt);
+            } else {
+                logStore.logFood(foods[random.nextInt(foods.length)], 50 + random.nextInt(200), loggedAt);
+            }
+        }
+
+        long firstDay = LogStore.toEpochDay(START);
+        long lastDay = LogStore.toEpochDay(START + DAYS * DAY_MILLIS);
+        List<DailyTotals> kept = logStore.getDailyTotals(firstDay, lastDay);
+
+        dbHelper.getWritableDatabase().delete("daily_rollup", null, null);
+        assertTrue(logStore.getDailyTotals(firstDay, lastDay).isEmpty());
+        for (long day = firstDay; day <= lastDay; day++) {
+            logStore.rebuildDailyTotals(day);
+        }
+
+        List<DailyTotals> rebuilt = logStore.getDailyTotals(firstDay, lastDay);
+        assertEquals(kept.size(), rebuilt.size());
+        int entries = 0;
+        for (int i = 0; i < kept.size(); i++) {
+            assertSameTotals(kept.get(i), rebuilt.get(i));
+            entries += kept.get(i).getFoodEntries() + kept.get(i).getExerciseEntries();
+        }
+        assertEquals(200, entries);
+    }
+
+    private static void assertSameTotals(DailyTotals expected, DailyTotals actual) {
+        assertEquals(expected.getDay(), actual.getDay());
+        assertEquals(expected.getCaloriesIn(), actual.getCaloriesIn(), 0.5f);
+        assertEquals(expected.getProteins(), actual.getProteins(), 0.05f);
+        assertEquals(expected.getCarbs(), actual.getCarbs(), 0.05f);
+        assertEquals(expected.getFats(), actual.getFats(), 0.05f);
+        assertEquals(expected.getFiber(), actual.getFiber(), 0.05f);
+        assertEquals(expected.getCaloriesOut(), actual.getCaloriesOut());
+        assertEquals(expected.getExerciseMinutes(), actual.getExerciseMinutes());
+        assertEquals(expected.getFoodEntries(), actual.getFoodEntries());
+        assertEquals(expected.getExerciseEntries(), actual.getExerciseEntries());
+    }
+
+    private static Food food(String id, float calories, float proteins, float carbs, float fats, float fiber) {
+        return new Food(id, id, calories, proteins, carbs, fats, fiber, 100f, "g", "Vegetarian", "Indian");
+    }
+
+    private static Exercise exercise(String id, int caloriesPerHalfHour) {
+        return new Exercise(id, id, "cardio", null, null, 30, caloriesPerHalfHour, "Medium");
+    }
+}
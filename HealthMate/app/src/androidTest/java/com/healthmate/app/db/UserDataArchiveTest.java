@@ -0,0 +1,141 @@
+package com.healthmate.app.db;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.healthmate.app.model.DailyTotals;
+import com.healthmate.app.model.Food;
+import com.healthmate.app.model.MetricAggregate;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Round trips of body metrics and log entries through UserDataArchive,
+ * between two in-memory databases
+ */
+@RunWith(AndroidJUnit4.class)
+public class UserDataArchiveTest {
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long START = 1700000000000L;
+    private static final int DAYS = 120;
+
+    private Context context;
+    private DatabaseHelper source;
+    private DatabaseHelper target;
+    private File file;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        source = new DatabaseHelper(context, null);
+        target = new DatabaseHelper(context, null);
+        file = new File(context.getCacheDir(), "UserDataArchiveTest.hmb");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        source.close();
+        target.close();
+        file.delete();
+    }
+
+    @Test
+    public void bodyMetricsAndTrendsSurviveAFullArchive() throws IOException {
+        BodyMetricsStore sourceMetrics = new BodyMetricsStore(source);
+        for (int day = 0; day < DAYS; day++) {
+            sourceMetrics.record(175, 80 - day * 0.05f, 2200, START + day * DAY_MILLIS);
+        }
+
+        archive(source).exportTo(file, false);
+        archive(target).importFrom(file);
+
+        assertSameTrends(sourceMetrics, new BodyMetricsStore(target));
+    }
+
+    @Test
+    public void importMergesWithMeasurementsAlreadyStored() throws IOException {
+        BodyMetricsStore sourceMetrics = new BodyMetricsStore(source);
+        BodyMetricsStore targetMetrics = new BodyMetricsStore(target);
+        for (int day = 0; day < DAYS; day++) {
+            sourceMetrics.record(175, 80, 2200, START + day * DAY_MILLIS);
+        }
+        // Later measurements on the new device, and one taken at the same time as an archived one
+        for (int day = DAYS - 10; day < DAYS + 10; day++) {
+            targetMetrics.record(175, 79, 2100, START + day * DAY_MILLIS);
+            sourceMetrics.record(175, 79, 2100, START + day * DAY_MILLIS);
+        }
+
+        archive(source).exportTo(file, false);
+        archive(target).importFrom(file);
+
+        assertSameTrends(sourceMetrics, targetMetrics);
+        assertEquals(DAYS + 10, targetMetrics.getSamples(START, START + (DAYS + 10) * DAY_MILLIS).size());
+    }
+
+    @Test
+    public void logEntriesWithTheSameRowIdsOnBothDevicesAreAllKept() throws IOException {
+        Food rice = new Food("rice", "Rice", 130, 2.7f, 28, 0.3f, 0.4f, 100f, "g", "Vegetarian", "Indian");
+        LogStore sourceLog = new LogStore(source);
+        LogStore targetLog = new LogStore(target);
+        // Both devices number their entries from 1
+        for (int day = 0; day < 10; day++) {
+            sourceLog.logFood(rice, 100, START + day * DAY_MILLIS);
+            targetLog.logFood(rice, 200, START + day * DAY_MILLIS);
+        }
+
+        archive(source).exportTo(file, false);
+        UserDataArchive.Result first = archive(target).importFrom(file);
+        UserDataArchive.Result second = archive(target).importFrom(file);
+
+        assertEquals(0, first.getSkippedCount());
+        assertEquals(first.getRowCount(), second.getRowCount());
+        assertEquals(10, second.getSkippedCount());
+        long firstDay = LogStore.toEpochDay(START);
+        List<DailyTotals> totals = targetLog.getDailyTotals(firstDay, firstDay + 9);
+        assertEquals(10, totals.size());
+        for (DailyTotals day : totals) {
+            assertEquals(2, day.getFoodEntries());
+            assertEquals(390, day.getCaloriesIn(), 0.01f);
+        }
+    }
+
+    private UserDataArchive archive(DatabaseHelper dbHelper) {
+        return new UserDataArchive(context, dbHelper, new ProfileStore(context, dbHelper));
+    }
+
+    private static void assertSameTrends(BodyMetricsStore expected, BodyMetricsStore actual) {
+        long firstDay = LogStore.toEpochDay(START);
+        long lastDay = firstDay + DAYS + 10;
+        assertSameAggregates(expected.getWeeklyTrend(firstDay, lastDay), actual.getWeeklyTrend(firstDay, lastDay));
+        assertSameAggregates(expected.getMonthlyTrend(firstDay, lastDay), actual.getMonthlyTrend(firstDay, lastDay));
+    }
+
+    private static void assertSameAggregates(List<MetricAggregate> expected, List<MetricAggregate> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            MetricAggregate e = expected.get(i);
+            MetricAggregate a = actual.get(i);
+            assertEquals(e.getPeriodStart(), a.getPeriodStart());
+            assertEquals(e.getSampleCount(), a.getSampleCount());
+            assertEquals(e.getAverageWeight(), a.getAverageWeight(), 0.001f);
+            assertEquals(e.getMinWeight(), a.getMinWeight(), 0.001f);
+            assertEquals(e.getMaxWeight(), a.getMaxWeight(), 0.001f);
+            assertEquals(e.getLastWeight(), a.getLastWeight(), 0.001f);
+            assertEquals(e.getAverageCalorieTarget(), a.getAverageCalorieTarget());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.healthmate.app.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures CompressedText over a catalog of instruction texts: stored size
+ * against plain UTF-8 and dictionary-less Deflate, and decode time per row.
+ * Results are logged under the class name; round trips and the size bound
+ * are covered by CompressedTextTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CompressedTextBenchmark {
+    private static final String TAG = "CompressedTextBenchmark";
+
+    private static final int RUNS = 5;
+
+    // About the size of the full ExerciseDB catalog
+    private static final int CATALOG_SIZE = 1300;
+
+    private static final String[] EQUIPMENT = {
+            "barbell", "dumbbell", "kettlebell", "cable handle", "resistance band", "EZ bar", "medicine ball"
+    };
+    private static final String[] MUSCLES = {
+            "biceps", "triceps", "glutes", "hamstrings", "quadriceps", "lats", "pectorals", "calves", "delts"
+    };
+    private static final String[] OPENINGS = {
+            "Stand with your feet shoulder-width apart and your arms at your sides, holding a %s.",
+            "Lie flat on your back with your knees bent and feet flat on the floor.",
+            "Sit on the bench with your back against the pad and grasp the %s.",
+            "Start in a plank position with your hands directly under your shoulders.",
+            "Hold a %s in each hand with your palms facing forward."
+    };
+    private static final String[] MOVES = {
+            "Engage your core and keep your back straight throughout the movement.",
+            "Slowly lower the weight back down to the starting position.",
+            "Lower your body until your thighs are parallel to the ground.",
+            "Push through your heels to return to the starting position.",
+            "Keep your elbows close to your body as you lift the %s.",
+            "Squeeze your %s at the top of the movement and pause for a moment.",
+            "Exhale as you lift and inhale as you lower.",
+            "Keep your knees slightly bent and your chest up."
+    };
+
+    @Test
+    public void benchmarkCatalogStorageAndDecode() {
+        Random random = new Random(42);
+        List<String> texts = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            texts.add(instructions(random));
+        }
+
+        long plainBytes = 0;
+        long deflateBytes = 0;
+        long encodedBytes = 0;
+        List<byte[]> encoded = new ArrayList<>(CATALOG_SIZE);
+        long start = System.nanoTime();
+        for (String text : texts) {
+            byte[] value = CompressedText.encode(text);
+            encodedBytes += value.length;
+            encoded.add(value);
+        }
+        double encodeUs = (System.nanoTime() - start) / 1e3 / CATALOG_SIZE;
+        for (String text : texts) {
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            plainBytes += utf8.length;
+            deflateBytes += deflateWithoutDictionary(utf8);
+        }
+
+        // The first run warms up the JIT and is not counted
+        double decodeUs = Double.MAX_VALUE;
+        for (int run = 0; run <= RUNS; run++) {
+            start = System.nanoTime();
+            for (byte[] value : encoded) {
+                CompressedText.decode(value);
+            }
+            if (run > 0) {
+                decodeUs = Math.min(decodeUs, (System.nanoTime() - start) / 1e3 / CATALOG_SIZE);
+            }
+        }
+
+        Log.i(TAG, String.format("%d rows: UTF-8 %d bytes, Deflate %d bytes, dictionary Deflate %d bytes "
+                        + "(%.0f%%), %.1f us per encode, %.1f us per decode", CATALOG_SIZE, plainBytes,
+                deflateBytes, encodedBytes, 100.0 * encodedBytes / plainBytes, encodeUs, decodeUs));
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            assertEquals(texts.get(i), CompressedText.decode(encoded.get(i)));
+        }
+    }
+
+    private static String instructions(Random random) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(pick(OPENINGS, random), pick(EQUIPMENT, random)));
+        int steps = 3 + random.nextInt(4);
+        for (int i = 0; i < steps; i++) {
+            text.append(' ').append(String.format(pick(MOVES, random),
+                    random.nextBoolean() ? pick(EQUIPMENT, random) : pick(MUSCLES, random)));
+        }
+        text.append(" Repeat for the desired number of repetitions.");
+        return text.toString();
+    }
+
+    private static int deflateWithoutDictionary(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        deflater.setInput(utf8);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        // Plus the format byte CompressedText would add
+        return out.size() + 1;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,79 @@
+package com.healthmate.app.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.healthmate.app.model.Food;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Measures MealPlanner over a 10k-food catalog for every diet and a range
+ * of calorie targets, against the default time budget. Results are logged
+ * under the class name; plan quality is covered by MealPlannerTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class MealPlannerBenchmark {
+    private static final String TAG = "MealPlannerBenchmark";
+
+    private static final String[] CATEGORIES = {
+            Constants.CATEGORY_VEGAN, Constants.CATEGORY_VEGETARIAN, Constants.CATEGORY_NON_VEGETARIAN
+    };
+    private static final String[] CUISINES = {"Indian", "Italian", "Chinese", "Western"};
+
+    @Test
+    public void benchmarkTenThousandFoodCatalog() {
+        List<Food> catalog = catalog(10000, 42);
+        MealPlanner planner = new MealPlanner();
+
+        // Warm up the JIT before timing
+        for (int i = 0; i < 5; i++) {
+            planner.plan(catalog, 2000, new MealPlanner.Preferences());
+        }
+
+        String[] diets = {null, Constants.CATEGORY_VEGETARIAN, Constants.CATEGORY_VEGAN};
+        int[] targets = {1500, 2000, 2500, 3000};
+        for (String diet : diets) {
+            MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+            preferences.setDietCategory(diet);
+            double worstMs = 0;
+            float worstError = 0;
+            for (int target : targets) {
+                long start = System.nanoTime();
+                MealPlanner.MealPlan plan = planner.plan(catalog, target, preferences);
+                worstMs = Math.max(worstMs, (System.nanoTime() - start) / 1e6);
+                worstError = Math.max(worstError, Math.abs(plan.getCalories() - target) / target);
+                assertFalse(plan.isEmpty());
+            }
+            Log.i(TAG, String.format("Diet %s: worst plan %.2f ms (budget %d ms), worst calorie error %.1f%%",
+                    diet != null ? diet : "any", worstMs, MealPlanner.DEFAULT_TIME_BUDGET_MS, worstError * 100));
+        }
+    }
+
+    /**
+     * Synthetic catalog with realistic per-serving values
+     */
+    private static List<Food> catalog(int size, long seed) {
+        Random random = new Random(seed);
+        List<Food> foods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            float proteins = 1 + random.nextFloat() * 35;
+            float carbs = random.nextFloat() * 70;
+            float fats = random.nextFloat() * 25;
+            float calories = proteins * 4 + carbs * 4 + fats * 9;
+            foods.add(new Food("f" + i, "Food " + i, calories, proteins, carbs, fats,
+                    random.nextFloat() * 8, 100f, "g",
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    CUISINES[random.nextInt(CUISINES.length)]));
+        }
+        return foods;
+    }
+}
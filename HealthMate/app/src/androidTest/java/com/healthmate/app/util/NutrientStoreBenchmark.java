@@ -0,0 +1,73 @@
+package com.healthmate.app.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.healthmate.app.model.Food;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures NutrientStore over a week of 10k logged entries with 5k
+ * removals in between, reading a total after every update. Results are
+ * logged under the class name; correctness is covered by NutrientStoreTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class NutrientStoreBenchmark {
+    private static final String TAG = "NutrientStoreBenchmark";
+
+    private static final long MONDAY = 19000;
+    private static final int ENTRIES = 10000;
+    private static final int RUNS = 5;
+
+    @Test
+    public void benchmarkTenThousandEntryWeek() {
+        Food[] foods = new Food[50];
+        Random random = new Random(42);
+        for (int i = 0; i < foods.length; i++) {
+            foods[i] = new Food("f" + i, "Food " + i, 50 + random.nextInt(400), random.nextFloat() * 30,
+                    random.nextFloat() * 60, random.nextFloat() * 25, random.nextFloat() * 8,
+                    100f, "g", "any", "any");
+        }
+
+        // The first run warms up the JIT and is not counted
+        runHistory(foods, new Random(1));
+
+        double bestMs = Double.MAX_VALUE;
+        NutrientStore store = null;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            store = runHistory(foods, new Random(7));
+            bestMs = Math.min(bestMs, (System.nanoTime() - start) / 1e6);
+        }
+
+        Log.i(TAG, String.format("10k adds, 5k removes and 15k total reads in %.2f ms", bestMs));
+        assertEquals(ENTRIES - ENTRIES / 2, store.size());
+    }
+
+    private static NutrientStore runHistory(Food[] foods, Random random) {
+        NutrientStore store = new NutrientStore(MONDAY, 7);
+        int[] handles = new int[ENTRIES];
+        float sink = 0;
+        for (int i = 0; i < ENTRIES; i++) {
+            handles[i] = store.add(foods[random.nextInt(foods.length)], 50 + random.nextInt(250),
+                    MONDAY + random.nextInt(7));
+            sink += store.getTotal(NutrientStore.CALORIES);
+        }
+        for (int i = 0; i < ENTRIES; i += 2) {
+            store.remove(handles[i]);
+            sink += store.getDayTotal(NutrientStore.PROTEINS, MONDAY + random.nextInt(7));
+        }
+        // Keeps the reads from being optimized away
+        if (sink <= 0) {
+            throw new AssertionError("No totals were read");
+        }
+        return store;
+    }
+}
@@ -0,0 +1,78 @@
+package com.healthmate.app.util;
+
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures top-10 TrigramIndex searches over 100k exercise names, most of
+ * them misspelt. Results are logged under the class name; ranking and
+ * typo tolerance are covered by TrigramIndexTest.
+ */
+@RunWith(AndroidJUnit4.class)
+public class TrigramIndexBenchmark {
+    private static final String TAG = "TrigramIndexBenchmark";
+
+    private static final String[] MODIFIERS = {
+            "Seated", "Standing", "Incline", "Decline", "Single Arm", "Alternating", "Reverse",
+            "Wide Grip", "Close Grip", "Kneeling", "Lying", "Weighted", "Assisted", "Bent Over"
+    };
+    private static final String[] EQUIPMENT = {
+            "Dumbbell", "Barbell", "Cable", "Kettlebell", "Band", "Smith Machine", "Lever",
+            "EZ Bar", "Medicine Ball", "Body Weight", "Sled", "Trap Bar"
+    };
+    private static final String[] MOVEMENTS = {
+            "Bench Press", "Curl", "Row", "Squat", "Deadlift", "Lunge", "Fly", "Pulldown",
+            "Shoulder Press", "Lateral Raise", "Shrug", "Crunch", "Extension", "Kickback",
+            "Hip Thrust", "Calf Raise", "Push Up", "Pull Up", "Chicken Wing Stretch", "Upright Row"
+    };
+
+    private static final int NAMES = 100000;
+    private static final int ROUNDS = 10;
+
+    @Test
+    public void benchmarkTopTenOfOneHundredThousandNames() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        long start = System.nanoTime();
+        for (int i = 0; i < NAMES; i++) {
+            index.put(String.valueOf(i), pick(MODIFIERS, random) + " " + pick(EQUIPMENT, random)
+                    + " " + pick(MOVEMENTS, random) + " " + i);
+        }
+        double buildMs = (System.nanoTime() - start) / 1e6;
+
+        String[] queries = {"benchpres", "dumbell curl", "chiken wing", "kettlebel swing",
+                "inclne dumbbell fly", "cable pulldwn", "sqaut", "lateral rase", "hip thurst", "shrugs"};
+
+        // Warm up the JIT before timing
+        for (int i = 0; i < 20; i++) {
+            for (String query : queries) {
+                index.search(query, 10);
+            }
+        }
+
+        int found = 0;
+        start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            for (String query : queries) {
+                found += index.search(query, 10).size();
+            }
+        }
+        double perQueryMs = (System.nanoTime() - start) / 1e6 / (ROUNDS * queries.length);
+
+        Log.i(TAG, String.format("%d names indexed in %.1f ms, top-10 search %.3f ms per query",
+                NAMES, buildMs, perQueryMs));
+        assertTrue(found > 0);
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,300 @@
+package com.healthmate.app;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.healthmate.app.api.ApiClient;
+import com.healthmate.app.api.CircuitBreaker;
+import com.healthmate.app.api.ExerciseDbService;
+import com.healthmate.app.api.MultiSourceExerciseFetcher;
+import com.healthmate.app.api.OpenFoodFactsService;
+import com.healthmate.app.api.RequestBudget;
+import com.healthmate.app.api.WgerService;
+import com.healthmate.app.database.SeedCatalog;
+import com.healthmate.app.db.BodyMetricsStore;
+import com.healthmate.app.db.DatabaseHelper;
+import com.healthmate.app.db.ExerciseCatalog;
+import com.healthmate.app.db.ExerciseStepStore;
+import com.healthmate.app.db.LogStore;
+import com.healthmate.app.db.ProfileStore;
+import com.healthmate.app.db.SimilarExerciseStore;
+import com.healthmate.app.db.UserDataArchive;
+import com.healthmate.app.util.ApiConfig;
+import com.healthmate.app.util.AppExecutors;
+import com.healthmate.app.util.Constants;
+import com.healthmate.app.util.LatencyRecorder;
+
+import java.io.IOException;
+
+/**
+ * Application-scoped container for the shared services.
+ *
+ * Everything is created lazily on first use and then kept for the life of
+ * the process, so recreating an activity (rotation, navigating back to it)
+ * no longer resolves the API key, builds HTTP clients or opens databases
+ * again. The databases are never closed; SQLite releases them with the
+ * process.
+ */
+public class AppContainer {
+    private static final String TAG = "AppContainer";
+
+    private final Context appContext;
+    private final AppExecutors executors = AppExecutors.getInstance();
+    private final LatencyRecorder latencyRecorder = new LatencyRecorder();
+
+    private DatabaseHelper database;
+    private SeedCatalog seedCatalog;
+    private ProfileStore profileStore;
+    private LogStore logStore;
+    private BodyMetricsStore bodyMetricsStore;
+    private ExerciseCatalog exerciseCatalog;
+    private ExerciseStepStore exerciseStepStore;
+    private SimilarExerciseStore similarExerciseStore;
+    private UserDataArchive userDataArchive;
+    private boolean warmUpStarted = false;
+
+    /**
+     * Constructor
+     * @param context Any context, only its application context is kept
+     */
+    public AppContainer(Context context) {
+        this.appContext = context.getApplicationContext();
+    }
+
+    /**
+     * Get the container of the running application
+     * @param context Any context of this app
+     * @return Shared AppContainer
+     */
+    public static AppContainer from(Context context) {
+        return ((HealthMateApplication) context.getApplicationContext()).getContainer();
+    }
+
+    /**
+     * Get the shared executors
+     * @return AppExecutors singleton
+     */
+    public AppExecutors getExecutors() {
+        return executors;
+    }
+
+    /**
+     * Get the recorder of time-to-content and other latencies
+     * @return Shared LatencyRecorder
+     */
+    public LatencyRecorder getLatencyRecorder() {
+        return latencyRecorder;
+    }
+
+    /**
+     * Get the app database holding exercises, logs and the profile
+     * @return Shared database helper
+     */
+    public synchronized DatabaseHelper getDatabase() {
+        if (database == null) {
+            database = new DatabaseHelper(appContext);
+        }
+        return database;
+    }
+
+    /**
+     * Get the read-only catalog of seed foods and exercises
+     * @return Shared SeedCatalog, mapped on first use
+     */
+    public synchronized SeedCatalog getSeedCatalog() {
+        if (seedCatalog == null) {
+            try {
+                seedCatalog = SeedCatalog.open(appContext);
+            } catch (IOException e) {
+                throw new IllegalStateException("Seed catalog asset is missing or unreadable", e);
+            }
+        }
+        return seedCatalog;
+    }
+
+    /**
+     * Get the profile store
+     * @return Shared ProfileStore
+     */
+    public synchronized ProfileStore getProfileStore() {
+        if (profileStore == null) {
+            profileStore = new ProfileStore(appContext, getDatabase());
+        }
+        return profileStore;
+    }
+
+    /**
+     * Get the food and exercise log
+     * @return Shared LogStore
+     */
+    public synchronized LogStore getLogStore() {
+        if (logStore == null) {
+            logStore = new LogStore(getDatabase());
+        }
+        return logStore;
+    }
+
+    /**
+     * Get the body metrics history
+     * @return Shared BodyMetricsStore
+     */
+    public synchronized BodyMetricsStore getBodyMetricsStore() {
+        if (bodyMetricsStore == null) {
+            bodyMetricsStore = new BodyMetricsStore(getDatabase());
+        }
+        return bodyMetricsStore;
+    }
+
+    /**
+     * Get the in-memory exercise index used for combined filters
+     * @return Shared ExerciseCatalog
+     */
+    public synchronized ExerciseCatalog getExerciseCatalog() {
+        if (exerciseCatalog == null) {
+            exerciseCatalog = new ExerciseCatalog(getDatabase());
+        }
+        return exerciseCatalog;
+    }
+
+    /**
+     * Get the instruction steps of the cached exercises
+     * @return Shared ExerciseStepStore
+     */
+    public synchronized ExerciseStepStore getExerciseStepStore() {
+        if (exerciseStepStore == null) {
+            exerciseStepStore = new ExerciseStepStore(getDatabase());
+        }
+        return exerciseStepStore;
+    }
+
+    /**
+     * Get the backup archive of the profile, logs and cached catalog
+     * @return Shared UserDataArchive
+     */
+    public synchronized UserDataArchive getUserDataArchive() {
+        if (userDataArchive == null) {
+            userDataArchive = new UserDataArchive(appContext, getDatabase(), getProfileStore());
+        }
+        return userDataArchive;
+    }
+
+    /**
+     * Get the precomputed similar exercises
+     * @return Shared SimilarExerciseStore
+     */
+    public synchronized SimilarExerciseStore getSimilarExerciseStore() {
+        if (similarExerciseStore == null) {
+            similarExerciseStore = new SimilarExerciseStore(getDatabase());
+        }
+        return similarExerciseStore;
+    }
+
+    /**
+     * Get the ExerciseDB API key, resolved once per process
+     * @return API key, empty if none is configured
+     */
+    public String getExerciseDbApiKey() {
+        ApiConfig.initialize(appContext);
+        return ApiConfig.EXERCISE_DB_API_KEY;
+    }
+
+    /**
+     * Get the circuit breaker of the API hosts, to skip a host that is down
+     * @return Shared CircuitBreaker
+     */
+    public CircuitBreaker getCircuitBreaker() {
+        return ApiClient.getCircuitBreaker();
+    }
+
+    /**
+     * Get the call budget of ExerciseDB, with its persisted counters loaded
+     * @return Shared RequestBudget
+     */
+    public RequestBudget getExerciseDbBudget() {
+        RequestBudget budget = ApiClient.getExerciseDbBudget();
+        budget.attach(appContext);
+        return budget;
+    }
+
+    /**
+     * Check whether ExerciseDB should be called at all right now. The
+     * first call reads the API config and the budget's counters from disk.
+     * @return False if no API key is configured, its circuit is open or
+     * the budget for user-visible calls is used up
+     */
+    @WorkerThread
+    public boolean isExerciseDbAvailable() {
+        String apiKey = getExerciseDbApiKey();
+        return apiKey != null && !apiKey.isEmpty()
+                && getCircuitBreaker().allowsRequests(Constants.EXERCISE_DB_HOST_VALUE)
+                && getExerciseDbBudget().allowsRequests(RequestBudget.Priority.INTERACTIVE);
+    }
+
+    /**
+     * Get the ExerciseDB API service
+     * @return Shared ExerciseDbService
+     */
+    public ExerciseDbService getExerciseDbService() {
+        return ApiClient.getExerciseDbService();
+    }
+
+    /**
+     * Get the Wger API service
+     * @return Shared WgerService
+     */
+    public WgerService getWgerService() {
+        return ApiClient.getWgerService();
+    }
+
+    /**
+     * Create a fetcher searching ExerciseDB and Wger together. Each screen
+     * gets its own, since a fetcher tracks its search in progress.
+     * @return New MultiSourceExerciseFetcher
+     */
+    public MultiSourceExerciseFetcher newExerciseFetcher() {
+        return new MultiSourceExerciseFetcher(getExerciseDbService(), getWgerService(),
+                getExerciseDbApiKey(), getDatabase());
+    }
+
+    /**
+     * Get the Open Food Facts API service
+     * @return Shared OpenFoodFactsService
+     */
+    public OpenFoodFactsService getOpenFoodFactsService() {
+        return ApiClient.getOpenFoodFactsService();
+    }
+
+    /**
+     * Create the expensive services in the background so the first screen
+     * that needs them finds them ready. Only the first call has an effect.
+     */
+    public void warmUp() {
+        synchronized (this) {
+            if (warmUpStarted) {
+                return;
+            }
+            warmUpStarted = true;
+        }
+
+        executors.diskIO().execute(() -> {
+            // Opening runs onCreate/onUpgrade, including seeding on first launch
+            getDatabase().getWritableDatabase();
+            getProfileStore().getProfile();
+            getExerciseDbBudget();
+            getSimilarExerciseStore().refreshIfEmpty();
+            getSeedCatalog();
+            SeedCatalog.deleteLegacyDatabase(appContext);
+            Log.d(TAG, "Databases warmed up");
+        });
+
+        executors.networkIO().execute(() -> {
+            getExerciseDbApiKey();
+            getExerciseDbService();
+            getWgerService();
+            getOpenFoodFactsService();
+            Log.d(TAG, "API clients warmed up");
+        });
+    }
+}
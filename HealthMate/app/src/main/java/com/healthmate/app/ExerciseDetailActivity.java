@@ -10,23 +10,16 @@ import android.widget.Toast;
 
 import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.bumptech.glide.Glide;
-import com.healthmate.app.api.ApiClient;
-import com.healthmate.app.api.ExerciseDbService;
-import com.healthmate.app.db.DatabaseHelper;
 import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.SimilarExercise;
 import com.healthmate.app.model.api.ApiExerciseList;
-import com.healthmate.app.util.ApiConfig;
-import com.healthmate.app.util.Constants;
+import com.healthmate.app.viewmodel.ExerciseDetailViewModel;
 
-import java.util.ArrayList;
 import java.util.List;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 /**
  * Activity for displaying detailed exercise information
  */
@@ -41,11 +34,12 @@ public class ExerciseDetailActivity extends AppCompatActivity {
     private TextView tvEquipment;
     private TextView tvInstructions;
     private TextView tvSecondaryMuscles;
+    private TextView tvSimilarLabel;
+    private TextView tvSimilarExercises;
     private View loadingIndicator;
 
     // Data
-    private String exerciseId;
-    private DatabaseHelper dbHelper;
+    private ExerciseDetailViewModel viewModel;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -58,8 +52,8 @@ public class ExerciseDetailActivity extends AppCompatActivity {
             getSupportActionBar().setTitle(R.string.exercise_detail_title);
         }
 
-        // Initialize database helper
-        dbHelper = new DatabaseHelper(this);
+        // The view model keeps the loaded exercise across rotation
+        viewModel = new ViewModelProvider(this).get(ExerciseDetailViewModel.class);
 
         // Initialize views
         initViews();
@@ -67,8 +61,15 @@ public class ExerciseDetailActivity extends AppCompatActivity {
         // Get exercise ID from intent
         Intent intent = getIntent();
         if (intent != null && intent.hasExtra("exercise_id")) {
-            exerciseId = intent.getStringExtra("exercise_id");
-            loadExerciseDetails(exerciseId);
+            viewModel.getState().observe(this, this::render);
+            viewModel.getSimilarExercises().observe(this, this::displaySimilarExercises);
+            viewModel.getMessage().observe(this, message -> {
+                if (message != null) {
+                    Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+                    viewModel.onMessageShown();
+                }
+            });
+            viewModel.load(intent.getStringExtra("exercise_id"));
         } else {
             Toast.makeText(this, "Error: No exercise ID provided", Toast.LENGTH_SHORT).show();
             finish();
@@ -83,122 +84,59 @@ public class ExerciseDetailActivity extends AppCompatActivity {
         tvEquipment = findViewById(R.id.tv_exercise_detail_equipment);
         tvInstructions = findViewById(R.id.tv_exercise_detail_instructions);
         tvSecondaryMuscles = findViewById(R.id.tv_exercise_detail_secondary_muscles);
+        tvSimilarLabel = findViewById(R.id.tv_detail_similar_label);
+        tvSimilarExercises = findViewById(R.id.tv_exercise_detail_similar);
         loadingIndicator = findViewById(R.id.loading_indicator);
     }
 
-    private void loadExerciseDetails(String exerciseId) {
-        showLoading(true);
+    private void render(ExerciseDetailViewModel.ExerciseDetailState state) {
+        showLoading(state.isLoading());
 
-        // Try to get from API first
-        String apiKey = ApiConfig.EXERCISE_DB_API_KEY;
-        if (apiKey != null && !apiKey.isEmpty()) {
-            loadExerciseFromApi(exerciseId, apiKey);
-        } else {
-            // If no API key, fall back to local database
-            loadExerciseFromDatabase(exerciseId);
+        if (state.getApiExercise() != null) {
+            displayExerciseDetail(state.getApiExercise());
+        } else if (state.getLocalExercise() != null) {
+            displayExerciseFromLocalModel(state.getLocalExercise());
+        } else if (state.isNotFound()) {
+            Toast.makeText(this, "Exercise not found in local database", Toast.LENGTH_SHORT).show();
+            finish();
         }
     }
 
-    private void loadExerciseFromApi(String exerciseId, String apiKey) {
-        ExerciseDbService service = ApiClient.getExerciseDbService();
-        Call<ApiExerciseList.ApiExerciseItem> call = service.getExerciseById(
-                exerciseId,
-                apiKey,
-                Constants.EXERCISE_DB_HOST_VALUE);
-
-        call.enqueue(new Callback<ApiExerciseList.ApiExerciseItem>() {
-            @Override
-            public void onResponse(Call<ApiExerciseList.ApiExerciseItem> call, Response<ApiExerciseList.ApiExerciseItem> response) {
-                showLoading(false);
-
-                if (response.isSuccessful() && response.body() != null) {
-                    displayExerciseDetail(response.body());
-                } else {
-                    Toast.makeText(ExerciseDetailActivity.this,
-                            "Error loading from API: " + response.code(), Toast.LENGTH_SHORT).show();
-                    // Fall back to local database
-                    loadExerciseFromDatabase(exerciseId);
-                }
-            }
-
-            @Override
-            public void onFailure(Call<ApiExerciseList.ApiExerciseItem> call, Throwable t) {
-                showLoading(false);
-                Toast.makeText(ExerciseDetailActivity.this,
-                        "Failed to load exercise details: " + t.getMessage(), Toast.LENGTH_SHORT).show();
-                // Fall back to local database
-                loadExerciseFromDatabase(exerciseId);
-            }
-        });
+    private void displayExerciseDetail(ApiExerciseList.ApiExerciseItem exercise) {
+        displayExercise(exercise.getName(), exercise.getBodyPart(), exercise.getTarget(),
+                exercise.getEquipment(), exercise.getInstructions(), exercise.getSecondaryMuscles(),
+                exercise.getGifUrl());
     }
 
-    private void loadExerciseFromDatabase(String exerciseId) {
-        // This is a simplified example; in a real app, you would query the database by ID
-        List<Exercise> allExercises = dbHelper.getAllExercises();
-        Exercise foundExercise = null;
-
-        for (Exercise exercise : allExercises) {
-            if (exercise.getId().equals(exerciseId)) {
-                foundExercise = exercise;
-                break;
-            }
-        }
-
-        if (foundExercise != null) {
-            displayExerciseFromLocalModel(foundExercise);
-        } else {
-            Toast.makeText(this, "Exercise not found in local database", Toast.LENGTH_SHORT).show();
-            finish();
-        }
+    private void displayExerciseFromLocalModel(Exercise exercise) {
+        // The view model loaded the stored steps, seeded exercises have no target, equipment or gif
+        displayExercise(exercise.getName(), exercise.getBodyPart(), exercise.getTarget(),
+                exercise.getEquipment(), exercise.getSteps(), exercise.getSecondaryMuscles(),
+                exercise.getGifUrl());
     }
 
-    private void displayExerciseDetail(ApiExerciseList.ApiExerciseItem exercise) {
+    private void displayExercise(String name, String bodyPart, String target, String equipment,
+                                 List<String> steps, List<String> secondaryMuscles, String gifUrl) {
         // Set exercise name with capitalization
-        String name = exercise.getName();
-        if (name != null) {
-            tvExerciseName.setText(name.substring(0, 1).toUpperCase() + name.substring(1));
-        }
+        tvExerciseName.setText(capitalize(name, ""));
 
         // Set body part
-        String bodyPart = exercise.getBodyPart();
-        if (bodyPart != null) {
-            tvBodyPart.setText(bodyPart.substring(0, 1).toUpperCase() + bodyPart.substring(1));
-        }
+        tvBodyPart.setText(capitalize(bodyPart, ""));
 
         // Set target muscle
-        String target = exercise.getTarget();
-        if (target != null) {
-            tvTarget.setText(target.substring(0, 1).toUpperCase() + target.substring(1));
-        }
+        tvTarget.setText(capitalize(target, getString(R.string.various_muscles)));
 
         // Set equipment
-        String equipment = exercise.getEquipment();
-        if (equipment != null) {
-            tvEquipment.setText(equipment.substring(0, 1).toUpperCase() + equipment.substring(1));
-        }
+        tvEquipment.setText(capitalize(equipment, getString(R.string.no_equipment)));
 
         // Set instructions
-        List<String> instructions = exercise.getInstructions();
-        if (instructions != null && !instructions.isEmpty()) {
-            StringBuilder formattedInstructions = new StringBuilder();
-            for (int i = 0; i < instructions.size(); i++) {
-                formattedInstructions.append(i + 1).append(". ").append(instructions.get(i));
-                if (i < instructions.size() - 1) {
-                    formattedInstructions.append("\n\n");
-                }
-            }
-            tvInstructions.setText(formattedInstructions.toString());
-        } else {
-            tvInstructions.setText("No instructions available.");
-        }
+        displaySteps(steps);
 
         // Set secondary muscles
-        List<String> secondaryMuscles = exercise.getSecondaryMuscles();
         if (secondaryMuscles != null && !secondaryMuscles.isEmpty()) {
             StringBuilder muscles = new StringBuilder();
             for (int i = 0; i < secondaryMuscles.size(); i++) {
-                String muscle = secondaryMuscles.get(i);
-                muscles.append(muscle.substring(0, 1).toUpperCase()).append(muscle.substring(1));
+                muscles.append(capitalize(secondaryMuscles.get(i), ""));
                 if (i < secondaryMuscles.size() - 1) {
                     muscles.append(", ");
                 }
@@ -210,9 +148,9 @@ public class ExerciseDetailActivity extends AppCompatActivity {
         }
 
         // Load the exercise gif if available
-        if (exercise.getGifUrl() != null && !exercise.getGifUrl().isEmpty()) {
+        if (gifUrl != null && !gifUrl.isEmpty()) {
             Glide.with(this)
-                    .load(exercise.getGifUrl())
+                    .load(gifUrl)
                     .centerCrop()
                     .placeholder(R.drawable.ic_launcher_foreground)
                     .into(ivExerciseImage);
@@ -222,27 +160,50 @@ public class ExerciseDetailActivity extends AppCompatActivity {
         }
     }
 
-    private void displayExerciseFromLocalModel(Exercise exercise) {
-        // Set name
-        tvExerciseName.setText(exercise.getName());
-
-        // Set body part
-        tvBodyPart.setText(exercise.getBodyPart());
-
-        // Set target (use body part as default)
-        tvTarget.setText(exercise.getBodyPart());
-
-        // Set equipment (not available in local model)
-        tvEquipment.setText("Body weight");
+    private static String capitalize(String text, String fallback) {
+        if (text == null || text.isEmpty()) {
+            return fallback;
+        }
+        return text.substring(0, 1).toUpperCase() + text.substring(1);
+    }
 
-        // Set instructions
-        tvInstructions.setText(exercise.getInstructions());
+    private void displaySteps(List<String> steps) {
+        // Steps are stored without numbers, they are numbered only here
+        if (steps != null && !steps.isEmpty()) {
+            StringBuilder formattedSteps = new StringBuilder();
+            for (int i = 0; i < steps.size(); i++) {
+                formattedSteps.append(i + 1).append(". ").append(steps.get(i));
+                if (i < steps.size() - 1) {
+                    formattedSteps.append("\n\n");
+                }
+            }
+            tvInstructions.setText(formattedSteps.toString());
+        } else {
+            tvInstructions.setText("No instructions available.");
+        }
+    }
 
-        // Hide secondary muscles (not available in local model)
-        tvSecondaryMuscles.setVisibility(View.GONE);
+    private void displaySimilarExercises(List<SimilarExercise> similarExercises) {
+        if (similarExercises == null || similarExercises.isEmpty()) {
+            tvSimilarLabel.setVisibility(View.GONE);
+            tvSimilarExercises.setVisibility(View.GONE);
+            return;
+        }
 
-        // No image available for local model
-        ivExerciseImage.setVisibility(View.GONE);
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < similarExercises.size(); i++) {
+            String name = similarExercises.get(i).getName();
+            if (name == null || name.isEmpty()) {
+                continue;
+            }
+            if (names.length() > 0) {
+                names.append("\n");
+            }
+            names.append("\u2022 ").append(name.substring(0, 1).toUpperCase()).append(name.substring(1));
+        }
+        tvSimilarExercises.setText(names.toString());
+        tvSimilarLabel.setVisibility(View.VISIBLE);
+        tvSimilarExercises.setVisibility(View.VISIBLE);
     }
 
     private void showLoading(boolean show) {
@@ -258,12 +219,4 @@ public class ExerciseDetailActivity extends AppCompatActivity {
         }
         return super.onOptionsItemSelected(item);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
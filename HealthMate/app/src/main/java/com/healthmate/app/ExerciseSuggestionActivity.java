@@ -1,83 +1,114 @@
 package com.healthmate.app;
 
 import android.os.Bundle;
-import android.util.Log;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
+import android.view.inputmethod.EditorInfo;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
+import com.google.android.material.chip.Chip;
+import com.google.android.material.chip.ChipGroup;
 import com.healthmate.app.adapter.ExerciseAdapter;
-import com.healthmate.app.api.ApiClient;
-import com.healthmate.app.api.ExerciseDbService;
-import com.healthmate.app.db.DatabaseHelper;
-import com.healthmate.app.model.Exercise;
-import com.healthmate.app.model.api.ApiExerciseList;
-import com.healthmate.app.util.ApiConfig;
-import com.healthmate.app.util.Constants;
+import com.healthmate.app.db.ExerciseCatalog;
+import com.healthmate.app.model.BodyPart;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.viewmodel.ExerciseListViewModel;
+import com.healthmate.app.viewmodel.ExerciseListViewModel.ExerciseListState;
+import com.healthmate.app.viewmodel.ExerciseListViewModel.RefinementState;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
-
 public class ExerciseSuggestionActivity extends AppCompatActivity {
-    private static final String TAG = "ExerciseSuggestion";
-    
     private RecyclerView rvExercises;
     private ProgressBar progressBar;
     private TextView tvNoExercises;
+    private EditText etSearch;
     private Button btnAbs, btnArms, btnChest, btnBack, btnLegs, btnFullBody;
     private Map<Button, String> bodyPartMap = new HashMap<>();
-    private Map<String, String> apiToAppBodyPartMap = new HashMap<>();
+    private Map<Button, CharSequence> bodyPartLabels = new HashMap<>();
+    private Map<ExerciseCatalog.Attribute, ChipGroup> refinementGroups =
+            new EnumMap<>(ExerciseCatalog.Attribute.class);
     private ExerciseAdapter adapter;
-    private DatabaseHelper dbHelper;
+    private ExerciseListViewModel viewModel;
+    
+    // Load generation and row count currently shown by the adapter
+    private int renderedGeneration = -1;
+    private int renderedCount = 0;
     
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_exercise_suggestion);
         
-        // Initialize database helper
-        dbHelper = new DatabaseHelper(this);
-        
-        // Initialize API configuration
-        ApiConfig.initialize(getApplicationContext());
+        // The view model keeps loaded rows and the running stream across rotation
+        viewModel = new ViewModelProvider(this).get(ExerciseListViewModel.class);
         
         // Initialize views
         rvExercises = findViewById(R.id.rvExercises);
         progressBar = findViewById(R.id.progressBar);
         tvNoExercises = findViewById(R.id.tvNoExercises);
+        etSearch = findViewById(R.id.etSearch);
+        
+        // Search saved exercises as the user types
+        etSearch.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+            
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+            
+            @Override
+            public void afterTextChanged(Editable s) {
+                viewModel.search(s.toString());
+            }
+        });
         
-        // Set up body part to API mapping
-        setupBodyPartMapping();
+        // Submitting the search also asks the online sources
+        etSearch.setOnEditorActionListener((v, actionId, event) -> {
+            if (actionId == EditorInfo.IME_ACTION_SEARCH) {
+                viewModel.submitSearch(v.getText().toString());
+                return true;
+            }
+            return false;
+        });
         
         // Set up body part buttons
         setupBodyPartButtons();
         
+        // Chip rows for narrowing the list down
+        refinementGroups.put(ExerciseCatalog.Attribute.TARGET, findViewById(R.id.chipsTarget));
+        refinementGroups.put(ExerciseCatalog.Attribute.EQUIPMENT, findViewById(R.id.chipsEquipment));
+        refinementGroups.put(ExerciseCatalog.Attribute.DIFFICULTY, findViewById(R.id.chipsDifficulty));
+        
         // Set up RecyclerView
         rvExercises.setLayoutManager(new LinearLayoutManager(this));
         adapter = new ExerciseAdapter(new ArrayList<>());
         rvExercises.setAdapter(adapter);
-    }
-    
-    private void setupBodyPartMapping() {
-        // Map our app's body parts to API body parts
-        apiToAppBodyPartMap.put("abs", Constants.BODY_PART_ABS);
-        apiToAppBodyPartMap.put("arms", Constants.BODY_PART_ARMS);
-        apiToAppBodyPartMap.put("back", Constants.BODY_PART_BACK);
-        apiToAppBodyPartMap.put("chest", Constants.BODY_PART_CHEST);
-        apiToAppBodyPartMap.put("legs", Constants.BODY_PART_LEGS);
-        apiToAppBodyPartMap.put("full body", Constants.BODY_PART_FULL_BODY);
+        
+        viewModel.getState().observe(this, this::render);
+        viewModel.getRefinements().observe(this, this::renderRefinements);
+        viewModel.getMessage().observe(this, message -> {
+            if (message != null) {
+                Toast.makeText(this, getString(message), Toast.LENGTH_SHORT).show();
+                viewModel.onMessageShown();
+            }
+        });
     }
     
     private void setupBodyPartButtons() {
@@ -98,121 +129,90 @@ public class ExerciseSuggestionActivity extends AppCompatActivity {
         
         // Set up click listeners for all body part buttons
         for (Button button : bodyPartMap.keySet()) {
+            bodyPartLabels.put(button, button.getText());
             button.setOnClickListener(v -> {
-                String bodyPart = bodyPartMap.get(button);
-                loadExercisesByBodyPart(bodyPart);
-                
-                // Reset all buttons to outline style then highlight the selected one
-                for (Button b : bodyPartMap.keySet()) {
-                    b.setBackgroundResource(android.R.color.transparent);
-                    b.setTextColor(getResources().getColor(R.color.colorPrimary));
-                }
-                button.setBackgroundResource(R.color.colorPrimary);
-                button.setTextColor(getResources().getColor(android.R.color.white));
+                viewModel.selectBodyPart(bodyPartMap.get(button));
+                // The body part replaces the search
+                etSearch.setText("");
             });
         }
     }
     
-    private void loadExercisesByBodyPart(String bodyPart) {
-        showLoading();
-        Log.d(TAG, "Loading exercises for body part: " + bodyPart);
+    private void render(ExerciseListState state) {
+        highlightBodyPart(state.getBodyPart());
         
-        // Use the RapidAPI key
-        String apiKey = ApiConfig.EXERCISE_DB_API_KEY;
-        
-        if (apiKey == null || apiKey.isEmpty()) {
-            Log.w(TAG, "API key not found, falling back to local database");
-            loadExercisesFromLocalDatabase(bodyPart);
-            return;
+        if (state.isLoading()) {
+            showLoading();
+        } else if (state.isEmpty()) {
+            hideLoading();
+            showNoExercises();
+        } else if (state.getBodyPart() != null || state.getQuery() != null) {
+            hideLoading();
+            showExercises();
         }
         
-        ExerciseDbService service = ApiClient.getExerciseDbService();
-        Call<ApiExerciseList> call = service.getExercisesByBodyPart(
-                bodyPart,
-                apiKey,
-                Constants.EXERCISE_DB_HOST_VALUE);
-        
-        call.enqueue(new Callback<ApiExerciseList>() {
-            @Override
-            public void onResponse(Call<ApiExerciseList> call, Response<ApiExerciseList> response) {
-                hideLoading();
-                
-                if (response.isSuccessful() && response.body() != null) {
-                    ApiExerciseList exercises = response.body();
-                    if (exercises.isEmpty()) {
-                        Log.d(TAG, "API returned empty exercise list, falling back to local database");
-                        loadExercisesFromLocalDatabase(bodyPart);
-                    } else {
-                        Log.d(TAG, "Successfully loaded " + exercises.size() + " exercises from API");
-                        showExercises();
-                        adapter.updateExercises(exercises);
-                    }
-                } else {
-                    Log.w(TAG, "API request failed with code: " + (response.code()));
-                    Toast.makeText(ExerciseSuggestionActivity.this, 
-                            getString(R.string.error_loading_exercises), Toast.LENGTH_SHORT).show();
-                    loadExercisesFromLocalDatabase(bodyPart);
-                }
+        List<ExerciseSummary> exercises = state.getExercises();
+        if (state.getGeneration() == renderedGeneration && !state.replacesRows()
+                && exercises.size() >= renderedCount) {
+            // Same load, only hand the new tail to the adapter
+            if (exercises.size() > renderedCount) {
+                adapter.appendExercises(exercises.subList(renderedCount, exercises.size()));
             }
-            
-            @Override
-            public void onFailure(Call<ApiExerciseList> call, Throwable t) {
-                hideLoading();
-                Log.e(TAG, "API request failed: " + t.getMessage(), t);
-                Toast.makeText(ExerciseSuggestionActivity.this, 
-                        getString(R.string.error_loading_exercises), Toast.LENGTH_SHORT).show();
-                loadExercisesFromLocalDatabase(bodyPart);
-            }
-        });
-    }
-    
-    private void loadExercisesFromLocalDatabase(String apiBodyPart) {
-        String appBodyPart = apiToAppBodyPartMap.get(apiBodyPart);
-        if (appBodyPart == null) {
-            // If mapping not found, use the default
-            appBodyPart = Constants.BODY_PART_FULL_BODY;
-        }
-        
-        Log.d(TAG, "Loading exercises from local database for body part: " + appBodyPart);
-        
-        // Get exercises from local database
-        List<Exercise> exercises = dbHelper.getExercisesByBodyPart(appBodyPart);
-        
-        if (exercises.isEmpty()) {
-            showNoExercises();
-            Log.d(TAG, "No exercises found in local database");
         } else {
-            showExercises();
-            // Convert from local model to API model for display
-            ApiExerciseList apiExercises = convertToApiExerciseList(exercises);
-            adapter.updateExercises(apiExercises);
-            Log.d(TAG, "Successfully loaded " + exercises.size() + " exercises from local database");
+            adapter.updateExercises(exercises);
         }
+        renderedGeneration = state.getGeneration();
+        renderedCount = exercises.size();
     }
     
-    private ApiExerciseList convertToApiExerciseList(List<Exercise> exercises) {
-        ApiExerciseList apiExercises = new ApiExerciseList();
+    private void renderRefinements(RefinementState refinements) {
+        // Body parts show how many exercises the picked chips leave in each
+        Map<String, Integer> bodyPartCounts = refinements.getCounts(ExerciseCatalog.Attribute.BODY_PART);
+        for (Map.Entry<Button, String> entry : bodyPartMap.entrySet()) {
+            Button button = entry.getKey();
+            CharSequence label = bodyPartLabels.get(button);
+            Integer count = bodyPartCounts.get(BodyPart.fromLabel(entry.getValue()).getLabel().toLowerCase());
+            button.setText(count != null ? getString(R.string.facet_count, label, count) : label);
+        }
         
-        for (Exercise exercise : exercises) {
-            ApiExerciseList.ApiExerciseItem apiExercise = new ApiExerciseList.ApiExerciseItem();
-            apiExercise.setId(exercise.getId());
-            apiExercise.setName(exercise.getName());
-            apiExercise.setBodyPart(exercise.getBodyPart());
-            apiExercise.setEquipment("Body weight"); // Default equipment
-            apiExercise.setTarget(exercise.getBodyPart()); // Use body part as target
+        for (Map.Entry<ExerciseCatalog.Attribute, ChipGroup> entry : refinementGroups.entrySet()) {
+            ExerciseCatalog.Attribute attribute = entry.getKey();
+            ChipGroup group = entry.getValue();
+            group.removeAllViews();
             
-            // Create a list of instructions from the instructions string
-            List<String> instructionsList = new ArrayList<>();
-            String[] instructions = exercise.getInstructions().split("\n");
-            for (String instruction : instructions) {
-                instructionsList.add(instruction);
+            for (Map.Entry<String, Integer> value : refinements.getCounts(attribute).entrySet()) {
+                String name = value.getKey();
+                boolean checked = refinements.isSelected(attribute, name);
+                if (value.getValue() == 0 && !checked) {
+                    // Picking it would leave nothing to show
+                    continue;
+                }
+                Chip chip = new Chip(this);
+                chip.setText(getString(R.string.facet_count,
+                        name.substring(0, 1).toUpperCase() + name.substring(1), value.getValue()));
+                chip.setCheckable(true);
+                chip.setChecked(checked);
+                chip.setOnClickListener(v -> viewModel.toggleRefinement(attribute, name));
+                group.addView(chip);
             }
-            apiExercise.setInstructions(instructionsList);
             
-            apiExercises.add(apiExercise);
+            // Hide the whole row while it has no chips
+            ((View) group.getParent()).setVisibility(group.getChildCount() > 0 ? View.VISIBLE : View.GONE);
+        }
+    }
+    
+    private void highlightBodyPart(String bodyPart) {
+        // Reset all buttons to outline style then highlight the selected one
+        for (Map.Entry<Button, String> entry : bodyPartMap.entrySet()) {
+            Button button = entry.getKey();
+            if (entry.getValue().equals(bodyPart)) {
+                button.setBackgroundResource(R.color.colorPrimary);
+                button.setTextColor(getResources().getColor(android.R.color.white));
+            } else {
+                button.setBackgroundResource(android.R.color.transparent);
+                button.setTextColor(getResources().getColor(R.color.colorPrimary));
+            }
         }
-        
-        return apiExercises;
     }
     
     private void showLoading() {
@@ -234,13 +234,4 @@ public class ExerciseSuggestionActivity extends AppCompatActivity {
         rvExercises.setVisibility(View.GONE);
         tvNoExercises.setVisibility(View.VISIBLE);
     }
-    
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        // Close database connection
-        if (dbHelper != null) {
-            dbHelper.close();
-        }
-    }
 }
\ No newline at end of file
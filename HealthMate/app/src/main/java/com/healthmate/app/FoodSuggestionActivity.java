@@ -1,14 +1,90 @@
 package com.healthmate.app;
 
 import android.os.Bundle;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.healthmate.app.adapter.FoodAdapter;
+import com.healthmate.app.model.Food;
+import com.healthmate.app.util.MealPlanner;
+import com.healthmate.app.viewmodel.FoodPlanViewModel;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public class FoodSuggestionActivity extends AppCompatActivity {
+    private RecyclerView rvFoods;
+    private ProgressBar progressBar;
+    private TextView tvPlanSummary;
+    private TextView tvNoFoods;
+    private FoodAdapter adapter;
+    private FoodPlanViewModel viewModel;
+    
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_food_suggestion);
         
-        // This will be implemented later with the Open Food Facts API
+        // The view model keeps the meal plan across rotation
+        viewModel = new ViewModelProvider(this).get(FoodPlanViewModel.class);
+        
+        // Initialize views
+        rvFoods = findViewById(R.id.rvFoods);
+        progressBar = findViewById(R.id.progressBar);
+        tvPlanSummary = findViewById(R.id.tvPlanSummary);
+        tvNoFoods = findViewById(R.id.tvNoFoods);
+        
+        // Set up RecyclerView
+        rvFoods.setLayoutManager(new LinearLayoutManager(this));
+        adapter = new FoodAdapter(this, new ArrayList<>(), null);
+        rvFoods.setAdapter(adapter);
+        
+        progressBar.setVisibility(View.VISIBLE);
+        viewModel.getMealPlan().observe(this, plan -> {
+            if (plan != null) {
+                showMealPlan(plan);
+            }
+        });
+    }
+    
+    private void showMealPlan(MealPlanner.MealPlan plan) {
+        progressBar.setVisibility(View.GONE);
+        
+        tvPlanSummary.setText(getString(R.string.meal_plan_summary,
+                plan.getCalorieTarget(), plan.getCalories(),
+                plan.getProteins(), plan.getCarbs(), plan.getFats()));
+        
+        if (plan.isEmpty()) {
+            rvFoods.setVisibility(View.GONE);
+            tvNoFoods.setVisibility(View.VISIBLE);
+            return;
+        }
+        
+        // Show each food scaled to its planned number of servings
+        List<Food> planned = new ArrayList<>();
+        for (int i = 0; i < plan.getFoods().size(); i++) {
+            planned.add(scale(plan.getFoods().get(i), plan.getServings().get(i)));
+        }
+        
+        rvFoods.setVisibility(View.VISIBLE);
+        tvNoFoods.setVisibility(View.GONE);
+        adapter.updateData(planned);
+    }
+    
+    private static Food scale(Food food, int servings) {
+        return new Food(food.getId(), food.getName(),
+                food.getCalories() * servings,
+                food.getProteins() * servings,
+                food.getCarbs() * servings,
+                food.getFats() * servings,
+                food.getFiber() * servings,
+                food.getBaseAmount() * servings,
+                food.getUnit(), food.getCategory(), food.getCuisine());
     }
-}
\ No newline at end of file
+}
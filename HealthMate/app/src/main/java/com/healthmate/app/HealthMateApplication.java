@@ -0,0 +1,32 @@
+package com.healthmate.app;
+
+import android.app.Application;
+
+import com.healthmate.app.util.StartupTracer;
+
+/**
+ * Application class for process-wide setup
+ */
+public class HealthMateApplication extends Application {
+    
+    private AppContainer container;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        
+        // Time activity launches as early as possible
+        StartupTracer.install(this);
+        
+        // Services are created lazily, warmUp() is triggered after the first frame
+        container = new AppContainer(this);
+    }
+    
+    /**
+     * Get the application-scoped service container
+     * @return Shared AppContainer
+     */
+    public AppContainer getContainer() {
+        return container;
+    }
+}
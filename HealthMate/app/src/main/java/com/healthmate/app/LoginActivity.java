@@ -2,25 +2,35 @@ package com.healthmate.app;
 
 import androidx.appcompat.app.AppCompatActivity;
 import android.content.Intent;
-import android.content.SharedPreferences;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.Button;
 import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import com.google.android.material.textfield.TextInputLayout;
+import com.healthmate.app.db.ProfileStore;
 import com.healthmate.app.model.User;
 import com.healthmate.app.util.BMICalculator;
 import com.healthmate.app.util.Constants;
 
 public class LoginActivity extends AppCompatActivity {
 
+    // Profile values of the diet_options and cuisine_options entries, null for any
+    private static final String[] DIET_VALUES = {
+            null, Constants.CATEGORY_VEGETARIAN, Constants.CATEGORY_VEGAN
+    };
+    private static final String[] CUISINE_VALUES = {
+            null, "Chinese", "Indian", "International", "Italian", "Japanese", "Western"
+    };
+
     // UI Elements
     private TextInputLayout nameInputLayout, ageInputLayout, heightInputLayout, weightInputLayout;
     private EditText nameEditText, ageEditText, heightEditText, weightEditText;
+    private Spinner dietSpinner, cuisineSpinner;
     private Button calculateBmiButton;
     private TextView bmiResultTextView, bmiCategoryTextView;
     private Button proceedButton;
@@ -28,16 +38,16 @@ public class LoginActivity extends AppCompatActivity {
     // User data
     private User user;
     
-    // Shared preferences to save user data
-    private SharedPreferences preferences;
+    // Store the user profile is saved to
+    private ProfileStore profileStore;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_login);
         
-        // Initialize shared preferences
-        preferences = getSharedPreferences(Constants.PREFS_NAME, MODE_PRIVATE);
+        // Initialize profile store
+        profileStore = AppContainer.from(this).getProfileStore();
         
         // Initialize UI elements
         initializeViews();
@@ -63,6 +73,9 @@ public class LoginActivity extends AppCompatActivity {
         heightEditText = findViewById(R.id.heightEditText);
         weightEditText = findViewById(R.id.weightEditText);
         
+        dietSpinner = findViewById(R.id.dietSpinner);
+        cuisineSpinner = findViewById(R.id.cuisineSpinner);
+        
         calculateBmiButton = findViewById(R.id.calculateBmiButton);
         bmiResultTextView = findViewById(R.id.bmiResultTextView);
         bmiCategoryTextView = findViewById(R.id.bmiCategoryTextView);
@@ -97,40 +110,56 @@ public class LoginActivity extends AppCompatActivity {
     }
     
     /**
-     * Load user data from shared preferences if available
+     * Load the saved profile, if any, without blocking the UI thread
      */
     private void loadUserData() {
-        String name = preferences.getString(Constants.KEY_NAME, "");
-        int age = preferences.getInt(Constants.KEY_AGE, 0);
-        float height = preferences.getFloat(Constants.KEY_HEIGHT, 0);
-        float weight = preferences.getFloat(Constants.KEY_WEIGHT, 0);
-        
-        if (!TextUtils.isEmpty(name) && age > 0 && height > 0 && weight > 0) {
-            nameEditText.setText(name);
-            ageEditText.setText(String.valueOf(age));
-            heightEditText.setText(String.valueOf(height));
-            weightEditText.setText(String.valueOf(weight));
+        profileStore.loadProfile(profile -> {
+            if (profile == null || isFinishing() || user != null) {
+                // Nothing saved, or the user already calculated a new BMI
+                return;
+            }
             
-            user = new User(name, age, height, weight);
+            nameEditText.setText(profile.getName());
+            ageEditText.setText(String.valueOf(profile.getAge()));
+            heightEditText.setText(String.valueOf(profile.getHeight()));
+            weightEditText.setText(String.valueOf(profile.getWeight()));
+            dietSpinner.setSelection(indexOf(DIET_VALUES, profile.getDietCategory()));
+            cuisineSpinner.setSelection(indexOf(CUISINE_VALUES, profile.getCuisine()));
+            
+            user = profile;
             float bmi = user.getBmi();
             
             if (bmi > 0) {
                 displayBMI(bmi);
             }
-        }
+        });
     }
     
     /**
-     * Save user data to shared preferences
+     * Save user data to the profile store
      */
     private void saveUserData() {
-        SharedPreferences.Editor editor = preferences.edit();
-        editor.putString(Constants.KEY_NAME, user.getName());
-        editor.putInt(Constants.KEY_AGE, user.getAge());
-        editor.putFloat(Constants.KEY_HEIGHT, user.getHeight());
-        editor.putFloat(Constants.KEY_WEIGHT, user.getWeight());
-        editor.putFloat(Constants.KEY_BMI, user.getBmi());
-        editor.apply();
+        user.setDietCategory(DIET_VALUES[dietSpinner.getSelectedItemPosition()]);
+        user.setCuisine(CUISINE_VALUES[cuisineSpinner.getSelectedItemPosition()]);
+        profileStore.saveProfile(user);
+        
+        recordBodyMetrics(user);
+    }
+    
+    /**
+     * Append the saved weight to the body metrics history on a background thread
+     * @param user User whose measurements were saved
+     */
+    private void recordBodyMetrics(User user) {
+        final float height = user.getHeight();
+        final float weight = user.getWeight();
+        // The profile does not record gender, so use the lower of the two requirements
+        final int calorieTarget = BMICalculator.getDailyCalorieRequirement(user.getBmi(), user.getAge(), false);
+        final long measuredAt = System.currentTimeMillis();
+        final AppContainer container = AppContainer.from(this);
+        
+        container.getExecutors().diskIO().execute(() ->
+                container.getBodyMetricsStore().record(height, weight, calorieTarget, measuredAt));
     }
     
     /**
@@ -244,6 +273,21 @@ public class LoginActivity extends AppCompatActivity {
         proceedButton.setVisibility(View.VISIBLE);
     }
     
+    /**
+     * Find the spinner position of a saved preference
+     * @param values Preference values in spinner order
+     * @param value Saved value, null for any
+     * @return Position of the value, 0 (any) if it is not listed
+     */
+    private static int indexOf(String[] values, String value) {
+        for (int i = 1; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+    
     /**
      * Navigate to the Food Suggestion screen
      */
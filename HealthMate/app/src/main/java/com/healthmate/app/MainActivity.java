@@ -1,21 +1,54 @@
 package com.healthmate.app;
 
+import android.content.Context;
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.util.Log;
 import android.view.View;
 import android.widget.Button;
+import android.widget.Toast;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 
+import com.healthmate.app.db.UserDataArchive;
+import com.healthmate.app.util.StartupTracer;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
 public class MainActivity extends AppCompatActivity {
-    private Button btnFood, btnExercise;
+    private static final String TAG = "MainActivity";
+
+    // UserDataArchive works on a local file so it can resume, the file is
+    // copied to or from the document the user picks
+    private static final String BACKUP_FILE_NAME = "healthmate-backup.hmb";
+
+    private Button btnFood, btnExercise, btnWorkoutPlan, btnBackup, btnRestore;
+
+    private final ActivityResultLauncher<String> createBackup =
+            registerForActivityResult(new ActivityResultContracts.CreateDocument(), this::backUpTo);
+    private final ActivityResultLauncher<String[]> openBackup =
+            registerForActivityResult(new ActivityResultContracts.OpenDocument(), this::restoreFrom);
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        
+        // Prepare databases and API clients once the menu is on screen
+        StartupTracer.runAfterFirstFrame(this, () -> AppContainer.from(this).warmUp());
 
         btnFood = findViewById(R.id.btnFood);
         btnExercise = findViewById(R.id.btnExercise);
+        btnWorkoutPlan = findViewById(R.id.btnWorkoutPlan);
+        btnBackup = findViewById(R.id.btnBackup);
+        btnRestore = findViewById(R.id.btnRestore);
 
         btnFood.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -32,5 +65,128 @@ public class MainActivity extends AppCompatActivity {
                 startActivity(intent);
             }
         });
+
+        btnWorkoutPlan.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                Intent intent = new Intent(MainActivity.this, WorkoutPlanActivity.class);
+                startActivity(intent);
+            }
+        });
+
+        btnBackup.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                createBackup.launch(BACKUP_FILE_NAME);
+            }
+        });
+
+        btnRestore.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                openBackup.launch(new String[]{"*/*"});
+            }
+        });
+    }
+
+    /**
+     * Write a full archive and copy it to the document the user created
+     * @param uri Picked document, null if the picker was cancelled
+     */
+    private void backUpTo(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        final Context appContext = getApplicationContext();
+        final AppContainer container = AppContainer.from(this);
+        setBackupButtonsEnabled(false);
+
+        container.getExecutors().diskIO().execute(() -> {
+            File archive = new File(appContext.getFilesDir(), BACKUP_FILE_NAME);
+            String message;
+            try {
+                UserDataArchive.Result result = container.getUserDataArchive().exportTo(archive, false);
+                OutputStream document = appContext.getContentResolver().openOutputStream(uri);
+                copy(new FileInputStream(archive), document);
+                archive.delete();
+                message = appContext.getString(R.string.backup_done, result.getRowCount());
+            } catch (IOException | SecurityException e) {
+                // The archive is kept, the next backup resumes or rewrites it
+                Log.e(TAG, "Backup failed: " + e.getMessage(), e);
+                message = appContext.getString(R.string.backup_failed);
+            }
+            showBackupResult(container, message);
+        });
+    }
+
+    /**
+     * Copy the document the user opened to a local file and import it
+     * @param uri Picked document, null if the picker was cancelled
+     */
+    private void restoreFrom(Uri uri) {
+        if (uri == null) {
+            return;
+        }
+        final Context appContext = getApplicationContext();
+        final AppContainer container = AppContainer.from(this);
+        setBackupButtonsEnabled(false);
+
+        container.getExecutors().diskIO().execute(() -> {
+            // Same path every time, so restoring the same document again resumes the import
+            File archive = new File(appContext.getCacheDir(), BACKUP_FILE_NAME);
+            String message;
+            try {
+                copy(appContext.getContentResolver().openInputStream(uri), new FileOutputStream(archive));
+                UserDataArchive.Result result = container.getUserDataArchive().importFrom(archive);
+                archive.delete();
+                message = result.getSkippedCount() > 0
+                        ? appContext.getString(R.string.restore_done_skipped,
+                                result.getRowCount() - result.getSkippedCount(), result.getSkippedCount())
+                        : appContext.getString(R.string.restore_done, result.getRowCount());
+            } catch (IOException | SecurityException e) {
+                Log.e(TAG, "Restore failed: " + e.getMessage(), e);
+                message = appContext.getString(R.string.restore_failed);
+            }
+            showBackupResult(container, message);
+        });
+    }
+
+    private void showBackupResult(AppContainer container, String message) {
+        container.getExecutors().mainThread().execute(() -> {
+            Toast.makeText(getApplicationContext(), message, Toast.LENGTH_LONG).show();
+            if (!isFinishing()) {
+                setBackupButtonsEnabled(true);
+            }
+        });
+    }
+
+    private void setBackupButtonsEnabled(boolean enabled) {
+        btnBackup.setEnabled(enabled);
+        btnRestore.setEnabled(enabled);
+    }
+
+    /**
+     * Copy a stream to another and close both
+     * @throws IOException If either stream fails, or could not be opened
+     */
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        try {
+            if (in == null || out == null) {
+                throw new IOException("Backup document could not be opened");
+            }
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            out.flush();
+        } finally {
+            if (in != null) {
+                in.close();
+            }
+            if (out != null) {
+                out.close();
+            }
+        }
     }
 }
\ No newline at end of file
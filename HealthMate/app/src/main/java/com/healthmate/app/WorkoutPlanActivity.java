@@ -0,0 +1,97 @@
+package com.healthmate.app;
+
+import android.os.Bundle;
+import android.view.View;
+import android.widget.ProgressBar;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.healthmate.app.util.WorkoutPlanner;
+import com.healthmate.app.viewmodel.WorkoutPlanViewModel;
+
+public class WorkoutPlanActivity extends AppCompatActivity {
+    private TextView tvPlanSummary;
+    private TextView tvTrainingDays;
+    private TextView tvWeeklyPlan;
+    private SeekBar sbTrainingDays;
+    private ProgressBar progressBar;
+    private WorkoutPlanViewModel viewModel;
+    
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_workout_plan);
+        
+        // The view model keeps the plan and its memoized sessions across rotation
+        viewModel = new ViewModelProvider(this).get(WorkoutPlanViewModel.class);
+        
+        // Initialize views
+        tvPlanSummary = findViewById(R.id.tvPlanSummary);
+        tvTrainingDays = findViewById(R.id.tvTrainingDays);
+        tvWeeklyPlan = findViewById(R.id.tvWeeklyPlan);
+        sbTrainingDays = findViewById(R.id.sbTrainingDays);
+        progressBar = findViewById(R.id.progressBar);
+        
+        // The seek bar starts at 0, training days at 1
+        sbTrainingDays.setProgress(viewModel.getTrainingDays() - 1);
+        showTrainingDays(viewModel.getTrainingDays());
+        sbTrainingDays.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                showTrainingDays(progress + 1);
+                if (fromUser) {
+                    viewModel.setTrainingDays(progress + 1);
+                }
+            }
+            
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+            
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        });
+        
+        progressBar.setVisibility(View.VISIBLE);
+        viewModel.getWeeklyPlan().observe(this, plan -> {
+            if (plan != null) {
+                showWeeklyPlan(plan);
+            }
+        });
+    }
+    
+    private void showTrainingDays(int days) {
+        tvTrainingDays.setText(getString(R.string.training_days, days));
+    }
+    
+    private void showWeeklyPlan(WorkoutPlanner.WeeklyPlan plan) {
+        progressBar.setVisibility(View.GONE);
+        
+        tvPlanSummary.setText(getString(R.string.workout_plan_summary,
+                plan.getWeeklyTarget(), plan.getCalories(), plan.getDifficultyCap()));
+        
+        StringBuilder text = new StringBuilder();
+        for (WorkoutPlanner.WorkoutDay day : plan.getDays()) {
+            WorkoutPlanner.Session session = day.getSession();
+            String bodyPart = session.getBodyPart().getLabel();
+            if (text.length() > 0) {
+                text.append("\n\n");
+            }
+            if (session.isEmpty()) {
+                text.append(getString(R.string.workout_day_empty, day.getDayOfWeek() + 1, bodyPart));
+                continue;
+            }
+            text.append(getString(R.string.workout_day, day.getDayOfWeek() + 1, bodyPart,
+                    session.getTotalMinutes(), session.getCalories()));
+            for (int i = 0; i < session.getExercises().size(); i++) {
+                text.append('\n').append(getString(R.string.workout_exercise,
+                        session.getExercises().get(i).getName(), session.getMinutes().get(i)));
+            }
+        }
+        tvWeeklyPlan.setText(text);
+    }
+}
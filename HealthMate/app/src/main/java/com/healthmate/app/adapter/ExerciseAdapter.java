@@ -14,8 +14,10 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.healthmate.app.ExerciseDetailActivity;
 import com.healthmate.app.R;
-import com.healthmate.app.model.api.ApiExerciseList;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.util.StartupTracer;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -23,22 +25,23 @@ import java.util.List;
  */
 public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.ExerciseViewHolder> {
     
-    private List<ApiExerciseList.ApiExerciseItem> exerciseList;
+    private List<ExerciseSummary> exerciseList;
     private OnExerciseClickListener clickListener;
+    private boolean firstBindDone = false;
     
     /**
      * Interface for handling exercise item clicks
      */
     public interface OnExerciseClickListener {
-        void onExerciseClick(ApiExerciseList.ApiExerciseItem exercise);
+        void onExerciseClick(ExerciseSummary exercise);
     }
     
     /**
      * Constructor for ExerciseAdapter
      * @param exerciseList List of exercise items to display
      */
-    public ExerciseAdapter(List<ApiExerciseList.ApiExerciseItem> exerciseList) {
-        this.exerciseList = exerciseList;
+    public ExerciseAdapter(List<ExerciseSummary> exerciseList) {
+        this.exerciseList = new ArrayList<>(exerciseList);
     }
     
     /**
@@ -46,8 +49,8 @@ public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.Exerci
      * @param exerciseList List of exercise items to display
      * @param clickListener Listener for exercise clicks
      */
-    public ExerciseAdapter(List<ApiExerciseList.ApiExerciseItem> exerciseList, OnExerciseClickListener clickListener) {
-        this.exerciseList = exerciseList;
+    public ExerciseAdapter(List<ExerciseSummary> exerciseList, OnExerciseClickListener clickListener) {
+        this.exerciseList = new ArrayList<>(exerciseList);
         this.clickListener = clickListener;
     }
     
@@ -60,7 +63,22 @@ public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.Exerci
     
     @Override
     public void onBindViewHolder(@NonNull ExerciseViewHolder holder, int position) {
-        ApiExerciseList.ApiExerciseItem exercise = exerciseList.get(position);
+        if (!firstBindDone) {
+            // Trace the first bind, it includes one-off costs such as class loading
+            firstBindDone = true;
+            StartupTracer.beginSection("ExerciseAdapter.firstBind");
+            try {
+                bind(holder, position);
+            } finally {
+                StartupTracer.endSection();
+            }
+        } else {
+            bind(holder, position);
+        }
+    }
+    
+    private void bind(ExerciseViewHolder holder, int position) {
+        ExerciseSummary exercise = exerciseList.get(position);
         
         // Set exercise name with capitalization
         String name = exercise.getName();
@@ -122,7 +140,7 @@ public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.Exerci
      * @param context Context to use for starting activity
      * @param exercise The exercise to show details for
      */
-    private void openExerciseDetail(Context context, ApiExerciseList.ApiExerciseItem exercise) {
+    private void openExerciseDetail(Context context, ExerciseSummary exercise) {
         Intent intent = new Intent(context, ExerciseDetailActivity.class);
         intent.putExtra("exercise_id", exercise.getId());
         context.startActivity(intent);
@@ -137,11 +155,21 @@ public class ExerciseAdapter extends RecyclerView.Adapter<ExerciseAdapter.Exerci
      * Update the adapter's data
      * @param newExercises New list of exercise items
      */
-    public void updateExercises(ApiExerciseList newExercises) {
-        this.exerciseList = newExercises;
+    public void updateExercises(List<ExerciseSummary> newExercises) {
+        this.exerciseList = new ArrayList<>(newExercises);
         notifyDataSetChanged();
     }
     
+    /**
+     * Append a batch of exercise items, e.g. while a response is still streaming
+     * @param moreExercises Exercise items to add at the end of the list
+     */
+    public void appendExercises(List<ExerciseSummary> moreExercises) {
+        int start = exerciseList.size();
+        exerciseList.addAll(moreExercises);
+        notifyItemRangeInserted(start, moreExercises.size());
+    }
+    
     /**
      * Set click listener for exercise items
      * @param listener The click listener to set
@@ -11,6 +11,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.healthmate.app.R;
 import com.healthmate.app.model.Food;
+import com.healthmate.app.util.StartupTracer;
 
 import java.util.List;
 
@@ -22,6 +23,7 @@ public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder
     private List<Food> foodList;
     private Context context;
     private OnFoodItemClickListener listener;
+    private boolean firstBindDone = false;
     
     /**
      * Interface for handling food item clicks
@@ -51,6 +53,21 @@ public class FoodAdapter extends RecyclerView.Adapter<FoodAdapter.FoodViewHolder
     
     @Override
     public void onBindViewHolder(@NonNull FoodViewHolder holder, int position) {
+        if (!firstBindDone) {
+            // Trace the first bind, it includes one-off costs such as class loading
+            firstBindDone = true;
+            StartupTracer.beginSection("FoodAdapter.firstBind");
+            try {
+                bind(holder, position);
+            } finally {
+                StartupTracer.endSection();
+            }
+        } else {
+            bind(holder, position);
+        }
+    }
+    
+    private void bind(FoodViewHolder holder, int position) {
         Food food = foodList.get(position);
         
         holder.foodName.setText(food.getName());
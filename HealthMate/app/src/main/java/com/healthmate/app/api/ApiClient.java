@@ -1,6 +1,8 @@
 package com.healthmate.app.api;
 
+import com.healthmate.app.BuildConfig;
 import com.healthmate.app.util.Constants;
+import com.healthmate.app.util.StartupTracer;
 
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -12,27 +14,88 @@ import retrofit2.converter.gson.GsonConverterFactory;
  */
 public class ApiClient {
     
+    private static OkHttpClient httpClient = null;
+    private static CircuitBreaker circuitBreaker = null;
+    private static RequestBudget exerciseDbBudget = null;
     private static Retrofit foodRetrofit = null;
     private static Retrofit exerciseRetrofit = null;
+    private static Retrofit wgerRetrofit = null;
     private static OpenFoodFactsService openFoodFactsService = null;
     private static ExerciseDbService exerciseDbService = null;
+    private static WgerService wgerService = null;
+    
+    /**
+     * Get the circuit breaker guarding all API hosts
+     * @return Shared CircuitBreaker
+     */
+    public static synchronized CircuitBreaker getCircuitBreaker() {
+        if (circuitBreaker == null) {
+            circuitBreaker = new CircuitBreaker();
+        }
+        return circuitBreaker;
+    }
+    
+    /**
+     * Get the call budget of the paid ExerciseDB API
+     * @return Shared RequestBudget
+     */
+    public static synchronized RequestBudget getExerciseDbBudget() {
+        if (exerciseDbBudget == null) {
+            exerciseDbBudget = new RequestBudget(Constants.EXERCISE_DB_HOST_VALUE);
+        }
+        return exerciseDbBudget;
+    }
+    
+    /**
+     * Get the HTTP client shared by all APIs, so they share one connection
+     * pool and dispatcher
+     * @return Configured OkHttpClient
+     */
+    public static synchronized OkHttpClient getHttpClient() {
+        if (httpClient == null) {
+            StartupTracer.beginSection("ApiClient.httpClient");
+            try {
+                // Log request lines and headers in debug builds only. BODY would read
+                // every response into memory before Retrofit sees it, defeating the
+                // @Streaming exercise calls, so it is never used.
+                HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
+                interceptor.setLevel(BuildConfig.DEBUG
+                        ? HttpLoggingInterceptor.Level.HEADERS
+                        : HttpLoggingInterceptor.Level.NONE);
+                interceptor.redactHeader("X-RapidAPI-Key");
+                // Retries wrap the circuit breaker and the budget, so each attempt is
+                // counted per host, and an open circuit spends no budget. Endpoint
+                // timeouts come first so they apply to every attempt.
+                httpClient = new OkHttpClient.Builder()
+                        .addInterceptor(new EndpointTimeouts())
+                        .addInterceptor(new RetryInterceptor())
+                        .addInterceptor(getCircuitBreaker())
+                        .addInterceptor(getExerciseDbBudget())
+                        .addInterceptor(interceptor)
+                        .build();
+            } finally {
+                StartupTracer.endSection();
+            }
+        }
+        return httpClient;
+    }
     
     /**
      * Get a retrofit client instance for food API
      * @return Configured Retrofit instance
      */
-    private static Retrofit getFoodClient() {
+    private static synchronized Retrofit getFoodClient() {
         if (foodRetrofit == null) {
-            // Add logging interceptor for debugging
-            HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-            interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
-            
-            foodRetrofit = new Retrofit.Builder()
-                    .baseUrl(Constants.OPEN_FOOD_FACTS_BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .client(client)
-                    .build();
+            StartupTracer.beginSection("ApiClient.foodClient");
+            try {
+                foodRetrofit = new Retrofit.Builder()
+                        .baseUrl(Constants.OPEN_FOOD_FACTS_BASE_URL)
+                        .addConverterFactory(GsonConverterFactory.create())
+                        .client(getHttpClient())
+                        .build();
+            } finally {
+                StartupTracer.endSection();
+            }
         }
         return foodRetrofit;
     }
@@ -41,27 +104,47 @@ public class ApiClient {
      * Get a retrofit client instance for exercise API
      * @return Configured Retrofit instance
      */
-    private static Retrofit getExerciseClient() {
+    private static synchronized Retrofit getExerciseClient() {
         if (exerciseRetrofit == null) {
-            // Add logging interceptor for debugging
-            HttpLoggingInterceptor interceptor = new HttpLoggingInterceptor();
-            interceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
-            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(interceptor).build();
-            
-            exerciseRetrofit = new Retrofit.Builder()
-                    .baseUrl(Constants.EXERCISE_DB_BASE_URL)
-                    .addConverterFactory(GsonConverterFactory.create())
-                    .client(client)
-                    .build();
+            StartupTracer.beginSection("ApiClient.exerciseClient");
+            try {
+                exerciseRetrofit = new Retrofit.Builder()
+                        .baseUrl(Constants.EXERCISE_DB_BASE_URL)
+                        .addConverterFactory(GsonConverterFactory.create())
+                        .client(getHttpClient())
+                        .build();
+            } finally {
+                StartupTracer.endSection();
+            }
         }
         return exerciseRetrofit;
     }
     
+    /**
+     * Get a retrofit client instance for the Wger API
+     * @return Configured Retrofit instance
+     */
+    private static synchronized Retrofit getWgerClient() {
+        if (wgerRetrofit == null) {
+            StartupTracer.beginSection("ApiClient.wgerClient");
+            try {
+                wgerRetrofit = new Retrofit.Builder()
+                        .baseUrl(Constants.WGER_BASE_URL)
+                        .addConverterFactory(GsonConverterFactory.create())
+                        .client(getHttpClient())
+                        .build();
+            } finally {
+                StartupTracer.endSection();
+            }
+        }
+        return wgerRetrofit;
+    }
+    
     /**
      * Get the Open Food Facts API service
      * @return Configured OpenFoodFactsService
      */
-    public static OpenFoodFactsService getOpenFoodFactsService() {
+    public static synchronized OpenFoodFactsService getOpenFoodFactsService() {
         if (openFoodFactsService == null) {
             openFoodFactsService = getFoodClient().create(OpenFoodFactsService.class);
         }
@@ -72,10 +155,21 @@ public class ApiClient {
      * Get the ExerciseDB API service
      * @return Configured ExerciseDbService
      */
-    public static ExerciseDbService getExerciseDbService() {
+    public static synchronized ExerciseDbService getExerciseDbService() {
         if (exerciseDbService == null) {
             exerciseDbService = getExerciseClient().create(ExerciseDbService.class);
         }
         return exerciseDbService;
     }
+    
+    /**
+     * Get the Wger API service
+     * @return Configured WgerService
+     */
+    public static synchronized WgerService getWgerService() {
+        if (wgerService == null) {
+            wgerService = getWgerClient().create(WgerService.class);
+        }
+        return wgerService;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package com.healthmate.app.api;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Per-host circuit breaker for API calls.
+ *
+ * A host that keeps failing with 429, 5xx or network errors is "opened"
+ * for a cool-down period, during which calls to it fail at once with
+ * CircuitOpenException instead of waiting on timeouts. Once the period
+ * is over one trial call is let through; if it succeeds the host is
+ * closed again, otherwise the next cool-down is twice as long. Client
+ * errors such as 404 show the host is up and count as successes.
+ */
+public class CircuitBreaker implements Interceptor {
+    private static final String TAG = "CircuitBreaker";
+
+    // Consecutive failures that open the circuit
+    private static final int FAILURE_THRESHOLD = 5;
+
+    // Cool-down after the circuit opens, doubled on each failed trial
+    private static final long BASE_OPEN_MS = 30 * 1000L;
+    private static final long MAX_OPEN_MS = 5 * 60 * 1000L;
+
+    /**
+     * Thrown instead of calling a host whose circuit is open
+     */
+    public static class CircuitOpenException extends IOException {
+        /**
+         * Constructor
+         * @param host Host whose circuit is open
+         */
+        public CircuitOpenException(String host) {
+            super("Circuit open for " + host);
+        }
+    }
+
+    // Guarded by this
+    private final Map<String, HostState> hosts = new HashMap<>();
+
+    /**
+     * Check whether calls to a host would currently go out
+     * @param host Host name, e.g. exercisedb.p.rapidapi.com
+     * @return False while the host's circuit is open
+     */
+    public synchronized boolean allowsRequests(String host) {
+        HostState state = hosts.get(host);
+        return state == null || state.openUntil <= SystemClock.elapsedRealtime();
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String host = request.url().host();
+
+        if (!tryAcquire(host)) {
+            throw new CircuitOpenException(host);
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (RequestBudget.BudgetExceededException e) {
+            // Refused before going out, says nothing about the host
+            onCancelled(host);
+            throw e;
+        } catch (IOException e) {
+            if (!chain.call().isCanceled()) {
+                onFailure(host, 0);
+            } else {
+                onCancelled(host);
+            }
+            throw e;
+        }
+
+        if (isServerFailure(response.code())) {
+            onFailure(host, RetryInterceptor.parseRetryAfterMillis(response.header("Retry-After")));
+        } else {
+            onSuccess(host);
+        }
+        return response;
+    }
+
+    /**
+     * Check whether a status code means the host is failing or throttling
+     * @param code HTTP status code
+     * @return True for 429 and 5xx
+     */
+    static boolean isServerFailure(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    private synchronized boolean tryAcquire(String host) {
+        HostState state = hosts.get(host);
+        if (state == null || state.openUntil == 0) {
+            return true;
+        }
+        if (state.openUntil > SystemClock.elapsedRealtime() || state.trialInFlight) {
+            return false;
+        }
+        // Cool-down is over, let a single trial call through
+        state.trialInFlight = true;
+        return true;
+    }
+
+    private synchronized void onSuccess(String host) {
+        HostState state = hosts.remove(host);
+        if (state != null && state.openUntil != 0) {
+            Log.d(TAG, "Circuit closed for " + host);
+        }
+    }
+
+    private synchronized void onCancelled(String host) {
+        HostState state = hosts.get(host);
+        if (state != null) {
+            state.trialInFlight = false;
+        }
+    }
+
+    private synchronized void onFailure(String host, long retryAfterMs) {
+        HostState state = hosts.get(host);
+        if (state == null) {
+            state = new HostState();
+            hosts.put(host, state);
+        }
+
+        boolean trialFailed = state.trialInFlight;
+        state.trialInFlight = false;
+        state.failures++;
+
+        if (trialFailed || state.failures >= FAILURE_THRESHOLD) {
+            state.openMs = trialFailed ? Math.min(state.openMs * 2, MAX_OPEN_MS) : BASE_OPEN_MS;
+            long openMs = Math.max(state.openMs, Math.min(retryAfterMs, MAX_OPEN_MS));
+            state.openUntil = SystemClock.elapsedRealtime() + openMs;
+            Log.w(TAG, "Circuit open for " + host + " for " + openMs / 1000 + " s");
+        }
+    }
+
+    /**
+     * Failure count and cool-down of one host
+     */
+    private static final class HostState {
+        int failures;
+        long openMs = BASE_OPEN_MS;
+        long openUntil; // elapsed realtime, 0 while closed
+        boolean trialInFlight;
+    }
+}
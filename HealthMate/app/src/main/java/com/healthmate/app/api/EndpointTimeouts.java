@@ -0,0 +1,101 @@
+package com.healthmate.app.api;
+
+import com.healthmate.app.util.Constants;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.HttpUrl;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+import retrofit2.Call;
+
+/**
+ * Connect, read and call timeouts per API endpoint.
+ *
+ * OkHttp's defaults wait ten seconds for any read, which on a slow mobile
+ * network leaves a screen spinning long before its local fallback starts.
+ * Small lookups get short timeouts here, while streamed and full-catalog
+ * responses keep a longer read timeout and no overall limit, since their
+ * bodies legitimately take a while to arrive.
+ *
+ * The interceptor applies the connect and read timeouts to every call.
+ * The call timeout covers the whole call and must be set before the call
+ * is started, so callers pass their call through applyCallTimeout().
+ */
+public class EndpointTimeouts implements Interceptor {
+
+    /**
+     * Timeouts of the endpoints under one host and path prefix
+     */
+    private static final class Rule {
+        final String host;
+        final String pathPrefix;
+        final long connectMs;
+        final long readMs;
+        final long callMs; // 0 for no limit
+
+        Rule(String host, String pathPrefix, long connectMs, long readMs, long callMs) {
+            this.host = host;
+            this.pathPrefix = pathPrefix;
+            this.connectMs = connectMs;
+            this.readMs = readMs;
+            this.callMs = callMs;
+        }
+    }
+
+    private static final String WGER_HOST = HttpUrl.get(Constants.WGER_BASE_URL).host();
+    private static final String OPEN_FOOD_FACTS_HOST = HttpUrl.get(Constants.OPEN_FOOD_FACTS_BASE_URL).host();
+
+    // First matching rule wins, so longer prefixes come first
+    private static final Rule[] RULES = {
+            // Single exercise and name search, small JSON answers
+            new Rule(Constants.EXERCISE_DB_HOST_VALUE, "/exercises/exercise/", 3000, 4000, 6000),
+            new Rule(Constants.EXERCISE_DB_HOST_VALUE, "/exercises/name/", 3000, 4000, 5000),
+            // Streamed per body part, the read timeout applies between chunks
+            new Rule(Constants.EXERCISE_DB_HOST_VALUE, "/exercises/bodyPart/", 3000, 6000, 0),
+            // Target, equipment, lists and the full catalog used by sync
+            new Rule(Constants.EXERCISE_DB_HOST_VALUE, "/", 3000, 15000, 0),
+            // Wger has no quota but is slower, it may take a little longer
+            new Rule(WGER_HOST, "/", 4000, 6000, 8000),
+            new Rule(OPEN_FOOD_FACTS_HOST, "/", 4000, 8000, 10000),
+    };
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Rule rule = findRule(chain.request());
+        if (rule == null) {
+            return chain.proceed(chain.request());
+        }
+        return chain
+                .withConnectTimeout((int) rule.connectMs, TimeUnit.MILLISECONDS)
+                .withReadTimeout((int) rule.readMs, TimeUnit.MILLISECONDS)
+                .proceed(chain.request());
+    }
+
+    /**
+     * Set the call timeout of the call's endpoint, before the call is started
+     * @param call Retrofit call that has not been executed or enqueued yet
+     * @param <T> Response type
+     * @return The same call, for chaining
+     */
+    public static <T> Call<T> applyCallTimeout(Call<T> call) {
+        Rule rule = findRule(call.request());
+        if (rule != null && rule.callMs > 0) {
+            call.timeout().timeout(rule.callMs, TimeUnit.MILLISECONDS);
+        }
+        return call;
+    }
+
+    private static Rule findRule(Request request) {
+        String host = request.url().host();
+        String path = request.url().encodedPath();
+        for (Rule rule : RULES) {
+            if (rule.host.equals(host) && path.startsWith(rule.pathPrefix)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+}
@@ -2,14 +2,18 @@ package com.healthmate.app.api;
 
 import com.healthmate.app.model.api.ApiExerciseList;
 
+import okhttp3.ResponseBody;
 import retrofit2.Call;
 import retrofit2.http.GET;
 import retrofit2.http.Header;
+import retrofit2.http.Headers;
 import retrofit2.http.Path;
 import retrofit2.http.Query;
+import retrofit2.http.Streaming;
 
 /**
- * API interface for ExerciseDB API from RapidAPI
+ * API interface for ExerciseDB API from RapidAPI. Calls count against the
+ * RequestBudget as user-visible requests unless marked otherwise.
  */
 public interface ExerciseDbService {
 
@@ -19,6 +23,7 @@ public interface ExerciseDbService {
      * @param host RapidAPI host
      * @return List of exercises
      */
+    @Headers(RequestBudget.PRIORITY_HEADER + ": SYNC")
     @GET("exercises")
     Call<ApiExerciseList> getAllExercises(
             @Header("X-RapidAPI-Key") String apiKey,
@@ -99,4 +104,32 @@ public interface ExerciseDbService {
             @Path("name") String name,
             @Header("X-RapidAPI-Key") String apiKey,
             @Header("X-RapidAPI-Host") String host);
-}
\ No newline at end of file
+    
+    /**
+     * Get all exercises as a raw streaming body, for incremental parsing
+     * with ExerciseStreamIngestor instead of buffering the whole catalog
+     * @param apiKey RapidAPI key
+     * @param host RapidAPI host
+     * @return Unbuffered JSON array of exercises
+     */
+    @Streaming
+    @Headers(RequestBudget.PRIORITY_HEADER + ": SYNC")
+    @GET("exercises")
+    Call<ResponseBody> streamAllExercises(
+            @Header("X-RapidAPI-Key") String apiKey,
+            @Header("X-RapidAPI-Host") String host);
+    
+    /**
+     * Get exercises by body part as a raw streaming body
+     * @param bodyPart Body part name
+     * @param apiKey RapidAPI key
+     * @param host RapidAPI host
+     * @return Unbuffered JSON array of exercises for the specified body part
+     */
+    @Streaming
+    @GET("exercises/bodyPart/{bodyPart}")
+    Call<ResponseBody> streamExercisesByBodyPart(
+            @Path("bodyPart") String bodyPart,
+            @Header("X-RapidAPI-Key") String apiKey,
+            @Header("X-RapidAPI-Host") String host);
+}
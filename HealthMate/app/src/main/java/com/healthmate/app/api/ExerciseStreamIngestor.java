@@ -0,0 +1,221 @@
+package com.healthmate.app.api;
+
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.healthmate.app.db.DatabaseHelper;
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.model.api.ApiExerciseList;
+import com.healthmate.app.util.AppExecutors;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.HttpException;
+import retrofit2.Response;
+
+/**
+ * Streams an ExerciseDB JSON array straight into the local database.
+ * Items are parsed one at a time, written in fixed-size upsert batches and
+ * only their summaries are handed to the UI, so memory use does not grow
+ * with the size of the catalog.
+ *
+ * Parsing runs on a network thread and the writes on the diskIO executor,
+ * where all database writes are serialized. At most one batch is being
+ * written while the next one is parsed.
+ */
+public class ExerciseStreamIngestor {
+    private static final String TAG = "ExerciseStreamIngestor";
+
+    // Number of exercises written per database transaction
+    private static final int BATCH_SIZE = 50;
+
+    private final DatabaseHelper dbHelper;
+    private final Gson gson = new Gson();
+    private final AppExecutors executors = AppExecutors.getInstance();
+
+    private volatile Call<ResponseBody> currentCall;
+
+    /**
+     * Callback for ingestion progress. All methods are called on the main thread.
+     */
+    public interface Listener {
+        /**
+         * Called after each batch has been written to the database
+         * @param summaries Summaries of the exercises in the batch
+         */
+        void onBatch(List<ExerciseSummary> summaries);
+
+        /**
+         * Called once the whole response has been consumed
+         * @param total Number of exercises ingested
+         */
+        void onComplete(int total);
+
+        /**
+         * Called if the request or parsing fails. Batches delivered before
+         * the failure are already stored.
+         * @param t Cause of the failure
+         */
+        void onError(Throwable t);
+    }
+
+    /**
+     * Constructor
+     * @param dbHelper Database the exercises are written to
+     */
+    public ExerciseStreamIngestor(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Execute a streaming call on a background thread and ingest its body
+     * @param call Call created with one of the @Streaming ExerciseDbService methods
+     * @param listener Listener notified on the main thread
+     */
+    public void ingest(Call<ResponseBody> call, Listener listener) {
+        cancel();
+        currentCall = call;
+
+        executors.networkIO().execute(() -> {
+            try {
+                Response<ResponseBody> response = call.execute();
+                ResponseBody body = response.body();
+                if (!response.isSuccessful() || body == null) {
+                    throw new HttpException(response);
+                }
+
+                int total;
+                try {
+                    total = ingest(body, call, listener);
+                } finally {
+                    body.close();
+                }
+
+                final int count = total;
+                executors.mainThread().execute(() -> {
+                    if (!call.isCanceled()) {
+                        listener.onComplete(count);
+                    }
+                });
+            } catch (IOException | RuntimeException e) {
+                if (call.isCanceled()) {
+                    Log.d(TAG, "Ingestion cancelled");
+                    return;
+                }
+                Log.e(TAG, "Ingestion failed: " + e.getMessage(), e);
+                executors.mainThread().execute(() -> listener.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Parse a response body item by item, handing each batch to the database
+     * while the next one is read. Must be called off the main thread.
+     * @param body Response body holding a JSON array of exercise items
+     * @param call Call the body belongs to, batches are dropped once it is cancelled
+     * @param listener Listener that receives the summaries of each batch
+     * @return Number of exercises ingested
+     * @throws IOException If the body cannot be read or is not a JSON array
+     */
+    private int ingest(ResponseBody body, Call<ResponseBody> call, Listener listener) throws IOException {
+        List<Exercise> batch = new ArrayList<>(BATCH_SIZE);
+        List<ExerciseSummary> summaries = new ArrayList<>(BATCH_SIZE);
+        Future<?> pendingWrite = null;
+        int total = 0;
+
+        JsonReader reader = new JsonReader(body.charStream());
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            throw new IOException("Expected a JSON array of exercises but got " + reader.peek());
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            ApiExerciseList.ApiExerciseItem item = gson.fromJson(reader, ApiExerciseList.ApiExerciseItem.class);
+            if (item == null || item.getId() == null) {
+                continue;
+            }
+
+            batch.add(ApiExerciseList.toExercise(item));
+            summaries.add(ExerciseSummary.fromApiItem(item));
+
+            if (batch.size() == BATCH_SIZE) {
+                total += batch.size();
+                pendingWrite = flush(pendingWrite, batch, summaries, call, listener);
+                batch = new ArrayList<>(BATCH_SIZE);
+                summaries = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+        reader.endArray();
+
+        if (!batch.isEmpty()) {
+            total += batch.size();
+            pendingWrite = flush(pendingWrite, batch, summaries, call, listener);
+        }
+        await(pendingWrite);
+        Log.d(TAG, "Ingested " + total + " exercises");
+        return total;
+    }
+
+    /**
+     * Hand a batch to the diskIO executor once the previous one is written.
+     * Its summaries are posted to the listener after the write.
+     * @param previousWrite Write of the previous batch, or null
+     * @return The write of this batch
+     */
+    private Future<?> flush(Future<?> previousWrite, List<Exercise> batch, List<ExerciseSummary> summaries,
+                            Call<ResponseBody> call, Listener listener) throws IOException {
+        await(previousWrite);
+        return executors.diskIO().submit(() -> {
+            if (call.isCanceled()) {
+                return;
+            }
+            dbHelper.upsertExercises(batch);
+            executors.mainThread().execute(() -> {
+                if (!call.isCanceled()) {
+                    listener.onBatch(summaries);
+                }
+            });
+        });
+    }
+
+    /**
+     * Wait for a batch write, rethrowing its failure on the calling thread
+     * @param write Pending write, or null
+     */
+    private static void await(Future<?> write) throws IOException {
+        if (write == null) {
+            return;
+        }
+        try {
+            write.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing exercises", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Cancel the ingestion in progress, if any. No further callbacks are delivered.
+     */
+    public void cancel() {
+        Call<ResponseBody> call = currentCall;
+        if (call != null) {
+            call.cancel();
+        }
+    }
+}
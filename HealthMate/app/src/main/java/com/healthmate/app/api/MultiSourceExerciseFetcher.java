@@ -0,0 +1,264 @@
+package com.healthmate.app.api;
+
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.healthmate.app.db.DatabaseHelper;
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.ExerciseSuggestionResponse;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.model.api.ApiExerciseList;
+import com.healthmate.app.util.AppExecutors;
+import com.healthmate.app.util.Constants;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Searches ExerciseDB and Wger at the same time and merges the results.
+ *
+ * Both requests are sent at once, each with the call timeout of its
+ * endpoint in EndpointTimeouts, and the listener gets the first source's
+ * exercises as soon as they arrive. The other source's exercises follow
+ * as a second batch, minus those already shown under the same name. Names
+ * are compared lower-cased and without spaces or punctuation, so
+ * "Push-up" and "push up" count as one exercise.
+ *
+ * Every exercise found is also written to the local database, so the
+ * detail screen and offline lists can show it later.
+ */
+public class MultiSourceExerciseFetcher {
+    private static final String TAG = "MultiSourceFetcher";
+
+    // Source names passed to the listener
+    public static final String SOURCE_EXERCISE_DB = "exercisedb";
+    public static final String SOURCE_WGER = "wger";
+
+    private final ExerciseDbService exerciseDbService;
+    private final WgerService wgerService;
+    private final String exerciseDbApiKey;
+    private final DatabaseHelper dbHelper;
+    private final Executor mainThread;
+    private final Executor diskIO;
+
+    // Search in progress, only touched on the main thread
+    private Search currentSearch;
+
+    /**
+     * Callback for merged results. All methods are called on the main thread.
+     */
+    public interface Listener {
+        /**
+         * Called once per source that answered with exercises not shown yet
+         * @param exercises New exercises, after removing duplicates
+         * @param source SOURCE_EXERCISE_DB or SOURCE_WGER
+         */
+        void onBatch(List<ExerciseSummary> exercises, String source);
+
+        /**
+         * Called once every source has answered, failed or timed out
+         * @param total Number of exercises delivered
+         * @param failedSources Number of sources that failed or timed out
+         */
+        void onComplete(int total, int failedSources);
+    }
+
+    /**
+     * Constructor
+     * @param exerciseDbService ExerciseDB service
+     * @param wgerService Wger service
+     * @param exerciseDbApiKey RapidAPI key, ExerciseDB is skipped if empty
+     * @param dbHelper Database the results are stored in
+     */
+    public MultiSourceExerciseFetcher(ExerciseDbService exerciseDbService, WgerService wgerService,
+                                      String exerciseDbApiKey, DatabaseHelper dbHelper) {
+        this(exerciseDbService, wgerService, exerciseDbApiKey, dbHelper,
+                AppExecutors.getInstance().mainThread(), AppExecutors.getInstance().diskIO());
+    }
+
+    /**
+     * Constructor with the executors the listener and the writes run on
+     * @param mainThread Executor standing in for the main thread
+     * @param diskIO Executor the results are stored on
+     */
+    @VisibleForTesting
+    MultiSourceExerciseFetcher(ExerciseDbService exerciseDbService, WgerService wgerService,
+                               String exerciseDbApiKey, DatabaseHelper dbHelper,
+                               Executor mainThread, Executor diskIO) {
+        this.exerciseDbService = exerciseDbService;
+        this.wgerService = wgerService;
+        this.exerciseDbApiKey = exerciseDbApiKey;
+        this.dbHelper = dbHelper;
+        this.mainThread = mainThread;
+        this.diskIO = diskIO;
+    }
+
+    /**
+     * Search both sources by name. A new search cancels the previous one.
+     * @param name Exercise name to search for
+     * @param listener Listener notified on the main thread
+     */
+    public void searchByName(String name, Listener listener) {
+        cancel();
+        Search search = new Search(listener);
+        currentSearch = search;
+
+        // Skip ExerciseDB while its circuit is open or its budget is used up,
+        // Wger alone answers then
+        if (exerciseDbApiKey != null && !exerciseDbApiKey.isEmpty()
+                && ApiClient.getCircuitBreaker().allowsRequests(Constants.EXERCISE_DB_HOST_VALUE)
+                && ApiClient.getExerciseDbBudget().allowsRequests(RequestBudget.Priority.INTERACTIVE)) {
+            Call<ApiExerciseList> call = exerciseDbService.getExercisesByName(
+                    name.toLowerCase(Locale.ROOT),
+                    exerciseDbApiKey,
+                    Constants.EXERCISE_DB_HOST_VALUE);
+            search.start(EndpointTimeouts.applyCallTimeout(call), SOURCE_EXERCISE_DB);
+        }
+
+        Call<ExerciseSuggestionResponse> wgerCall = wgerService.searchExercisesByName(
+                name,
+                Constants.WGER_LANGUAGE_CODE_ENGLISH);
+        search.start(EndpointTimeouts.applyCallTimeout(wgerCall), SOURCE_WGER);
+    }
+
+    /**
+     * Cancel the search in progress, its listener is not called again
+     */
+    public void cancel() {
+        if (currentSearch != null) {
+            currentSearch.cancel();
+            currentSearch = null;
+        }
+    }
+
+    /**
+     * Key used to find the same exercise across sources
+     * @param name Exercise name
+     * @return Lower-case letters and digits of the name
+     */
+    public static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(name.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    private static List<Exercise> toExercises(Object body) {
+        if (body instanceof ApiExerciseList) {
+            return ((ApiExerciseList) body).toExerciseList();
+        }
+        if (body instanceof ExerciseSuggestionResponse) {
+            return ((ExerciseSuggestionResponse) body).toExerciseList();
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * One fan-out search, merging the sources as they answer
+     */
+    private final class Search {
+        private final Listener listener;
+        private final List<Call<?>> calls = new ArrayList<>();
+        private final Set<String> seenNames = new HashSet<>();
+        private int pending = 0;
+        private int failed = 0;
+        private int total = 0;
+        private boolean cancelled = false;
+
+        Search(Listener listener) {
+            this.listener = listener;
+        }
+
+        <T> void start(Call<T> call, String source) {
+            calls.add(call);
+            pending++;
+            call.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    if (response.isSuccessful() && response.body() != null) {
+                        List<Exercise> exercises = toExercises(response.body());
+                        // Main thread hop keeps merging single-threaded, whatever thread
+                        // Retrofit calls back on
+                        mainThread.execute(() -> onSourceResult(source, exercises));
+                    } else {
+                        Log.w(TAG, source + " returned " + response.code());
+                        mainThread.execute(() -> onSourceFailed(source));
+                    }
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    Log.w(TAG, source + " failed: " + t.getMessage());
+                    mainThread.execute(() -> onSourceFailed(source));
+                }
+            });
+        }
+
+        void cancel() {
+            cancelled = true;
+            for (Call<?> call : calls) {
+                call.cancel();
+            }
+        }
+
+        private void onSourceResult(String source, List<Exercise> exercises) {
+            if (cancelled) {
+                return;
+            }
+
+            List<Exercise> added = new ArrayList<>();
+            List<ExerciseSummary> summaries = new ArrayList<>();
+            for (Exercise exercise : exercises) {
+                String key = normalizeName(exercise.getName());
+                if (!key.isEmpty() && seenNames.add(key)) {
+                    added.add(exercise);
+                    summaries.add(new ExerciseSummary(exercise.getId(), exercise.getName(),
+                            exercise.getBodyPart(), exercise.getTarget(), exercise.getEquipment(),
+                            exercise.getGifUrl()));
+                }
+            }
+
+            if (!added.isEmpty()) {
+                total += summaries.size();
+                diskIO.execute(() -> dbHelper.upsertExercises(added));
+                listener.onBatch(summaries, source);
+            }
+            Log.d(TAG, source + " answered with " + exercises.size() + " exercises, "
+                    + added.size() + " new");
+            onSourceDone();
+        }
+
+        private void onSourceFailed(String source) {
+            if (cancelled) {
+                return;
+            }
+            failed++;
+            onSourceDone();
+        }
+
+        private void onSourceDone() {
+            if (--pending == 0) {
+                if (currentSearch == this) {
+                    currentSearch = null;
+                }
+                listener.onComplete(total, failed);
+            }
+        }
+    }
+}
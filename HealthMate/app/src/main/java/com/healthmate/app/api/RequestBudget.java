@@ -0,0 +1,365 @@
+package com.healthmate.app.api;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Calendar;
+import java.util.Locale;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Client-side rate limit and call budget for the paid ExerciseDB API.
+ *
+ * Each call first takes a token from a small token bucket, which spreads
+ * bursts from several screens over time, and is then counted against a
+ * daily and a monthly budget kept in shared preferences, so the counts
+ * survive restarts. Calls to other hosts pass through untouched.
+ *
+ * Requests carry a Priority in the PRIORITY_HEADER, which is removed
+ * before the call goes out. User-visible requests may use the whole
+ * budget, while prefetch and sync stop once only their reserve is left,
+ * so the last calls of the day go to what the user is looking at. A call
+ * over budget fails with BudgetExceededException and the caller falls
+ * back to the local database.
+ */
+public class RequestBudget implements Interceptor {
+    private static final String TAG = "RequestBudget";
+
+    /** Request header holding the Priority name, e.g. "SYNC" */
+    public static final String PRIORITY_HEADER = "X-HealthMate-Priority";
+
+    // Calls per day and per month, a little under the quota of the RapidAPI plan
+    private static final int DAILY_LIMIT = 300;
+    private static final int MONTHLY_LIMIT = 5000;
+
+    // Token bucket, bursts of BUCKET_CAPACITY calls then TOKENS_PER_SECOND
+    private static final double BUCKET_CAPACITY = 4;
+    private static final double TOKENS_PER_SECOND = 2;
+
+    // Longest a call waits for a token before it is refused
+    private static final long MAX_TOKEN_WAIT_MS = 2000;
+
+    // RapidAPI reports the calls left on the monthly plan in this header
+    static final String REMAINING_HEADER = "X-RateLimit-Requests-Remaining";
+
+    // Preference file and keys of the persisted counters
+    private static final String PREFS_NAME = "ApiRequestBudget";
+    private static final String KEY_DAY = "day";
+    private static final String KEY_DAY_COUNT = "day_count";
+    private static final String KEY_MONTH = "month";
+    private static final String KEY_MONTH_COUNT = "month_count";
+    private static final String KEY_REFUSED_COUNT = "refused_count";
+
+    /**
+     * Importance of a request. The reserve is the share of the daily and
+     * monthly budget a request of this priority leaves untouched.
+     */
+    public enum Priority {
+        /** The user is waiting for the result on screen */
+        INTERACTIVE(0),
+        /** Loads what the user is likely to open next */
+        PREFETCH(20),
+        /** Background refresh of the local catalog */
+        SYNC(40);
+
+        private final int reservePercent;
+
+        Priority(int reservePercent) {
+            this.reservePercent = reservePercent;
+        }
+
+        /**
+         * Get the priority named in a request header
+         * @param value Header value, may be null
+         * @return Matching priority, INTERACTIVE if absent or unknown
+         */
+        static Priority fromHeader(String value) {
+            if (value != null) {
+                for (Priority priority : values()) {
+                    if (priority.name().equalsIgnoreCase(value.trim())) {
+                        return priority;
+                    }
+                }
+            }
+            return INTERACTIVE;
+        }
+    }
+
+    /**
+     * Thrown instead of calling a host once the budget of the request's
+     * priority is used up or no token became free in time
+     */
+    public static class BudgetExceededException extends IOException {
+        /**
+         * Constructor
+         * @param message Reason the call was refused
+         */
+        public BudgetExceededException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Snapshot of the counters, for diagnostics
+     */
+    public static final class Usage {
+        private final int dayCount;
+        private final int monthCount;
+        private final int refusedCount;
+
+        Usage(int dayCount, int monthCount, int refusedCount) {
+            this.dayCount = dayCount;
+            this.monthCount = monthCount;
+            this.refusedCount = refusedCount;
+        }
+
+        /**
+         * Get the calls made today
+         * @return Calls made today
+         */
+        public int getDayCount() {
+            return dayCount;
+        }
+
+        /**
+         * Get the daily call limit
+         * @return Daily limit
+         */
+        public int getDailyLimit() {
+            return DAILY_LIMIT;
+        }
+
+        /**
+         * Get the calls made this month
+         * @return Calls made this month
+         */
+        public int getMonthCount() {
+            return monthCount;
+        }
+
+        /**
+         * Get the monthly call limit
+         * @return Monthly limit
+         */
+        public int getMonthlyLimit() {
+            return MONTHLY_LIMIT;
+        }
+
+        /**
+         * Get the calls refused since the counters were created
+         * @return Refused calls
+         */
+        public int getRefusedCount() {
+            return refusedCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "today %d/%d, month %d/%d, refused %d",
+                    dayCount, DAILY_LIMIT, monthCount, MONTHLY_LIMIT, refusedCount);
+        }
+    }
+
+    private final String host;
+
+    // Guarded by this
+    private SharedPreferences preferences;
+    private int day;
+    private int dayCount;
+    private int month;
+    private int monthCount;
+    private int refusedCount;
+    private double tokens = BUCKET_CAPACITY;
+    private long lastRefill = SystemClock.elapsedRealtime();
+
+    /**
+     * Constructor. Counts are kept in memory until attach() is called.
+     * @param host Host whose calls are limited, e.g. exercisedb.p.rapidapi.com
+     */
+    public RequestBudget(String host) {
+        this.host = host;
+    }
+
+    /**
+     * Load the persisted counters and keep them up to date from now on.
+     * Calls made before are added to the loaded counts. Only the first
+     * call has an effect; it reads preferences, so avoid the main thread.
+     * @param context Any context, only its application context is used
+     */
+    public synchronized void attach(Context context) {
+        if (preferences != null) {
+            return;
+        }
+        preferences = context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+
+        rollOver();
+        if (preferences.getInt(KEY_DAY, 0) == day) {
+            dayCount += preferences.getInt(KEY_DAY_COUNT, 0);
+        }
+        if (preferences.getInt(KEY_MONTH, 0) == month) {
+            monthCount += preferences.getInt(KEY_MONTH_COUNT, 0);
+        }
+        refusedCount += preferences.getInt(KEY_REFUSED_COUNT, 0);
+        save();
+        Log.d(TAG, "Request budget " + getUsage());
+    }
+
+    /**
+     * Check whether a request of a priority would currently be within budget
+     * @param priority Priority of the request
+     * @return False once the budget of that priority is used up
+     */
+    public synchronized boolean allowsRequests(Priority priority) {
+        rollOver();
+        return hasBudget(priority);
+    }
+
+    /**
+     * Get a snapshot of the counters
+     * @return Current usage
+     */
+    public synchronized Usage getUsage() {
+        rollOver();
+        return new Usage(dayCount, monthCount, refusedCount);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Priority priority = Priority.fromHeader(request.header(PRIORITY_HEADER));
+        if (request.header(PRIORITY_HEADER) != null) {
+            request = request.newBuilder().removeHeader(PRIORITY_HEADER).build();
+        }
+        if (!host.equals(request.url().host())) {
+            return chain.proceed(request);
+        }
+
+        acquire(priority);
+        Response response = chain.proceed(request);
+        onResponse(response.header(REMAINING_HEADER));
+        return response;
+    }
+
+    /**
+     * Take a token and count the call, waiting for a token if needed
+     * @param priority Priority of the request
+     * @throws IOException If the call is over budget or the wait is interrupted
+     */
+    private void acquire(Priority priority) throws IOException {
+        long deadline = SystemClock.elapsedRealtime() + MAX_TOKEN_WAIT_MS;
+        while (true) {
+            long waitMs;
+            synchronized (this) {
+                rollOver();
+                if (!hasBudget(priority)) {
+                    refuse();
+                    throw new BudgetExceededException(priority + " budget used up, " + getUsage());
+                }
+
+                refill();
+                // Background calls leave the last token to user-visible ones
+                double needed = priority == Priority.INTERACTIVE ? 1 : 2;
+                if (tokens >= needed) {
+                    tokens--;
+                    dayCount++;
+                    monthCount++;
+                    save();
+                    return;
+                }
+
+                waitMs = (long) Math.ceil((needed - tokens) * 1000 / TOKENS_PER_SECOND);
+                if (SystemClock.elapsedRealtime() + waitMs > deadline) {
+                    refuse();
+                    throw new BudgetExceededException("Rate limited, no token within "
+                            + MAX_TOKEN_WAIT_MS + " ms");
+                }
+            }
+
+            try {
+                Thread.sleep(waitMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a token");
+            }
+        }
+    }
+
+    /**
+     * Apply the calls left according to the server. The plan's limit may
+     * differ from MONTHLY_LIMIT, so the header is not turned into a count
+     * of used calls. It can only lower the calls left here, e.g. when
+     * another install shares the key or the plan is smaller, never raise them.
+     * @param remaining REMAINING_HEADER value, may be null
+     */
+    private synchronized void onResponse(String remaining) {
+        if (remaining == null) {
+            return;
+        }
+        int serverRemaining;
+        try {
+            serverRemaining = Math.max(0, Integer.parseInt(remaining.trim()));
+        } catch (NumberFormatException e) {
+            Log.w(TAG, "Invalid " + REMAINING_HEADER + ": " + remaining);
+            return;
+        }
+        if (serverRemaining < MONTHLY_LIMIT - monthCount) {
+            monthCount = MONTHLY_LIMIT - serverRemaining;
+            save();
+        }
+    }
+
+    private boolean hasBudget(Priority priority) {
+        int dailyAllowed = DAILY_LIMIT * (100 - priority.reservePercent) / 100;
+        int monthlyAllowed = MONTHLY_LIMIT * (100 - priority.reservePercent) / 100;
+        return dayCount < dailyAllowed && monthCount < monthlyAllowed;
+    }
+
+    private void refill() {
+        long now = SystemClock.elapsedRealtime();
+        tokens = Math.min(BUCKET_CAPACITY, tokens + (now - lastRefill) * TOKENS_PER_SECOND / 1000);
+        lastRefill = now;
+    }
+
+    private void refuse() {
+        refusedCount++;
+        save();
+    }
+
+    /**
+     * Reset the counters when a new day or month has started
+     */
+    private void rollOver() {
+        Calendar now = Calendar.getInstance();
+        int today = now.get(Calendar.YEAR) * 10000 + (now.get(Calendar.MONTH) + 1) * 100
+                + now.get(Calendar.DAY_OF_MONTH);
+        int thisMonth = today / 100;
+        if (today != day) {
+            day = today;
+            dayCount = 0;
+        }
+        if (thisMonth != month) {
+            month = thisMonth;
+            monthCount = 0;
+        }
+    }
+
+    private void save() {
+        if (preferences == null) {
+            return;
+        }
+        preferences.edit()
+                .putInt(KEY_DAY, day)
+                .putInt(KEY_DAY_COUNT, dayCount)
+                .putInt(KEY_MONTH, month)
+                .putInt(KEY_MONTH_COUNT, monthCount)
+                .putInt(KEY_REFUSED_COUNT, refusedCount)
+                .apply();
+    }
+}
@@ -0,0 +1,134 @@
+package com.healthmate.app.api;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Retries idempotent requests that failed for reasons likely to pass.
+ *
+ * Only 429, 502, 503 and 504 responses and network errors are retried,
+ * never other client errors. The wait before each retry grows
+ * exponentially with full jitter, so clients throttled together do not
+ * come back together. A Retry-After header replaces the computed wait;
+ * if it asks for longer than MAX_RETRY_AFTER_MS the response is returned
+ * as is rather than holding the caller.
+ *
+ * Added in front of CircuitBreaker and RequestBudget, so every attempt
+ * counts towards opening the circuit and against the call budget, and
+ * retries stop as soon as either refuses.
+ */
+public class RetryInterceptor implements Interceptor {
+    private static final String TAG = "RetryInterceptor";
+
+    // Attempts in total, including the first
+    private static final int MAX_ATTEMPTS = 3;
+
+    // Backoff before the n-th retry is random in [0, BASE_BACKOFF_MS * 2^n), capped
+    private static final long BASE_BACKOFF_MS = 500;
+    private static final long MAX_BACKOFF_MS = 8000;
+
+    // Longest Retry-After the interceptor is willing to wait for
+    private static final long MAX_RETRY_AFTER_MS = 10000;
+
+    private final Random random = new Random();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!"GET".equals(request.method())) {
+            return chain.proceed(request);
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (CircuitBreaker.CircuitOpenException | RequestBudget.BudgetExceededException e) {
+                // Refused locally, waiting a few seconds would not change that
+                throw e;
+            } catch (IOException e) {
+                if (attempt >= MAX_ATTEMPTS || chain.call().isCanceled()) {
+                    throw e;
+                }
+                Log.d(TAG, "Retrying " + request.url().host() + " after " + e.getMessage());
+                sleep(backoffMillis(attempt));
+                continue;
+            }
+
+            if (!isRetryable(response.code()) || attempt >= MAX_ATTEMPTS) {
+                return response;
+            }
+
+            long waitMs = backoffMillis(attempt);
+            long retryAfterMs = parseRetryAfterMillis(response.header("Retry-After"));
+            if (retryAfterMs > MAX_RETRY_AFTER_MS) {
+                // The host asked for a long pause, let the caller fall back instead
+                return response;
+            } else if (retryAfterMs > 0) {
+                waitMs = retryAfterMs;
+            }
+
+            Log.d(TAG, "Retrying " + request.url().host() + " after " + response.code()
+                    + " in " + waitMs + " ms");
+            response.close();
+            sleep(waitMs);
+        }
+    }
+
+    /**
+     * Check whether a status code is worth retrying
+     * @param code HTTP status code
+     * @return True for 429, 502, 503 and 504
+     */
+    static boolean isRetryable(int code) {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Parse a Retry-After header, given either in seconds or as an HTTP date
+     * @param value Header value, may be null
+     * @return Wait in milliseconds, 0 if absent or invalid
+     */
+    static long parseRetryAfterMillis(String value) {
+        if (value == null) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            // Not a number, try an RFC 1123 date such as "Wed, 21 Oct 2015 07:28:00 GMT"
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            try {
+                return Math.max(0, format.parse(value.trim()).getTime() - System.currentTimeMillis());
+            } catch (ParseException invalid) {
+                return 0;
+            }
+        }
+    }
+
+    private long backoffMillis(int attempt) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+        return (long) (random.nextDouble() * ceiling);
+    }
+
+    private static void sleep(long millis) throws IOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while backing off");
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.healthmate.app.api;
 
 import com.healthmate.app.model.ExerciseSearchResponse;
+import com.healthmate.app.model.ExerciseSuggestionResponse;
 
 import retrofit2.Call;
 import retrofit2.http.GET;
@@ -25,17 +26,16 @@ public interface WgerService {
             @Query("offset") int offset);
     
     /**
-     * Search exercises by name
+     * Search exercises by name. The endpoint is not paged and answers
+     * with name suggestions instead of exercise results.
      * @param term Search term
-     * @param language Language code (e.g., "en" for English)
-     * @param limit Number of results to return
-     * @return API response containing exercise data
+     * @param languageCode Language code (e.g., "en" for English)
+     * @return API response containing exercise suggestions
      */
     @GET("exercise/search/")
-    Call<ExerciseSearchResponse> searchExercisesByName(
+    Call<ExerciseSuggestionResponse> searchExercisesByName(
             @Query("term") String term,
-            @Query("language") int language,
-            @Query("limit") int limit);
+            @Query("language") String languageCode);
             
     /**
      * Get exercises by muscle group
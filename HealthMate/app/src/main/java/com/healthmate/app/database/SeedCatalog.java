@@ -0,0 +1,453 @@
+package com.healthmate.app.database;
+
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.Food;
+import com.healthmate.app.util.NutrientStore;
+import com.healthmate.app.util.StartupTracer;
+import com.healthmate.app.util.TrigramIndex;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only catalog of the seed foods and exercises, memory-mapped from
+ * the seed_catalog.bin asset that seed-catalog.gradle generates from the
+ * JSON files in src/main/seed.
+ *
+ * The seed data never changes at runtime, so it is no longer copied into
+ * SQLite rows on first launch and back into objects on every query. The
+ * asset is stored uncompressed in the APK and mapped in place. Lookups
+ * compare the mapped bytes directly, and the accessors only create a
+ * String for the field that is read, so nothing is allocated until a
+ * food or exercise is displayed or handed out as an object.
+ *
+ * Layout, numbers big-endian:
+ *   header     12 ints: magic "HMCT", version, food count, offset of the
+ *              food records, of the food ID index, exercise count, offset
+ *              of the exercise records, of the body part index, of the
+ *              string table, string table length, 2 reserved
+ *   food       44 bytes: id, name, calories, proteins, carbs, fats, fiber,
+ *              base amount, unit, category, cuisine
+ *   exercise   32 bytes: id, name, body part, description, instructions,
+ *              duration, calories burned, difficulty
+ *   indexes    int record numbers, foods sorted by ID and exercises by
+ *              body part, both by unsigned UTF-8 bytes
+ *   strings    unsigned short length followed by UTF-8
+ * Text fields are int offsets into the string table, numbers are stored
+ * as floats and ints.
+ */
+public final class SeedCatalog {
+
+    // Asset written by the generateSeedCatalog task
+    private static final String ASSET_NAME = "seed_catalog.bin";
+
+    // Database the seed data was copied into by earlier versions
+    private static final String LEGACY_DATABASE_NAME = "healthmate_reference.db";
+
+    private static final int MAGIC = 0x484D4354;
+    private static final int VERSION = 1;
+    private static final int HEADER_LENGTH = 48;
+    private static final int FOOD_RECORD_LENGTH = 44;
+    private static final int EXERCISE_RECORD_LENGTH = 32;
+
+    // Field offsets in a food record, nutrients in NutrientStore column order
+    private static final int FOOD_ID = 0;
+    private static final int FOOD_NAME = 4;
+    private static final int FOOD_NUTRIENTS = 8;
+    private static final int FOOD_BASE_AMOUNT = 28;
+    private static final int FOOD_UNIT = 32;
+    private static final int FOOD_CATEGORY = 36;
+    private static final int FOOD_CUISINE = 40;
+
+    // Field offsets in an exercise record
+    private static final int EXERCISE_ID = 0;
+    private static final int EXERCISE_NAME = 4;
+    private static final int EXERCISE_BODY_PART = 8;
+    private static final int EXERCISE_DESCRIPTION = 12;
+    private static final int EXERCISE_INSTRUCTIONS = 16;
+    private static final int EXERCISE_DURATION = 20;
+    private static final int EXERCISE_CALORIES = 24;
+    private static final int EXERCISE_DIFFICULTY = 28;
+
+    // Exercises for every body part
+    private static final String FULL_BODY = "Full Body";
+
+    // Only read with absolute gets, so it is safe to share between threads
+    private final ByteBuffer buffer;
+    private final int foodCount;
+    private final int foodRecords;
+    private final int foodIdIndex;
+    private final int exerciseCount;
+    private final int exerciseRecords;
+    private final int bodyPartIndex;
+    private final int strings;
+
+    // Fuzzy name index over the foods, built on first search and guarded by this
+    private TrigramIndex foodNameIndex;
+
+    /**
+     * Map the catalog asset
+     * @param context Any context of this app
+     * @return Catalog backed by the mapped asset
+     * @throws IOException If the asset is missing, compressed in the APK or malformed
+     */
+    public static SeedCatalog open(Context context) throws IOException {
+        StartupTracer.beginSection("SeedCatalog.open");
+        try {
+            // openFd only works for assets stored uncompressed, see aaptOptions
+            AssetFileDescriptor descriptor = context.getAssets().openFd(ASSET_NAME);
+            // Closing the stream closes the descriptor, the mapping stays valid
+            try (FileInputStream input = descriptor.createInputStream()) {
+                return new SeedCatalog(input.getChannel().map(FileChannel.MapMode.READ_ONLY,
+                        descriptor.getStartOffset(), descriptor.getLength()));
+            }
+        } finally {
+            StartupTracer.endSection();
+        }
+    }
+
+    /**
+     * Delete the database earlier versions copied the seed data into
+     * @param context Any context of this app
+     */
+    public static void deleteLegacyDatabase(Context context) {
+        context.deleteDatabase(LEGACY_DATABASE_NAME);
+    }
+
+    /**
+     * Constructor over catalog bytes, use open() for the packaged catalog
+     * @param buffer Catalog contents
+     * @throws IOException If the contents are not a catalog of this version
+     */
+    SeedCatalog(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_LENGTH || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a seed catalog");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported seed catalog version " + buffer.getInt(4));
+        }
+        foodCount = buffer.getInt(8);
+        foodRecords = buffer.getInt(12);
+        foodIdIndex = buffer.getInt(16);
+        exerciseCount = buffer.getInt(20);
+        exerciseRecords = buffer.getInt(24);
+        bodyPartIndex = buffer.getInt(28);
+        strings = buffer.getInt(32);
+        if (strings + buffer.getInt(36) > buffer.limit()) {
+            throw new IOException("Truncated seed catalog");
+        }
+    }
+
+    /**
+     * Get the number of foods
+     * @return Food count, food numbers run from 0 to this count - 1
+     */
+    public int getFoodCount() {
+        return foodCount;
+    }
+
+    /**
+     * Find a food by ID
+     * @param id Food ID, e.g. "f001"
+     * @return Food number, or -1 if there is no such food
+     */
+    public int findFoodById(String id) {
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = foodCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int food = buffer.getInt(foodIdIndex + middle * 4);
+            int comparison = compareString(buffer.getInt(foodField(food, FOOD_ID)), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return food;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Find the first food whose name contains some text, ignoring ASCII case
+     * @param text Text to look for
+     * @return Food number, or -1 if no name contains the text
+     */
+    public int findFoodByName(String text) {
+        byte[] needle = text.getBytes(StandardCharsets.UTF_8);
+        for (int food = 0; food < foodCount; food++) {
+            if (containsIgnoreCase(buffer.getInt(foodField(food, FOOD_NAME)), needle)) {
+                return food;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the ID of a food
+     * @param food Food number
+     * @return ID as a String
+     */
+    public String getFoodId(int food) {
+        return readString(buffer.getInt(foodField(food, FOOD_ID)));
+    }
+
+    /**
+     * Get the name of a food
+     * @param food Food number
+     * @return Name as a String
+     */
+    public String getFoodName(int food) {
+        return readString(buffer.getInt(foodField(food, FOOD_NAME)));
+    }
+
+    /**
+     * Get a nutrient of a food per base amount
+     * @param food Food number
+     * @param nutrient NutrientStore column, e.g. NutrientStore.PROTEINS
+     * @return Amount of the nutrient
+     */
+    public float getFoodNutrient(int food, int nutrient) {
+        if (nutrient < 0 || nutrient >= NutrientStore.NUTRIENT_COUNT) {
+            throw new IllegalArgumentException("Unknown nutrient " + nutrient);
+        }
+        return buffer.getFloat(foodField(food, FOOD_NUTRIENTS + nutrient * 4));
+    }
+
+    /**
+     * Get the amount the nutrients of a food refer to
+     * @param food Food number
+     * @return Base amount in the food's unit
+     */
+    public float getFoodBaseAmount(int food) {
+        return buffer.getFloat(foodField(food, FOOD_BASE_AMOUNT));
+    }
+
+    /**
+     * Create the Food object of a food, for code that keeps or displays it
+     * @param food Food number
+     * @return New Food
+     */
+    public Food getFood(int food) {
+        return new Food(
+                getFoodId(food),
+                getFoodName(food),
+                getFoodNutrient(food, NutrientStore.CALORIES),
+                getFoodNutrient(food, NutrientStore.PROTEINS),
+                getFoodNutrient(food, NutrientStore.CARBS),
+                getFoodNutrient(food, NutrientStore.FATS),
+                getFoodNutrient(food, NutrientStore.FIBER),
+                getFoodBaseAmount(food),
+                readString(buffer.getInt(foodField(food, FOOD_UNIT))),
+                readString(buffer.getInt(foodField(food, FOOD_CATEGORY))),
+                readString(buffer.getInt(foodField(food, FOOD_CUISINE)))
+        );
+    }
+
+    /**
+     * Get all foods
+     * @return List of Food objects, in seed order
+     */
+    public List<Food> getAllFoods() {
+        List<Food> foods = new ArrayList<>(foodCount);
+        for (int food = 0; food < foodCount; food++) {
+            foods.add(getFood(food));
+        }
+        return foods;
+    }
+
+    /**
+     * Get a food by name, falling back to the closest spelling
+     * @param foodName Name of the food to find
+     * @return Food object if found, null otherwise
+     */
+    public Food getFoodByName(String foodName) {
+        int food = findFoodByName(foodName);
+        if (food >= 0) {
+            return getFood(food);
+        }
+
+        // Nothing contains the name as typed, try the closest spelling
+        List<Food> matches = searchFoodsByName(foodName, 1);
+        return matches.isEmpty() ? null : matches.get(0);
+    }
+
+    /**
+     * Search foods by name, tolerating typos such as "chiken"
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @return Foods with the closest names first
+     */
+    public synchronized List<Food> searchFoodsByName(String query, int limit) {
+        if (foodNameIndex == null) {
+            foodNameIndex = new TrigramIndex();
+            for (int food = 0; food < foodCount; food++) {
+                foodNameIndex.put(getFoodId(food), getFoodName(food));
+            }
+        }
+
+        List<Food> foods = new ArrayList<>();
+        for (TrigramIndex.Match match : foodNameIndex.search(query, limit)) {
+            foods.add(getFood(findFoodById(match.getKey())));
+        }
+        return foods;
+    }
+
+    /**
+     * Get the exercises for a body part, including full body exercises
+     * @param bodyPart Target body part
+     * @return List of Exercise objects, in seed order
+     */
+    public List<Exercise> getExercisesByBodyPart(String bodyPart) {
+        int[] bodyPartRange = findExercises(bodyPart);
+        int[] fullBodyRange = FULL_BODY.equals(bodyPart) ? new int[]{0, 0} : findExercises(FULL_BODY);
+
+        int[] matches = new int[bodyPartRange[1] - bodyPartRange[0] + fullBodyRange[1] - fullBodyRange[0]];
+        int count = 0;
+        for (int[] range : new int[][]{bodyPartRange, fullBodyRange}) {
+            for (int i = range[0]; i < range[1]; i++) {
+                matches[count++] = buffer.getInt(bodyPartIndex + i * 4);
+            }
+        }
+        Arrays.sort(matches);
+
+        List<Exercise> exercises = new ArrayList<>(matches.length);
+        for (int exercise : matches) {
+            exercises.add(getExercise(exercise));
+        }
+        return exercises;
+    }
+
+    /**
+     * Range of the body part index holding a body part
+     * @return Start inclusive and end exclusive, empty if there are none
+     */
+    private int[] findExercises(String bodyPart) {
+        byte[] key = bodyPart.getBytes(StandardCharsets.UTF_8);
+        int start = lowerBound(key, false);
+        return new int[]{start, lowerBound(key, true)};
+    }
+
+    /**
+     * First position in the body part index whose body part is not below
+     * the key, or when inclusive, not at or below it
+     */
+    private int lowerBound(byte[] key, boolean inclusive) {
+        int low = 0;
+        int high = exerciseCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int exercise = buffer.getInt(bodyPartIndex + middle * 4);
+            int comparison = compareString(buffer.getInt(exerciseField(exercise, EXERCISE_BODY_PART)), key);
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private Exercise getExercise(int exercise) {
+        return new Exercise(
+                readString(buffer.getInt(exerciseField(exercise, EXERCISE_ID))),
+                readString(buffer.getInt(exerciseField(exercise, EXERCISE_NAME))),
+                readString(buffer.getInt(exerciseField(exercise, EXERCISE_BODY_PART))),
+                readString(buffer.getInt(exerciseField(exercise, EXERCISE_DESCRIPTION))),
+                toSteps(readString(buffer.getInt(exerciseField(exercise, EXERCISE_INSTRUCTIONS)))),
+                buffer.getInt(exerciseField(exercise, EXERCISE_DURATION)),
+                buffer.getInt(exerciseField(exercise, EXERCISE_CALORIES)),
+                readString(buffer.getInt(exerciseField(exercise, EXERCISE_DIFFICULTY)))
+        );
+    }
+
+    private int foodField(int food, int offset) {
+        if (food < 0 || food >= foodCount) {
+            throw new IndexOutOfBoundsException("Food " + food + " of " + foodCount);
+        }
+        return foodRecords + food * FOOD_RECORD_LENGTH + offset;
+    }
+
+    private int exerciseField(int exercise, int offset) {
+        return exerciseRecords + exercise * EXERCISE_RECORD_LENGTH + offset;
+    }
+
+    private String readString(int ref) {
+        int position = strings + ref;
+        byte[] utf8 = new byte[buffer.getShort(position) & 0xFFFF];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position + 2);
+        view.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare a stored string with a key by unsigned bytes, without decoding it
+     */
+    private int compareString(int ref, byte[] key) {
+        int position = strings + ref;
+        int length = buffer.getShort(position) & 0xFFFF;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int diff = (buffer.get(position + 2 + i) & 0xFF) - (key[i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return length - key.length;
+    }
+
+    /**
+     * Whether a stored string contains a needle, ignoring ASCII case like SQL LIKE
+     */
+    private boolean containsIgnoreCase(int ref, byte[] needle) {
+        int position = strings + ref + 2;
+        int length = buffer.getShort(strings + ref) & 0xFFFF;
+        for (int start = 0; start + needle.length <= length; start++) {
+            int i = 0;
+            while (i < needle.length
+                    && toLowerAscii(buffer.get(position + start + i)) == toLowerAscii(needle[i])) {
+                i++;
+            }
+            if (i == needle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int toLowerAscii(byte value) {
+        return value >= 'A' && value <= 'Z' ? value + ('a' - 'A') : value;
+    }
+
+    /**
+     * Split the numbered instructions of the seed file into steps
+     * @param instructions Lines such as "1. Stand with feet apart."
+     * @return Steps without their numbers
+     */
+    private static List<String> toSteps(String instructions) {
+        List<String> steps = new ArrayList<>();
+        if (instructions == null) {
+            return steps;
+        }
+        for (String line : instructions.split("\n")) {
+            String step = line.replaceFirst("^\\d+\\.\\s*", "").trim();
+            if (!step.isEmpty()) {
+                steps.add(step);
+            }
+        }
+        return steps;
+    }
+}
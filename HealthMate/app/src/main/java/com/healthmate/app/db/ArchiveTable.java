@@ -0,0 +1,86 @@
+package com.healthmate.app.db;
+
+/**
+ * Describes how UserDataArchive copies one table, declared by the store
+ * that owns the table so column names stay in one place.
+ *
+ * Rows are read in key order, one page at a time, continuing after the
+ * last key written. That is what makes exports resumable and incremental:
+ * a checkpoint only has to remember the last key.
+ */
+final class ArchiveTable {
+
+    // Rows read per query, and written per archive chunk
+    static final int PAGE_ROWS = 1000;
+
+    final byte section;
+    final String name;
+    final int columnCount;
+    final int keyColumnCount;
+    final int dayColumn;
+    final boolean appendOnly;
+    final int firstInsertedColumn;
+    final String selectFirstPage;
+    final String selectNextPage;
+    final String insert;
+
+    /**
+     * Constructor
+     * @param section Section ID in the archive, never reused for another table
+     * @param table Table name
+     * @param columns Columns to copy, starting with the one or two key columns
+     * @param keyColumnCount Number of leading columns forming the key, 1 or 2
+     * @param dayColumn Position of the epoch day whose rollup is rebuilt on import, or -1
+     * @param appendOnly True if rows are only ever added in key order, under a local
+     *                   row ID. Incremental exports then continue after the last
+     *                   exported key. An import leaves the row ID out, so the device
+     *                   assigns its own, and skips rows that break a unique index
+     *                   on the other columns instead of replacing them.
+     */
+    ArchiveTable(int section, String table, String[] columns, int keyColumnCount, int dayColumn,
+                 boolean appendOnly) {
+        if (keyColumnCount < 1 || keyColumnCount > 2) {
+            throw new IllegalArgumentException("keyColumnCount must be 1 or 2");
+        }
+        if (appendOnly && keyColumnCount != 1) {
+            throw new IllegalArgumentException("Append-only tables are keyed by a row ID");
+        }
+        this.section = (byte) section;
+        this.name = table;
+        this.columnCount = columns.length;
+        this.keyColumnCount = keyColumnCount;
+        this.dayColumn = dayColumn;
+        this.appendOnly = appendOnly;
+        this.firstInsertedColumn = appendOnly ? 1 : 0;
+
+        String projection = join(columns, columns.length);
+        String orderBy = " ORDER BY " + join(columns, keyColumnCount) + " LIMIT " + PAGE_ROWS;
+        selectFirstPage = "SELECT " + projection + " FROM " + table + orderBy;
+
+        // Keys are bound as text, column affinity turns them back into numbers
+        String after = keyColumnCount == 1
+                ? columns[0] + " > ?1"
+                : columns[0] + " >= ?1 AND (" + columns[0] + " > ?1 OR " + columns[1] + " > ?2)";
+        selectNextPage = "SELECT " + projection + " FROM " + table + " WHERE " + after + orderBy;
+
+        StringBuilder inserted = new StringBuilder();
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = firstInsertedColumn; i < columns.length; i++) {
+            inserted.append(i == firstInsertedColumn ? "" : ",").append(columns[i]);
+            placeholders.append(i == firstInsertedColumn ? "?" : ",?");
+        }
+        insert = (appendOnly ? "INSERT OR IGNORE INTO " : "INSERT OR REPLACE INTO ") + table
+                + "(" + inserted + ") VALUES (" + placeholders + ")";
+    }
+
+    private static String join(String[] columns, int count) {
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                joined.append(',');
+            }
+            joined.append(columns[i]);
+        }
+        return joined.toString();
+    }
+}
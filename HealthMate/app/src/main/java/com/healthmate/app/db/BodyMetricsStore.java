@@ -0,0 +1,388 @@
+package com.healthmate.app.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.healthmate.app.model.BodyMetric;
+import com.healthmate.app.model.MetricAggregate;
+import com.healthmate.app.util.BMICalculator;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time series of weight, BMI and calorie target measurements.
+ *
+ * Samples are clustered on (user_id, measured_at), so any time range is a
+ * single primary key range scan, and each sample stores the 7 day moving
+ * average of the weight at the time it was recorded. Weekly and monthly
+ * aggregates are updated in the same transaction as the sample, so trend
+ * charts over years of data read one row per week or month.
+ */
+public class BodyMetricsStore {
+    private static final String TAG = "BodyMetricsStore";
+
+    // Aggregation periods
+    private static final int PERIOD_WEEK = 0;
+    private static final int PERIOD_MONTH = 1;
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long MOVING_AVERAGE_MILLIS = TimeUnit.DAYS.toMillis(7);
+
+    // Table names
+    private static final String TABLE_BODY_METRICS = "body_metrics";
+    private static final String TABLE_BODY_METRICS_ROLLUP = "body_metrics_rollup";
+
+    // Common column names
+    private static final String KEY_USER_ID = "user_id";
+
+    // Body metrics column names
+    private static final String KEY_MEASURED_AT = "measured_at";
+    private static final String KEY_WEIGHT = "weight";
+    private static final String KEY_BMI = "bmi";
+    private static final String KEY_CALORIE_TARGET = "calorie_target";
+    private static final String KEY_WEIGHT_AVG_7D = "weight_avg_7d";
+
+    // Rollup column names
+    private static final String KEY_PERIOD = "period";
+    private static final String KEY_PERIOD_START = "period_start";
+    private static final String KEY_SAMPLE_COUNT = "sample_count";
+    private static final String KEY_WEIGHT_SUM = "weight_sum";
+    private static final String KEY_WEIGHT_MIN = "weight_min";
+    private static final String KEY_WEIGHT_MAX = "weight_max";
+    private static final String KEY_BMI_SUM = "bmi_sum";
+    private static final String KEY_CALORIE_TARGET_SUM = "calorie_target_sum";
+    private static final String KEY_LAST_WEIGHT = "last_weight";
+    private static final String KEY_LAST_MEASURED_AT = "last_measured_at";
+
+    // Table creation statements, safe to run on every upgrade
+    private static final String CREATE_TABLE_BODY_METRICS = "CREATE TABLE IF NOT EXISTS " + TABLE_BODY_METRICS + "("
+            + KEY_USER_ID + " INTEGER NOT NULL,"
+            + KEY_MEASURED_AT + " INTEGER NOT NULL,"
+            + KEY_WEIGHT + " REAL NOT NULL,"
+            + KEY_BMI + " REAL NOT NULL,"
+            + KEY_CALORIE_TARGET + " INTEGER NOT NULL,"
+            + KEY_WEIGHT_AVG_7D + " REAL NOT NULL,"
+            + "PRIMARY KEY (" + KEY_USER_ID + "," + KEY_MEASURED_AT + ")"
+            + ") WITHOUT ROWID";
+
+    private static final String CREATE_TABLE_BODY_METRICS_ROLLUP = "CREATE TABLE IF NOT EXISTS " + TABLE_BODY_METRICS_ROLLUP + "("
+            + KEY_USER_ID + " INTEGER NOT NULL,"
+            + KEY_PERIOD + " INTEGER NOT NULL,"
+            + KEY_PERIOD_START + " INTEGER NOT NULL,"
+            + KEY_SAMPLE_COUNT + " INTEGER NOT NULL,"
+            + KEY_WEIGHT_SUM + " REAL NOT NULL,"
+            + KEY_WEIGHT_MIN + " REAL NOT NULL,"
+            + KEY_WEIGHT_MAX + " REAL NOT NULL,"
+            + KEY_BMI_SUM + " REAL NOT NULL,"
+            + KEY_CALORIE_TARGET_SUM + " INTEGER NOT NULL,"
+            + KEY_LAST_WEIGHT + " REAL NOT NULL,"
+            + KEY_LAST_MEASURED_AT + " INTEGER NOT NULL,"
+            + "PRIMARY KEY (" + KEY_USER_ID + "," + KEY_PERIOD + "," + KEY_PERIOD_START + ")"
+            + ") WITHOUT ROWID";
+
+    // A second sample at the same millisecond is ignored rather than counted twice
+    private static final String INSERT_SAMPLE = "INSERT OR IGNORE INTO " + TABLE_BODY_METRICS + "("
+            + KEY_USER_ID + "," + KEY_MEASURED_AT + "," + KEY_WEIGHT + "," + KEY_BMI + ","
+            + KEY_CALORIE_TARGET + "," + KEY_WEIGHT_AVG_7D
+            + ") VALUES (?,?,?,?,?,?)";
+
+    // Rollup statements share numbered parameters:
+    // ?1 weight, ?2 bmi, ?3 calorie target, ?4 measured at, ?5 user, ?6 period, ?7 period start
+    private static final String UPDATE_ROLLUP = "UPDATE " + TABLE_BODY_METRICS_ROLLUP + " SET "
+            + KEY_SAMPLE_COUNT + " = " + KEY_SAMPLE_COUNT + " + 1,"
+            + KEY_WEIGHT_SUM + " = " + KEY_WEIGHT_SUM + " + ?1,"
+            + KEY_WEIGHT_MIN + " = MIN(" + KEY_WEIGHT_MIN + ", ?1),"
+            + KEY_WEIGHT_MAX + " = MAX(" + KEY_WEIGHT_MAX + ", ?1),"
+            + KEY_BMI_SUM + " = " + KEY_BMI_SUM + " + ?2,"
+            + KEY_CALORIE_TARGET_SUM + " = " + KEY_CALORIE_TARGET_SUM + " + ?3,"
+            + KEY_LAST_WEIGHT + " = CASE WHEN ?4 >= " + KEY_LAST_MEASURED_AT + " THEN ?1 ELSE " + KEY_LAST_WEIGHT + " END,"
+            + KEY_LAST_MEASURED_AT + " = MAX(" + KEY_LAST_MEASURED_AT + ", ?4)"
+            + " WHERE " + KEY_USER_ID + " = ?5 AND " + KEY_PERIOD + " = ?6 AND " + KEY_PERIOD_START + " = ?7";
+
+    private static final String INSERT_ROLLUP = "INSERT INTO " + TABLE_BODY_METRICS_ROLLUP + "("
+            + KEY_USER_ID + "," + KEY_PERIOD + "," + KEY_PERIOD_START + "," + KEY_SAMPLE_COUNT + ","
+            + KEY_WEIGHT_SUM + "," + KEY_WEIGHT_MIN + "," + KEY_WEIGHT_MAX + "," + KEY_BMI_SUM + ","
+            + KEY_CALORIE_TARGET_SUM + "," + KEY_LAST_WEIGHT + "," + KEY_LAST_MEASURED_AT
+            + ") VALUES (?5, ?6, ?7, 1, ?1, ?1, ?1, ?2, ?3, ?1, ?4)";
+
+    // Samples as copied by UserDataArchive. Measurements can be recorded for a
+    // past time, so they are not added in key order and every archive copies
+    // them whole. Rollups are rebuilt from the samples instead of being copied.
+    static final ArchiveTable ARCHIVE_BODY_METRICS = new ArchiveTable(6, TABLE_BODY_METRICS, new String[]{
+            KEY_USER_ID, KEY_MEASURED_AT, KEY_WEIGHT, KEY_BMI, KEY_CALORIE_TARGET, KEY_WEIGHT_AVG_7D},
+            2, -1, false);
+
+    private final DatabaseHelper dbHelper;
+
+    /**
+     * Constructor
+     * @param dbHelper Database holding the body metrics tables
+     */
+    public BodyMetricsStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Create the body metrics tables if they do not exist yet
+     * @param db Database instance
+     */
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_BODY_METRICS);
+        db.execSQL(CREATE_TABLE_BODY_METRICS_ROLLUP);
+    }
+
+    /**
+     * Record a measurement. Must be called off the main thread.
+     * @param heightInCm Height in centimeters, used to compute the BMI
+     * @param weightInKg Weight in kilograms
+     * @param calorieTarget Daily calorie target at the time of the measurement
+     * @param measuredAt Time of the measurement in milliseconds
+     * @return False if a measurement already exists for that exact time
+     */
+    public boolean record(float heightInCm, float weightInKg, int calorieTarget, long measuredAt) {
+        float bmi = BMICalculator.calculateBMI(heightInCm, weightInKg);
+        long day = LogStore.toEpochDay(measuredAt);
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.beginTransaction();
+        try {
+            float movingAverage = getMovingAverage(db, weightInKg, measuredAt);
+
+            SQLiteStatement insert = db.compileStatement(INSERT_SAMPLE);
+            try {
+                insert.bindLong(1, LogStore.DEFAULT_USER_ID);
+                insert.bindLong(2, measuredAt);
+                insert.bindDouble(3, weightInKg);
+                insert.bindDouble(4, bmi);
+                insert.bindLong(5, calorieTarget);
+                insert.bindDouble(6, movingAverage);
+                if (insert.executeUpdateDelete() == 0) {
+                    Log.d(TAG, "Measurement at " + measuredAt + " already recorded");
+                    return false;
+                }
+            } finally {
+                insert.close();
+            }
+
+            addToRollup(db, PERIOD_WEEK, weekStart(day), weightInKg, bmi, calorieTarget, measuredAt);
+            addToRollup(db, PERIOD_MONTH, monthStart(day), weightInKg, bmi, calorieTarget, measuredAt);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        return true;
+    }
+
+    /**
+     * Get the raw measurements in a time range
+     * @param fromMillis Start of the range, inclusive
+     * @param toMillis End of the range, inclusive
+     * @return Measurements in time order
+     */
+    public List<BodyMetric> getSamples(long fromMillis, long toMillis) {
+        String selectQuery = "SELECT " + KEY_MEASURED_AT + "," + KEY_WEIGHT + "," + KEY_BMI + ","
+                + KEY_CALORIE_TARGET + "," + KEY_WEIGHT_AVG_7D + " FROM " + TABLE_BODY_METRICS
+                + " WHERE " + KEY_USER_ID + " = ? AND " + KEY_MEASURED_AT + " BETWEEN ? AND ?"
+                + " ORDER BY " + KEY_MEASURED_AT;
+        return readSamples(selectQuery, new String[]{String.valueOf(LogStore.DEFAULT_USER_ID),
+                String.valueOf(fromMillis), String.valueOf(toMillis)});
+    }
+
+    /**
+     * Get the latest measurement
+     * @return Latest measurement, or null if none were recorded
+     */
+    public BodyMetric getLatest() {
+        String selectQuery = "SELECT " + KEY_MEASURED_AT + "," + KEY_WEIGHT + "," + KEY_BMI + ","
+                + KEY_CALORIE_TARGET + "," + KEY_WEIGHT_AVG_7D + " FROM " + TABLE_BODY_METRICS
+                + " WHERE " + KEY_USER_ID + " = ?"
+                + " ORDER BY " + KEY_MEASURED_AT + " DESC LIMIT 1";
+        List<BodyMetric> samples = readSamples(selectQuery,
+                new String[]{String.valueOf(LogStore.DEFAULT_USER_ID)});
+        return samples.isEmpty() ? null : samples.get(0);
+    }
+
+    /**
+     * Get weekly aggregates for a range of days. Weeks start on Monday.
+     * @param firstDay First epoch day, the week containing it is included
+     * @param lastDay Last epoch day, inclusive
+     * @return Aggregates of the weeks with measurements, in time order
+     */
+    public List<MetricAggregate> getWeeklyTrend(long firstDay, long lastDay) {
+        return getTrend(PERIOD_WEEK, weekStart(firstDay), lastDay);
+    }
+
+    /**
+     * Get monthly aggregates for a range of days
+     * @param firstDay First epoch day, the month containing it is included
+     * @param lastDay Last epoch day, inclusive
+     * @return Aggregates of the months with measurements, in time order
+     */
+    public List<MetricAggregate> getMonthlyTrend(long firstDay, long lastDay) {
+        return getTrend(PERIOD_MONTH, monthStart(firstDay), lastDay);
+    }
+
+    private List<MetricAggregate> getTrend(int period, long firstPeriodStart, long lastDay) {
+        List<MetricAggregate> trend = new ArrayList<>();
+
+        String selectQuery = "SELECT " + KEY_PERIOD_START + "," + KEY_SAMPLE_COUNT + "," + KEY_WEIGHT_SUM + ","
+                + KEY_WEIGHT_MIN + "," + KEY_WEIGHT_MAX + "," + KEY_BMI_SUM + "," + KEY_CALORIE_TARGET_SUM + ","
+                + KEY_LAST_WEIGHT + " FROM " + TABLE_BODY_METRICS_ROLLUP
+                + " WHERE " + KEY_USER_ID + " = ? AND " + KEY_PERIOD + " = ?"
+                + " AND " + KEY_PERIOD_START + " BETWEEN ? AND ?"
+                + " ORDER BY " + KEY_PERIOD_START;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{String.valueOf(LogStore.DEFAULT_USER_ID),
+                String.valueOf(period), String.valueOf(firstPeriodStart), String.valueOf(lastDay)});
+
+        // Columns are read by position, in the order of the projection above
+        while (cursor.moveToNext()) {
+            int count = cursor.getInt(1);
+            trend.add(new MetricAggregate(
+                    cursor.getLong(0),
+                    count,
+                    (float) (cursor.getDouble(2) / count),
+                    cursor.getFloat(3),
+                    cursor.getFloat(4),
+                    (float) (cursor.getDouble(5) / count),
+                    (int) (cursor.getLong(6) / count),
+                    cursor.getFloat(7)));
+        }
+
+        cursor.close();
+        return trend;
+    }
+
+    private List<BodyMetric> readSamples(String selectQuery, String[] args) {
+        List<BodyMetric> samples = new ArrayList<>();
+
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, args);
+        while (cursor.moveToNext()) {
+            samples.add(new BodyMetric(
+                    cursor.getLong(0),
+                    cursor.getFloat(1),
+                    cursor.getFloat(2),
+                    cursor.getInt(3),
+                    cursor.getFloat(4)));
+        }
+
+        cursor.close();
+        return samples;
+    }
+
+    /**
+     * Recompute all weekly and monthly aggregates from the stored samples.
+     * UserDataArchive calls this after copying samples in, inside the
+     * transaction of the copy.
+     * @param db Database instance
+     */
+    static void rebuildRollups(SQLiteDatabase db) {
+        String userId = String.valueOf(LogStore.DEFAULT_USER_ID);
+        db.delete(TABLE_BODY_METRICS_ROLLUP, KEY_USER_ID + " = ?", new String[]{userId});
+
+        // Replayed in time order, so each period's last weight comes out as when recorded
+        Cursor cursor = db.rawQuery("SELECT " + KEY_MEASURED_AT + "," + KEY_WEIGHT + "," + KEY_BMI + ","
+                        + KEY_CALORIE_TARGET + " FROM " + TABLE_BODY_METRICS
+                        + " WHERE " + KEY_USER_ID + " = ? ORDER BY " + KEY_MEASURED_AT,
+                new String[]{userId});
+        try {
+            while (cursor.moveToNext()) {
+                long measuredAt = cursor.getLong(0);
+                float weight = cursor.getFloat(1);
+                float bmi = cursor.getFloat(2);
+                int calorieTarget = cursor.getInt(3);
+                long day = LogStore.toEpochDay(measuredAt);
+                addToRollup(db, PERIOD_WEEK, weekStart(day), weight, bmi, calorieTarget, measuredAt);
+                addToRollup(db, PERIOD_MONTH, monthStart(day), weight, bmi, calorieTarget, measuredAt);
+            }
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Average of the new weight and the weights recorded in the 7 days before it
+     */
+    private static float getMovingAverage(SQLiteDatabase db, float weight, long measuredAt) {
+        Cursor cursor = db.rawQuery("SELECT SUM(" + KEY_WEIGHT + "), COUNT(*) FROM " + TABLE_BODY_METRICS
+                        + " WHERE " + KEY_USER_ID + " = ? AND " + KEY_MEASURED_AT + " > ? AND "
+                        + KEY_MEASURED_AT + " < ?",
+                new String[]{String.valueOf(LogStore.DEFAULT_USER_ID),
+                        String.valueOf(measuredAt - MOVING_AVERAGE_MILLIS), String.valueOf(measuredAt)});
+        try {
+            cursor.moveToFirst();
+            double sum = cursor.getDouble(0) + weight;
+            int count = cursor.getInt(1) + 1;
+            return (float) (sum / count);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    /**
+     * Add a sample to a period's aggregate, creating the row for the first sample
+     */
+    private static void addToRollup(SQLiteDatabase db, int period, long periodStart, float weight,
+                                    float bmi, int calorieTarget, long measuredAt) {
+        SQLiteStatement update = db.compileStatement(UPDATE_ROLLUP);
+        try {
+            bindRollup(update, period, periodStart, weight, bmi, calorieTarget, measuredAt);
+            if (update.executeUpdateDelete() > 0) {
+                return;
+            }
+        } finally {
+            update.close();
+        }
+
+        SQLiteStatement insert = db.compileStatement(INSERT_ROLLUP);
+        try {
+            bindRollup(insert, period, periodStart, weight, bmi, calorieTarget, measuredAt);
+            insert.executeUpdateDelete();
+        } finally {
+            insert.close();
+        }
+    }
+
+    private static void bindRollup(SQLiteStatement statement, int period, long periodStart, float weight,
+                                   float bmi, int calorieTarget, long measuredAt) {
+        statement.bindDouble(1, weight);
+        statement.bindDouble(2, bmi);
+        statement.bindLong(3, calorieTarget);
+        statement.bindLong(4, measuredAt);
+        statement.bindLong(5, LogStore.DEFAULT_USER_ID);
+        statement.bindLong(6, period);
+        statement.bindLong(7, periodStart);
+    }
+
+    /**
+     * Get the Monday of the week containing a day
+     * @param day Epoch day
+     * @return Epoch day of the Monday
+     */
+    static long weekStart(long day) {
+        // 1970-01-01 was a Thursday, so day + 3 is 0 on Mondays modulo 7
+        long dayOfWeek = ((day + 3) % 7 + 7) % 7;
+        return day - dayOfWeek;
+    }
+
+    /**
+     * Get the first day of the month containing a day
+     * @param day Epoch day
+     * @return Epoch day of the first of the month
+     */
+    static long monthStart(long day) {
+        // Epoch days are already local, so the calendar math is done in UTC
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.setTimeInMillis(day * DAY_MILLIS);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        return calendar.getTimeInMillis() / DAY_MILLIS;
+    }
+}
@@ -5,13 +5,23 @@ import android.content.Context;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
 import android.util.Log;
 
+import androidx.annotation.VisibleForTesting;
+
 import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.util.CompressedText;
 import com.healthmate.app.util.Constants;
+import com.healthmate.app.util.StartupTracer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * SQLite database helper for the application
@@ -21,10 +31,10 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     
     // Database information
     private static final String DATABASE_NAME = "healthmate.db";
-    private static final int DATABASE_VERSION = 1;
+    private static final int DATABASE_VERSION = 10;
     
     // Table names
-    private static final String TABLE_EXERCISES = "exercises";
+    static final String TABLE_EXERCISES = "exercises";
     
     // Common column names
     private static final String KEY_ID = "id";
@@ -33,47 +43,190 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     private static final String KEY_NAME = "name";
     private static final String KEY_BODY_PART = "body_part";
     private static final String KEY_DESCRIPTION = "description";
-    private static final String KEY_INSTRUCTIONS = "instructions";
     private static final String KEY_DURATION = "duration";
     private static final String KEY_CALORIES = "calories";
     private static final String KEY_DIFFICULTY = "difficulty";
+    private static final String KEY_TARGET = "target";
+    private static final String KEY_EQUIPMENT = "equipment";
+    private static final String KEY_GIF_URL = "gif_url";
+    private static final String KEY_SECONDARY_MUSCLES = "secondary_muscles";
     
-    // Table creation statements
+    // Table creation statements. Description holds a CompressedText value,
+    // written and read through bindCompressed() and readCompressed().
+    // Instruction steps are kept apart in ExerciseStepStore's table.
     private static final String CREATE_TABLE_EXERCISES = "CREATE TABLE " + TABLE_EXERCISES + "("
             + KEY_ID + " TEXT PRIMARY KEY,"
             + KEY_NAME + " TEXT,"
             + KEY_BODY_PART + " TEXT,"
-            + KEY_DESCRIPTION + " TEXT,"
-            + KEY_INSTRUCTIONS + " TEXT,"
+            + KEY_DESCRIPTION + " BLOB,"
             + KEY_DURATION + " INTEGER,"
             + KEY_CALORIES + " INTEGER,"
-            + KEY_DIFFICULTY + " TEXT"
+            + KEY_DIFFICULTY + " TEXT,"
+            + KEY_TARGET + " TEXT,"
+            + KEY_EQUIPMENT + " TEXT,"
+            + KEY_GIF_URL + " TEXT,"
+            + KEY_SECONDARY_MUSCLES + " TEXT"
             + ")";
     
+    // Index used by body part lookups, difficulty included so capped queries stay on the index
+    private static final String CREATE_INDEX_EXERCISES_BODY_PART = "CREATE INDEX idx_exercises_body_part ON "
+            + TABLE_EXERCISES + "(" + KEY_BODY_PART + "," + KEY_DIFFICULTY + ")";
+    
+    // Statements used for batched upserts. SQLite's ON CONFLICT DO UPDATE needs
+    // 3.24, newer than API 21 ships, so each row is updated and inserted only if
+    // no row changed. A null description keeps the stored one, since sources
+    // such as Wger's search answer without it. Columns after the ID are in the
+    // same order as bindExercise().
+    private static final String UPDATE_EXERCISE = "UPDATE " + TABLE_EXERCISES + " SET "
+            + KEY_NAME + "=?," + KEY_BODY_PART + "=?,"
+            + KEY_DESCRIPTION + "=COALESCE(?," + KEY_DESCRIPTION + "),"
+            + KEY_DURATION + "=?," + KEY_CALORIES + "=?," + KEY_DIFFICULTY + "=?,"
+            + KEY_TARGET + "=?," + KEY_EQUIPMENT + "=?," + KEY_GIF_URL + "=?," + KEY_SECONDARY_MUSCLES + "=?"
+            + " WHERE " + KEY_ID + "=?";
+    private static final String INSERT_EXERCISE = "INSERT INTO " + TABLE_EXERCISES + "("
+            + KEY_ID + "," + KEY_NAME + "," + KEY_BODY_PART + "," + KEY_DESCRIPTION + ","
+            + KEY_DURATION + "," + KEY_CALORIES + "," + KEY_DIFFICULTY + ","
+            + KEY_TARGET + "," + KEY_EQUIPMENT + "," + KEY_GIF_URL + "," + KEY_SECONDARY_MUSCLES
+            + ") VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+    // Number of columns bound by bindExercise()
+    private static final int EXERCISE_BIND_COUNT = 10;
+    
+    // Columns of list queries, everything but the description. List screens,
+    // the catalog and the planners never show it, and leaving it out keeps
+    // the compressed blobs out of the cursor window.
+    static final String EXERCISE_LIST_COLUMNS = KEY_ID + "," + KEY_NAME + "," + KEY_BODY_PART + ","
+            + KEY_DURATION + "," + KEY_CALORIES + "," + KEY_DIFFICULTY + ","
+            + KEY_TARGET + "," + KEY_EQUIPMENT + "," + KEY_GIF_URL + "," + KEY_SECONDARY_MUSCLES;
+    private static final int EXERCISE_LIST_COLUMN_COUNT = 10;
+    
+    // Columns of the detail query, the list columns followed by the description
+    private static final String EXERCISE_DETAIL_COLUMNS = EXERCISE_LIST_COLUMNS + "," + KEY_DESCRIPTION;
+    
+    // Columns of the exercise list rows, see ExerciseSummary
+    static final String EXERCISE_SUMMARY_COLUMNS = KEY_ID + "," + KEY_NAME + "," + KEY_BODY_PART + ","
+            + KEY_TARGET + "," + KEY_EQUIPMENT + "," + KEY_GIF_URL;
+    
+    // Cached catalog as copied by UserDataArchive, descriptions stay compressed
+    static final ArchiveTable ARCHIVE_EXERCISES = new ArchiveTable(4, TABLE_EXERCISES, new String[]{
+            KEY_ID, KEY_NAME, KEY_BODY_PART, KEY_DESCRIPTION, KEY_DURATION, KEY_CALORIES, KEY_DIFFICULTY,
+            KEY_TARGET, KEY_EQUIPMENT, KEY_GIF_URL, KEY_SECONDARY_MUSCLES}, 1, -1, false);
+    
+    // Separator for list columns such as secondary muscles
+    private static final String LIST_SEPARATOR = ",";
+    
+    // Notified after exercise rows are written
+    private final List<OnExercisesChangedListener> exerciseListeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Listener for writes to the exercise table
+     */
+    public interface OnExercisesChangedListener {
+        /**
+         * Called on the writing thread once the rows are committed
+         * @param exercises Exercises that were inserted or replaced
+         */
+        void onExercisesChanged(List<Exercise> exercises);
+    }
+    
+    /**
+     * Receives the rows of forEachExercise() one at a time
+     */
+    public interface ExerciseVisitor {
+        /**
+         * Called on the querying thread for each row. The exercise and its
+         * secondary muscle list are reused for the next row, so copy what
+         * has to outlive the call.
+         * @param exercise Current row
+         */
+        void visit(Exercise exercise);
+    }
+    
     /**
      * Constructor
      * @param context Application context
      */
     public DatabaseHelper(Context context) {
-        super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        this(context, DATABASE_NAME);
+    }
+    
+    /**
+     * Constructor for a database other than the app's, used by instrumented benchmarks
+     * @param context Application context
+     * @param name Database file name, or null for an in-memory database
+     */
+    @VisibleForTesting
+    DatabaseHelper(Context context, String name) {
+        super(context, name, null, DATABASE_VERSION);
+    }
+    
+    /**
+     * Register a listener for writes to the exercise table
+     * @param listener Listener to add
+     */
+    public void addOnExercisesChangedListener(OnExercisesChangedListener listener) {
+        exerciseListeners.add(listener);
+    }
+    
+    /**
+     * Unregister a listener added with addOnExercisesChangedListener
+     * @param listener Listener to remove
+     */
+    public void removeOnExercisesChangedListener(OnExercisesChangedListener listener) {
+        exerciseListeners.remove(listener);
+    }
+    
+    /**
+     * Tell the listeners that exercise rows were written
+     * @param exercises Exercises that were inserted or replaced
+     */
+    void notifyExercisesChanged(List<Exercise> exercises) {
+        for (OnExercisesChangedListener listener : exerciseListeners) {
+            listener.onExercisesChanged(exercises);
+        }
     }
     
     @Override
     public void onCreate(SQLiteDatabase db) {
-        // Create required tables
-        db.execSQL(CREATE_TABLE_EXERCISES);
-        
-        // Add default exercises
-        addDefaultExercises(db);
+        StartupTracer.beginSection("DatabaseHelper.onCreate");
+        try {
+            // Create required tables
+            createCacheTables(db);
+            LogStore.createTables(db);
+            BodyMetricsStore.createTables(db);
+            ProfileStore.createTables(db);
+        } finally {
+            StartupTracer.endSection();
+        }
     }
     
     @Override
     public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-        // Drop existing tables if they exist
+        // The exercise catalog is a cache of the API and can be rebuilt,
+        // and so can its steps and the neighbours derived from it
         db.execSQL("DROP TABLE IF EXISTS " + TABLE_EXERCISES);
+        db.execSQL("DROP TABLE IF EXISTS " + ExerciseStepStore.TABLE_EXERCISE_STEP);
+        db.execSQL("DROP TABLE IF EXISTS " + SimilarExerciseStore.TABLE_SIMILAR_EXERCISE);
+        createCacheTables(db);
+        
+        // User data is kept, only tables missing in older versions are created
+        LogStore.createTables(db);
+        BodyMetricsStore.createTables(db);
+        ProfileStore.createTables(db);
+    }
+    
+    /**
+     * Create the exercise catalog tables and add the default exercises.
+     * Neighbours of the defaults are computed later by SimilarExerciseStore.
+     * @param db Database instance
+     */
+    private void createCacheTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_EXERCISES);
+        db.execSQL(CREATE_INDEX_EXERCISES_BODY_PART);
+        ExerciseStepStore.createTables(db);
+        SimilarExerciseStore.createTables(db);
         
-        // Create tables again
-        onCreate(db);
+        // Add default exercises
+        addDefaultExercises(db);
     }
     
     /**
@@ -81,222 +234,349 @@ public class DatabaseHelper extends SQLiteOpenHelper {
      * @param db Database instance
      */
     private void addDefaultExercises(SQLiteDatabase db) {
-        // Add default exercises for Arms
-        insertExercise(db, new Exercise(
-                "arm-1",
-                "Push-Ups",
-                Constants.BODY_PART_ARMS,
-                "Classic bodyweight exercise for upper body strength",
-                "1. Start in a plank position with hands shoulder-width apart\n2. Lower your body until your chest nearly touches the floor\n3. Push yourself back up\n4. Repeat",
-                15,
-                150,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        insertExercise(db, new Exercise(
-                "arm-2",
-                "Bicep Curls",
-                Constants.BODY_PART_ARMS,
-                "Isolation exercise targeting the biceps",
-                "1. Stand with feet shoulder-width apart holding dumbbells\n2. Keeping elbows close to your body, curl the weights up\n3. Lower back down with control\n4. Repeat",
-                10,
-                120,
-                Constants.DIFFICULTY_EASY
-        ));
-        
-        // Add default exercises for Chest
-        insertExercise(db, new Exercise(
-                "chest-1",
-                "Chest Press",
-                Constants.BODY_PART_CHEST,
-                "Compound exercise for chest development",
-                "1. Lie on a bench with feet on the floor\n2. Hold dumbbells at chest level\n3. Press weights up until arms are extended\n4. Lower weights back to chest\n5. Repeat",
-                12,
-                180,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        insertExercise(db, new Exercise(
-                "chest-2",
-                "Chest Fly",
-                Constants.BODY_PART_CHEST,
-                "Isolation exercise for chest muscles",
-                "1. Lie on a bench holding dumbbells above your chest\n2. Lower arms out to sides in an arc\n3. Return to starting position\n4. Repeat",
-                12,
-                150,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        // Add default exercises for Back
-        insertExercise(db, new Exercise(
-                "back-1",
-                "Bent Over Row",
-                Constants.BODY_PART_BACK,
-                "Compound exercise for back strength",
-                "1. Stand with feet shoulder-width apart\n2. Bend at the waist keeping back straight\n3. Pull weights up to your ribs\n4. Lower weights with control\n5. Repeat",
-                12,
-                200,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        insertExercise(db, new Exercise(
-                "back-2",
-                "Pull-Ups",
-                Constants.BODY_PART_BACK,
-                "Advanced bodyweight exercise for upper back",
-                "1. Grip a pull-up bar with palms facing away\n2. Pull yourself up until chin is over the bar\n3. Lower with control\n4. Repeat",
-                8,
-                180,
-                Constants.DIFFICULTY_HARD
-        ));
-        
-        // Add default exercises for Abs
-        insertExercise(db, new Exercise(
-                "abs-1",
-                "Crunches",
-                Constants.BODY_PART_ABS,
-                "Basic exercise for abdominal muscles",
-                "1. Lie on your back with knees bent\n2. Place hands behind head\n3. Lift shoulders off the ground using abs\n4. Lower with control\n5. Repeat",
-                20,
-                120,
-                Constants.DIFFICULTY_EASY
-        ));
-        
-        insertExercise(db, new Exercise(
-                "abs-2",
-                "Plank",
-                Constants.BODY_PART_ABS,
-                "Isometric exercise for core stability",
-                "1. Start in a push-up position with arms straight\n2. Lower onto your forearms\n3. Keep body in a straight line\n4. Hold position",
-                60, // seconds
-                150,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        // Add default exercises for Legs
-        insertExercise(db, new Exercise(
-                "legs-1",
-                "Squats",
-                Constants.BODY_PART_LEGS,
-                "Compound exercise for leg strength",
-                "1. Stand with feet shoulder-width apart\n2. Lower your body as if sitting in a chair\n3. Keep back straight and knees over toes\n4. Return to standing\n5. Repeat",
-                15,
-                220,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        insertExercise(db, new Exercise(
-                "legs-2",
-                "Lunges",
-                Constants.BODY_PART_LEGS,
-                "Unilateral exercise for legs and balance",
-                "1. Stand with feet together\n2. Step forward with one leg\n3. Lower until both knees are at 90 degrees\n4. Push back to starting position\n5. Alternate legs\n6. Repeat",
-                12,
-                200,
-                Constants.DIFFICULTY_MEDIUM
-        ));
-        
-        // Add default exercises for Full Body
-        insertExercise(db, new Exercise(
-                "full-1",
-                "Burpees",
-                Constants.BODY_PART_FULL_BODY,
-                "High-intensity full body exercise",
-                "1. Start standing\n2. Drop to a squat position\n3. Kick feet back to a plank\n4. Perform a push-up\n5. Return to squat position\n6. Jump up\n7. Repeat",
-                10,
-                250,
-                Constants.DIFFICULTY_HARD
-        ));
-        
-        insertExercise(db, new Exercise(
-                "full-2",
-                "Mountain Climbers",
-                Constants.BODY_PART_FULL_BODY,
-                "Dynamic full body exercise",
-                "1. Start in plank position\n2. Bring one knee toward chest\n3. Switch legs in a running motion\n4. Maintain plank position\n5. Repeat quickly",
-                30,
-                200,
-                Constants.DIFFICULTY_MEDIUM
-        ));
+        ExerciseStepStore.Writer stepWriter = new ExerciseStepStore.Writer(db);
+        try {
+            // Add default exercises for Arms
+            insertExercise(db, stepWriter, new Exercise(
+                    "arm-1",
+                    "Push-Ups",
+                    Constants.BODY_PART_ARMS,
+                    "Classic bodyweight exercise for upper body strength",
+                    Arrays.asList(
+                            "Start in a plank position with hands shoulder-width apart",
+                            "Lower your body until your chest nearly touches the floor",
+                            "Push yourself back up",
+                            "Repeat"),
+                    15,
+                    150,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            insertExercise(db, stepWriter, new Exercise(
+                    "arm-2",
+                    "Bicep Curls",
+                    Constants.BODY_PART_ARMS,
+                    "Isolation exercise targeting the biceps",
+                    Arrays.asList(
+                            "Stand with feet shoulder-width apart holding dumbbells",
+                            "Keeping elbows close to your body, curl the weights up",
+                            "Lower back down with control",
+                            "Repeat"),
+                    10,
+                    120,
+                    Constants.DIFFICULTY_EASY
+            ));
+            
+            // Add default exercises for Chest
+            insertExercise(db, stepWriter, new Exercise(
+                    "chest-1",
+                    "Chest Press",
+                    Constants.BODY_PART_CHEST,
+                    "Compound exercise for chest development",
+                    Arrays.asList(
+                            "Lie on a bench with feet on the floor",
+                            "Hold dumbbells at chest level",
+                            "Press weights up until arms are extended",
+                            "Lower weights back to chest",
+                            "Repeat"),
+                    12,
+                    180,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            insertExercise(db, stepWriter, new Exercise(
+                    "chest-2",
+                    "Chest Fly",
+                    Constants.BODY_PART_CHEST,
+                    "Isolation exercise for chest muscles",
+                    Arrays.asList(
+                            "Lie on a bench holding dumbbells above your chest",
+                            "Lower arms out to sides in an arc",
+                            "Return to starting position",
+                            "Repeat"),
+                    12,
+                    150,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            // Add default exercises for Back
+            insertExercise(db, stepWriter, new Exercise(
+                    "back-1",
+                    "Bent Over Row",
+                    Constants.BODY_PART_BACK,
+                    "Compound exercise for back strength",
+                    Arrays.asList(
+                            "Stand with feet shoulder-width apart",
+                            "Bend at the waist keeping back straight",
+                            "Pull weights up to your ribs",
+                            "Lower weights with control",
+                            "Repeat"),
+                    12,
+                    200,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            insertExercise(db, stepWriter, new Exercise(
+                    "back-2",
+                    "Pull-Ups",
+                    Constants.BODY_PART_BACK,
+                    "Advanced bodyweight exercise for upper back",
+                    Arrays.asList(
+                            "Grip a pull-up bar with palms facing away",
+                            "Pull yourself up until chin is over the bar",
+                            "Lower with control",
+                            "Repeat"),
+                    8,
+                    180,
+                    Constants.DIFFICULTY_HARD
+            ));
+            
+            // Add default exercises for Abs
+            insertExercise(db, stepWriter, new Exercise(
+                    "abs-1",
+                    "Crunches",
+                    Constants.BODY_PART_ABS,
+                    "Basic exercise for abdominal muscles",
+                    Arrays.asList(
+                            "Lie on your back with knees bent",
+                            "Place hands behind head",
+                            "Lift shoulders off the ground using abs",
+                            "Lower with control",
+                            "Repeat"),
+                    20,
+                    120,
+                    Constants.DIFFICULTY_EASY
+            ));
+            
+            insertExercise(db, stepWriter, new Exercise(
+                    "abs-2",
+                    "Plank",
+                    Constants.BODY_PART_ABS,
+                    "Isometric exercise for core stability",
+                    Arrays.asList(
+                            "Start in a push-up position with arms straight",
+                            "Lower onto your forearms",
+                            "Keep body in a straight line",
+                            "Hold position"),
+                    60, // seconds
+                    150,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            // Add default exercises for Legs
+            insertExercise(db, stepWriter, new Exercise(
+                    "legs-1",
+                    "Squats",
+                    Constants.BODY_PART_LEGS,
+                    "Compound exercise for leg strength",
+                    Arrays.asList(
+                            "Stand with feet shoulder-width apart",
+                            "Lower your body as if sitting in a chair",
+                            "Keep back straight and knees over toes",
+                            "Return to standing",
+                            "Repeat"),
+                    15,
+                    220,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            insertExercise(db, stepWriter, new Exercise(
+                    "legs-2",
+                    "Lunges",
+                    Constants.BODY_PART_LEGS,
+                    "Unilateral exercise for legs and balance",
+                    Arrays.asList(
+                            "Stand with feet together",
+                            "Step forward with one leg",
+                            "Lower until both knees are at 90 degrees",
+                            "Push back to starting position",
+                            "Alternate legs",
+                            "Repeat"),
+                    12,
+                    200,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+            
+            // Add default exercises for Full Body
+            insertExercise(db, stepWriter, new Exercise(
+                    "full-1",
+                    "Burpees",
+                    Constants.BODY_PART_FULL_BODY,
+                    "High-intensity full body exercise",
+                    Arrays.asList(
+                            "Start standing",
+                            "Drop to a squat position",
+                            "Kick feet back to a plank",
+                            "Perform a push-up",
+                            "Return to squat position",
+                            "Jump up",
+                            "Repeat"),
+                    10,
+                    250,
+                    Constants.DIFFICULTY_HARD
+            ));
+            
+            insertExercise(db, stepWriter, new Exercise(
+                    "full-2",
+                    "Mountain Climbers",
+                    Constants.BODY_PART_FULL_BODY,
+                    "Dynamic full body exercise",
+                    Arrays.asList(
+                            "Start in plank position",
+                            "Bring one knee toward chest",
+                            "Switch legs in a running motion",
+                            "Maintain plank position",
+                            "Repeat quickly"),
+                    30,
+                    200,
+                    Constants.DIFFICULTY_MEDIUM
+            ));
+        } finally {
+            stepWriter.close();
+        }
     }
     
     /**
-     * Insert a single exercise into the database
+     * Insert a single exercise and its steps into the database
      * @param db Database instance
+     * @param stepWriter Writer for the exercise's steps
      * @param exercise Exercise to insert
      */
-    private void insertExercise(SQLiteDatabase db, Exercise exercise) {
+    private void insertExercise(SQLiteDatabase db, ExerciseStepStore.Writer stepWriter, Exercise exercise) {
         ContentValues values = new ContentValues();
         values.put(KEY_ID, exercise.getId());
         values.put(KEY_NAME, exercise.getName());
         values.put(KEY_BODY_PART, exercise.getBodyPart());
-        values.put(KEY_DESCRIPTION, exercise.getDescription());
-        values.put(KEY_INSTRUCTIONS, exercise.getInstructions());
+        values.put(KEY_DESCRIPTION, CompressedText.encode(exercise.getDescription()));
         values.put(KEY_DURATION, exercise.getDurationInMinutes());
         values.put(KEY_CALORIES, exercise.getCaloriesBurned());
         values.put(KEY_DIFFICULTY, exercise.getDifficultyLevel());
+        values.put(KEY_TARGET, exercise.getTarget());
+        values.put(KEY_EQUIPMENT, exercise.getEquipment());
+        values.put(KEY_GIF_URL, exercise.getGifUrl());
+        values.put(KEY_SECONDARY_MUSCLES, joinList(exercise.getSecondaryMuscles()));
         
         db.insert(TABLE_EXERCISES, null, values);
+        stepWriter.replaceSteps(exercise.getId(), exercise.getSteps());
     }
     
     /**
-     * Get all exercises from the database
+     * Get all exercises from the database, without descriptions or steps
      * @return List of exercises
      */
     public List<Exercise> getAllExercises() {
-        List<Exercise> exercises = new ArrayList<>();
+        String selectQuery = "SELECT " + EXERCISE_LIST_COLUMNS + " FROM " + TABLE_EXERCISES;
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, null);
+        
+        List<Exercise> exercises = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            exercises.add(readListRow(cursor, new Exercise()));
+        }
         
-        String selectQuery = "SELECT * FROM " + TABLE_EXERCISES;
+        cursor.close();
+        return exercises;
+    }
+    
+    /**
+     * Stream all exercises, without descriptions or steps, through a single
+     * reused Exercise instance. Meant for consumers that aggregate or copy
+     * out rows, which would otherwise allocate an object and a list per row.
+     * @param visitor Called for each row, on the calling thread
+     * @return Number of rows visited
+     */
+    public int forEachExercise(ExerciseVisitor visitor) {
+        String selectQuery = "SELECT " + EXERCISE_LIST_COLUMNS + " FROM " + TABLE_EXERCISES;
         SQLiteDatabase db = this.getReadableDatabase();
         Cursor cursor = db.rawQuery(selectQuery, null);
         
+        Exercise exercise = new Exercise();
+        exercise.setSecondaryMuscles(new ArrayList<>());
+        int count = 0;
+        try {
+            while (cursor.moveToNext()) {
+                readListRow(cursor, exercise);
+                visitor.visit(exercise);
+                count++;
+            }
+        } finally {
+            cursor.close();
+        }
+        return count;
+    }
+    
+    /**
+     * Get one exercise with its description, without its steps
+     * @param exerciseId Exercise ID
+     * @return Exercise, or null if it is not stored
+     */
+    public Exercise getExerciseById(String exerciseId) {
+        String selectQuery = "SELECT " + EXERCISE_DETAIL_COLUMNS + " FROM " + TABLE_EXERCISES +
+                " WHERE " + KEY_ID + " = ?";
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{exerciseId});
+        
+        Exercise exercise = null;
         if (cursor.moveToFirst()) {
-            do {
-                Exercise exercise = new Exercise();
-                exercise.setId(cursor.getString(cursor.getColumnIndex(KEY_ID)));
-                exercise.setName(cursor.getString(cursor.getColumnIndex(KEY_NAME)));
-                exercise.setBodyPart(cursor.getString(cursor.getColumnIndex(KEY_BODY_PART)));
-                exercise.setDescription(cursor.getString(cursor.getColumnIndex(KEY_DESCRIPTION)));
-                exercise.setInstructions(cursor.getString(cursor.getColumnIndex(KEY_INSTRUCTIONS)));
-                exercise.setDurationInMinutes(cursor.getInt(cursor.getColumnIndex(KEY_DURATION)));
-                exercise.setCaloriesBurned(cursor.getInt(cursor.getColumnIndex(KEY_CALORIES)));
-                exercise.setDifficultyLevel(cursor.getString(cursor.getColumnIndex(KEY_DIFFICULTY)));
-                
-                exercises.add(exercise);
-            } while (cursor.moveToNext());
+            exercise = readListRow(cursor, new Exercise());
+            exercise.setDescription(readCompressed(cursor, EXERCISE_LIST_COLUMN_COUNT));
         }
         
         cursor.close();
-        return exercises;
+        return exercise;
     }
     
     /**
-     * Get exercises by body part
+     * Get the list rows of the exercises for a body part
      * @param bodyPart Body part to filter by
-     * @return List of exercises targeting the specified body part
+     * @return Summaries of the exercises targeting the specified body part
      */
-    public List<Exercise> getExercisesByBodyPart(String bodyPart) {
-        List<Exercise> exercises = new ArrayList<>();
-        
-        String selectQuery = "SELECT * FROM " + TABLE_EXERCISES +
+    public List<ExerciseSummary> getExerciseSummariesByBodyPart(String bodyPart) {
+        String selectQuery = "SELECT " + EXERCISE_SUMMARY_COLUMNS + " FROM " + TABLE_EXERCISES +
                 " WHERE " + KEY_BODY_PART + " = ?";
         SQLiteDatabase db = this.getReadableDatabase();
         Cursor cursor = db.rawQuery(selectQuery, new String[]{bodyPart});
         
-        if (cursor.moveToFirst()) {
-            do {
-                Exercise exercise = new Exercise();
-                exercise.setId(cursor.getString(cursor.getColumnIndex(KEY_ID)));
-                exercise.setName(cursor.getString(cursor.getColumnIndex(KEY_NAME)));
-                exercise.setBodyPart(cursor.getString(cursor.getColumnIndex(KEY_BODY_PART)));
-                exercise.setDescription(cursor.getString(cursor.getColumnIndex(KEY_DESCRIPTION)));
-                exercise.setInstructions(cursor.getString(cursor.getColumnIndex(KEY_INSTRUCTIONS)));
-                exercise.setDurationInMinutes(cursor.getInt(cursor.getColumnIndex(KEY_DURATION)));
-                exercise.setCaloriesBurned(cursor.getInt(cursor.getColumnIndex(KEY_CALORIES)));
-                exercise.setDifficultyLevel(cursor.getString(cursor.getColumnIndex(KEY_DIFFICULTY)));
-                
-                exercises.add(exercise);
-            } while (cursor.moveToNext());
+        List<ExerciseSummary> summaries = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            // Columns are read by position, in the order of EXERCISE_SUMMARY_COLUMNS
+            // Seeded exercises have no target or equipment, the list shows its own placeholders
+            summaries.add(new ExerciseSummary(cursor.getString(0), cursor.getString(1),
+                    cursor.getString(2), cursor.getString(3), cursor.getString(4), cursor.getString(5)));
+        }
+        
+        cursor.close();
+        return summaries;
+    }
+    
+    /**
+     * Get exercises for a body part limited to some difficulty levels,
+     * without descriptions or steps
+     * @param bodyPart Body part to filter by
+     * @param difficultyLevels Allowed difficulty levels
+     * @return List of matching exercises
+     */
+    public List<Exercise> getExercisesByBodyPart(String bodyPart, List<String> difficultyLevels) {
+        List<Exercise> exercises = new ArrayList<>();
+        if (difficultyLevels.isEmpty()) {
+            return exercises;
+        }
+        
+        String[] args = new String[difficultyLevels.size() + 1];
+        args[0] = bodyPart;
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < difficultyLevels.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+            args[i + 1] = difficultyLevels.get(i);
+        }
+        
+        String selectQuery = "SELECT " + EXERCISE_LIST_COLUMNS + " FROM " + TABLE_EXERCISES +
+                " WHERE " + KEY_BODY_PART + " = ? AND " + KEY_DIFFICULTY + " IN (" + placeholders + ")";
+        SQLiteDatabase db = this.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, args);
+        
+        while (cursor.moveToNext()) {
+            exercises.add(readListRow(cursor, new Exercise()));
         }
         
         cursor.close();
@@ -314,30 +594,173 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         ContentValues values = new ContentValues();
         values.put(KEY_NAME, exercise.getName());
         values.put(KEY_BODY_PART, exercise.getBodyPart());
-        values.put(KEY_DESCRIPTION, exercise.getDescription());
-        values.put(KEY_INSTRUCTIONS, exercise.getInstructions());
+        if (exercise.getDescription() != null) {
+            // As in upsertExercises(), a missing description keeps the stored one
+            values.put(KEY_DESCRIPTION, CompressedText.encode(exercise.getDescription()));
+        }
         values.put(KEY_DURATION, exercise.getDurationInMinutes());
         values.put(KEY_CALORIES, exercise.getCaloriesBurned());
         values.put(KEY_DIFFICULTY, exercise.getDifficultyLevel());
-        
-        // Check if exercise already exists
-        Cursor cursor = db.query(TABLE_EXERCISES, new String[]{KEY_ID},
-                KEY_ID + " = ?", new String[]{exercise.getId()},
-                null, null, null, null);
+        values.put(KEY_TARGET, exercise.getTarget());
+        values.put(KEY_EQUIPMENT, exercise.getEquipment());
+        values.put(KEY_GIF_URL, exercise.getGifUrl());
+        values.put(KEY_SECONDARY_MUSCLES, joinList(exercise.getSecondaryMuscles()));
         
         long id;
+        ExerciseStepStore.Writer stepWriter = new ExerciseStepStore.Writer(db);
+        db.beginTransaction();
+        try {
+            // Check if exercise already exists
+            Cursor cursor = db.query(TABLE_EXERCISES, new String[]{KEY_ID},
+                    KEY_ID + " = ?", new String[]{exercise.getId()},
+                    null, null, null, null);
+            
+            if (cursor != null && cursor.moveToFirst()) {
+                // Update existing exercise
+                id = db.update(TABLE_EXERCISES, values, KEY_ID + " = ?",
+                        new String[]{exercise.getId()});
+                cursor.close();
+            } else {
+                // Insert new exercise
+                values.put(KEY_ID, exercise.getId());
+                id = db.insert(TABLE_EXERCISES, null, values);
+            }
+            stepWriter.replaceSteps(exercise.getId(), exercise.getSteps());
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            stepWriter.close();
+        }
         
-        if (cursor != null && cursor.moveToFirst()) {
-            // Update existing exercise
-            id = db.update(TABLE_EXERCISES, values, KEY_ID + " = ?",
-                    new String[]{exercise.getId()});
-            cursor.close();
+        notifyExercisesChanged(Collections.singletonList(exercise));
+        return id;
+    }
+    
+    /**
+     * Insert or update a batch of exercises and their steps in a single
+     * transaction. The statements are compiled once and reused for every
+     * row. Exercises whose description or steps are null keep the stored ones.
+     * @param exercises Exercises to write
+     */
+    public void upsertExercises(List<Exercise> exercises) {
+        if (exercises.isEmpty()) {
+            return;
+        }
+        
+        SQLiteDatabase db = this.getWritableDatabase();
+        SQLiteStatement update = db.compileStatement(UPDATE_EXERCISE);
+        SQLiteStatement insert = db.compileStatement(INSERT_EXERCISE);
+        ExerciseStepStore.Writer stepWriter = new ExerciseStepStore.Writer(db);
+        
+        db.beginTransaction();
+        try {
+            for (Exercise exercise : exercises) {
+                bindExercise(update, 1, exercise);
+                bindNullable(update, EXERCISE_BIND_COUNT + 1, exercise.getId());
+                if (update.executeUpdateDelete() == 0) {
+                    bindNullable(insert, 1, exercise.getId());
+                    bindExercise(insert, 2, exercise);
+                    insert.executeInsert();
+                    insert.clearBindings();
+                }
+                update.clearBindings();
+                stepWriter.replaceSteps(exercise.getId(), exercise.getSteps());
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            update.close();
+            insert.close();
+            stepWriter.close();
+        }
+        
+        Log.d(TAG, "Upserted " + exercises.size() + " exercises");
+        notifyExercisesChanged(exercises);
+    }
+    
+    /**
+     * Bind the columns of an exercise after its ID, EXERCISE_BIND_COUNT in all
+     * @param statement Compiled UPDATE_EXERCISE or INSERT_EXERCISE statement
+     * @param first Index of the name parameter
+     * @param exercise Exercise to bind
+     */
+    private void bindExercise(SQLiteStatement statement, int first, Exercise exercise) {
+        bindNullable(statement, first, exercise.getName());
+        bindNullable(statement, first + 1, exercise.getBodyPart());
+        bindCompressed(statement, first + 2, exercise.getDescription());
+        statement.bindLong(first + 3, exercise.getDurationInMinutes());
+        statement.bindLong(first + 4, exercise.getCaloriesBurned());
+        bindNullable(statement, first + 5, exercise.getDifficultyLevel());
+        bindNullable(statement, first + 6, exercise.getTarget());
+        bindNullable(statement, first + 7, exercise.getEquipment());
+        bindNullable(statement, first + 8, exercise.getGifUrl());
+        bindNullable(statement, first + 9, joinList(exercise.getSecondaryMuscles()));
+    }
+    
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+    
+    private static void bindCompressed(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
         } else {
-            // Insert new exercise
-            values.put(KEY_ID, exercise.getId());
-            id = db.insert(TABLE_EXERCISES, null, values);
+            statement.bindBlob(index, CompressedText.encode(value));
         }
+    }
+    
+    /**
+     * Fill an exercise from a row of EXERCISE_LIST_COLUMNS
+     * @param cursor Cursor positioned on the row
+     * @param exercise Exercise to fill, its secondary muscle list is refilled if it has one
+     * @return The filled exercise
+     */
+    private static Exercise readListRow(Cursor cursor, Exercise exercise) {
+        // Columns are read by position, in the order of EXERCISE_LIST_COLUMNS
+        exercise.setId(cursor.getString(0));
+        exercise.setName(cursor.getString(1));
+        exercise.setBodyPart(cursor.getString(2));
+        exercise.setDurationInMinutes(cursor.getInt(3));
+        exercise.setCaloriesBurned(cursor.getInt(4));
+        exercise.setDifficultyLevel(cursor.getString(5));
+        exercise.setTarget(cursor.getString(6));
+        exercise.setEquipment(cursor.getString(7));
+        exercise.setGifUrl(cursor.getString(8));
         
-        return id;
+        List<String> muscles = exercise.getSecondaryMuscles();
+        if (muscles == null) {
+            muscles = new ArrayList<>();
+            exercise.setSecondaryMuscles(muscles);
+        } else {
+            muscles.clear();
+        }
+        splitList(cursor.getString(9), muscles);
+        return exercise;
+    }
+    
+    private static String readCompressed(Cursor cursor, int index) {
+        return cursor.isNull(index) ? null : CompressedText.decode(cursor.getBlob(index));
+    }
+    
+    private static String joinList(List<String> values) {
+        return values == null || values.isEmpty() ? null : TextUtils.join(LIST_SEPARATOR, values);
+    }
+    
+    private static void splitList(String value, List<String> into) {
+        if (TextUtils.isEmpty(value)) {
+            return;
+        }
+        // Same pieces as TextUtils.split, without its intermediate array
+        int start = 0;
+        int end;
+        while ((end = value.indexOf(LIST_SEPARATOR, start)) >= 0) {
+            into.add(value.substring(start, end));
+            start = end + LIST_SEPARATOR.length();
+        }
+        into.add(value.substring(start));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,476 @@
+package com.healthmate.app.db;
+
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.util.TrigramIndex;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of the exercise table for combined filters.
+ *
+ * Every exercise gets a dense row number and every attribute value a
+ * BitSet of the rows that have it. A filter ORs the sets of the values
+ * picked for one attribute and ANDs the results across attributes, both
+ * a machine word at a time, so a query touches a few hundred longs even
+ * for a large catalog instead of every row.
+ *
+ * Facet counts for filter chips come from the same bitmaps: each value's
+ * set is intersected with the rows matching the other attributes, which
+ * takes well under a frame and never goes back to SQL.
+ *
+ * Names are kept in a TrigramIndex for typo-tolerant search.
+ *
+ * The catalog is read from the database on first use and then kept up to
+ * date through DatabaseHelper's exercise change listener. Values are
+ * matched case-insensitively.
+ */
+public class ExerciseCatalog implements DatabaseHelper.OnExercisesChangedListener {
+    private static final String TAG = "ExerciseCatalog";
+
+    /**
+     * Exercise attributes that can be filtered on
+     */
+    public enum Attribute {
+        BODY_PART,
+        TARGET,
+        EQUIPMENT,
+        DIFFICULTY,
+        SECONDARY_MUSCLE
+    }
+
+    private final DatabaseHelper dbHelper;
+
+    // All fields guarded by this
+    private final List<Row> rows = new ArrayList<>();
+    private final Map<String, Integer> rowsById = new HashMap<>();
+    private final EnumMap<Attribute, Map<String, BitSet>> indexes = new EnumMap<>(Attribute.class);
+    private final TrigramIndex nameIndex = new TrigramIndex();
+    private boolean loaded = false;
+
+    // Reused for facet intersections so counting does not allocate per value
+    private final BitSet scratch = new BitSet();
+
+    /**
+     * Constructor, use the shared instance from AppContainer
+     * @param dbHelper Database holding the exercise table
+     */
+    public ExerciseCatalog(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        for (Attribute attribute : Attribute.values()) {
+            indexes.put(attribute, new HashMap<>());
+        }
+        dbHelper.addOnExercisesChangedListener(this);
+    }
+
+    /**
+     * Constructor for a catalog without a database. It starts empty and is
+     * filled through onExercisesChanged().
+     */
+    @VisibleForTesting
+    ExerciseCatalog() {
+        this.dbHelper = null;
+        for (Attribute attribute : Attribute.values()) {
+            indexes.put(attribute, new HashMap<>());
+        }
+        loaded = true;
+    }
+
+    /**
+     * Find the exercises matching a filter
+     * @param filter Filter to apply, an empty filter matches every exercise
+     * @return Matching exercises in catalog order
+     */
+    @WorkerThread
+    public synchronized List<ExerciseSummary> find(Filter filter) {
+        ensureLoaded();
+        BitSet matches = match(filter);
+
+        List<ExerciseSummary> result = new ArrayList<>(matches.cardinality());
+        for (int row = matches.nextSetBit(0); row >= 0; row = matches.nextSetBit(row + 1)) {
+            result.add(rows.get(row).summary);
+        }
+        return result;
+    }
+
+    /**
+     * Count the exercises matching a filter
+     * @param filter Filter to apply
+     * @return Number of matching exercises
+     */
+    @WorkerThread
+    public synchronized int count(Filter filter) {
+        ensureLoaded();
+        return match(filter).cardinality();
+    }
+
+    /**
+     * Search exercise names, tolerating typos such as "benchpres"
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @return Exercises with the closest names first
+     */
+    @WorkerThread
+    public synchronized List<ExerciseSummary> searchByName(String query, int limit) {
+        ensureLoaded();
+        List<ExerciseSummary> result = new ArrayList<>();
+        for (TrigramIndex.Match match : nameIndex.search(query, limit)) {
+            result.add(rows.get(rowsById.get(match.getKey())).summary);
+        }
+        return result;
+    }
+
+    /**
+     * Get the indexed values of an attribute
+     * @param attribute Attribute to list
+     * @return Lower-case values present in the catalog
+     */
+    @WorkerThread
+    public synchronized Set<String> getValues(Attribute attribute) {
+        ensureLoaded();
+        return new LinkedHashSet<>(indexes.get(attribute).keySet());
+    }
+
+    /**
+     * Get the number of exercises in the catalog
+     * @return Number of exercises
+     */
+    @WorkerThread
+    public synchronized int size() {
+        ensureLoaded();
+        return rows.size();
+    }
+
+    /**
+     * Count the exercises per value of an attribute under a filter. The
+     * attribute's own clause is left out of the filter, so every chip of
+     * the attribute keeps its count under the rest of the selection.
+     * @param filter Current filter selection
+     * @param attribute Attribute to count
+     * @return Count per lower-case value, highest count first
+     */
+    @WorkerThread
+    public synchronized Map<String, Integer> getFacetCounts(Filter filter, Attribute attribute) {
+        ensureLoaded();
+        return facetCounts(filter, attribute);
+    }
+
+    /**
+     * Count the exercises per value of every attribute under a filter, see
+     * getFacetCounts(Filter, Attribute)
+     * @param filter Current filter selection
+     * @return Counts per attribute
+     */
+    @WorkerThread
+    public synchronized EnumMap<Attribute, Map<String, Integer>> getFacetCounts(Filter filter) {
+        ensureLoaded();
+        EnumMap<Attribute, Map<String, Integer>> counts = new EnumMap<>(Attribute.class);
+        for (Attribute attribute : Attribute.values()) {
+            counts.put(attribute, facetCounts(filter, attribute));
+        }
+        return counts;
+    }
+
+    @Override
+    public synchronized void onExercisesChanged(List<Exercise> exercises) {
+        if (!loaded) {
+            // The first query reads these rows from the table
+            return;
+        }
+        for (Exercise exercise : exercises) {
+            put(exercise);
+        }
+    }
+
+    /**
+     * Rows matching a filter. The caller must hold the lock.
+     * @param filter Filter to apply
+     * @return New BitSet of matching row numbers
+     */
+    BitSet match(Filter filter) {
+        BitSet result = new BitSet(rows.size());
+        result.set(0, rows.size());
+
+        for (Map.Entry<Attribute, Set<String>> clause : filter.clauses.entrySet()) {
+            result.and(union(clause.getKey(), clause.getValue()));
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Rows having any of the given values. The caller must hold the lock.
+     * @param attribute Attribute to look up
+     * @param values Lower-case values
+     * @return New BitSet of row numbers
+     */
+    BitSet union(Attribute attribute, Set<String> values) {
+        Map<String, BitSet> index = indexes.get(attribute);
+        BitSet union = new BitSet(rows.size());
+        for (String value : values) {
+            BitSet bits = index.get(value);
+            if (bits != null) {
+                union.or(bits);
+            }
+        }
+        return union;
+    }
+
+    private Map<String, Integer> facetCounts(Filter filter, Attribute attribute) {
+        // Only the bitmaps are intersected, nothing is grouped row by row
+        Filter others = new Filter(filter).clear(attribute);
+        BitSet base = match(others);
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>();
+        for (Map.Entry<String, BitSet> value : indexes.get(attribute).entrySet()) {
+            scratch.clear();
+            scratch.or(base);
+            scratch.and(value.getValue());
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(value.getKey(), scratch.cardinality()));
+        }
+
+        Collections.sort(entries, (a, b) -> {
+            int byCount = Integer.compare(b.getValue(), a.getValue());
+            return byCount != 0 ? byCount : a.getKey().compareTo(b.getKey());
+        });
+
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : entries) {
+            counts.put(entry.getKey(), entry.getValue());
+        }
+        return counts;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        // put() copies what it keeps, so the rows can share one instance
+        dbHelper.forEachExercise(this::put);
+        loaded = true;
+
+        Log.d(TAG, "Indexed " + rows.size() + " exercises in "
+                + (System.nanoTime() - start) / 1000 + " us");
+    }
+
+    /**
+     * Add an exercise or replace the one with the same ID, keeping its row number
+     * @param exercise Exercise to index
+     */
+    private void put(Exercise exercise) {
+        Integer existing = rowsById.get(exercise.getId());
+        int rowNumber;
+        if (existing != null) {
+            rowNumber = existing;
+            unindex(rowNumber, rows.get(rowNumber));
+        } else {
+            rowNumber = rows.size();
+            rows.add(null);
+            rowsById.put(exercise.getId(), rowNumber);
+        }
+
+        Row row = new Row(exercise);
+        rows.set(rowNumber, row);
+        index(rowNumber, row);
+        nameIndex.put(exercise.getId(), exercise.getName());
+    }
+
+    private void index(int rowNumber, Row row) {
+        for (Attribute attribute : Attribute.values()) {
+            Map<String, BitSet> index = indexes.get(attribute);
+            for (String value : row.values(attribute)) {
+                BitSet bits = index.get(value);
+                if (bits == null) {
+                    bits = new BitSet();
+                    index.put(value, bits);
+                }
+                bits.set(rowNumber);
+            }
+        }
+    }
+
+    private void unindex(int rowNumber, Row row) {
+        for (Attribute attribute : Attribute.values()) {
+            Map<String, BitSet> index = indexes.get(attribute);
+            for (String value : row.values(attribute)) {
+                BitSet bits = index.get(value);
+                if (bits != null) {
+                    bits.clear(rowNumber);
+                    if (bits.isEmpty()) {
+                        index.remove(value);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static List<String> valueOf(String value) {
+        String normalized = normalize(value);
+        return normalized == null ? Collections.<String>emptyList() : Collections.singletonList(normalized);
+    }
+
+    /**
+     * Indexed exercise, keeping the normalized values needed to unindex it
+     */
+    private static final class Row {
+        final ExerciseSummary summary;
+        final List<String> bodyPart;
+        final List<String> target;
+        final List<String> equipment;
+        final List<String> difficulty;
+        final List<String> secondaryMuscles;
+
+        Row(Exercise exercise) {
+            summary = new ExerciseSummary(exercise.getId(), exercise.getName(), exercise.getBodyPart(),
+                    exercise.getTarget(), exercise.getEquipment(), exercise.getGifUrl());
+            bodyPart = valueOf(exercise.getBodyPart());
+            target = valueOf(exercise.getTarget());
+            equipment = valueOf(exercise.getEquipment());
+            difficulty = valueOf(exercise.getDifficultyLevel());
+
+            List<String> muscles = new ArrayList<>();
+            if (exercise.getSecondaryMuscles() != null) {
+                for (String muscle : exercise.getSecondaryMuscles()) {
+                    String normalized = normalize(muscle);
+                    if (normalized != null && !muscles.contains(normalized)) {
+                        muscles.add(normalized);
+                    }
+                }
+            }
+            secondaryMuscles = muscles;
+        }
+
+        List<String> values(Attribute attribute) {
+            switch (attribute) {
+                case BODY_PART:
+                    return bodyPart;
+                case TARGET:
+                    return target;
+                case EQUIPMENT:
+                    return equipment;
+                case DIFFICULTY:
+                    return difficulty;
+                default:
+                    return secondaryMuscles;
+            }
+        }
+    }
+
+    /**
+     * Filter over catalog attributes. Values picked for the same attribute
+     * are ORed, attributes are ANDed.
+     */
+    public static final class Filter {
+        private final EnumMap<Attribute, Set<String>> clauses = new EnumMap<>(Attribute.class);
+
+        /**
+         * Create an empty filter matching every exercise
+         */
+        public Filter() {
+        }
+
+        /**
+         * Copy constructor
+         * @param other Filter to copy
+         */
+        public Filter(Filter other) {
+            for (Map.Entry<Attribute, Set<String>> clause : other.clauses.entrySet()) {
+                clauses.put(clause.getKey(), new LinkedHashSet<>(clause.getValue()));
+            }
+        }
+
+        /**
+         * Allow a value of an attribute, in addition to values already allowed
+         * @param attribute Attribute to filter on
+         * @param value Value to allow, matched case-insensitively
+         * @return This filter
+         */
+        public Filter with(Attribute attribute, String value) {
+            String normalized = normalize(value);
+            if (normalized != null) {
+                Set<String> values = clauses.get(attribute);
+                if (values == null) {
+                    values = new LinkedHashSet<>();
+                    clauses.put(attribute, values);
+                }
+                values.add(normalized);
+            }
+            return this;
+        }
+
+        /**
+         * Stop allowing a value of an attribute. Removing the last value
+         * drops the attribute from the filter.
+         * @param attribute Attribute to change
+         * @param value Value to remove
+         * @return This filter
+         */
+        public Filter without(Attribute attribute, String value) {
+            Set<String> values = clauses.get(attribute);
+            if (values != null) {
+                values.remove(normalize(value));
+                if (values.isEmpty()) {
+                    clauses.remove(attribute);
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Drop every value of an attribute from the filter
+         * @param attribute Attribute to clear
+         * @return This filter
+         */
+        public Filter clear(Attribute attribute) {
+            clauses.remove(attribute);
+            return this;
+        }
+
+        /**
+         * Check whether a value is allowed
+         * @param attribute Attribute to check
+         * @param value Value to check
+         * @return True if the value is part of the filter
+         */
+        public boolean contains(Attribute attribute, String value) {
+            Set<String> values = clauses.get(attribute);
+            return values != null && values.contains(normalize(value));
+        }
+
+        /**
+         * Check whether the filter restricts anything
+         * @return True if the filter matches every exercise
+         */
+        public boolean isEmpty() {
+            return clauses.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.healthmate.app.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+import androidx.annotation.WorkerThread;
+
+import com.healthmate.app.util.CompressedText;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Instruction steps of the cached exercises, one row per step.
+ *
+ * Steps used to be joined into a numbered string in the exercise table,
+ * split again for display and renumbered by the detail screen. They now
+ * live in the exercise_step table, clustered on (exercise_id, position),
+ * so the detail screen reads them with a single range scan and list
+ * queries on the exercise table never load them. Each step's text is
+ * stored as a CompressedText value; the shared dictionary lets even
+ * single short sentences shrink, see CompressedTextTest.
+ *
+ * Rows are written by DatabaseHelper in the same transaction as their
+ * exercise, through a Writer.
+ */
+public class ExerciseStepStore {
+
+    // Table name
+    static final String TABLE_EXERCISE_STEP = "exercise_step";
+
+    // Exercise step table column names
+    private static final String KEY_EXERCISE_ID = "exercise_id";
+    private static final String KEY_POSITION = "position";
+    private static final String KEY_TEXT = "text";
+
+    // Table creation statement, safe to run on every upgrade
+    private static final String CREATE_TABLE_EXERCISE_STEP = "CREATE TABLE IF NOT EXISTS " + TABLE_EXERCISE_STEP + "("
+            + KEY_EXERCISE_ID + " TEXT NOT NULL,"
+            + KEY_POSITION + " INTEGER NOT NULL,"
+            + KEY_TEXT + " BLOB NOT NULL,"
+            + "PRIMARY KEY (" + KEY_EXERCISE_ID + "," + KEY_POSITION + ")"
+            + ") WITHOUT ROWID";
+
+    private static final String DELETE_STEPS = "DELETE FROM " + TABLE_EXERCISE_STEP
+            + " WHERE " + KEY_EXERCISE_ID + " = ?";
+
+    private static final String INSERT_STEP = "INSERT INTO " + TABLE_EXERCISE_STEP + "("
+            + KEY_EXERCISE_ID + "," + KEY_POSITION + "," + KEY_TEXT
+            + ") VALUES (?,?,?)";
+
+    // Steps as copied by UserDataArchive, key (exercise_id, position)
+    static final ArchiveTable ARCHIVE_EXERCISE_STEPS = new ArchiveTable(5, TABLE_EXERCISE_STEP, new String[]{
+            KEY_EXERCISE_ID, KEY_POSITION, KEY_TEXT}, 2, -1, false);
+
+    private final DatabaseHelper dbHelper;
+
+    /**
+     * Constructor, use the shared instance from AppContainer
+     * @param dbHelper Database holding the exercise step table
+     */
+    public ExerciseStepStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Create the exercise step table if it does not exist yet
+     * @param db Database instance
+     */
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_EXERCISE_STEP);
+    }
+
+    /**
+     * Get the instruction steps of an exercise
+     * @param exerciseId Exercise ID
+     * @return Steps in order, without numbering; empty if none are stored
+     */
+    @WorkerThread
+    public List<String> getSteps(String exerciseId) {
+        String selectQuery = "SELECT " + KEY_TEXT
+                + " FROM " + TABLE_EXERCISE_STEP
+                + " WHERE " + KEY_EXERCISE_ID + " = ?"
+                + " ORDER BY " + KEY_POSITION;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{exerciseId});
+
+        List<String> steps = new ArrayList<>(cursor.getCount());
+        while (cursor.moveToNext()) {
+            steps.add(CompressedText.decode(cursor.getBlob(0)));
+        }
+
+        cursor.close();
+        return steps;
+    }
+
+    /**
+     * Replaces the steps of exercises with compiled statements, for use
+     * inside the caller's transaction
+     */
+    static final class Writer {
+        private final SQLiteStatement deleteStatement;
+        private final SQLiteStatement insertStatement;
+
+        /**
+         * Constructor, compiles the statements
+         * @param db Writable database
+         */
+        Writer(SQLiteDatabase db) {
+            deleteStatement = db.compileStatement(DELETE_STEPS);
+            insertStatement = db.compileStatement(INSERT_STEP);
+        }
+
+        /**
+         * Replace the stored steps of an exercise
+         * @param exerciseId Exercise ID
+         * @param steps New steps, or null to keep the stored ones
+         */
+        void replaceSteps(String exerciseId, List<String> steps) {
+            if (steps == null) {
+                // Not loaded, e.g. an exercise read by a list query and written back
+                return;
+            }
+
+            deleteStatement.bindString(1, exerciseId);
+            deleteStatement.executeUpdateDelete();
+
+            for (int position = 0; position < steps.size(); position++) {
+                String step = steps.get(position);
+                if (step == null) {
+                    continue;
+                }
+                insertStatement.bindString(1, exerciseId);
+                insertStatement.bindLong(2, position);
+                insertStatement.bindBlob(3, CompressedText.encode(step));
+                insertStatement.executeInsert();
+            }
+        }
+
+        /**
+         * Release the compiled statements
+         */
+        void close() {
+            deleteStatement.close();
+            insertStatement.close();
+        }
+    }
+}
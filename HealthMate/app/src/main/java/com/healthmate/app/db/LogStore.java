@@ -0,0 +1,469 @@
+package com.healthmate.app.db;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import com.healthmate.app.model.DailyTotals;
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.Food;
+import com.healthmate.app.util.NutrientStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TimeZone;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Append-only log of foods eaten and exercises done.
+ *
+ * Entries are only ever inserted, so row IDs grow with time and each day's
+ * entries sit together on disk; the (user_id, day) indexes turn a day into
+ * a single range scan. Every insert also updates a daily_rollup row in the
+ * same transaction. The rollup table is clustered on (user_id, day), so
+ * "today" reads one row and a 90 day chart reads 90 rows without touching
+ * the logs.
+ *
+ * Nutrient values are stored with each food entry because foods come from
+ * the reference database, which lives in a separate file.
+ *
+ * Row IDs are local to a device. Each entry also gets a random entry_uid
+ * when it is logged, which identifies it across devices and backups.
+ */
+public class LogStore {
+    private static final String TAG = "LogStore";
+
+    // The app has a single local user until accounts are added
+    public static final long DEFAULT_USER_ID = 1;
+
+    // Table names
+    private static final String TABLE_FOOD_LOG = "food_log";
+    private static final String TABLE_EXERCISE_LOG = "exercise_log";
+    private static final String TABLE_DAILY_ROLLUP = "daily_rollup";
+
+    // Common column names
+    private static final String KEY_ID = "id";
+    private static final String KEY_USER_ID = "user_id";
+    private static final String KEY_DAY = "day";
+    private static final String KEY_LOGGED_AT = "logged_at";
+    private static final String KEY_ENTRY_UID = "entry_uid";
+
+    // Food log column names
+    private static final String KEY_FOOD_ID = "food_id";
+    private static final String KEY_FOOD_NAME = "food_name";
+    private static final String KEY_AMOUNT = "amount";
+    private static final String KEY_CALORIES = "calories";
+    private static final String KEY_PROTEINS = "proteins";
+    private static final String KEY_CARBS = "carbs";
+    private static final String KEY_FATS = "fats";
+    private static final String KEY_FIBER = "fiber";
+
+    // Exercise log column names
+    private static final String KEY_EXERCISE_ID = "exercise_id";
+    private static final String KEY_EXERCISE_NAME = "exercise_name";
+    private static final String KEY_MINUTES = "minutes";
+
+    // Daily rollup column names
+    private static final String KEY_CALORIES_IN = "calories_in";
+    private static final String KEY_CALORIES_OUT = "calories_out";
+    private static final String KEY_EXERCISE_MINUTES = "exercise_minutes";
+    private static final String KEY_FOOD_ENTRIES = "food_entries";
+    private static final String KEY_EXERCISE_ENTRIES = "exercise_entries";
+
+    // Table creation statements, safe to run on every upgrade
+    private static final String CREATE_TABLE_FOOD_LOG = "CREATE TABLE IF NOT EXISTS " + TABLE_FOOD_LOG + "("
+            + KEY_ID + " INTEGER PRIMARY KEY,"
+            + KEY_USER_ID + " INTEGER NOT NULL DEFAULT " + DEFAULT_USER_ID + ","
+            + KEY_DAY + " INTEGER NOT NULL,"
+            + KEY_LOGGED_AT + " INTEGER NOT NULL,"
+            + KEY_FOOD_ID + " TEXT NOT NULL,"
+            + KEY_FOOD_NAME + " TEXT,"
+            + KEY_AMOUNT + " REAL,"
+            + KEY_CALORIES + " REAL,"
+            + KEY_PROTEINS + " REAL,"
+            + KEY_CARBS + " REAL,"
+            + KEY_FATS + " REAL,"
+            + KEY_FIBER + " REAL,"
+            + KEY_ENTRY_UID + " TEXT"
+            + ")";
+
+    private static final String CREATE_INDEX_FOOD_LOG = "CREATE INDEX IF NOT EXISTS idx_food_log_user_day ON "
+            + TABLE_FOOD_LOG + "(" + KEY_USER_ID + "," + KEY_DAY + ")";
+
+    private static final String CREATE_TABLE_EXERCISE_LOG = "CREATE TABLE IF NOT EXISTS " + TABLE_EXERCISE_LOG + "("
+            + KEY_ID + " INTEGER PRIMARY KEY,"
+            + KEY_USER_ID + " INTEGER NOT NULL DEFAULT " + DEFAULT_USER_ID + ","
+            + KEY_DAY + " INTEGER NOT NULL,"
+            + KEY_LOGGED_AT + " INTEGER NOT NULL,"
+            + KEY_EXERCISE_ID + " TEXT NOT NULL,"
+            + KEY_EXERCISE_NAME + " TEXT,"
+            + KEY_MINUTES + " INTEGER,"
+            + KEY_CALORIES + " INTEGER,"
+            + KEY_ENTRY_UID + " TEXT"
+            + ")";
+
+    private static final String CREATE_INDEX_EXERCISE_LOG = "CREATE INDEX IF NOT EXISTS idx_exercise_log_user_day ON "
+            + TABLE_EXERCISE_LOG + "(" + KEY_USER_ID + "," + KEY_DAY + ")";
+
+    // Entry IDs are unique, an archive import skips entries already stored
+    private static final String CREATE_INDEX_FOOD_LOG_UID = "CREATE UNIQUE INDEX IF NOT EXISTS idx_food_log_uid ON "
+            + TABLE_FOOD_LOG + "(" + KEY_ENTRY_UID + ")";
+
+    private static final String CREATE_INDEX_EXERCISE_LOG_UID = "CREATE UNIQUE INDEX IF NOT EXISTS "
+            + "idx_exercise_log_uid ON " + TABLE_EXERCISE_LOG + "(" + KEY_ENTRY_UID + ")";
+
+    private static final String CREATE_TABLE_DAILY_ROLLUP = "CREATE TABLE IF NOT EXISTS " + TABLE_DAILY_ROLLUP + "("
+            + KEY_USER_ID + " INTEGER NOT NULL,"
+            + KEY_DAY + " INTEGER NOT NULL,"
+            + KEY_CALORIES_IN + " REAL NOT NULL DEFAULT 0,"
+            + KEY_PROTEINS + " REAL NOT NULL DEFAULT 0,"
+            + KEY_CARBS + " REAL NOT NULL DEFAULT 0,"
+            + KEY_FATS + " REAL NOT NULL DEFAULT 0,"
+            + KEY_FIBER + " REAL NOT NULL DEFAULT 0,"
+            + KEY_CALORIES_OUT + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_EXERCISE_MINUTES + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_FOOD_ENTRIES + " INTEGER NOT NULL DEFAULT 0,"
+            + KEY_EXERCISE_ENTRIES + " INTEGER NOT NULL DEFAULT 0,"
+            + "PRIMARY KEY (" + KEY_USER_ID + "," + KEY_DAY + ")"
+            + ") WITHOUT ROWID";
+
+    private static final String INSERT_FOOD_LOG = "INSERT INTO " + TABLE_FOOD_LOG + "("
+            + KEY_USER_ID + "," + KEY_DAY + "," + KEY_LOGGED_AT + "," + KEY_FOOD_ID + ","
+            + KEY_FOOD_NAME + "," + KEY_AMOUNT + "," + KEY_CALORIES + "," + KEY_PROTEINS + ","
+            + KEY_CARBS + "," + KEY_FATS + "," + KEY_FIBER + "," + KEY_ENTRY_UID
+            + ") VALUES (?,?,?,?,?,?,?,?,?,?,?,?)";
+
+    private static final String INSERT_EXERCISE_LOG = "INSERT INTO " + TABLE_EXERCISE_LOG + "("
+            + KEY_USER_ID + "," + KEY_DAY + "," + KEY_LOGGED_AT + "," + KEY_EXERCISE_ID + ","
+            + KEY_EXERCISE_NAME + "," + KEY_MINUTES + "," + KEY_CALORIES + "," + KEY_ENTRY_UID
+            + ") VALUES (?,?,?,?,?,?,?,?)";
+
+    // Rollup statements, the update binds its deltas first and the key last
+    private static final String UPDATE_ROLLUP = "UPDATE " + TABLE_DAILY_ROLLUP + " SET "
+            + KEY_CALORIES_IN + " = " + KEY_CALORIES_IN + " + ?,"
+            + KEY_PROTEINS + " = " + KEY_PROTEINS + " + ?,"
+            + KEY_CARBS + " = " + KEY_CARBS + " + ?,"
+            + KEY_FATS + " = " + KEY_FATS + " + ?,"
+            + KEY_FIBER + " = " + KEY_FIBER + " + ?,"
+            + KEY_CALORIES_OUT + " = " + KEY_CALORIES_OUT + " + ?,"
+            + KEY_EXERCISE_MINUTES + " = " + KEY_EXERCISE_MINUTES + " + ?,"
+            + KEY_FOOD_ENTRIES + " = " + KEY_FOOD_ENTRIES + " + ?,"
+            + KEY_EXERCISE_ENTRIES + " = " + KEY_EXERCISE_ENTRIES + " + ?"
+            + " WHERE " + KEY_USER_ID + " = ? AND " + KEY_DAY + " = ?";
+
+    private static final String INSERT_ROLLUP = "INSERT INTO " + TABLE_DAILY_ROLLUP + "("
+            + KEY_CALORIES_IN + "," + KEY_PROTEINS + "," + KEY_CARBS + "," + KEY_FATS + ","
+            + KEY_FIBER + "," + KEY_CALORIES_OUT + "," + KEY_EXERCISE_MINUTES + ","
+            + KEY_FOOD_ENTRIES + "," + KEY_EXERCISE_ENTRIES + "," + KEY_USER_ID + "," + KEY_DAY
+            + ") VALUES (?,?,?,?,?,?,?,?,?,?,?)";
+
+    // Rebuilds one day's rollup from the logs, used to repair it
+    private static final String REBUILD_ROLLUP = "INSERT OR REPLACE INTO " + TABLE_DAILY_ROLLUP + "("
+            + KEY_USER_ID + "," + KEY_DAY + "," + KEY_CALORIES_IN + "," + KEY_PROTEINS + ","
+            + KEY_CARBS + "," + KEY_FATS + "," + KEY_FIBER + "," + KEY_CALORIES_OUT + ","
+            + KEY_EXERCISE_MINUTES + "," + KEY_FOOD_ENTRIES + "," + KEY_EXERCISE_ENTRIES + ") SELECT ?1, ?2,"
+            + " IFNULL(f." + KEY_CALORIES + ", 0), IFNULL(f." + KEY_PROTEINS + ", 0),"
+            + " IFNULL(f." + KEY_CARBS + ", 0), IFNULL(f." + KEY_FATS + ", 0), IFNULL(f." + KEY_FIBER + ", 0),"
+            + " IFNULL(e." + KEY_CALORIES + ", 0), IFNULL(e." + KEY_MINUTES + ", 0), f.n, e.n FROM"
+            + " (SELECT SUM(" + KEY_CALORIES + ") AS " + KEY_CALORIES + ", SUM(" + KEY_PROTEINS + ") AS " + KEY_PROTEINS + ","
+            + " SUM(" + KEY_CARBS + ") AS " + KEY_CARBS + ", SUM(" + KEY_FATS + ") AS " + KEY_FATS + ","
+            + " SUM(" + KEY_FIBER + ") AS " + KEY_FIBER + ", COUNT(*) AS n FROM " + TABLE_FOOD_LOG
+            + " WHERE " + KEY_USER_ID + " = ?1 AND " + KEY_DAY + " = ?2) f,"
+            + " (SELECT SUM(" + KEY_CALORIES + ") AS " + KEY_CALORIES + ", SUM(" + KEY_MINUTES + ") AS " + KEY_MINUTES + ","
+            + " COUNT(*) AS n FROM " + TABLE_EXERCISE_LOG
+            + " WHERE " + KEY_USER_ID + " = ?1 AND " + KEY_DAY + " = ?2) e";
+
+    // Tables copied by UserDataArchive. Imported entries get new row IDs and
+    // are matched on their entry_uid, so an import never overwrites entries
+    // already on the device; rollups are rebuilt from the imported days
+    // instead of being copied.
+    static final ArchiveTable ARCHIVE_FOOD_LOG = new ArchiveTable(2, TABLE_FOOD_LOG, new String[]{
+            KEY_ID, KEY_USER_ID, KEY_DAY, KEY_LOGGED_AT, KEY_FOOD_ID, KEY_FOOD_NAME, KEY_AMOUNT,
+            KEY_CALORIES, KEY_PROTEINS, KEY_CARBS, KEY_FATS, KEY_FIBER, KEY_ENTRY_UID}, 1, 2, true);
+    static final ArchiveTable ARCHIVE_EXERCISE_LOG = new ArchiveTable(3, TABLE_EXERCISE_LOG, new String[]{
+            KEY_ID, KEY_USER_ID, KEY_DAY, KEY_LOGGED_AT, KEY_EXERCISE_ID, KEY_EXERCISE_NAME,
+            KEY_MINUTES, KEY_CALORIES, KEY_ENTRY_UID}, 1, 2, true);
+
+    // Calorie figures on exercises are per 30 minutes
+    private static final int CALORIE_MINUTES = 30;
+
+    private final DatabaseHelper dbHelper;
+
+    /**
+     * Constructor
+     * @param dbHelper Database holding the log tables
+     */
+    public LogStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Create the log and rollup tables if they do not exist yet
+     * @param db Database instance
+     */
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_FOOD_LOG);
+        db.execSQL(CREATE_INDEX_FOOD_LOG);
+        addEntryUids(db, TABLE_FOOD_LOG);
+        db.execSQL(CREATE_INDEX_FOOD_LOG_UID);
+        db.execSQL(CREATE_TABLE_EXERCISE_LOG);
+        db.execSQL(CREATE_INDEX_EXERCISE_LOG);
+        addEntryUids(db, TABLE_EXERCISE_LOG);
+        db.execSQL(CREATE_INDEX_EXERCISE_LOG_UID);
+        db.execSQL(CREATE_TABLE_DAILY_ROLLUP);
+    }
+
+    /**
+     * Add the entry_uid column to a log table created before database
+     * version 10, and give every entry in it a random ID
+     * @param db Database instance
+     * @param table Log table name
+     */
+    private static void addEntryUids(SQLiteDatabase db, String table) {
+        Cursor cursor = db.rawQuery("PRAGMA table_info(" + table + ")", null);
+        try {
+            while (cursor.moveToNext()) {
+                if (KEY_ENTRY_UID.equals(cursor.getString(cursor.getColumnIndex("name")))) {
+                    return;
+                }
+            }
+        } finally {
+            cursor.close();
+        }
+
+        db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + KEY_ENTRY_UID + " TEXT");
+        db.execSQL("UPDATE " + table + " SET " + KEY_ENTRY_UID + " = lower(hex(randomblob(16)))");
+        Log.d(TAG, "Added entry IDs to " + table);
+    }
+
+    /**
+     * Get the local epoch day of a point in time
+     * @param timeMillis Time in milliseconds since the epoch
+     * @return Days since 1970-01-01 in the default time zone
+     */
+    public static long toEpochDay(long timeMillis) {
+        long localMillis = timeMillis + TimeZone.getDefault().getOffset(timeMillis);
+        long dayMillis = TimeUnit.DAYS.toMillis(1);
+        long day = localMillis / dayMillis;
+        return localMillis < 0 && localMillis % dayMillis != 0 ? day - 1 : day;
+    }
+
+    /**
+     * Log an amount of food eaten. Must be called off the main thread.
+     * @param food Food eaten
+     * @param amount Amount in the food's unit (e.g. 150 for 150 g)
+     * @param loggedAt Time the food was eaten in milliseconds
+     * @return Row ID of the new entry
+     */
+    public long logFood(Food food, float amount, long loggedAt) {
+        float scale = NutrientStore.scaleFor(food, amount);
+        float calories = food.getCalories() * scale;
+        float proteins = food.getProteins() * scale;
+        float carbs = food.getCarbs() * scale;
+        float fats = food.getFats() * scale;
+        float fiber = food.getFiber() * scale;
+        long day = toEpochDay(loggedAt);
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement(INSERT_FOOD_LOG);
+
+        long id;
+        db.beginTransaction();
+        try {
+            insert.bindLong(1, DEFAULT_USER_ID);
+            insert.bindLong(2, day);
+            insert.bindLong(3, loggedAt);
+            insert.bindString(4, food.getId());
+            bindNullable(insert, 5, food.getName());
+            insert.bindDouble(6, amount);
+            insert.bindDouble(7, calories);
+            insert.bindDouble(8, proteins);
+            insert.bindDouble(9, carbs);
+            insert.bindDouble(10, fats);
+            insert.bindDouble(11, fiber);
+            insert.bindString(12, UUID.randomUUID().toString());
+            id = insert.executeInsert();
+
+            addToRollup(db, day, calories, proteins, carbs, fats, fiber, 0, 0, 1, 0);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+
+        Log.d(TAG, "Logged food " + food.getId() + " on day " + day);
+        return id;
+    }
+
+    /**
+     * Log an exercise session. Must be called off the main thread.
+     * @param exercise Exercise done
+     * @param minutes Length of the session in minutes
+     * @param loggedAt Time the exercise was done in milliseconds
+     * @return Row ID of the new entry
+     */
+    public long logExercise(Exercise exercise, int minutes, long loggedAt) {
+        int calories = exercise.getCaloriesBurned() * minutes / CALORIE_MINUTES;
+        long day = toEpochDay(loggedAt);
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement insert = db.compileStatement(INSERT_EXERCISE_LOG);
+
+        long id;
+        db.beginTransaction();
+        try {
+            insert.bindLong(1, DEFAULT_USER_ID);
+            insert.bindLong(2, day);
+            insert.bindLong(3, loggedAt);
+            insert.bindString(4, exercise.getId());
+            bindNullable(insert, 5, exercise.getName());
+            insert.bindLong(6, minutes);
+            insert.bindLong(7, calories);
+            insert.bindString(8, UUID.randomUUID().toString());
+            id = insert.executeInsert();
+
+            addToRollup(db, day, 0, 0, 0, 0, 0, calories, minutes, 0, 1);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            insert.close();
+        }
+
+        Log.d(TAG, "Logged exercise " + exercise.getId() + " on day " + day);
+        return id;
+    }
+
+    /**
+     * Get the totals for one day
+     * @param day Epoch day
+     * @return Totals, empty if nothing was logged that day
+     */
+    public DailyTotals getDailyTotals(long day) {
+        List<DailyTotals> totals = getDailyTotals(day, day);
+        return totals.isEmpty() ? DailyTotals.empty(day) : totals.get(0);
+    }
+
+    /**
+     * Get the totals for a range of days, read from the rollup table only
+     * @param firstDay First epoch day, inclusive
+     * @param lastDay Last epoch day, inclusive
+     * @return Totals for the days with entries, in day order
+     */
+    public List<DailyTotals> getDailyTotals(long firstDay, long lastDay) {
+        List<DailyTotals> totals = new ArrayList<>();
+
+        String selectQuery = "SELECT " + KEY_DAY + "," + KEY_CALORIES_IN + "," + KEY_PROTEINS + ","
+                + KEY_CARBS + "," + KEY_FATS + "," + KEY_FIBER + "," + KEY_CALORIES_OUT + ","
+                + KEY_EXERCISE_MINUTES + "," + KEY_FOOD_ENTRIES + "," + KEY_EXERCISE_ENTRIES
+                + " FROM " + TABLE_DAILY_ROLLUP
+                + " WHERE " + KEY_USER_ID + " = ? AND " + KEY_DAY + " BETWEEN ? AND ?"
+                + " ORDER BY " + KEY_DAY;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{
+                String.valueOf(DEFAULT_USER_ID), String.valueOf(firstDay), String.valueOf(lastDay)});
+
+        // Columns are read by position, in the order of the projection above
+        while (cursor.moveToNext()) {
+            totals.add(new DailyTotals(
+                    cursor.getLong(0),
+                    cursor.getFloat(1),
+                    cursor.getFloat(2),
+                    cursor.getFloat(3),
+                    cursor.getFloat(4),
+                    cursor.getFloat(5),
+                    cursor.getInt(6),
+                    cursor.getInt(7),
+                    cursor.getInt(8),
+                    cursor.getInt(9)));
+        }
+
+        cursor.close();
+        return totals;
+    }
+
+    /**
+     * Recompute one day's rollup from the log tables
+     * @param day Epoch day
+     */
+    public void rebuildDailyTotals(long day) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        db.execSQL(REBUILD_ROLLUP, new Object[]{DEFAULT_USER_ID, day});
+    }
+
+    /**
+     * Recompute the rollups of several days from the log tables, inside
+     * the caller's transaction
+     * @param db Writable database
+     * @param days Epoch days
+     */
+    static void rebuildDailyTotals(SQLiteDatabase db, Collection<Long> days) {
+        SQLiteStatement statement = db.compileStatement(REBUILD_ROLLUP);
+        try {
+            for (long day : days) {
+                statement.bindLong(1, DEFAULT_USER_ID);
+                statement.bindLong(2, day);
+                statement.executeInsert();
+            }
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Add deltas to a day's rollup, creating the row on the first entry of
+     * the day. Must run inside the transaction that wrote the log entry.
+     */
+    private static void addToRollup(SQLiteDatabase db, long day, float calories, float proteins,
+                                    float carbs, float fats, float fiber, int caloriesOut,
+                                    int exerciseMinutes, int foodEntries, int exerciseEntries) {
+        SQLiteStatement update = db.compileStatement(UPDATE_ROLLUP);
+        try {
+            bindRollup(update, day, calories, proteins, carbs, fats, fiber,
+                    caloriesOut, exerciseMinutes, foodEntries, exerciseEntries);
+            if (update.executeUpdateDelete() > 0) {
+                return;
+            }
+        } finally {
+            update.close();
+        }
+
+        SQLiteStatement insert = db.compileStatement(INSERT_ROLLUP);
+        try {
+            bindRollup(insert, day, calories, proteins, carbs, fats, fiber,
+                    caloriesOut, exerciseMinutes, foodEntries, exerciseEntries);
+            insert.executeInsert();
+        } finally {
+            insert.close();
+        }
+    }
+
+    /**
+     * Bind rollup values in the shared order of UPDATE_ROLLUP and INSERT_ROLLUP
+     */
+    private static void bindRollup(SQLiteStatement statement, long day, float calories, float proteins,
+                                   float carbs, float fats, float fiber, int caloriesOut,
+                                   int exerciseMinutes, int foodEntries, int exerciseEntries) {
+        statement.bindDouble(1, calories);
+        statement.bindDouble(2, proteins);
+        statement.bindDouble(3, carbs);
+        statement.bindDouble(4, fats);
+        statement.bindDouble(5, fiber);
+        statement.bindLong(6, caloriesOut);
+        statement.bindLong(7, exerciseMinutes);
+        statement.bindLong(8, foodEntries);
+        statement.bindLong(9, exerciseEntries);
+        statement.bindLong(10, DEFAULT_USER_ID);
+        statement.bindLong(11, day);
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
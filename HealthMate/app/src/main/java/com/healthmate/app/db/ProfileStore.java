@@ -0,0 +1,261 @@
+package com.healthmate.app.db;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.WorkerThread;
+
+import com.healthmate.app.model.User;
+import com.healthmate.app.util.AppExecutors;
+import com.healthmate.app.util.Constants;
+
+/**
+ * Typed store for the user profile, backed by a single row in the user table.
+ *
+ * The profile is loaded lazily on the disk executor the first time it is
+ * needed and cached in memory afterwards, so the UI thread never waits on
+ * disk. Saves replace the whole row in one statement, so a reader never
+ * sees a half-written profile. Profiles saved in HealthmatePrefs by older
+ * versions are copied over on first load and the preferences are cleared.
+ */
+public class ProfileStore {
+    private static final String TAG = "ProfileStore";
+
+    // Table name
+    private static final String TABLE_USER = "user";
+
+    // User table column names
+    private static final String KEY_ID = "id";
+    private static final String KEY_NAME = "name";
+    private static final String KEY_AGE = "age";
+    private static final String KEY_HEIGHT = "height";
+    private static final String KEY_WEIGHT = "weight";
+    private static final String KEY_BMI = "bmi";
+    private static final String KEY_DIET_CATEGORY = "diet_category";
+    private static final String KEY_CUISINE = "cuisine";
+    private static final String KEY_UPDATED_AT = "updated_at";
+
+    // Table creation statement, safe to run on every upgrade
+    private static final String CREATE_TABLE_USER = "CREATE TABLE IF NOT EXISTS " + TABLE_USER + "("
+            + KEY_ID + " INTEGER PRIMARY KEY,"
+            + KEY_NAME + " TEXT NOT NULL,"
+            + KEY_AGE + " INTEGER NOT NULL,"
+            + KEY_HEIGHT + " REAL NOT NULL,"
+            + KEY_WEIGHT + " REAL NOT NULL,"
+            + KEY_BMI + " REAL NOT NULL,"
+            + KEY_DIET_CATEGORY + " TEXT,"
+            + KEY_CUISINE + " TEXT,"
+            + KEY_UPDATED_AT + " INTEGER NOT NULL"
+            + ")";
+
+    private static final String UPSERT_USER = "INSERT OR REPLACE INTO " + TABLE_USER + "("
+            + KEY_ID + "," + KEY_NAME + "," + KEY_AGE + "," + KEY_HEIGHT + "," + KEY_WEIGHT + ","
+            + KEY_BMI + "," + KEY_DIET_CATEGORY + "," + KEY_CUISINE + "," + KEY_UPDATED_AT
+            + ") VALUES (?,?,?,?,?,?,?,?,?)";
+
+    // Profile row as copied by UserDataArchive
+    static final ArchiveTable ARCHIVE_USER = new ArchiveTable(1, TABLE_USER, new String[]{
+            KEY_ID, KEY_NAME, KEY_AGE, KEY_HEIGHT, KEY_WEIGHT, KEY_BMI, KEY_DIET_CATEGORY,
+            KEY_CUISINE, KEY_UPDATED_AT}, 1, -1, false);
+
+    private final Context appContext;
+    private final DatabaseHelper dbHelper;
+    private final AppExecutors executors = AppExecutors.getInstance();
+
+    // Guarded by this
+    private User cachedProfile;
+    private boolean loaded;
+
+    /**
+     * Callback for asynchronous profile loads
+     */
+    public interface Callback {
+        /**
+         * Called on the main thread once the profile is available
+         * @param profile Copy of the saved profile, or null if none was saved
+         */
+        void onProfileLoaded(User profile);
+    }
+
+    /**
+     * Constructor, use the shared instance from AppContainer
+     * @param context Any context, only its application context is kept
+     * @param dbHelper Database holding the user table
+     */
+    public ProfileStore(Context context, DatabaseHelper dbHelper) {
+        this.appContext = context.getApplicationContext();
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Create the user table if it does not exist yet
+     * @param db Database instance
+     */
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_USER);
+    }
+
+    /**
+     * Load the profile without blocking. If it is already cached the
+     * callback runs right away, otherwise once the disk read is done.
+     * @param callback Callback receiving the profile on the main thread
+     */
+    @MainThread
+    public void loadProfile(Callback callback) {
+        synchronized (this) {
+            if (loaded) {
+                callback.onProfileLoaded(copyOf(cachedProfile));
+                return;
+            }
+        }
+
+        executors.diskIO().execute(() -> {
+            User profile = getProfile();
+            executors.mainThread().execute(() -> callback.onProfileLoaded(profile));
+        });
+    }
+
+    /**
+     * Get the profile, reading it from disk on first use. Call it from the
+     * disk executor so reads are ordered with pending saves.
+     * @return Copy of the saved profile, or null if none was saved
+     */
+    @WorkerThread
+    public User getProfile() {
+        synchronized (this) {
+            if (loaded) {
+                return copyOf(cachedProfile);
+            }
+        }
+
+        // Read without holding the lock so saves from the main thread never wait on disk
+        User profile = readProfile();
+        if (profile == null) {
+            profile = migrateFromPreferences();
+        }
+
+        synchronized (this) {
+            // A save made during the read wins over what was on disk
+            if (!loaded) {
+                cachedProfile = profile;
+                loaded = true;
+            }
+            return copyOf(cachedProfile);
+        }
+    }
+
+    /**
+     * Save the profile. The cache is updated at once and the row is
+     * written on the disk executor.
+     * @param profile Profile to save
+     */
+    public void saveProfile(User profile) {
+        final User saved = new User(profile);
+        synchronized (this) {
+            cachedProfile = saved;
+            loaded = true;
+        }
+
+        executors.diskIO().execute(() -> writeProfile(saved));
+    }
+
+    /**
+     * Drop the cached profile after the user table was written directly,
+     * e.g. by an import. The next read goes to disk.
+     */
+    void invalidate() {
+        synchronized (this) {
+            cachedProfile = null;
+            loaded = false;
+        }
+    }
+
+    private User readProfile() {
+        String selectQuery = "SELECT " + KEY_NAME + "," + KEY_AGE + "," + KEY_HEIGHT + "," + KEY_WEIGHT + ","
+                + KEY_BMI + "," + KEY_DIET_CATEGORY + "," + KEY_CUISINE
+                + " FROM " + TABLE_USER + " WHERE " + KEY_ID + " = ?";
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{String.valueOf(LogStore.DEFAULT_USER_ID)});
+
+        User profile = null;
+        if (cursor.moveToFirst()) {
+            // Columns are read by position, in the order of the projection above
+            profile = new User(cursor.getString(0), cursor.getInt(1), cursor.getFloat(2), cursor.getFloat(3));
+            profile.setBmi(cursor.getFloat(4));
+            profile.setDietCategory(cursor.getString(5));
+            profile.setCuisine(cursor.getString(6));
+        }
+
+        cursor.close();
+        return profile;
+    }
+
+    private void writeProfile(User profile) {
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement(UPSERT_USER);
+        try {
+            statement.bindLong(1, LogStore.DEFAULT_USER_ID);
+            statement.bindString(2, profile.getName());
+            statement.bindLong(3, profile.getAge());
+            statement.bindDouble(4, profile.getHeight());
+            statement.bindDouble(5, profile.getWeight());
+            statement.bindDouble(6, profile.getBmi());
+            bindNullable(statement, 7, profile.getDietCategory());
+            bindNullable(statement, 8, profile.getCuisine());
+            statement.bindLong(9, System.currentTimeMillis());
+            statement.executeInsert();
+        } finally {
+            statement.close();
+        }
+    }
+
+    /**
+     * Copy a profile saved by older versions from HealthmatePrefs into the
+     * user table, then clear the preferences so they are not read again
+     * @return Migrated profile, or null if there was none
+     */
+    private User migrateFromPreferences() {
+        SharedPreferences preferences = appContext.getSharedPreferences(Constants.PREFS_NAME, Context.MODE_PRIVATE);
+
+        String name = preferences.getString(Constants.KEY_NAME, "");
+        int age = preferences.getInt(Constants.KEY_AGE, 0);
+        float height = preferences.getFloat(Constants.KEY_HEIGHT, 0);
+        float weight = preferences.getFloat(Constants.KEY_WEIGHT, 0);
+
+        if (TextUtils.isEmpty(name) || age <= 0 || height <= 0 || weight <= 0) {
+            return null;
+        }
+
+        User profile = new User(name, age, height, weight);
+        float bmi = preferences.getFloat(Constants.KEY_BMI, 0);
+        if (bmi > 0) {
+            profile.setBmi(bmi);
+        }
+        profile.setDietCategory(preferences.getString(Constants.KEY_DIET_CATEGORY, null));
+        profile.setCuisine(preferences.getString(Constants.KEY_CUISINE, null));
+
+        writeProfile(profile);
+        preferences.edit().clear().commit();
+
+        Log.d(TAG, "Migrated profile from " + Constants.PREFS_NAME);
+        return profile;
+    }
+
+    private static User copyOf(User profile) {
+        return profile != null ? new User(profile) : null;
+    }
+
+    private static void bindNullable(SQLiteStatement statement, int index, String value) {
+        if (value == null) {
+            statement.bindNull(index);
+        } else {
+            statement.bindString(index, value);
+        }
+    }
+}
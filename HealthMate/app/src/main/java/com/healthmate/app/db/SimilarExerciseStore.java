@@ -0,0 +1,199 @@
+package com.healthmate.app.db;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.SimilarExercise;
+import com.healthmate.app.util.AppExecutors;
+import com.healthmate.app.util.ExerciseRecommender;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed "similar exercises" for the detail screen.
+ *
+ * The neighbours of every exercise are computed by ExerciseRecommender in
+ * a background job and stored ranked in the similar_exercise table, which
+ * is clustered on (exercise_id, rank). Showing them is then a single range
+ * read, with the neighbour's name stored alongside so no join is needed.
+ *
+ * The job runs on the disk executor once exercise writes have stopped for
+ * REFRESH_DELAY_MS, and once at start-up if the table is empty. A catalog
+ * streamed in batches of 50 rows is therefore processed once, after the
+ * last batch, instead of after every batch. Writes arriving while a run is
+ * queued are folded into that run.
+ */
+public class SimilarExerciseStore implements DatabaseHelper.OnExercisesChangedListener {
+    private static final String TAG = "SimilarExerciseStore";
+
+    // Number of neighbours kept per exercise
+    public static final int NEIGHBOUR_COUNT = 5;
+
+    // Quiet time after the last exercise write before neighbours are recomputed
+    private static final long REFRESH_DELAY_MS = 2000;
+
+    // Table name
+    static final String TABLE_SIMILAR_EXERCISE = "similar_exercise";
+
+    // Similar exercise table column names
+    private static final String KEY_EXERCISE_ID = "exercise_id";
+    private static final String KEY_RANK = "rank";
+    private static final String KEY_SIMILAR_ID = "similar_id";
+    private static final String KEY_SIMILAR_NAME = "similar_name";
+    private static final String KEY_SCORE = "score";
+
+    // Table creation statement, safe to run on every upgrade
+    private static final String CREATE_TABLE_SIMILAR_EXERCISE = "CREATE TABLE IF NOT EXISTS " + TABLE_SIMILAR_EXERCISE + "("
+            + KEY_EXERCISE_ID + " TEXT NOT NULL,"
+            + KEY_RANK + " INTEGER NOT NULL,"
+            + KEY_SIMILAR_ID + " TEXT NOT NULL,"
+            + KEY_SIMILAR_NAME + " TEXT,"
+            + KEY_SCORE + " REAL NOT NULL,"
+            + "PRIMARY KEY (" + KEY_EXERCISE_ID + "," + KEY_RANK + ")"
+            + ") WITHOUT ROWID";
+
+    private static final String INSERT_SIMILAR_EXERCISE = "INSERT INTO " + TABLE_SIMILAR_EXERCISE + "("
+            + KEY_EXERCISE_ID + "," + KEY_RANK + "," + KEY_SIMILAR_ID + "," + KEY_SIMILAR_NAME + "," + KEY_SCORE
+            + ") VALUES (?,?,?,?,?)";
+
+    private final DatabaseHelper dbHelper;
+    private final AppExecutors executors = AppExecutors.getInstance();
+
+    // Only used for the refresh delay, the refresh itself runs on the disk executor
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable delayedRefresh = this::scheduleRefresh;
+
+    // Guarded by this
+    private boolean refreshQueued = false;
+
+    /**
+     * Constructor, use the shared instance from AppContainer
+     * @param dbHelper Database holding the exercise table
+     */
+    public SimilarExerciseStore(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+        dbHelper.addOnExercisesChangedListener(this);
+    }
+
+    /**
+     * Create the similar exercise table if it does not exist yet
+     * @param db Database instance
+     */
+    static void createTables(SQLiteDatabase db) {
+        db.execSQL(CREATE_TABLE_SIMILAR_EXERCISE);
+    }
+
+    /**
+     * Get the precomputed neighbours of an exercise
+     * @param exerciseId Exercise ID
+     * @param limit Maximum number of neighbours
+     * @return Similar exercises, most similar first
+     */
+    @WorkerThread
+    public List<SimilarExercise> getSimilarExercises(String exerciseId, int limit) {
+        String selectQuery = "SELECT " + KEY_SIMILAR_ID + "," + KEY_SIMILAR_NAME + "," + KEY_SCORE
+                + " FROM " + TABLE_SIMILAR_EXERCISE
+                + " WHERE " + KEY_EXERCISE_ID + " = ?"
+                + " ORDER BY " + KEY_RANK + " LIMIT " + limit;
+        SQLiteDatabase db = dbHelper.getReadableDatabase();
+        Cursor cursor = db.rawQuery(selectQuery, new String[]{exerciseId});
+
+        List<SimilarExercise> similar = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            // Columns are read by position, in the order of the projection above
+            similar.add(new SimilarExercise(cursor.getString(0), cursor.getString(1), cursor.getFloat(2)));
+        }
+
+        cursor.close();
+        return similar;
+    }
+
+    @Override
+    public void onExercisesChanged(List<Exercise> exercises) {
+        // Every write restarts the delay
+        handler.removeCallbacks(delayedRefresh);
+        handler.postDelayed(delayedRefresh, REFRESH_DELAY_MS);
+    }
+
+    /**
+     * Compute the neighbours in the background if none are stored yet
+     */
+    public void refreshIfEmpty() {
+        executors.diskIO().execute(() -> {
+            SQLiteDatabase db = dbHelper.getReadableDatabase();
+            if (DatabaseUtils.queryNumEntries(db, TABLE_SIMILAR_EXERCISE) == 0) {
+                scheduleRefresh();
+            }
+        });
+    }
+
+    /**
+     * Queue a recomputation of all neighbours on the disk executor
+     */
+    public void scheduleRefresh() {
+        synchronized (this) {
+            if (refreshQueued) {
+                return;
+            }
+            refreshQueued = true;
+        }
+
+        executors.diskIO().execute(() -> {
+            synchronized (this) {
+                refreshQueued = false;
+            }
+            refresh();
+        });
+    }
+
+    @WorkerThread
+    private void refresh() {
+        long start = System.nanoTime();
+        List<Exercise> exercises = dbHelper.getAllExercises();
+        Map<String, List<SimilarExercise>> neighbours =
+                ExerciseRecommender.computeNeighbours(exercises, NEIGHBOUR_COUNT);
+
+        SQLiteDatabase db = dbHelper.getWritableDatabase();
+        SQLiteStatement statement = db.compileStatement(INSERT_SIMILAR_EXERCISE);
+
+        // Replace the whole table at once, readers see the old or the new neighbours
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_SIMILAR_EXERCISE, null, null);
+            for (Map.Entry<String, List<SimilarExercise>> entry : neighbours.entrySet()) {
+                List<SimilarExercise> similar = entry.getValue();
+                for (int rank = 0; rank < similar.size(); rank++) {
+                    SimilarExercise neighbour = similar.get(rank);
+                    statement.bindString(1, entry.getKey());
+                    statement.bindLong(2, rank);
+                    statement.bindString(3, neighbour.getId());
+                    if (neighbour.getName() == null) {
+                        statement.bindNull(4);
+                    } else {
+                        statement.bindString(4, neighbour.getName());
+                    }
+                    statement.bindDouble(5, neighbour.getScore());
+                    statement.executeInsert();
+                    statement.clearBindings();
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+            statement.close();
+        }
+
+        Log.d(TAG, "Computed neighbours of " + exercises.size() + " exercises in "
+                + (System.nanoTime() - start) / 1000000 + " ms");
+    }
+}
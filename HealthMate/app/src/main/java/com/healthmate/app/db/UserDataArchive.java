@@ -0,0 +1,674 @@
+package com.healthmate.app.db;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+
+import androidx.annotation.WorkerThread;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Backs up and restores the user's data as a compact binary archive.
+ *
+ * A full archive holds the profile, the food and exercise logs, the body
+ * metrics and the cached exercise catalog. Tables are copied as stored, described by the
+ * ArchiveTable of the store owning them, so compressed descriptions and
+ * steps are never decoded. The file is written and read through a
+ * FileChannel in chunks of up to ArchiveTable.PAGE_ROWS rows:
+ *
+ *   header  int magic "HMBK", int version, int flags, long creation time
+ *   chunk   byte section, int row count, int raw length, int stored length,
+ *           int CRC32 of the raw rows, then the rows as raw Deflate
+ *   end     a chunk header with section 0 and no rows
+ *
+ * Each cell of a row is a type byte followed by its value: nothing for
+ * NULL, 8 bytes for integers and reals, an int length and the bytes for
+ * text (UTF-8) and blobs. Numbers are big-endian.
+ *
+ * Both directions can be resumed. After each chunk the export remembers
+ * the file position and the last key written; called again for the same
+ * file, it drops whatever follows that position and continues. The import
+ * commits each chunk in its own transaction and remembers the position
+ * after it. An incremental export holds the profile and only the log
+ * entries added since the last completed export, along with all body
+ * metrics, which are small and not added in key order.
+ *
+ * Imports are meant for restoring a backup or moving to a new device. Log
+ * entries get new row IDs and are matched on the random entry ID they were
+ * logged with: entries from another device never collide with local ones,
+ * and an entry already stored is skipped, so importing the same archive
+ * twice adds nothing. A body measurement replaces one stored for the same
+ * time, and the trends are recomputed.
+ */
+public class UserDataArchive {
+    private static final String TAG = "UserDataArchive";
+
+    // Progress of the export and import in progress, and the keys reached by
+    // the last completed export
+    private static final String PREFS_NAME = "UserDataArchive";
+    private static final String KEY_EXPORT_PATH = "export_path";
+    private static final String KEY_EXPORT_FLAGS = "export_flags";
+    private static final String KEY_EXPORT_POSITION = "export_position";
+    private static final String KEY_EXPORT_TABLE = "export_table";
+    private static final String KEY_EXPORT_KEY = "export_key_";
+    private static final String KEY_EXPORT_REACHED = "export_reached_";
+    private static final String KEY_EXPORTED_THROUGH = "exported_through_";
+    private static final String KEY_IMPORT_PATH = "import_path";
+    private static final String KEY_IMPORT_CREATED_AT = "import_created_at";
+    private static final String KEY_IMPORT_POSITION = "import_position";
+
+    private static final int MAGIC = 0x484D424B;
+    // Version 2 added the entry IDs of log entries
+    private static final int VERSION = 2;
+    private static final int FLAG_INCREMENTAL = 1;
+    private static final int HEADER_LENGTH = 20;
+    private static final int CHUNK_HEADER_LENGTH = 17;
+    private static final byte SECTION_END = 0;
+
+    // Cell types
+    private static final byte CELL_NULL = 0;
+    private static final byte CELL_INTEGER = 1;
+    private static final byte CELL_REAL = 2;
+    private static final byte CELL_TEXT = 3;
+    private static final byte CELL_BLOB = 4;
+
+    // Tables in archive order, exercises before their steps
+    private static final ArchiveTable[] FULL_TABLES = {
+            ProfileStore.ARCHIVE_USER,
+            LogStore.ARCHIVE_FOOD_LOG,
+            LogStore.ARCHIVE_EXERCISE_LOG,
+            BodyMetricsStore.ARCHIVE_BODY_METRICS,
+            DatabaseHelper.ARCHIVE_EXERCISES,
+            ExerciseStepStore.ARCHIVE_EXERCISE_STEPS,
+    };
+
+    // The catalog is a cache of ExerciseDB, incremental backups leave it out
+    private static final ArchiveTable[] INCREMENTAL_TABLES = {
+            ProfileStore.ARCHIVE_USER,
+            LogStore.ARCHIVE_FOOD_LOG,
+            LogStore.ARCHIVE_EXERCISE_LOG,
+            BodyMetricsStore.ARCHIVE_BODY_METRICS,
+    };
+
+    private final SharedPreferences preferences;
+    private final DatabaseHelper dbHelper;
+    private final ProfileStore profileStore;
+
+    // Chunk buffers, reused across chunks and guarded by this
+    private final ByteArrayOutputStream rawRows = new ByteArrayOutputStream(64 * 1024);
+    private final DataOutputStream rowWriter = new DataOutputStream(rawRows);
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final Inflater inflater = new Inflater(true);
+    private final CRC32 crc = new CRC32();
+    private byte[] stored = new byte[16 * 1024];
+    private byte[] raw = new byte[64 * 1024];
+
+    /**
+     * Outcome of an export or import
+     */
+    public static final class Result {
+        private final int rowCount;
+        private final int skippedCount;
+        private final long byteCount;
+        private final long durationMs;
+
+        Result(int rowCount, int skippedCount, long byteCount, long durationMs) {
+            this.rowCount = rowCount;
+            this.skippedCount = skippedCount;
+            this.byteCount = byteCount;
+            this.durationMs = durationMs;
+        }
+
+        /**
+         * Get the number of rows written or read by this call, excluding
+         * those handled by an earlier, interrupted call
+         * @return Row count
+         */
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        /**
+         * Get the number of log entries an import skipped because they were
+         * already stored, always 0 for an export
+         * @return Skipped row count
+         */
+        public int getSkippedCount() {
+            return skippedCount;
+        }
+
+        /**
+         * Get the size of the archive file
+         * @return Size in bytes
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * Get the time this call took
+         * @return Duration in milliseconds
+         */
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    /**
+     * Constructor, use the shared instance from AppContainer
+     * @param context Any context, only used to open the progress preferences
+     * @param dbHelper Database holding the user's tables
+     * @param profileStore Profile store, its cache is dropped after an import
+     */
+    public UserDataArchive(Context context, DatabaseHelper dbHelper, ProfileStore profileStore) {
+        this.preferences = context.getApplicationContext()
+                .getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.dbHelper = dbHelper;
+        this.profileStore = profileStore;
+    }
+
+    /**
+     * Write an archive, or finish the one an interrupted call left in the
+     * same file with the same mode
+     * @param file Archive file, replaced unless an export into it is resumed
+     * @param incremental True to only write log entries added since the last completed export
+     * @return Result of this call
+     * @throws IOException If the file cannot be written
+     */
+    @WorkerThread
+    public synchronized Result exportTo(File file, boolean incremental) throws IOException {
+        long start = System.nanoTime();
+        ArchiveTable[] tables = incremental ? INCREMENTAL_TABLES : FULL_TABLES;
+        int flags = incremental ? FLAG_INCREMENTAL : 0;
+        String path = file.getAbsolutePath();
+        int rowCount = 0;
+
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        FileChannel channel = access.getChannel();
+        try {
+            long position = preferences.getLong(KEY_EXPORT_POSITION, Long.MAX_VALUE);
+            int tableIndex;
+            String[] lastKey;
+            if (path.equals(preferences.getString(KEY_EXPORT_PATH, null))
+                    && preferences.getInt(KEY_EXPORT_FLAGS, -1) == flags
+                    && channel.size() >= position) {
+                // Whatever follows the checkpoint is a chunk that was cut short
+                tableIndex = preferences.getInt(KEY_EXPORT_TABLE, 0);
+                lastKey = tableIndex < tables.length
+                        ? readKey(KEY_EXPORT_KEY, tables[tableIndex].keyColumnCount)
+                        : null;
+                Log.d(TAG, "Resuming export of " + path + " at " + position);
+            } else {
+                clearExport();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+                header.putInt(MAGIC).putInt(VERSION).putInt(flags).putLong(System.currentTimeMillis());
+                header.flip();
+                channel.truncate(0);
+                writeFully(channel, header, 0);
+                position = HEADER_LENGTH;
+                tableIndex = 0;
+                lastKey = startKey(tables[0], incremental);
+            }
+            channel.truncate(position);
+
+            SQLiteDatabase db = dbHelper.getReadableDatabase();
+            while (tableIndex < tables.length) {
+                ArchiveTable table = tables[tableIndex];
+                Cursor cursor = lastKey == null
+                        ? db.rawQuery(table.selectFirstPage, null)
+                        : db.rawQuery(table.selectNextPage, lastKey);
+                int count;
+                try {
+                    count = encodeRows(cursor, table);
+                    if (count > 0) {
+                        cursor.moveToLast();
+                        lastKey = new String[table.keyColumnCount];
+                        for (int i = 0; i < lastKey.length; i++) {
+                            lastKey[i] = cursor.getString(i);
+                        }
+                    }
+                } finally {
+                    cursor.close();
+                }
+
+                if (count > 0) {
+                    position = writeChunk(channel, position, table.section, count);
+                    rowCount += count;
+                }
+
+                SharedPreferences.Editor editor = preferences.edit();
+                if (count < ArchiveTable.PAGE_ROWS) {
+                    // Table done, remember how far it got for the next incremental export
+                    if (table.appendOnly) {
+                        editor.putString(KEY_EXPORT_REACHED + table.name, lastKey != null ? lastKey[0] : null);
+                    }
+                    tableIndex++;
+                    lastKey = tableIndex < tables.length ? startKey(tables[tableIndex], incremental) : null;
+                }
+                channel.force(false);
+                saveExportCheckpoint(editor, path, flags, position, tableIndex, lastKey);
+            }
+
+            // All zero, section 0 without rows
+            writeFully(channel, ByteBuffer.allocate(CHUNK_HEADER_LENGTH), position);
+            channel.force(true);
+            long size = channel.size();
+
+            finishExport(tables);
+            long durationMs = (System.nanoTime() - start) / 1000000;
+            Log.d(TAG, "Exported " + rowCount + " rows, " + size + " bytes in " + durationMs + " ms");
+            return new Result(rowCount, 0, size, durationMs);
+        } finally {
+            channel.close();
+            access.close();
+        }
+    }
+
+    /**
+     * Read an archive into the database, continuing after the last chunk
+     * an interrupted call committed from the same archive
+     * @param file Archive written by exportTo()
+     * @return Result of this call
+     * @throws IOException If the file cannot be read, is not an archive or is cut short
+     */
+    @WorkerThread
+    public synchronized Result importFrom(File file) throws IOException {
+        long start = System.nanoTime();
+        String path = file.getAbsolutePath();
+        int rowCount = 0;
+        int skippedCount = 0;
+        boolean incremental;
+
+        RandomAccessFile access = new RandomAccessFile(file, "r");
+        FileChannel channel = access.getChannel();
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a HealthMate archive: " + path);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported archive version " + version);
+            }
+            incremental = (header.getInt() & FLAG_INCREMENTAL) != 0;
+            long createdAt = header.getLong();
+
+            long position = HEADER_LENGTH;
+            if (path.equals(preferences.getString(KEY_IMPORT_PATH, null))
+                    && preferences.getLong(KEY_IMPORT_CREATED_AT, 0) == createdAt) {
+                position = preferences.getLong(KEY_IMPORT_POSITION, HEADER_LENGTH);
+                Log.d(TAG, "Resuming import of " + path + " at " + position);
+            }
+
+            SQLiteDatabase db = dbHelper.getWritableDatabase();
+            ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_LENGTH);
+            Set<Long> days = new HashSet<>();
+            while (true) {
+                chunkHeader.clear();
+                readFully(channel, chunkHeader, position);
+                chunkHeader.flip();
+                byte section = chunkHeader.get();
+                if (section == SECTION_END) {
+                    break;
+                }
+                int count = chunkHeader.getInt();
+                int rawLength = chunkHeader.getInt();
+                int storedLength = chunkHeader.getInt();
+                int checksum = chunkHeader.getInt();
+
+                ArchiveTable table = tableFor(section);
+                ByteBuffer rows = readRows(channel, position + CHUNK_HEADER_LENGTH, storedLength,
+                        rawLength, checksum);
+
+                days.clear();
+                db.beginTransaction();
+                try {
+                    skippedCount += applyRows(db, table, rows, count, days);
+                    if (!days.isEmpty()) {
+                        LogStore.rebuildDailyTotals(db, days);
+                    }
+                    if (table == BodyMetricsStore.ARCHIVE_BODY_METRICS) {
+                        BodyMetricsStore.rebuildRollups(db);
+                    }
+                    db.setTransactionSuccessful();
+                } finally {
+                    db.endTransaction();
+                }
+
+                position += CHUNK_HEADER_LENGTH + storedLength;
+                rowCount += count;
+                preferences.edit()
+                        .putString(KEY_IMPORT_PATH, path)
+                        .putLong(KEY_IMPORT_CREATED_AT, createdAt)
+                        .putLong(KEY_IMPORT_POSITION, position)
+                        .apply();
+            }
+        } finally {
+            channel.close();
+            access.close();
+        }
+
+        preferences.edit()
+                .remove(KEY_IMPORT_PATH)
+                .remove(KEY_IMPORT_CREATED_AT)
+                .remove(KEY_IMPORT_POSITION)
+                .apply();
+
+        // The rows bypassed the stores, let them reload
+        profileStore.invalidate();
+        if (!incremental) {
+            dbHelper.notifyExercisesChanged(dbHelper.getAllExercises());
+        }
+
+        long durationMs = (System.nanoTime() - start) / 1000000;
+        Log.d(TAG, "Imported " + rowCount + " rows, " + skippedCount + " already stored, in "
+                + durationMs + " ms");
+        return new Result(rowCount, skippedCount, file.length(), durationMs);
+    }
+
+    /**
+     * Encode the rows of a cursor into rawRows
+     * @return Number of rows encoded
+     */
+    private int encodeRows(Cursor cursor, ArchiveTable table) throws IOException {
+        rawRows.reset();
+        int count = 0;
+        while (cursor.moveToNext()) {
+            for (int i = 0; i < table.columnCount; i++) {
+                switch (cursor.getType(i)) {
+                    case Cursor.FIELD_TYPE_NULL:
+                        rowWriter.writeByte(CELL_NULL);
+                        break;
+                    case Cursor.FIELD_TYPE_INTEGER:
+                        rowWriter.writeByte(CELL_INTEGER);
+                        rowWriter.writeLong(cursor.getLong(i));
+                        break;
+                    case Cursor.FIELD_TYPE_FLOAT:
+                        rowWriter.writeByte(CELL_REAL);
+                        rowWriter.writeDouble(cursor.getDouble(i));
+                        break;
+                    case Cursor.FIELD_TYPE_STRING:
+                        writeBytes(CELL_TEXT, cursor.getString(i).getBytes(StandardCharsets.UTF_8));
+                        break;
+                    default:
+                        writeBytes(CELL_BLOB, cursor.getBlob(i));
+                        break;
+                }
+            }
+            count++;
+        }
+        rowWriter.flush();
+        return count;
+    }
+
+    private void writeBytes(byte type, byte[] bytes) throws IOException {
+        rowWriter.writeByte(type);
+        rowWriter.writeInt(bytes.length);
+        rowWriter.write(bytes);
+    }
+
+    /**
+     * Compress rawRows and write them as one chunk
+     * @return File position after the chunk
+     */
+    private long writeChunk(FileChannel channel, long position, byte section, int count) throws IOException {
+        byte[] rows = rawRows.toByteArray();
+        crc.reset();
+        crc.update(rows, 0, rows.length);
+
+        deflater.reset();
+        deflater.setInput(rows);
+        deflater.finish();
+        int storedLength = 0;
+        while (!deflater.finished()) {
+            if (storedLength == stored.length) {
+                stored = Arrays.copyOf(stored, stored.length * 2);
+            }
+            storedLength += deflater.deflate(stored, storedLength, stored.length - storedLength);
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(CHUNK_HEADER_LENGTH);
+        header.put(section).putInt(count).putInt(rows.length).putInt(storedLength).putInt((int) crc.getValue());
+        header.flip();
+        position = writeFully(channel, header, position);
+        return writeFully(channel, ByteBuffer.wrap(stored, 0, storedLength), position);
+    }
+
+    /**
+     * Read and inflate the rows of one chunk, checking their CRC
+     */
+    private ByteBuffer readRows(FileChannel channel, long position, int storedLength, int rawLength,
+                                int checksum) throws IOException {
+        if (storedLength < 0 || rawLength < 0) {
+            throw new IOException("Corrupt chunk at " + position);
+        }
+        if (stored.length < storedLength) {
+            stored = new byte[storedLength];
+        }
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        readFully(channel, ByteBuffer.wrap(stored, 0, storedLength), position);
+
+        inflater.reset();
+        inflater.setInput(stored, 0, storedLength);
+        try {
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, length, rawLength - length);
+                if (inflated == 0 && inflater.needsInput()) {
+                    break;
+                }
+                length += inflated;
+            }
+            crc.reset();
+            crc.update(raw, 0, length);
+            if (length != rawLength || (int) crc.getValue() != checksum) {
+                throw new IOException("Corrupt chunk at " + position);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt chunk at " + position, e);
+        }
+        return ByteBuffer.wrap(raw, 0, rawLength);
+    }
+
+    /**
+     * Insert decoded rows, collecting the days whose rollup must be rebuilt
+     * @return Number of rows skipped because they were already stored
+     */
+    private static int applyRows(SQLiteDatabase db, ArchiveTable table, ByteBuffer rows, int count,
+                                  Set<Long> days) throws IOException {
+        SQLiteStatement statement = db.compileStatement(table.insert);
+        int skipped = 0;
+        try {
+            for (int row = 0; row < count; row++) {
+                statement.clearBindings();
+                for (int i = 0; i < table.columnCount; i++) {
+                    byte type = rows.get();
+                    if (i < table.firstInsertedColumn) {
+                        skipCell(rows, type, table);
+                        continue;
+                    }
+                    int index = i - table.firstInsertedColumn + 1;
+                    switch (type) {
+                        case CELL_NULL:
+                            statement.bindNull(index);
+                            break;
+                        case CELL_INTEGER:
+                            long value = rows.getLong();
+                            statement.bindLong(index, value);
+                            if (i == table.dayColumn) {
+                                days.add(value);
+                            }
+                            break;
+                        case CELL_REAL:
+                            statement.bindDouble(index, rows.getDouble());
+                            break;
+                        case CELL_TEXT:
+                            int length = rows.getInt();
+                            statement.bindString(index, new String(rows.array(), rows.position(), length,
+                                    StandardCharsets.UTF_8));
+                            rows.position(rows.position() + length);
+                            break;
+                        case CELL_BLOB:
+                            byte[] blob = new byte[rows.getInt()];
+                            rows.get(blob);
+                            statement.bindBlob(index, blob);
+                            break;
+                        default:
+                            throw new IOException("Unknown cell type " + type + " in " + table.name);
+                    }
+                }
+                if (statement.executeInsert() == -1) {
+                    skipped++;
+                }
+            }
+        } catch (RuntimeException e) {
+            // Buffer underflows and bad lengths mean the rows do not match the table
+            throw new IOException("Corrupt rows in " + table.name, e);
+        } finally {
+            statement.close();
+        }
+        return skipped;
+    }
+
+    /**
+     * Move past a cell that is not inserted, such as a local row ID
+     */
+    private static void skipCell(ByteBuffer rows, byte type, ArchiveTable table) throws IOException {
+        switch (type) {
+            case CELL_NULL:
+                break;
+            case CELL_INTEGER:
+            case CELL_REAL:
+                rows.position(rows.position() + 8);
+                break;
+            case CELL_TEXT:
+            case CELL_BLOB:
+                int length = rows.getInt();
+                rows.position(rows.position() + length);
+                break;
+            default:
+                throw new IOException("Unknown cell type " + type + " in " + table.name);
+        }
+    }
+
+    private static ArchiveTable tableFor(byte section) throws IOException {
+        for (ArchiveTable table : FULL_TABLES) {
+            if (table.section == section) {
+                return table;
+            }
+        }
+        throw new IOException("Unknown archive section " + section);
+    }
+
+    /**
+     * Key to start a table after: where the last completed export stopped
+     * for append-only tables of an incremental export, otherwise the start
+     */
+    private String[] startKey(ArchiveTable table, boolean incremental) {
+        if (!incremental || !table.appendOnly) {
+            return null;
+        }
+        String reached = preferences.getString(KEY_EXPORTED_THROUGH + table.name, null);
+        return reached != null ? new String[]{reached} : null;
+    }
+
+    private String[] readKey(String prefix, int length) {
+        if (!preferences.contains(prefix + 0)) {
+            return null;
+        }
+        String[] key = new String[length];
+        for (int i = 0; i < length; i++) {
+            key[i] = preferences.getString(prefix + i, null);
+        }
+        return key;
+    }
+
+    private static void saveExportCheckpoint(SharedPreferences.Editor editor, String path, int flags,
+                                             long position, int tableIndex, String[] lastKey) {
+        editor.putString(KEY_EXPORT_PATH, path)
+                .putInt(KEY_EXPORT_FLAGS, flags)
+                .putLong(KEY_EXPORT_POSITION, position)
+                .putInt(KEY_EXPORT_TABLE, tableIndex)
+                .remove(KEY_EXPORT_KEY + 0)
+                .remove(KEY_EXPORT_KEY + 1);
+        if (lastKey != null) {
+            for (int i = 0; i < lastKey.length; i++) {
+                editor.putString(KEY_EXPORT_KEY + i, lastKey[i]);
+            }
+        }
+        // A checkpoint lost with the process only makes the next call redo a chunk
+        editor.apply();
+    }
+
+    /**
+     * Make the keys reached by the finished export the start of the next
+     * incremental one, and forget the checkpoint
+     */
+    private void finishExport(ArchiveTable[] tables) {
+        SharedPreferences.Editor editor = preferences.edit();
+        for (ArchiveTable table : tables) {
+            if (table.appendOnly) {
+                String reached = preferences.getString(KEY_EXPORT_REACHED + table.name, null);
+                if (reached != null) {
+                    editor.putString(KEY_EXPORTED_THROUGH + table.name, reached);
+                }
+            }
+        }
+        editor.apply();
+        clearExport();
+    }
+
+    private void clearExport() {
+        SharedPreferences.Editor editor = preferences.edit()
+                .remove(KEY_EXPORT_PATH)
+                .remove(KEY_EXPORT_FLAGS)
+                .remove(KEY_EXPORT_POSITION)
+                .remove(KEY_EXPORT_TABLE)
+                .remove(KEY_EXPORT_KEY + 0)
+                .remove(KEY_EXPORT_KEY + 1);
+        for (ArchiveTable table : FULL_TABLES) {
+            editor.remove(KEY_EXPORT_REACHED + table.name);
+        }
+        editor.apply();
+    }
+
+    private static long writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Archive ends before its last chunk");
+            }
+            position += read;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.healthmate.app.model;
+
+/**
+ * A single weight measurement with the values derived from it
+ */
+public class BodyMetric {
+    private final long measuredAt; // milliseconds since the epoch
+    private final float weight;    // in kg
+    private final float bmi;
+    private final int calorieTarget;
+    private final float weightMovingAverage; // average weight over the previous 7 days
+
+    /**
+     * Constructor for BodyMetric class
+     * @param measuredAt Time of the measurement in milliseconds
+     * @param weight Weight in kg
+     * @param bmi BMI at the time of the measurement
+     * @param calorieTarget Daily calorie target at the time of the measurement
+     * @param weightMovingAverage 7 day moving average of the weight
+     */
+    public BodyMetric(long measuredAt, float weight, float bmi, int calorieTarget,
+                      float weightMovingAverage) {
+        this.measuredAt = measuredAt;
+        this.weight = weight;
+        this.bmi = bmi;
+        this.calorieTarget = calorieTarget;
+        this.weightMovingAverage = weightMovingAverage;
+    }
+
+    /**
+     * Get time of the measurement
+     * @return Time in milliseconds since the epoch
+     */
+    public long getMeasuredAt() {
+        return measuredAt;
+    }
+
+    /**
+     * Get weight
+     * @return Weight in kg
+     */
+    public float getWeight() {
+        return weight;
+    }
+
+    /**
+     * Get BMI
+     * @return BMI value as a float
+     */
+    public float getBmi() {
+        return bmi;
+    }
+
+    /**
+     * Get daily calorie target
+     * @return Calorie target in kcal
+     */
+    public int getCalorieTarget() {
+        return calorieTarget;
+    }
+
+    /**
+     * Get 7 day moving average of the weight, including this measurement
+     * @return Average weight in kg
+     */
+    public float getWeightMovingAverage() {
+        return weightMovingAverage;
+    }
+}
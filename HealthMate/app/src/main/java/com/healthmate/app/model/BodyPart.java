@@ -0,0 +1,151 @@
+package com.healthmate.app.model;
+
+import com.healthmate.app.util.Constants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Body parts used by the app, with their precomputed attributes.
+ * Lookup tables are built once, so mapping API values is a single hash
+ * lookup instead of rebuilding maps or comparing strings per item.
+ */
+public enum BodyPart {
+    ARMS(Constants.BODY_PART_ARMS, 150),      // Arms are smaller muscle groups
+    CHEST(Constants.BODY_PART_CHEST, 200),
+    BACK(Constants.BODY_PART_BACK, 220),
+    ABS(Constants.BODY_PART_ABS, 180),
+    LEGS(Constants.BODY_PART_LEGS, 250),      // Legs are large muscle groups
+    FULL_BODY(Constants.BODY_PART_FULL_BODY, 300); // Full body workouts burn more calories
+
+    // ExerciseDB body part names mapped to our body parts
+    private static final Map<String, BodyPart> API_NAMES;
+
+    // Lower-case labels, as used by the body part selector
+    private static final Map<String, BodyPart> LABELS;
+
+    static {
+        Map<String, BodyPart> apiNames = new HashMap<>();
+        apiNames.put("back", BACK);
+        apiNames.put("cardio", FULL_BODY);
+        apiNames.put("chest", CHEST);
+        apiNames.put("lower arms", ARMS);
+        apiNames.put("lower legs", LEGS);
+        apiNames.put("neck", BACK);
+        apiNames.put("shoulders", ARMS);
+        apiNames.put("upper arms", ARMS);
+        apiNames.put("upper legs", LEGS);
+        apiNames.put("waist", ABS);
+        API_NAMES = Collections.unmodifiableMap(apiNames);
+
+        Map<String, BodyPart> labels = new HashMap<>();
+        for (BodyPart bodyPart : values()) {
+            labels.put(bodyPart.label.toLowerCase(Locale.ROOT), bodyPart);
+        }
+        LABELS = Collections.unmodifiableMap(labels);
+    }
+
+    private final String label;
+    private final int caloriesPer30Minutes;
+
+    BodyPart(String label, int caloriesPer30Minutes) {
+        this.label = label;
+        this.caloriesPer30Minutes = caloriesPer30Minutes;
+    }
+
+    /**
+     * Get the display label, one of the Constants.BODY_PART_* values
+     * @return Label as a String
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Get estimated calories burned in 30 minutes for a 70kg person
+     * @return Calories as an integer
+     */
+    public int getCaloriesPer30Minutes() {
+        return caloriesPer30Minutes;
+    }
+
+    /**
+     * Map an ExerciseDB body part name to our body part
+     * @param apiName Body part name from the API, e.g. "upper arms"
+     * @return Matching body part, FULL_BODY if null or unknown
+     */
+    public static BodyPart fromApiName(String apiName) {
+        if (apiName == null) return FULL_BODY;
+
+        // The API uses lower case, so the first lookup normally hits
+        BodyPart bodyPart = API_NAMES.get(apiName);
+        if (bodyPart == null) {
+            bodyPart = API_NAMES.get(apiName.toLowerCase(Locale.ROOT));
+        }
+        return bodyPart != null ? bodyPart : FULL_BODY;
+    }
+
+    /**
+     * Find a body part by its label, ignoring case
+     * @param label Label such as "Arms" or "full body"
+     * @return Matching body part, FULL_BODY if null or unknown
+     */
+    public static BodyPart fromLabel(String label) {
+        if (label == null) return FULL_BODY;
+
+        BodyPart bodyPart = LABELS.get(label.toLowerCase(Locale.ROOT));
+        return bodyPart != null ? bodyPart : FULL_BODY;
+    }
+
+    /**
+     * Map a Wger exercise category name to our body part
+     * @param category Category name from the Wger API, e.g. "Chest"
+     * @return Matching body part, FULL_BODY if null or unknown
+     */
+    public static BodyPart fromWgerCategoryName(String category) {
+        if (category == null) return FULL_BODY;
+
+        switch (category.toLowerCase(Locale.ROOT)) {
+            case "arms":
+            case "shoulders":
+                return ARMS;
+            case "legs":
+            case "calves":
+                return LEGS;
+            case "abs":
+                return ABS;
+            case "chest":
+                return CHEST;
+            case "back":
+                return BACK;
+            default: // Cardio
+                return FULL_BODY;
+        }
+    }
+
+    /**
+     * Map a Wger exercise category ID to our body part
+     * @param category Category ID from the Wger API
+     * @return Matching body part, FULL_BODY if unknown
+     */
+    public static BodyPart fromWgerCategory(int category) {
+        switch (category) {
+            case 8:  // Arms
+            case 13: // Shoulders
+                return ARMS;
+            case 9:  // Legs
+            case 14: // Calves
+                return LEGS;
+            case 10:
+                return ABS;
+            case 11:
+                return CHEST;
+            case 12:
+                return BACK;
+            default: // 15 is Cardio
+                return FULL_BODY;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.healthmate.app.model;
+
+/**
+ * Pre-aggregated totals of everything logged on one day
+ */
+public class DailyTotals {
+    private final long day; // epoch day in local time
+    private final float caloriesIn;
+    private final float proteins; // in grams
+    private final float carbs;    // in grams
+    private final float fats;     // in grams
+    private final float fiber;    // in grams
+    private final int caloriesOut;
+    private final int exerciseMinutes;
+    private final int foodEntries;
+    private final int exerciseEntries;
+
+    /**
+     * Constructor for DailyTotals class
+     * @param day Epoch day
+     * @param caloriesIn Calories eaten
+     * @param proteins Protein eaten in grams
+     * @param carbs Carbohydrates eaten in grams
+     * @param fats Fat eaten in grams
+     * @param fiber Fiber eaten in grams
+     * @param caloriesOut Calories burned by exercise
+     * @param exerciseMinutes Minutes of exercise
+     * @param foodEntries Number of food log entries
+     * @param exerciseEntries Number of exercise log entries
+     */
+    public DailyTotals(long day, float caloriesIn, float proteins, float carbs, float fats,
+                       float fiber, int caloriesOut, int exerciseMinutes,
+                       int foodEntries, int exerciseEntries) {
+        this.day = day;
+        this.caloriesIn = caloriesIn;
+        this.proteins = proteins;
+        this.carbs = carbs;
+        this.fats = fats;
+        this.fiber = fiber;
+        this.caloriesOut = caloriesOut;
+        this.exerciseMinutes = exerciseMinutes;
+        this.foodEntries = foodEntries;
+        this.exerciseEntries = exerciseEntries;
+    }
+
+    /**
+     * Get totals for a day without any entries
+     * @param day Epoch day
+     * @return Empty totals
+     */
+    public static DailyTotals empty(long day) {
+        return new DailyTotals(day, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Get day
+     * @return Epoch day as a long
+     */
+    public long getDay() {
+        return day;
+    }
+
+    /**
+     * Get calories eaten
+     * @return Calories
+     */
+    public float getCaloriesIn() {
+        return caloriesIn;
+    }
+
+    /**
+     * Get protein eaten
+     * @return Protein in grams
+     */
+    public float getProteins() {
+        return proteins;
+    }
+
+    /**
+     * Get carbohydrates eaten
+     * @return Carbohydrates in grams
+     */
+    public float getCarbs() {
+        return carbs;
+    }
+
+    /**
+     * Get fat eaten
+     * @return Fat in grams
+     */
+    public float getFats() {
+        return fats;
+    }
+
+    /**
+     * Get fiber eaten
+     * @return Fiber in grams
+     */
+    public float getFiber() {
+        return fiber;
+    }
+
+    /**
+     * Get calories burned by exercise
+     * @return Calories
+     */
+    public int getCaloriesOut() {
+        return caloriesOut;
+    }
+
+    /**
+     * Get minutes of exercise
+     * @return Minutes
+     */
+    public int getExerciseMinutes() {
+        return exerciseMinutes;
+    }
+
+    /**
+     * Get number of food log entries
+     * @return Entry count
+     */
+    public int getFoodEntries() {
+        return foodEntries;
+    }
+
+    /**
+     * Get number of exercise log entries
+     * @return Entry count
+     */
+    public int getExerciseEntries() {
+        return exerciseEntries;
+    }
+
+    /**
+     * Get calories eaten minus calories burned
+     * @return Net calories
+     */
+    public float getNetCalories() {
+        return caloriesIn - caloriesOut;
+    }
+}
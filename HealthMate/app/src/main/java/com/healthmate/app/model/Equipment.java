@@ -0,0 +1,128 @@
+package com.healthmate.app.model;
+
+import com.healthmate.app.util.Constants;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Equipment values known from the ExerciseDB API, with the difficulty
+ * level precomputed for each so items can be classified by a single lookup
+ */
+public enum Equipment {
+    ASSISTED("assisted"),
+    BAND("band"),
+    BARBELL("barbell"),
+    BODY_WEIGHT("body weight"),
+    BOSU_BALL("bosu ball"),
+    CABLE("cable"),
+    DUMBBELL("dumbbell"),
+    ELLIPTICAL_MACHINE("elliptical machine"),
+    EZ_BARBELL("ez barbell"),
+    HAMMER("hammer"),
+    KETTLEBELL("kettlebell"),
+    LEVERAGE_MACHINE("leverage machine"),
+    MEDICINE_BALL("medicine ball"),
+    OLYMPIC_BARBELL("olympic barbell"),
+    RESISTANCE_BAND("resistance band"),
+    ROLLER("roller"),
+    ROPE("rope"),
+    SKIERG_MACHINE("skierg machine"),
+    SLED_MACHINE("sled machine"),
+    SMITH_MACHINE("smith machine"),
+    STABILITY_BALL("stability ball"),
+    STATIONARY_BIKE("stationary bike"),
+    STEPMILL_MACHINE("stepmill machine"),
+    TIRE("tire"),
+    TRAP_BAR("trap bar"),
+    UPPER_BODY_ERGOMETER("upper body ergometer"),
+    WEIGHTED("weighted"),
+    WHEEL_ROLLER("wheel roller");
+
+    private static final Map<String, Equipment> API_NAMES;
+
+    static {
+        Map<String, Equipment> apiNames = new HashMap<>();
+        for (Equipment equipment : values()) {
+            apiNames.put(equipment.apiName, equipment);
+        }
+        API_NAMES = Collections.unmodifiableMap(apiNames);
+    }
+
+    private final String apiName;
+    private final String difficultyLevel;
+
+    Equipment(String apiName) {
+        this.apiName = apiName;
+        this.difficultyLevel = classify(apiName);
+    }
+
+    /**
+     * Get the name used by the API
+     * @return API name as a String
+     */
+    public String getApiName() {
+        return apiName;
+    }
+
+    /**
+     * Get the difficulty level of exercises using this equipment
+     * @return One of the Constants.DIFFICULTY_* values
+     */
+    public String getDifficultyLevel() {
+        return difficultyLevel;
+    }
+
+    /**
+     * Find equipment by its API name
+     * @param apiName Equipment name from the API
+     * @return Matching equipment, or null if null or unknown
+     */
+    public static Equipment fromApiName(String apiName) {
+        if (apiName == null) return null;
+
+        Equipment equipment = API_NAMES.get(apiName);
+        if (equipment == null) {
+            equipment = API_NAMES.get(apiName.toLowerCase(Locale.ROOT));
+        }
+        return equipment;
+    }
+
+    /**
+     * Get the difficulty level for an equipment name from the API.
+     * Known values use the precomputed level, unknown ones are classified
+     * with the same rules.
+     * @param apiName Equipment name from the API
+     * @return Difficulty level, Medium if the equipment is missing
+     */
+    public static String difficultyOf(String apiName) {
+        if (apiName == null) return Constants.DIFFICULTY_MEDIUM;
+
+        Equipment equipment = fromApiName(apiName);
+        return equipment != null
+                ? equipment.difficultyLevel
+                : classify(apiName.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Equipment-based difficulty assessment
+     * @param equipment Lower-case equipment name
+     * @return Difficulty level
+     */
+    private static String classify(String equipment) {
+        if (equipment.contains("assisted") || equipment.equals("body weight") ||
+                equipment.equals("band") || equipment.equals("stability ball")) {
+            return Constants.DIFFICULTY_EASY;
+        } else if (equipment.contains("cable") || equipment.contains("dumbbell") ||
+                equipment.equals("kettlebell") || equipment.equals("medicine ball")) {
+            return Constants.DIFFICULTY_MEDIUM;
+        } else if (equipment.contains("barbell") || equipment.contains("leverage") ||
+                equipment.equals("sled machine") || equipment.equals("smith machine")) {
+            return Constants.DIFFICULTY_HARD;
+        }
+
+        return Constants.DIFFICULTY_MEDIUM; // Default to medium difficulty
+    }
+}
@@ -1,5 +1,7 @@
 package com.healthmate.app.model;
 
+import java.util.List;
+
 /**
  * Class representing an exercise in the application
  */
@@ -8,10 +10,14 @@ public class Exercise {
     private String name;
     private String bodyPart;
     private String description;
-    private String instructions;
+    private List<String> steps;     // instruction steps, null when not loaded
     private int durationInMinutes;
     private int caloriesBurned; // per 30 minutes for a 70kg person
     private String difficultyLevel; // Easy, Medium, Hard
+    private String target;          // target muscle, null for seeded exercises
+    private String equipment;       // equipment needed, null for seeded exercises
+    private String gifUrl;          // demonstration gif, null if not available
+    private List<String> secondaryMuscles;
     
     /**
      * Default constructor required for database operations
@@ -25,19 +31,19 @@ public class Exercise {
      * @param name Exercise name
      * @param bodyPart Target body part
      * @param description Brief description
-     * @param instructions Step-by-step instructions
+     * @param steps Instruction steps in order, without numbering
      * @param durationInMinutes Recommended duration
      * @param caloriesBurned Estimated calories burned
      * @param difficultyLevel Difficulty level
      */
     public Exercise(String id, String name, String bodyPart, String description, 
-                   String instructions, int durationInMinutes, int caloriesBurned, 
+                   List<String> steps, int durationInMinutes, int caloriesBurned, 
                    String difficultyLevel) {
         this.id = id;
         this.name = name;
         this.bodyPart = bodyPart;
         this.description = description;
-        this.instructions = instructions;
+        this.steps = steps;
         this.durationInMinutes = durationInMinutes;
         this.caloriesBurned = caloriesBurned;
         this.difficultyLevel = difficultyLevel;
@@ -108,19 +114,20 @@ public class Exercise {
     }
     
     /**
-     * Get exercise instructions
-     * @return Instructions as a String
+     * Get the instruction steps. List queries leave them out, they are
+     * read from ExerciseStepStore when an exercise is shown.
+     * @return Steps in order without numbering, or null if not loaded
      */
-    public String getInstructions() {
-        return instructions;
+    public List<String> getSteps() {
+        return steps;
     }
     
     /**
-     * Set exercise instructions
-     * @param instructions Instructions to set
+     * Set the instruction steps
+     * @param steps Steps in order without numbering, or null if not loaded
      */
-    public void setInstructions(String instructions) {
-        this.instructions = instructions;
+    public void setSteps(List<String> steps) {
+        this.steps = steps;
     }
     
     /**
@@ -170,4 +177,68 @@ public class Exercise {
     public void setDifficultyLevel(String difficultyLevel) {
         this.difficultyLevel = difficultyLevel;
     }
+
+    /**
+     * Get target muscle
+     * @return Target muscle as a String
+     */
+    public String getTarget() {
+        return target;
+    }
+    
+    /**
+     * Set target muscle
+     * @param target Target muscle to set
+     */
+    public void setTarget(String target) {
+        this.target = target;
+    }
+    
+    /**
+     * Get equipment needed
+     * @return Equipment as a String
+     */
+    public String getEquipment() {
+        return equipment;
+    }
+    
+    /**
+     * Set equipment needed
+     * @param equipment Equipment to set
+     */
+    public void setEquipment(String equipment) {
+        this.equipment = equipment;
+    }
+    
+    /**
+     * Get demonstration gif URL
+     * @return URL as a String
+     */
+    public String getGifUrl() {
+        return gifUrl;
+    }
+    
+    /**
+     * Set demonstration gif URL
+     * @param gifUrl URL to set
+     */
+    public void setGifUrl(String gifUrl) {
+        this.gifUrl = gifUrl;
+    }
+    
+    /**
+     * Get secondary muscles worked
+     * @return List of muscle names
+     */
+    public List<String> getSecondaryMuscles() {
+        return secondaryMuscles;
+    }
+    
+    /**
+     * Set secondary muscles worked
+     * @param secondaryMuscles List of muscle names to set
+     */
+    public void setSecondaryMuscles(List<String> secondaryMuscles) {
+        this.secondaryMuscles = secondaryMuscles;
+    }
 }
@@ -4,6 +4,7 @@ import com.healthmate.app.model.api.ApiExercise;
 import com.healthmate.app.util.Constants;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -96,19 +97,22 @@ public class ExerciseSearchResponse {
         if (results != null) {
             for (ApiExercise apiExercise : results) {
                 Exercise exercise = new Exercise();
-                exercise.setId(String.valueOf(apiExercise.getId()));
+                exercise.setId(Constants.WGER_ID_PREFIX + apiExercise.getId());
                 exercise.setName(apiExercise.getName());
                 
                 // Determine body part from categories
-                String bodyPart = determineBodyPart(apiExercise.getCategory());
-                exercise.setBodyPart(bodyPart);
+                BodyPart bodyPart = BodyPart.fromWgerCategory(apiExercise.getCategory());
+                exercise.setBodyPart(bodyPart.getLabel());
                 
                 exercise.setDescription(apiExercise.getDescription());
-                exercise.setInstructions(apiExercise.getDescription()); // Using description as instructions
+                // Wger has no separate steps, its description serves as the only one
+                String description = apiExercise.getDescription();
+                exercise.setSteps(description != null && !description.isEmpty()
+                        ? Collections.singletonList(description) : new ArrayList<>());
                 
                 // Set default values for fields not provided by API
                 exercise.setDurationInMinutes(15); // Default duration
-                exercise.setCaloriesBurned(calculateCalories(bodyPart)); // Estimate calories based on body part
+                exercise.setCaloriesBurned(bodyPart.getCaloriesPer30Minutes()); // Estimate calories based on body part
                 exercise.setDifficultyLevel(determineDifficulty(apiExercise)); // Estimate difficulty
                 
                 exerciseList.add(exercise);
@@ -118,54 +122,6 @@ public class ExerciseSearchResponse {
         return exerciseList;
     }
     
-    /**
-     * Determine body part from exercise category
-     * @param category Category from API
-     * @return Body part as a String
-     */
-    private String determineBodyPart(int category) {
-        // Map wger API categories to our body parts
-        switch (category) {
-            case 8:
-            case 9:
-            case 10:
-                return Constants.BODY_PART_ARMS;
-            case 11:
-            case 12:
-                return Constants.BODY_PART_LEGS;
-            case 13:
-                return Constants.BODY_PART_CHEST;
-            case 14:
-                return Constants.BODY_PART_BACK;
-            case 10:
-                return Constants.BODY_PART_ABS;
-            default:
-                return Constants.BODY_PART_FULL_BODY;
-        }
-    }
-    
-    /**
-     * Calculate estimated calories burned based on body part
-     * @param bodyPart Body part being exercised
-     * @return Estimated calories burned in 30 minutes
-     */
-    private int calculateCalories(String bodyPart) {
-        // Estimated calories burned in 30 minutes based on body part
-        if (bodyPart.equals(Constants.BODY_PART_FULL_BODY)) {
-            return 300; // Full body workouts burn more calories
-        } else if (bodyPart.equals(Constants.BODY_PART_LEGS)) {
-            return 250; // Legs are large muscle groups
-        } else if (bodyPart.equals(Constants.BODY_PART_BACK)) {
-            return 220;
-        } else if (bodyPart.equals(Constants.BODY_PART_CHEST)) {
-            return 200;
-        } else if (bodyPart.equals(Constants.BODY_PART_ARMS)) {
-            return 150; // Arms are smaller muscle groups
-        } else {
-            return 180; // Default
-        }
-    }
-    
     /**
      * Determine difficulty level based on exercise data
      * @param apiExercise Exercise data from API
@@ -0,0 +1,174 @@
+package com.healthmate.app.model;
+
+import com.google.gson.annotations.SerializedName;
+import com.healthmate.app.util.Constants;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Response from the Wger exercise search endpoint, which answers with
+ * name suggestions rather than the paged results of the exercise list
+ */
+public class ExerciseSuggestionResponse {
+    @SerializedName("suggestions")
+    private List<Suggestion> suggestions;
+
+    /**
+     * Default constructor
+     */
+    public ExerciseSuggestionResponse() {
+        suggestions = new ArrayList<>();
+    }
+
+    /**
+     * Get the suggestions
+     * @return List of Suggestion objects
+     */
+    public List<Suggestion> getSuggestions() {
+        return suggestions;
+    }
+
+    /**
+     * Set the suggestions
+     * @param suggestions List of Suggestion objects to set
+     */
+    public void setSuggestions(List<Suggestion> suggestions) {
+        this.suggestions = suggestions;
+    }
+
+    /**
+     * Convert the suggestions to a list of Exercise objects. Suggestions
+     * carry no description or steps, those stay null so they do not
+     * replace stored ones.
+     * @return List of Exercise objects
+     */
+    public List<Exercise> toExerciseList() {
+        List<Exercise> exerciseList = new ArrayList<>();
+
+        if (suggestions != null) {
+            for (Suggestion suggestion : suggestions) {
+                Data data = suggestion.data;
+                if (data == null) {
+                    continue;
+                }
+                Exercise exercise = new Exercise();
+                exercise.setId(Constants.WGER_ID_PREFIX + data.id);
+                exercise.setName(data.name != null ? data.name : suggestion.value);
+
+                BodyPart bodyPart = BodyPart.fromWgerCategoryName(data.category);
+                exercise.setBodyPart(bodyPart.getLabel());
+                if (data.image != null && !data.image.isEmpty()) {
+                    exercise.setGifUrl(data.image.startsWith("/")
+                            ? Constants.WGER_MEDIA_URL + data.image : data.image);
+                }
+
+                exercise.setDurationInMinutes(15); // Default duration
+                exercise.setCaloriesBurned(bodyPart.getCaloriesPer30Minutes());
+                exercise.setDifficultyLevel(Constants.DIFFICULTY_MEDIUM);
+
+                exerciseList.add(exercise);
+            }
+        }
+
+        return exerciseList;
+    }
+
+    /**
+     * One search suggestion
+     */
+    public static class Suggestion {
+        @SerializedName("value")
+        private String value;
+
+        @SerializedName("data")
+        private Data data;
+
+        /**
+         * Get the suggested name
+         * @return Name as a String
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * Get the exercise behind the suggestion
+         * @return Exercise data
+         */
+        public Data getData() {
+            return data;
+        }
+    }
+
+    /**
+     * Exercise data of a suggestion
+     */
+    public static class Data {
+        @SerializedName("id")
+        private int id;
+
+        @SerializedName("base_id")
+        private int baseId;
+
+        @SerializedName("name")
+        private String name;
+
+        @SerializedName("category")
+        private String category;
+
+        @SerializedName("image")
+        private String image;
+
+        @SerializedName("image_thumbnail")
+        private String imageThumbnail;
+
+        /**
+         * Get the exercise ID
+         * @return ID as an integer
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Get the ID of the exercise base shared by all translations
+         * @return Base ID as an integer
+         */
+        public int getBaseId() {
+            return baseId;
+        }
+
+        /**
+         * Get the exercise name
+         * @return Name as a String
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the category name, e.g. "Chest"
+         * @return Category as a String
+         */
+        public String getCategory() {
+            return category;
+        }
+
+        /**
+         * Get the path of the main image
+         * @return Image path as a String, or null
+         */
+        public String getImage() {
+            return image;
+        }
+
+        /**
+         * Get the path of the image thumbnail
+         * @return Thumbnail path as a String, or null
+         */
+        public String getImageThumbnail() {
+            return imageThumbnail;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.healthmate.app.model;
+
+import com.healthmate.app.model.api.ApiExerciseList;
+
+/**
+ * Lightweight exercise row holding only the fields shown in exercise lists.
+ * Instructions and descriptions are left out so list screens never keep
+ * the full payload in memory.
+ */
+public class ExerciseSummary {
+    private final String id;
+    private final String name;
+    private final String bodyPart;
+    private final String target;
+    private final String equipment;
+    private final String gifUrl;
+
+    /**
+     * Constructor for ExerciseSummary class
+     * @param id Unique identifier
+     * @param name Exercise name
+     * @param bodyPart Target body part
+     * @param target Target muscle
+     * @param equipment Equipment needed
+     * @param gifUrl URL of the demonstration gif, may be null
+     */
+    public ExerciseSummary(String id, String name, String bodyPart, String target,
+                           String equipment, String gifUrl) {
+        this.id = id;
+        this.name = name;
+        this.bodyPart = bodyPart;
+        this.target = target;
+        this.equipment = equipment;
+        this.gifUrl = gifUrl;
+    }
+
+    /**
+     * Create a summary from an ExerciseDB API item
+     * @param item Exercise item from API
+     * @return Summary of the item
+     */
+    public static ExerciseSummary fromApiItem(ApiExerciseList.ApiExerciseItem item) {
+        return new ExerciseSummary(item.getId(), item.getName(), item.getBodyPart(),
+                item.getTarget(), item.getEquipment(), item.getGifUrl());
+    }
+
+    /**
+     * Get exercise ID
+     * @return ID as a String
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get exercise name
+     * @return Name as a String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get target body part
+     * @return Body part as a String
+     */
+    public String getBodyPart() {
+        return bodyPart;
+    }
+
+    /**
+     * Get target muscle
+     * @return Target muscle as a String
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    /**
+     * Get equipment needed
+     * @return Equipment as a String
+     */
+    public String getEquipment() {
+        return equipment;
+    }
+
+    /**
+     * Get demonstration gif URL
+     * @return URL as a String, or null if not available
+     */
+    public String getGifUrl() {
+        return gifUrl;
+    }
+}
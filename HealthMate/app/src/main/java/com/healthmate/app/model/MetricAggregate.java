@@ -0,0 +1,103 @@
+package com.healthmate.app.model;
+
+/**
+ * Downsampled body metrics for one week or one month
+ */
+public class MetricAggregate {
+    private final long periodStart; // epoch day of the first day of the period
+    private final int sampleCount;
+    private final float averageWeight;
+    private final float minWeight;
+    private final float maxWeight;
+    private final float averageBmi;
+    private final int averageCalorieTarget;
+    private final float lastWeight;
+
+    /**
+     * Constructor for MetricAggregate class
+     * @param periodStart Epoch day the week or month starts on
+     * @param sampleCount Number of measurements in the period
+     * @param averageWeight Average weight in kg
+     * @param minWeight Lowest weight in kg
+     * @param maxWeight Highest weight in kg
+     * @param averageBmi Average BMI
+     * @param averageCalorieTarget Average daily calorie target
+     * @param lastWeight Latest weight of the period in kg
+     */
+    public MetricAggregate(long periodStart, int sampleCount, float averageWeight, float minWeight,
+                           float maxWeight, float averageBmi, int averageCalorieTarget,
+                           float lastWeight) {
+        this.periodStart = periodStart;
+        this.sampleCount = sampleCount;
+        this.averageWeight = averageWeight;
+        this.minWeight = minWeight;
+        this.maxWeight = maxWeight;
+        this.averageBmi = averageBmi;
+        this.averageCalorieTarget = averageCalorieTarget;
+        this.lastWeight = lastWeight;
+    }
+
+    /**
+     * Get first day of the period
+     * @return Epoch day as a long
+     */
+    public long getPeriodStart() {
+        return periodStart;
+    }
+
+    /**
+     * Get number of measurements in the period
+     * @return Sample count
+     */
+    public int getSampleCount() {
+        return sampleCount;
+    }
+
+    /**
+     * Get average weight
+     * @return Weight in kg
+     */
+    public float getAverageWeight() {
+        return averageWeight;
+    }
+
+    /**
+     * Get lowest weight
+     * @return Weight in kg
+     */
+    public float getMinWeight() {
+        return minWeight;
+    }
+
+    /**
+     * Get highest weight
+     * @return Weight in kg
+     */
+    public float getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Get average BMI
+     * @return BMI value as a float
+     */
+    public float getAverageBmi() {
+        return averageBmi;
+    }
+
+    /**
+     * Get average daily calorie target
+     * @return Calorie target in kcal
+     */
+    public int getAverageCalorieTarget() {
+        return averageCalorieTarget;
+    }
+
+    /**
+     * Get latest weight of the period
+     * @return Weight in kg
+     */
+    public float getLastWeight() {
+        return lastWeight;
+    }
+}
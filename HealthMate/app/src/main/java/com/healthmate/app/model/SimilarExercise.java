@@ -0,0 +1,46 @@
+package com.healthmate.app.model;
+
+/**
+ * Precomputed neighbour of an exercise, as shown under "Similar exercises"
+ */
+public class SimilarExercise {
+    private final String id;
+    private final String name;
+    private final float score; // 0 to 1, 1 for identical features
+
+    /**
+     * Constructor for SimilarExercise class
+     * @param id ID of the similar exercise
+     * @param name Name of the similar exercise
+     * @param score Similarity score between 0 and 1
+     */
+    public SimilarExercise(String id, String name, float score) {
+        this.id = id;
+        this.name = name;
+        this.score = score;
+    }
+
+    /**
+     * Get the ID of the similar exercise
+     * @return ID as a String
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Get the name of the similar exercise
+     * @return Name as a String
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get the similarity score
+     * @return Score between 0 and 1
+     */
+    public float getScore() {
+        return score;
+    }
+}
@@ -11,6 +11,8 @@ public class User {
     private float height; // in cm
     private float weight; // in kg
     private float bmi;
+    private String dietCategory; // null for no restriction
+    private String cuisine;      // preferred cuisine, null for any
     
     /**
      * Constructor for User class
@@ -27,6 +29,20 @@ public class User {
         this.bmi = BMICalculator.calculateBMI(height, weight);
     }
     
+    /**
+     * Copy constructor
+     * @param other User to copy
+     */
+    public User(User other) {
+        this.name = other.name;
+        this.age = other.age;
+        this.height = other.height;
+        this.weight = other.weight;
+        this.bmi = other.bmi;
+        this.dietCategory = other.dietCategory;
+        this.cuisine = other.cuisine;
+    }
+    
     /**
      * Get user's name
      * @return Name as a String
@@ -109,6 +125,38 @@ public class User {
         this.bmi = bmi;
     }
     
+    /**
+     * Get user's diet category
+     * @return Diet category as a String, null for no restriction
+     */
+    public String getDietCategory() {
+        return dietCategory;
+    }
+    
+    /**
+     * Set user's diet category
+     * @param dietCategory Constants.CATEGORY_VEGAN, CATEGORY_VEGETARIAN, or null for no restriction
+     */
+    public void setDietCategory(String dietCategory) {
+        this.dietCategory = dietCategory;
+    }
+    
+    /**
+     * Get user's preferred cuisine
+     * @return Cuisine as a String, null for any
+     */
+    public String getCuisine() {
+        return cuisine;
+    }
+    
+    /**
+     * Set user's preferred cuisine
+     * @param cuisine Cuisine to set, null for any
+     */
+    public void setCuisine(String cuisine) {
+        this.cuisine = cuisine;
+    }
+    
     /**
      * Update BMI based on current height and weight
      */
@@ -18,17 +18,26 @@ public class ApiConfig {
     public static String EXERCISE_DB_API_KEY = System.getenv("RAPID_API_KEY") != null ? 
             System.getenv("RAPID_API_KEY") : "";
     
+    // The key is resolved once per process, the metadata lookup is not repeated
+    private static boolean initialized = false;
+    
     /**
      * Initialize API keys from the application metadata if not already set
      * @param context Application context
      */
-    public static void initialize(Context context) {
+    public static synchronized void initialize(Context context) {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+        
         // If the API key is already set from environment variable, we're done
         if (!EXERCISE_DB_API_KEY.isEmpty()) {
             Log.d(TAG, "API key already initialized from environment");
             return;
         }
         
+        StartupTracer.beginSection("ApiConfig.initialize");
         try {
             // Try to get from system environment variables again just to be sure
             String apiKey = System.getenv("RAPID_API_KEY");
@@ -54,6 +63,8 @@ public class ApiConfig {
             }
         } catch (NameNotFoundException e) {
             Log.e(TAG, "Failed to initialize API key", e);
+        } finally {
+            StartupTracer.endSection();
         }
     }
     
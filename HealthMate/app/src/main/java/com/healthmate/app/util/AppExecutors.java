@@ -0,0 +1,81 @@
+package com.healthmate.app.util;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Shared executors for background work so that disk and network I/O
+ * never run on the main thread
+ */
+public class AppExecutors {
+
+    private static final int NETWORK_THREAD_COUNT = 3;
+
+    private static volatile AppExecutors instance;
+
+    private final ExecutorService diskIO;
+    private final ExecutorService networkIO;
+    private final Executor mainThread;
+
+    private AppExecutors() {
+        diskIO = Executors.newSingleThreadExecutor();
+        networkIO = Executors.newFixedThreadPool(NETWORK_THREAD_COUNT);
+        mainThread = new MainThreadExecutor();
+    }
+
+    /**
+     * Get the shared executors instance
+     * @return AppExecutors singleton
+     */
+    public static AppExecutors getInstance() {
+        if (instance == null) {
+            synchronized (AppExecutors.class) {
+                if (instance == null) {
+                    instance = new AppExecutors();
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Get the executor for database work. It is single threaded so writes
+     * are serialized.
+     * @return Disk I/O executor
+     */
+    public ExecutorService diskIO() {
+        return diskIO;
+    }
+
+    /**
+     * Get the executor for blocking network calls
+     * @return Network I/O executor
+     */
+    public ExecutorService networkIO() {
+        return networkIO;
+    }
+
+    /**
+     * Get the executor that posts work to the main thread
+     * @return Main thread executor
+     */
+    public Executor mainThread() {
+        return mainThread;
+    }
+
+    /**
+     * Executor that runs commands on the main looper
+     */
+    private static class MainThreadExecutor implements Executor {
+        private final Handler mainThreadHandler = new Handler(Looper.getMainLooper());
+
+        @Override
+        public void execute(Runnable command) {
+            mainThreadHandler.post(command);
+        }
+    }
+}
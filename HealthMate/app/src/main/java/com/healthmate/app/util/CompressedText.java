@@ -0,0 +1,176 @@
+package com.healthmate.app.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Column encoding for long exercise text such as instructions.
+ *
+ * Instructions repeat the same few hundred words and phrases ("Stand with
+ * your feet shoulder-width apart", "Return to the starting position"), and
+ * a single row is too short for Deflate to find much repetition on its
+ * own. Rows are therefore compressed against a preset dictionary of these
+ * phrases, which shrinks typical instructions to about half their size.
+ *
+ * An encoded value starts with a format byte:
+ *   0 - the rest is plain UTF-8, used for short text that would not shrink
+ *   1 - the rest is raw Deflate against DICTIONARY_V1
+ * Any other first byte means the value is legacy plain UTF-8 text, so rows
+ * written before the encoding existed still decode.
+ *
+ * The dictionary is part of the format. Changing it needs a new format
+ * byte, with the old dictionary kept to decode existing rows.
+ */
+public final class CompressedText {
+
+    private static final byte FORMAT_PLAIN = 0;
+    private static final byte FORMAT_DEFLATE_V1 = 1;
+
+    // Shorter text is stored plain. Against the dictionary even a short step
+    // such as "Switch sides." shrinks, and text that does not is stored plain anyway.
+    private static final int MIN_COMPRESS_LENGTH = 8;
+
+    // Frequent words and phrases of exercise instructions and descriptions.
+    // Deflate prefers matches near the end of the window, so the most
+    // common phrases come last.
+    private static final byte[] DICTIONARY_V1 = (
+            "barbell dumbbell kettlebell cable machine resistance band bench bar rope "
+            + "biceps triceps forearms glutes hamstrings quadriceps calves lats traps "
+            + "abdominals obliques lower back upper back delts pectorals core muscles "
+            + "Target: Equipment: body weight "
+            + "Inhale as you lower. Exhale as you lift. Breathe steadily throughout. "
+            + "Pause for a moment at the top. Squeeze your shoulder blades together. "
+            + "Hold this position for a few seconds. Switch sides and repeat. "
+            + "Slowly lower the weight back down to the starting position. "
+            + "Keep your elbows close to your body. Keep your knees slightly bent. "
+            + "Lie flat on your back with your knees bent and feet flat on the floor. "
+            + "Sit on the bench with your back against the pad. "
+            + "Grasp the bar with an overhand grip, slightly wider than shoulder-width. "
+            + "Hold a dumbbell in each hand with your palms facing forward. "
+            + "with your arms fully extended and your palms facing each other. "
+            + "Start in a plank position with your hands directly under your shoulders. "
+            + "Engage your core and keep your back straight throughout the movement. "
+            + "Lower your body until your thighs are parallel to the ground. "
+            + "Push through your heels to return to the starting position. "
+            + "Stand with your feet shoulder-width apart and your arms at your sides. "
+            + "Return to the starting position. "
+            + "Repeat for the desired number of repetitions. "
+            + "1. 2. 3. 4. 5. 6. 7. 8. 9. "
+            + "the and your with to of in a as you towards from on at "
+            ).getBytes(StandardCharsets.UTF_8);
+
+    // Reused across calls, guarded by the class lock
+    private static Deflater deflater;
+    private static Inflater inflater;
+    private static byte[] buffer;
+
+    private CompressedText() {
+    }
+
+    /**
+     * Encode text for storage
+     * @param text Text to encode, may be null
+     * @return Encoded value, or null for null text
+     */
+    public static synchronized byte[] encode(String text) {
+        if (text == null) {
+            return null;
+        }
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length >= MIN_COMPRESS_LENGTH) {
+            byte[] compressed = deflate(utf8);
+            if (compressed.length < utf8.length) {
+                return compressed;
+            }
+        }
+
+        byte[] plain = new byte[utf8.length + 1];
+        plain[0] = FORMAT_PLAIN;
+        System.arraycopy(utf8, 0, plain, 1, utf8.length);
+        return plain;
+    }
+
+    /**
+     * Decode a stored value
+     * @param value Value written by encode(), or legacy UTF-8 text
+     * @return Decoded text, or null for a null value
+     */
+    public static synchronized String decode(byte[] value) {
+        if (value == null) {
+            return null;
+        }
+        if (value.length == 0) {
+            return "";
+        }
+        switch (value[0]) {
+            case FORMAT_PLAIN:
+                return new String(value, 1, value.length - 1, StandardCharsets.UTF_8);
+            case FORMAT_DEFLATE_V1:
+                return inflate(value);
+            default:
+                return new String(value, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] deflate(byte[] utf8) {
+        if (deflater == null) {
+            // Raw Deflate, the format byte replaces the zlib header and checksum
+            deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        }
+        deflater.reset();
+        deflater.setDictionary(DICTIONARY_V1);
+        deflater.setInput(utf8);
+        deflater.finish();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(utf8.length / 2 + 16);
+        out.write(FORMAT_DEFLATE_V1);
+        byte[] chunk = chunkBuffer(utf8.length);
+        while (!deflater.finished()) {
+            int count = deflater.deflate(chunk);
+            out.write(chunk, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static String inflate(byte[] value) {
+        if (inflater == null) {
+            inflater = new Inflater(true);
+        }
+        inflater.reset();
+        inflater.setDictionary(DICTIONARY_V1);
+        inflater.setInput(value, 1, value.length - 1);
+
+        // Text expands two to three times, the buffer grows if it does more
+        byte[] out = chunkBuffer(value.length * 4);
+        int length = 0;
+        try {
+            while (!inflater.finished()) {
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                int count = inflater.inflate(out, length, out.length - length);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated value");
+                }
+                length += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Corrupt compressed text", e);
+        }
+        if (out.length > buffer.length) {
+            buffer = out;
+        }
+        return new String(out, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] chunkBuffer(int size) {
+        if (buffer == null || buffer.length < size) {
+            buffer = new byte[Math.max(size, 1024)];
+        }
+        return buffer;
+    }
+}
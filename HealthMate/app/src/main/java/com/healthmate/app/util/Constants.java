@@ -5,7 +5,7 @@ package com.healthmate.app.util;
  */
 public class Constants {
     
-    // Shared preferences
+    // Shared preferences, only read to migrate profiles saved by older versions
     public static final String PREFS_NAME = "HealthmatePrefs";
     
     // Shared preferences keys for user data
@@ -15,6 +15,13 @@ public class Constants {
     public static final String KEY_WEIGHT = "user_weight";
     public static final String KEY_BMI = "user_bmi";
     
+    // Shared preferences keys for food preferences
+    public static final String KEY_DIET_CATEGORY = "diet_category";
+    public static final String KEY_CUISINE = "cuisine";
+    
+    // Daily calorie target used when no profile has been saved yet
+    public static final int DEFAULT_CALORIE_TARGET = 2000;
+    
     // BMI categories
     public static final double BMI_SEVERELY_UNDERWEIGHT = 16.0;
     public static final double BMI_UNDERWEIGHT = 18.5;
@@ -47,5 +54,13 @@ public class Constants {
     public static final String EXERCISE_DB_API_KEY_HEADER = "X-RapidAPI-Key";
     public static final String EXERCISE_DB_HOST_HEADER = "X-RapidAPI-Host";
     public static final String EXERCISE_DB_HOST_VALUE = "exercisedb.p.rapidapi.com";
+    public static final String WGER_BASE_URL = "https://wger.de/api/v2/";
+    public static final int WGER_LANGUAGE_ENGLISH = 2;
+    // The search endpoint takes language codes instead of IDs
+    public static final String WGER_LANGUAGE_CODE_ENGLISH = "en";
+    // Image paths in Wger answers are relative to this
+    public static final String WGER_MEDIA_URL = "https://wger.de";
+    // Wger IDs are numbers like ExerciseDB's, prefixed so both fit in one table
+    public static final String WGER_ID_PREFIX = "wger-";
     public static final int DEFAULT_PAGE_SIZE = 20;
 }
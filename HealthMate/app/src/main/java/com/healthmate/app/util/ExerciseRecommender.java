@@ -0,0 +1,211 @@
+package com.healthmate.app.util;
+
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.SimilarExercise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the most similar exercises of every exercise in a catalog.
+ *
+ * Each exercise is encoded as a bit vector with one bit per body part,
+ * target, equipment, difficulty and secondary muscle value. Every
+ * attribute starts on its own 64-bit word, so the overlap of two
+ * exercises per attribute is an AND and a bit count over a few words.
+ * Similarity is the cosine of the weighted vectors, so sharing the target
+ * muscle counts for more than sharing a secondary muscle.
+ *
+ * Only exercises that share a body part or a target are compared, which
+ * keeps the job well below all-pairs on large catalogs.
+ */
+public class ExerciseRecommender {
+    // Attribute order of the vector layout
+    private static final int BODY_PART = 0;
+    private static final int TARGET = 1;
+    private static final int EQUIPMENT = 2;
+    private static final int DIFFICULTY = 3;
+    private static final int SECONDARY_MUSCLE = 4;
+    private static final int ATTRIBUTE_COUNT = 5;
+
+    // Weight of one shared value per attribute
+    private static final int[] WEIGHTS = {3, 4, 2, 1, 1};
+
+    private final List<Map<String, Integer>> vocabularies = new ArrayList<>();
+    private final int[] firstWord = new int[ATTRIBUTE_COUNT + 1];
+
+    private ExerciseRecommender(List<Exercise> exercises) {
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            vocabularies.add(new HashMap<>());
+        }
+        for (Exercise exercise : exercises) {
+            for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+                Map<String, Integer> vocabulary = vocabularies.get(attribute);
+                for (String value : valuesOf(exercise, attribute)) {
+                    if (!vocabulary.containsKey(value)) {
+                        vocabulary.put(value, vocabulary.size());
+                    }
+                }
+            }
+        }
+
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            int words = Math.max(1, (vocabularies.get(attribute).size() + 63) / 64);
+            firstWord[attribute + 1] = firstWord[attribute] + words;
+        }
+    }
+
+    /**
+     * Compute the nearest neighbours of every exercise
+     * @param exercises Whole exercise catalog
+     * @param k Number of neighbours to keep per exercise
+     * @return Neighbours per exercise ID, most similar first
+     */
+    public static Map<String, List<SimilarExercise>> computeNeighbours(List<Exercise> exercises, int k) {
+        ExerciseRecommender recommender = new ExerciseRecommender(exercises);
+        int n = exercises.size();
+
+        long[][] vectors = new long[n][];
+        double[] norms = new double[n];
+        for (int i = 0; i < n; i++) {
+            vectors[i] = recommender.encode(exercises.get(i));
+            norms[i] = Math.sqrt(recommender.dot(vectors[i], vectors[i]));
+        }
+
+        // Exercises per body part and target bit, to find candidates
+        Map<Integer, List<Integer>> postings = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            for (int bit : recommender.candidateBits(vectors[i])) {
+                List<Integer> list = postings.get(bit);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    postings.put(bit, list);
+                }
+                list.add(i);
+            }
+        }
+
+        Map<String, List<SimilarExercise>> neighbours = new LinkedHashMap<>();
+        int[] seenBy = new int[n];
+        Arrays.fill(seenBy, -1);
+        int[] bestIndex = new int[k];
+        double[] bestScore = new double[k];
+
+        for (int i = 0; i < n; i++) {
+            Exercise exercise = exercises.get(i);
+            int found = 0;
+
+            for (int bit : recommender.candidateBits(vectors[i])) {
+                for (int j : postings.get(bit)) {
+                    if (j == i || seenBy[j] == i || norms[i] == 0 || norms[j] == 0) {
+                        continue;
+                    }
+                    seenBy[j] = i;
+                    if (exercise.getName() != null && exercise.getName().equalsIgnoreCase(exercises.get(j).getName())) {
+                        // Same exercise from another source
+                        continue;
+                    }
+
+                    double score = recommender.dot(vectors[i], vectors[j]) / (norms[i] * norms[j]);
+
+                    // Insert into the small sorted top-k arrays
+                    int position = found < k ? found++ : k;
+                    while (position > 0 && bestScore[position - 1] < score) {
+                        if (position < k) {
+                            bestScore[position] = bestScore[position - 1];
+                            bestIndex[position] = bestIndex[position - 1];
+                        }
+                        position--;
+                    }
+                    if (position < k) {
+                        bestScore[position] = score;
+                        bestIndex[position] = j;
+                    }
+                }
+            }
+
+            List<SimilarExercise> similar = new ArrayList<>(found);
+            for (int rank = 0; rank < found; rank++) {
+                Exercise other = exercises.get(bestIndex[rank]);
+                similar.add(new SimilarExercise(other.getId(), other.getName(), (float) bestScore[rank]));
+            }
+            neighbours.put(exercise.getId(), similar);
+        }
+
+        return neighbours;
+    }
+
+    private long[] encode(Exercise exercise) {
+        long[] vector = new long[firstWord[ATTRIBUTE_COUNT]];
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            Map<String, Integer> vocabulary = vocabularies.get(attribute);
+            for (String value : valuesOf(exercise, attribute)) {
+                int bit = vocabulary.get(value);
+                vector[firstWord[attribute] + bit / 64] |= 1L << (bit % 64);
+            }
+        }
+        return vector;
+    }
+
+    private long dot(long[] a, long[] b) {
+        long dot = 0;
+        for (int attribute = 0; attribute < ATTRIBUTE_COUNT; attribute++) {
+            int shared = 0;
+            for (int word = firstWord[attribute]; word < firstWord[attribute + 1]; word++) {
+                shared += Long.bitCount(a[word] & b[word]);
+            }
+            dot += (long) WEIGHTS[attribute] * WEIGHTS[attribute] * shared;
+        }
+        return dot;
+    }
+
+    /**
+     * Global bit positions of the body part and target of a vector
+     */
+    private List<Integer> candidateBits(long[] vector) {
+        List<Integer> bits = new ArrayList<>(2);
+        for (int word = firstWord[BODY_PART]; word < firstWord[TARGET + 1]; word++) {
+            long value = vector[word];
+            while (value != 0) {
+                bits.add(word * 64 + Long.numberOfTrailingZeros(value));
+                value &= value - 1;
+            }
+        }
+        return bits;
+    }
+
+    private static List<String> valuesOf(Exercise exercise, int attribute) {
+        switch (attribute) {
+            case BODY_PART:
+                return single(exercise.getBodyPart());
+            case TARGET:
+                return single(exercise.getTarget());
+            case EQUIPMENT:
+                return single(exercise.getEquipment());
+            case DIFFICULTY:
+                return single(exercise.getDifficultyLevel());
+            default:
+                if (exercise.getSecondaryMuscles() == null) {
+                    return Collections.emptyList();
+                }
+                List<String> muscles = new ArrayList<>();
+                for (String muscle : exercise.getSecondaryMuscles()) {
+                    muscles.addAll(single(muscle));
+                }
+                return muscles;
+        }
+    }
+
+    private static List<String> single(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Collections.singletonList(value.trim().toLowerCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,154 @@
+package com.healthmate.app.util;
+
+import android.util.Log;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Keeps recent latency samples per metric and reports their percentiles.
+ *
+ * Averages hide the slow loads users notice, so screens record their
+ * time-to-content here and the p50, p95 and p99 of the last SAMPLE_COUNT
+ * samples are logged every LOG_INTERVAL samples. Filter logcat by the
+ * LatencyRecorder tag to compare builds or networks.
+ */
+public class LatencyRecorder {
+    private static final String TAG = "LatencyRecorder";
+
+    // Samples kept per metric, older ones are overwritten
+    private static final int SAMPLE_COUNT = 200;
+
+    // A summary is logged after this many new samples of a metric
+    private static final int LOG_INTERVAL = 20;
+
+    // Guarded by this
+    private final Map<String, Samples> metrics = new HashMap<>();
+
+    /**
+     * Percentiles of one metric
+     */
+    public static final class Summary {
+        private final int count;
+        private final long p50;
+        private final long p95;
+        private final long p99;
+        private final long max;
+
+        Summary(int count, long p50, long p95, long p99, long max) {
+            this.count = count;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        /**
+         * Get the number of samples the percentiles are computed from
+         * @return Sample count
+         */
+        public int getCount() {
+            return count;
+        }
+
+        /**
+         * Get the median
+         * @return p50 in milliseconds
+         */
+        public long getP50() {
+            return p50;
+        }
+
+        /**
+         * Get the 95th percentile
+         * @return p95 in milliseconds
+         */
+        public long getP95() {
+            return p95;
+        }
+
+        /**
+         * Get the 99th percentile
+         * @return p99 in milliseconds
+         */
+        public long getP99() {
+            return p99;
+        }
+
+        /**
+         * Get the slowest sample
+         * @return Maximum in milliseconds
+         */
+        public long getMax() {
+            return max;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "n=%d p50=%d p95=%d p99=%d max=%d ms",
+                    count, p50, p95, p99, max);
+        }
+    }
+
+    /**
+     * Record one sample
+     * @param metric Metric name, e.g. "exercise_list.content"
+     * @param millis Latency in milliseconds
+     */
+    public void record(String metric, long millis) {
+        Summary summary = null;
+        synchronized (this) {
+            Samples samples = metrics.get(metric);
+            if (samples == null) {
+                samples = new Samples();
+                metrics.put(metric, samples);
+            }
+            samples.add(millis);
+            if (samples.total % LOG_INTERVAL == 0) {
+                summary = samples.summarize();
+            }
+        }
+        if (summary != null) {
+            Log.i(TAG, metric + " " + summary);
+        }
+    }
+
+    /**
+     * Get the percentiles of a metric
+     * @param metric Metric name
+     * @return Summary of the recent samples, or null if there are none
+     */
+    public synchronized Summary getSummary(String metric) {
+        Samples samples = metrics.get(metric);
+        return samples != null ? samples.summarize() : null;
+    }
+
+    /**
+     * Ring buffer of the latest samples of one metric
+     */
+    private static final class Samples {
+        final long[] values = new long[SAMPLE_COUNT];
+        int total;
+
+        void add(long millis) {
+            values[total % SAMPLE_COUNT] = millis;
+            total++;
+        }
+
+        Summary summarize() {
+            int count = Math.min(total, SAMPLE_COUNT);
+            long[] sorted = Arrays.copyOf(values, count);
+            Arrays.sort(sorted);
+            return new Summary(count, percentile(sorted, 50), percentile(sorted, 95),
+                    percentile(sorted, 99), sorted[count - 1]);
+        }
+
+        private static long percentile(long[] sorted, int percent) {
+            // Nearest rank, so p99 of few samples is the slowest one rather than an interpolation
+            int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
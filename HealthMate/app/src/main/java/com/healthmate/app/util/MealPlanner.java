@@ -0,0 +1,409 @@
+package com.healthmate.app.util;
+
+import com.healthmate.app.model.Food;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Builds a daily meal plan from the local food catalog that hits a calorie
+ * target and macro ratios.
+ *
+ * The catalog is first filtered by diet and cuisine and cut down to the
+ * foods whose macro split best matches the target. A bounded knapsack
+ * search (each food 0 to MAX_SERVINGS servings, at most MAX_FOODS foods)
+ * then runs branch and bound until the time budget runs out, always
+ * keeping the best plan found so far.
+ */
+public class MealPlanner {
+
+    // Energy per gram of each macro nutrient
+    private static final float KCAL_PER_GRAM_PROTEIN = 4f;
+    private static final float KCAL_PER_GRAM_CARBS = 4f;
+    private static final float KCAL_PER_GRAM_FAT = 9f;
+
+    // Search bounds
+    private static final int MAX_CANDIDATES = 40;
+    private static final int MAX_FOODS = 6;
+    private static final int MAX_SERVINGS = 2;
+
+    // Plans may overshoot the calorie target by at most this fraction
+    private static final float MAX_OVERSHOOT = 0.10f;
+
+    // Weight of the macro error relative to the calorie error
+    private static final float MACRO_WEIGHT = 0.5f;
+
+    // Plans scoring at or below this are accepted without searching further
+    private static final float GOOD_ENOUGH_SCORE = 0.01f;
+
+    // How often the search checks the clock
+    private static final int DEADLINE_CHECK_INTERVAL = 256;
+
+    // Leaves headroom for candidate selection within a 50 ms planning budget
+    public static final long DEFAULT_TIME_BUDGET_MS = 40;
+
+    /**
+     * Diet and macro preferences for a plan
+     */
+    public static class Preferences {
+        private String dietCategory;
+        private Set<String> cuisines;
+        private float proteinRatio = 0.20f;
+        private float carbRatio = 0.50f;
+        private float fatRatio = 0.30f;
+
+        /**
+         * Set the diet category
+         * @param dietCategory Constants.CATEGORY_VEGAN, CATEGORY_VEGETARIAN, or null for no restriction
+         */
+        public void setDietCategory(String dietCategory) {
+            this.dietCategory = dietCategory;
+        }
+
+        /**
+         * Restrict the plan to some cuisines
+         * @param cuisines Allowed cuisines, or null for any
+         */
+        public void setCuisines(Set<String> cuisines) {
+            this.cuisines = cuisines;
+        }
+
+        /**
+         * Set the share of calories from each macro nutrient
+         * @param proteinRatio Share from protein
+         * @param carbRatio Share from carbohydrates
+         * @param fatRatio Share from fat
+         */
+        public void setMacroRatios(float proteinRatio, float carbRatio, float fatRatio) {
+            float sum = proteinRatio + carbRatio + fatRatio;
+            if (sum <= 0) {
+                throw new IllegalArgumentException("Macro ratios must be positive");
+            }
+            this.proteinRatio = proteinRatio / sum;
+            this.carbRatio = carbRatio / sum;
+            this.fatRatio = fatRatio / sum;
+        }
+
+        /**
+         * Check whether a food is allowed by these preferences
+         * @param food Food to check
+         * @return true if the food fits the diet and cuisine
+         */
+        public boolean allows(Food food) {
+            if (Constants.CATEGORY_VEGAN.equals(dietCategory)) {
+                if (!Constants.CATEGORY_VEGAN.equals(food.getCategory())) return false;
+            } else if (Constants.CATEGORY_VEGETARIAN.equals(dietCategory)) {
+                if (!Constants.CATEGORY_VEGAN.equals(food.getCategory())
+                        && !Constants.CATEGORY_VEGETARIAN.equals(food.getCategory())) return false;
+            }
+            return cuisines == null || cuisines.isEmpty() || cuisines.contains(food.getCuisine());
+        }
+    }
+
+    /**
+     * Result of planning: foods with their number of servings and totals
+     */
+    public static class MealPlan {
+        private final List<Food> foods;
+        private final List<Integer> servings;
+        private final int calorieTarget;
+        private final float calories;
+        private final float proteins;
+        private final float carbs;
+        private final float fats;
+
+        MealPlan(List<Food> foods, List<Integer> servings, int calorieTarget,
+                 float calories, float proteins, float carbs, float fats) {
+            this.foods = Collections.unmodifiableList(foods);
+            this.servings = Collections.unmodifiableList(servings);
+            this.calorieTarget = calorieTarget;
+            this.calories = calories;
+            this.proteins = proteins;
+            this.carbs = carbs;
+            this.fats = fats;
+        }
+
+        // Getters
+        public List<Food> getFoods() {
+            return foods;
+        }
+
+        public List<Integer> getServings() {
+            return servings;
+        }
+
+        public int getCalorieTarget() {
+            return calorieTarget;
+        }
+
+        public float getCalories() {
+            return calories;
+        }
+
+        public float getProteins() {
+            return proteins;
+        }
+
+        public float getCarbs() {
+            return carbs;
+        }
+
+        public float getFats() {
+            return fats;
+        }
+
+        public boolean isEmpty() {
+            return foods.isEmpty();
+        }
+    }
+
+    // Search state, reset for every plan() call
+    private Food[] candidates;
+    private float[] candCalories;
+    private float[] candProteins;
+    private float[] candCarbs;
+    private float[] candFats;
+    private float[] suffixMaxCalories;
+    private int[] currentServings;
+    private int[] bestServings;
+    private float bestScore;
+    private float calorieTarget;
+    private float upperCalories;
+    private float proteinTarget;
+    private float carbTarget;
+    private float fatTarget;
+    private long deadlineNanos;
+    private int nodesVisited;
+    private boolean stopped;
+
+    /**
+     * Plan a day of meals with the default time budget
+     * @see #plan(List, int, Preferences, long)
+     */
+    public MealPlan plan(List<Food> catalog, int calorieTarget, Preferences preferences) {
+        return plan(catalog, calorieTarget, preferences, DEFAULT_TIME_BUDGET_MS);
+    }
+
+    /**
+     * Plan a day of meals
+     * @param catalog Foods to choose from
+     * @param calorieTarget Daily calorie target, e.g. from BMICalculator.getDailyCalorieRequirement
+     * @param preferences Diet, cuisine and macro preferences
+     * @param timeBudgetMillis Maximum time to spend searching
+     * @return Best plan found within the budget, empty if no food fits the preferences
+     */
+    public MealPlan plan(List<Food> catalog, int calorieTarget, Preferences preferences,
+                         long timeBudgetMillis) {
+        deadlineNanos = System.nanoTime() + timeBudgetMillis * 1_000_000L;
+        nodesVisited = 0;
+        stopped = false;
+
+        this.calorieTarget = calorieTarget;
+        this.upperCalories = calorieTarget * (1 + MAX_OVERSHOOT);
+        this.proteinTarget = calorieTarget * preferences.proteinRatio / KCAL_PER_GRAM_PROTEIN;
+        this.carbTarget = calorieTarget * preferences.carbRatio / KCAL_PER_GRAM_CARBS;
+        this.fatTarget = calorieTarget * preferences.fatRatio / KCAL_PER_GRAM_FAT;
+
+        selectCandidates(catalog, preferences);
+        int count = candidates.length;
+        if (count == 0 || calorieTarget <= 0) {
+            return buildPlan(new int[0]);
+        }
+
+        currentServings = new int[count];
+        bestServings = new int[count];
+        bestScore = Float.MAX_VALUE;
+
+        seedGreedy();
+        search(0, 0, 0f, 0f, 0f, 0f);
+
+        return buildPlan(bestServings);
+    }
+
+    /**
+     * Keep the foods allowed by the preferences whose macro split is closest
+     * to the target split, ordered best first
+     */
+    private void selectCandidates(List<Food> catalog, Preferences preferences) {
+        // Max-heap on mismatch so the worst kept candidate is evicted first
+        PriorityQueue<ScoredFood> best = new PriorityQueue<>(MAX_CANDIDATES + 1,
+                (a, b) -> Float.compare(b.mismatch, a.mismatch));
+
+        for (Food food : catalog) {
+            if (food.getCalories() <= 0 || !preferences.allows(food)) {
+                continue;
+            }
+
+            float mismatch = macroMismatch(food, preferences);
+            if (best.size() < MAX_CANDIDATES) {
+                best.add(new ScoredFood(food, mismatch));
+            } else if (mismatch < best.peek().mismatch) {
+                best.poll();
+                best.add(new ScoredFood(food, mismatch));
+            }
+        }
+
+        List<ScoredFood> sorted = new ArrayList<>(best);
+        Collections.sort(sorted, (a, b) -> Float.compare(a.mismatch, b.mismatch));
+
+        int count = sorted.size();
+        candidates = new Food[count];
+        candCalories = new float[count];
+        candProteins = new float[count];
+        candCarbs = new float[count];
+        candFats = new float[count];
+        for (int i = 0; i < count; i++) {
+            Food food = sorted.get(i).food;
+            candidates[i] = food;
+            candCalories[i] = food.getCalories();
+            candProteins[i] = food.getProteins();
+            candCarbs[i] = food.getCarbs();
+            candFats[i] = food.getFats();
+        }
+
+        // Largest serving still available from index i on, for the lower bound
+        suffixMaxCalories = new float[count + 1];
+        for (int i = count - 1; i >= 0; i--) {
+            suffixMaxCalories[i] = Math.max(suffixMaxCalories[i + 1], candCalories[i] * MAX_SERVINGS);
+        }
+    }
+
+    /**
+     * Distance between a food's macro energy split and the target split
+     */
+    private static float macroMismatch(Food food, Preferences preferences) {
+        float proteinKcal = food.getProteins() * KCAL_PER_GRAM_PROTEIN;
+        float carbKcal = food.getCarbs() * KCAL_PER_GRAM_CARBS;
+        float fatKcal = food.getFats() * KCAL_PER_GRAM_FAT;
+        float total = proteinKcal + carbKcal + fatKcal;
+        if (total <= 0) {
+            return Float.MAX_VALUE;
+        }
+        return Math.abs(proteinKcal / total - preferences.proteinRatio)
+                + Math.abs(carbKcal / total - preferences.carbRatio)
+                + Math.abs(fatKcal / total - preferences.fatRatio);
+    }
+
+    /**
+     * Greedy first plan so a result exists even if the search is cut short
+     */
+    private void seedGreedy() {
+        float calories = 0, proteins = 0, carbs = 0, fats = 0;
+        int foods = 0;
+
+        for (int i = 0; i < candidates.length && foods < MAX_FOODS; i++) {
+            int servings = 0;
+            while (servings < MAX_SERVINGS && calories + candCalories[i] <= calorieTarget) {
+                servings++;
+                calories += candCalories[i];
+                proteins += candProteins[i];
+                carbs += candCarbs[i];
+                fats += candFats[i];
+            }
+            if (servings > 0) {
+                currentServings[i] = servings;
+                foods++;
+            }
+        }
+
+        bestScore = score(calories, proteins, carbs, fats);
+        System.arraycopy(currentServings, 0, bestServings, 0, currentServings.length);
+        Arrays.fill(currentServings, 0);
+    }
+
+    /**
+     * Depth-first branch and bound over the candidates
+     * @param index Next candidate to decide on
+     * @param foods Number of foods chosen so far
+     */
+    private void search(int index, int foods, float calories, float proteins, float carbs, float fats) {
+        if (stopped) {
+            return;
+        }
+        if (++nodesVisited % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadlineNanos) {
+            stopped = true;
+            return;
+        }
+
+        float current = score(calories, proteins, carbs, fats);
+        if (current < bestScore) {
+            bestScore = current;
+            System.arraycopy(currentServings, 0, bestServings, 0, currentServings.length);
+            if (bestScore <= GOOD_ENOUGH_SCORE) {
+                stopped = true;
+                return;
+            }
+        }
+
+        if (index == candidates.length || foods == MAX_FOODS) {
+            return;
+        }
+
+        // Even taking the largest remaining servings cannot get closer than the best plan
+        float reachable = calories + suffixMaxCalories[index] * (MAX_FOODS - foods);
+        if (reachable < calorieTarget
+                && (calorieTarget - reachable) / calorieTarget >= bestScore) {
+            return;
+        }
+
+        for (int servings = MAX_SERVINGS; servings >= 1; servings--) {
+            float nextCalories = calories + candCalories[index] * servings;
+            if (nextCalories > upperCalories) {
+                continue;
+            }
+            currentServings[index] = servings;
+            search(index + 1, foods + 1, nextCalories,
+                    proteins + candProteins[index] * servings,
+                    carbs + candCarbs[index] * servings,
+                    fats + candFats[index] * servings);
+            currentServings[index] = 0;
+        }
+
+        search(index + 1, foods, calories, proteins, carbs, fats);
+    }
+
+    /**
+     * Relative calorie error plus weighted relative macro errors, lower is better
+     */
+    private float score(float calories, float proteins, float carbs, float fats) {
+        float calorieError = Math.abs(calories - calorieTarget) / calorieTarget;
+        float macroError = Math.abs(proteins - proteinTarget) / proteinTarget
+                + Math.abs(carbs - carbTarget) / carbTarget
+                + Math.abs(fats - fatTarget) / fatTarget;
+        return calorieError + MACRO_WEIGHT * macroError / 3f;
+    }
+
+    private MealPlan buildPlan(int[] servingsByCandidate) {
+        List<Food> foods = new ArrayList<>();
+        List<Integer> servings = new ArrayList<>();
+        float calories = 0, proteins = 0, carbs = 0, fats = 0;
+
+        for (int i = 0; i < servingsByCandidate.length; i++) {
+            int count = servingsByCandidate[i];
+            if (count > 0) {
+                foods.add(candidates[i]);
+                servings.add(count);
+                calories += candCalories[i] * count;
+                proteins += candProteins[i] * count;
+                carbs += candCarbs[i] * count;
+                fats += candFats[i] * count;
+            }
+        }
+
+        return new MealPlan(foods, servings, (int) calorieTarget, calories, proteins, carbs, fats);
+    }
+
+    private static class ScoredFood {
+        final Food food;
+        final float mismatch;
+
+        ScoredFood(Food food, float mismatch) {
+            this.food = food;
+            this.mismatch = mismatch;
+        }
+    }
+}
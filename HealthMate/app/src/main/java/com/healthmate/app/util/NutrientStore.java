@@ -0,0 +1,272 @@
+package com.healthmate.app.util;
+
+import com.healthmate.app.model.Food;
+
+import java.util.Arrays;
+
+/**
+ * Columnar store of logged food entries over a window of days, e.g. one
+ * day or one week. Each nutrient lives in its own primitive array and the
+ * window and per-day totals are kept up to date on every add and remove,
+ * so reading totals never loops over the entries.
+ */
+public class NutrientStore {
+
+    // Nutrient column indexes
+    public static final int CALORIES = 0;
+    public static final int PROTEINS = 1;
+    public static final int CARBS = 2;
+    public static final int FATS = 3;
+    public static final int FIBER = 4;
+    public static final int NUTRIENT_COUNT = 5;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int NO_SLOT = -1;
+    private static final int LIVE = -2;
+
+    private final long firstDay;
+    private final int dayCount;
+
+    // Entry columns, indexed by entry handle
+    private float[][] columns = new float[NUTRIENT_COUNT][INITIAL_CAPACITY];
+    private int[] dayOffsets = new int[INITIAL_CAPACITY];
+    private String[] foodIds = new String[INITIAL_CAPACITY];
+
+    // Free list threaded through removed slots; live slots hold LIVE
+    private int[] nextFree = new int[INITIAL_CAPACITY];
+
+    private int slotsUsed = 0;
+    private int freeHead = NO_SLOT;
+    private int entryCount = 0;
+
+    // Running totals in double to keep rounding drift low over many updates
+    private final double[] windowTotals = new double[NUTRIENT_COUNT];
+    private final double[][] dayTotals;
+
+    /**
+     * Constructor for a store covering consecutive days
+     * @param firstDay First day of the window as an epoch day
+     * @param dayCount Number of days in the window, 1 for a day and 7 for a week
+     */
+    public NutrientStore(long firstDay, int dayCount) {
+        if (dayCount < 1) {
+            throw new IllegalArgumentException("dayCount must be at least 1");
+        }
+        this.firstDay = firstDay;
+        this.dayCount = dayCount;
+        this.dayTotals = new double[dayCount][NUTRIENT_COUNT];
+    }
+
+    /**
+     * Get the factor that scales a food's per-serving values to an amount
+     * @param food Food whose values are given per baseAmount
+     * @param amount Amount eaten in the food's unit
+     * @return Scale factor, or 0 if the food has no usable base amount
+     */
+    public static float scaleFor(Food food, float amount) {
+        float baseAmount = food.getBaseAmount();
+        return baseAmount > 0 ? amount / baseAmount : 0f;
+    }
+
+    /**
+     * Add an amount of food eaten on a day
+     * @param food Food eaten
+     * @param amount Amount in the food's unit (e.g. 150 for 150 g)
+     * @param day Epoch day the food was eaten, must lie inside the window
+     * @return Handle of the entry, used to remove it again
+     */
+    public int add(Food food, float amount, long day) {
+        return addScaled(food, scaleFor(food, amount), day);
+    }
+
+    /**
+     * Add a number of standard servings of food eaten on a day
+     * @param food Food eaten
+     * @param servings Number of servings of baseAmount
+     * @param day Epoch day the food was eaten, must lie inside the window
+     * @return Handle of the entry, used to remove it again
+     */
+    public int addServings(Food food, float servings, long day) {
+        return addScaled(food, servings, day);
+    }
+
+    private int addScaled(Food food, float scale, long day) {
+        int dayOffset = toDayOffset(day);
+        int slot = allocateSlot();
+
+        columns[CALORIES][slot] = food.getCalories() * scale;
+        columns[PROTEINS][slot] = food.getProteins() * scale;
+        columns[CARBS][slot] = food.getCarbs() * scale;
+        columns[FATS][slot] = food.getFats() * scale;
+        columns[FIBER][slot] = food.getFiber() * scale;
+        dayOffsets[slot] = dayOffset;
+        foodIds[slot] = food.getId();
+
+        double[] totals = dayTotals[dayOffset];
+        for (int n = 0; n < NUTRIENT_COUNT; n++) {
+            float value = columns[n][slot];
+            windowTotals[n] += value;
+            totals[n] += value;
+        }
+
+        entryCount++;
+        return slot;
+    }
+
+    /**
+     * Remove an entry added earlier
+     * @param handle Handle returned by add() or addServings()
+     */
+    public void remove(int handle) {
+        checkLive(handle);
+
+        double[] day = dayTotals[dayOffsets[handle]];
+        for (int n = 0; n < NUTRIENT_COUNT; n++) {
+            float value = columns[n][handle];
+            windowTotals[n] -= value;
+            day[n] -= value;
+        }
+
+        foodIds[handle] = null;
+        nextFree[handle] = freeHead;
+        freeHead = handle;
+        entryCount--;
+
+        if (entryCount == 0) {
+            // Nothing left, drop any accumulated rounding error
+            Arrays.fill(windowTotals, 0);
+            for (double[] totals : dayTotals) {
+                Arrays.fill(totals, 0);
+            }
+        }
+    }
+
+    /**
+     * Get a nutrient total over the whole window
+     * @param nutrient One of CALORIES, PROTEINS, CARBS, FATS or FIBER
+     * @return Total value
+     */
+    public float getTotal(int nutrient) {
+        return (float) windowTotals[nutrient];
+    }
+
+    /**
+     * Get a nutrient total for a single day
+     * @param nutrient One of CALORIES, PROTEINS, CARBS, FATS or FIBER
+     * @param day Epoch day inside the window
+     * @return Total value for the day
+     */
+    public float getDayTotal(int nutrient, long day) {
+        return (float) dayTotals[toDayOffset(day)][nutrient];
+    }
+
+    /**
+     * Copy all window totals into an array
+     * @param out Array of at least NUTRIENT_COUNT elements
+     * @return The same array, for chaining
+     */
+    public float[] getTotals(float[] out) {
+        for (int n = 0; n < NUTRIENT_COUNT; n++) {
+            out[n] = (float) windowTotals[n];
+        }
+        return out;
+    }
+
+    /**
+     * Get the value of one nutrient for an entry
+     * @param handle Entry handle
+     * @param nutrient One of CALORIES, PROTEINS, CARBS, FATS or FIBER
+     * @return Scaled value for the entry
+     */
+    public float getValue(int handle, int nutrient) {
+        checkLive(handle);
+        return columns[nutrient][handle];
+    }
+
+    /**
+     * Get the food ID of an entry
+     * @param handle Entry handle
+     * @return Food ID
+     */
+    public String getFoodId(int handle) {
+        checkLive(handle);
+        return foodIds[handle];
+    }
+
+    /**
+     * Get the number of live entries
+     * @return Entry count
+     */
+    public int size() {
+        return entryCount;
+    }
+
+    /**
+     * Get the first day of the window
+     * @return Epoch day
+     */
+    public long getFirstDay() {
+        return firstDay;
+    }
+
+    /**
+     * Get the number of days in the window
+     * @return Day count
+     */
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    /**
+     * Remove all entries, keeping the allocated capacity
+     */
+    public void clear() {
+        Arrays.fill(foodIds, 0, slotsUsed, null);
+        slotsUsed = 0;
+        freeHead = NO_SLOT;
+        entryCount = 0;
+        Arrays.fill(windowTotals, 0);
+        for (double[] totals : dayTotals) {
+            Arrays.fill(totals, 0);
+        }
+    }
+
+    private int allocateSlot() {
+        int slot;
+        if (freeHead != NO_SLOT) {
+            slot = freeHead;
+            freeHead = nextFree[slot];
+        } else {
+            if (slotsUsed == dayOffsets.length) {
+                grow();
+            }
+            slot = slotsUsed++;
+        }
+        nextFree[slot] = LIVE;
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = dayOffsets.length * 2;
+        for (int n = 0; n < NUTRIENT_COUNT; n++) {
+            columns[n] = Arrays.copyOf(columns[n], capacity);
+        }
+        dayOffsets = Arrays.copyOf(dayOffsets, capacity);
+        foodIds = Arrays.copyOf(foodIds, capacity);
+        nextFree = Arrays.copyOf(nextFree, capacity);
+    }
+
+    private int toDayOffset(long day) {
+        long offset = day - firstDay;
+        if (offset < 0 || offset >= dayCount) {
+            throw new IllegalArgumentException("Day " + day + " is outside the store window");
+        }
+        return (int) offset;
+    }
+
+    private void checkLive(int handle) {
+        if (handle < 0 || handle >= slotsUsed || nextFree[handle] != LIVE) {
+            throw new IllegalArgumentException("No entry for handle " + handle);
+        }
+    }
+}
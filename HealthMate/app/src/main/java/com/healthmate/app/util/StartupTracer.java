@@ -0,0 +1,183 @@
+package com.healthmate.app.util;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import com.healthmate.app.BuildConfig;
+
+import java.util.Locale;
+
+/**
+ * Startup measurement for the activity chain.
+ *
+ * Trace sections show up in system traces (Perfetto or systrace) so the
+ * cost of database seeding, API client construction and first binds can be
+ * seen inside a launch. Every launch is also timed up to its first frame
+ * and logged together with the build, using the platform's start types
+ * for the app coming to the foreground:
+ *   cold - first activity of a new process, timed from process start
+ *   warm - activity created in a running process while no activity of the
+ *          app was started, e.g. after the user backed out of it
+ *   hot  - stopped activity brought back to the foreground
+ * Activities opened from another activity of the app are not starts, and
+ * are logged as navigations. Recreating an activity for a configuration
+ * change is not timed. Filter logcat by the StartupTracer tag to compare
+ * builds.
+ */
+public final class StartupTracer {
+    private static final String TAG = "StartupTracer";
+
+    // Trace section names are limited to 127 characters
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+
+    // Fallback process start for devices before API 24, taken when the class is loaded
+    private static final long CLASS_LOAD_UPTIME = SystemClock.uptimeMillis();
+
+    private static boolean installed = false;
+
+    private StartupTracer() {
+    }
+
+    /**
+     * Start timing activity launches. Call once from Application.onCreate.
+     * @param application The application
+     */
+    public static void install(Application application) {
+        if (installed) {
+            return;
+        }
+        installed = true;
+        application.registerActivityLifecycleCallbacks(new LaunchTimer());
+    }
+
+    /**
+     * Begin a trace section. Must be closed with endSection() on the same thread.
+     * @param name Section name
+     */
+    public static void beginSection(String name) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.beginSection(name.length() > MAX_SECTION_NAME_LENGTH
+                    ? name.substring(0, MAX_SECTION_NAME_LENGTH) : name);
+        }
+    }
+
+    /**
+     * End the trace section begun last on this thread
+     */
+    public static void endSection() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2) {
+            Trace.endSection();
+        }
+    }
+
+    /**
+     * Run a task once the activity has drawn its first frame
+     * @param activity Activity being launched
+     * @param task Task run on the main thread after the first draw
+     */
+    public static void runAfterFirstFrame(Activity activity, Runnable task) {
+        final View decorView = activity.getWindow().getDecorView();
+        decorView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decorView.getViewTreeObserver().removeOnPreDrawListener(this);
+                // Posted so the task runs after this first frame has been drawn
+                decorView.post(task);
+                return true;
+            }
+        });
+    }
+
+    private static long getProcessStartUptime() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            return Process.getStartUptimeMillis();
+        }
+        return CLASS_LOAD_UPTIME;
+    }
+
+    /**
+     * Times each launch from its start until the first frame is drawn.
+     * All callbacks run on the main thread.
+     */
+    private static class LaunchTimer implements Application.ActivityLifecycleCallbacks {
+        private boolean coldStartPending = true;
+        private Activity createdActivity;
+
+        // Activities between onStart and onStop; the app is in the background at 0
+        private int startedActivities;
+
+        // Set while a stopped activity is recreated for a configuration change
+        private boolean changingConfigurations;
+
+        @Override
+        public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+            createdActivity = activity;
+            if (coldStartPending) {
+                coldStartPending = false;
+                timeFirstFrame(activity, "cold start", getProcessStartUptime());
+            } else if (!changingConfigurations) {
+                // Opened from another activity unless the app was in the background
+                timeFirstFrame(activity, startedActivities == 0 ? "warm start" : "navigation",
+                        SystemClock.uptimeMillis());
+            }
+        }
+
+        @Override
+        public void onActivityStarted(Activity activity) {
+            boolean fromBackground = startedActivities == 0 && !changingConfigurations;
+            startedActivities++;
+            changingConfigurations = false;
+            if (activity == createdActivity) {
+                // Created just now, already timed in onActivityCreated
+                createdActivity = null;
+                return;
+            }
+            if (fromBackground) {
+                timeFirstFrame(activity, "hot start", SystemClock.uptimeMillis());
+            }
+        }
+
+        @Override
+        public void onActivityResumed(Activity activity) {
+        }
+
+        @Override
+        public void onActivityPaused(Activity activity) {
+        }
+
+        @Override
+        public void onActivityStopped(Activity activity) {
+            startedActivities--;
+            if (activity.isChangingConfigurations()) {
+                changingConfigurations = true;
+            }
+        }
+
+        @Override
+        public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+        }
+
+        @Override
+        public void onActivityDestroyed(Activity activity) {
+            if (activity == createdActivity) {
+                createdActivity = null;
+            }
+        }
+
+        private void timeFirstFrame(Activity activity, String launchType, long startUptime) {
+            final String activityName = activity.getClass().getSimpleName();
+            runAfterFirstFrame(activity, () -> Log.i(TAG, String.format(Locale.US,
+                    "%s of %s: %d ms (build %s %s)",
+                    launchType, activityName, SystemClock.uptimeMillis() - startUptime,
+                    BuildConfig.VERSION_NAME, BuildConfig.BUILD_TYPE)));
+        }
+    }
+}
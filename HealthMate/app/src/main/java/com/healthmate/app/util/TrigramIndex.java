@@ -0,0 +1,376 @@
+package com.healthmate.app.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant name search over a trigram index.
+ *
+ * Names are lower-cased and stripped of spaces and punctuation, so
+ * "benchpres" and "Bench Press" compare on the same letters. Each name is
+ * split into overlapping three-letter grams, and every gram keeps a list
+ * of the names containing it. A query counts shared grams through those
+ * lists, keeps the names sharing the most, and ranks them by the edit
+ * distance between the query and the closest part of the name. One typo
+ * costs at most three grams, so misspelt queries still share most of theirs.
+ *
+ * Names can be added or replaced at any time, so the index is built up as
+ * rows are upserted. Keys are whatever identifies a row to the caller.
+ */
+public class TrigramIndex {
+    // Number of best gram matches whose edit distance is computed
+    private static final int MAX_CANDIDATES = 64;
+
+    // Names longer than this are ranked as equally long when picking candidates
+    private static final int MAX_LENGTH_BUCKET = 63;
+
+    // Guarded by this
+    private final List<String> keys = new ArrayList<>();
+    private final List<String> names = new ArrayList<>();
+    private final List<char[]> compactNames = new ArrayList<>();
+    private final Map<String, Integer> entriesByKey = new HashMap<>();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private boolean[] removed = new boolean[16];
+    private int[] sharedCounts = new int[16];
+
+    /**
+     * Search result
+     */
+    public static final class Match {
+        private final String key;
+        private final String name;
+        private final int distance;
+
+        Match(String key, String name, int distance) {
+            this.key = key;
+            this.name = name;
+            this.distance = distance;
+        }
+
+        /**
+         * Get the key the name was added with
+         * @return Key as a String
+         */
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * Get the indexed name
+         * @return Name as given to put()
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Get the number of edits between the query and the closest part of the name
+         * @return Edit distance, 0 if the name contains the query
+         */
+        public int getDistance() {
+            return distance;
+        }
+    }
+
+    /**
+     * Add a name or replace the name stored under the same key
+     * @param key Row key
+     * @param name Name to index, null removes the key
+     */
+    public synchronized void put(String key, String name) {
+        Integer existing = entriesByKey.get(key);
+        if (existing != null) {
+            if (name != null && name.equals(names.get(existing))) {
+                return;
+            }
+            // Postings are append-only, the old entry is skipped from now on
+            removed[existing] = true;
+            entriesByKey.remove(key);
+        }
+
+        char[] compact = compact(name);
+        if (compact.length == 0) {
+            return;
+        }
+
+        int entry = keys.size();
+        keys.add(key);
+        names.add(name);
+        compactNames.add(compact);
+        entriesByKey.put(key, entry);
+        if (entry >= removed.length) {
+            removed = Arrays.copyOf(removed, removed.length * 2);
+            sharedCounts = new int[removed.length];
+        }
+
+        Set<Long> seen = new HashSet<>();
+        for (long gram : grams(compact)) {
+            if (seen.add(gram)) {
+                IntList list = postings.get(gram);
+                if (list == null) {
+                    list = new IntList();
+                    postings.put(gram, list);
+                }
+                list.add(entry);
+            }
+        }
+    }
+
+    /**
+     * Remove the name stored under a key
+     * @param key Row key
+     */
+    public synchronized void remove(String key) {
+        Integer existing = entriesByKey.remove(key);
+        if (existing != null) {
+            removed[existing] = true;
+        }
+    }
+
+    /**
+     * Get the number of indexed names
+     * @return Number of names
+     */
+    public synchronized int size() {
+        return entriesByKey.size();
+    }
+
+    /**
+     * Find the names closest to a query, allowing about one typo per three letters
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @return Matches, closest first
+     */
+    public List<Match> search(String query, int limit) {
+        return search(query, limit, Math.max(1, compact(query).length / 3));
+    }
+
+    /**
+     * Find the names closest to a query
+     * @param query Text typed by the user
+     * @param limit Maximum number of results
+     * @param maxDistance Largest edit distance to return
+     * @return Matches, closest first
+     */
+    public synchronized List<Match> search(String query, int limit, int maxDistance) {
+        char[] compactQuery = compact(query);
+        if (compactQuery.length == 0 || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int[] candidates = compactQuery.length < 3
+                ? scanCandidates(compactQuery)
+                : gramCandidates(compactQuery);
+
+        List<Match> matches = new ArrayList<>();
+        for (int entry : candidates) {
+            int distance = substringDistance(compactQuery, compactNames.get(entry), maxDistance);
+            if (distance <= maxDistance) {
+                matches.add(new Match(keys.get(entry), names.get(entry), distance));
+            }
+        }
+
+        // Closest first, then shorter names, which the query covers more of
+        Collections.sort(matches, (a, b) -> {
+            int byDistance = Integer.compare(a.distance, b.distance);
+            return byDistance != 0 ? byDistance : Integer.compare(a.name.length(), b.name.length());
+        });
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * Entries sharing the most grams with the query, at most MAX_CANDIDATES
+     */
+    private int[] gramCandidates(char[] compactQuery) {
+        long[] queryGrams = grams(compactQuery);
+        IntList touched = new IntList();
+        int maxShared = 0;
+
+        Set<Long> seen = new HashSet<>();
+        for (long gram : queryGrams) {
+            IntList list = postings.get(gram);
+            if (list == null || !seen.add(gram)) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int entry = list.values[i];
+                if (removed[entry]) {
+                    continue;
+                }
+                if (sharedCounts[entry]++ == 0) {
+                    touched.add(entry);
+                }
+                maxShared = Math.max(maxShared, sharedCounts[entry]);
+            }
+        }
+
+        // Bucket by shared count and take the best buckets, no full sort needed
+        int[] bucketSizes = new int[maxShared + 1];
+        for (int i = 0; i < touched.size; i++) {
+            bucketSizes[sharedCounts[touched.values[i]]]++;
+        }
+        int threshold = maxShared;
+        int taken = 0;
+        while (threshold > 1 && taken + bucketSizes[threshold] < MAX_CANDIDATES) {
+            taken += bucketSizes[threshold];
+            threshold--;
+        }
+
+        // Whole buckets above the threshold first, then fill up from the threshold bucket
+        IntList candidates = new IntList();
+        for (int i = 0; i < touched.size; i++) {
+            int entry = touched.values[i];
+            if (sharedCounts[entry] > threshold) {
+                candidates.add(entry);
+            }
+        }
+        // Within the threshold bucket shorter names share a larger part of
+        // themselves with the query, so find the length cut-off that fills up
+        int remaining = MAX_CANDIDATES - candidates.size;
+        int[] lengthCounts = new int[MAX_LENGTH_BUCKET + 1];
+        for (int i = 0; i < touched.size; i++) {
+            int entry = touched.values[i];
+            if (sharedCounts[entry] == threshold) {
+                lengthCounts[lengthBucket(entry)]++;
+            }
+        }
+        int cutoff = 0;
+        for (int fitting = 0; cutoff < MAX_LENGTH_BUCKET && fitting + lengthCounts[cutoff] < remaining; cutoff++) {
+            fitting += lengthCounts[cutoff];
+        }
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < touched.size && candidates.size < MAX_CANDIDATES; i++) {
+                int entry = touched.values[i];
+                int length = lengthBucket(entry);
+                if (sharedCounts[entry] == threshold && (pass == 0 ? length < cutoff : length == cutoff)) {
+                    candidates.add(entry);
+                }
+            }
+        }
+
+        for (int i = 0; i < touched.size; i++) {
+            sharedCounts[touched.values[i]] = 0;
+        }
+        return Arrays.copyOf(candidates.values, candidates.size);
+    }
+
+    private int lengthBucket(int entry) {
+        return Math.min(compactNames.get(entry).length, MAX_LENGTH_BUCKET);
+    }
+
+    /**
+     * Live entries containing the query, for queries too short to have a
+     * gram. The scan stops once there are enough candidates.
+     */
+    private int[] scanCandidates(char[] compactQuery) {
+        IntList candidates = new IntList();
+        for (int entry = 0; entry < keys.size() && candidates.size < MAX_CANDIDATES; entry++) {
+            if (!removed[entry] && contains(compactNames.get(entry), compactQuery)) {
+                candidates.add(entry);
+            }
+        }
+        return Arrays.copyOf(candidates.values, candidates.size);
+    }
+
+    /**
+     * Edit distance between the query and its best-matching substring of
+     * the name. Leading and trailing parts of the name are free, and
+     * swapping two neighbouring letters counts as one edit.
+     * @return Distance, or maxDistance + 1 once it is certain to be larger
+     */
+    static int substringDistance(char[] query, char[] name, int maxDistance) {
+        int[] beforePrevious = new int[name.length + 1];
+        int[] previous = new int[name.length + 1];
+        int[] current = new int[name.length + 1];
+
+        for (int i = 1; i <= query.length; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= name.length; j++) {
+                int substitution = previous[j - 1] + (query[i - 1] == name[j - 1] ? 0 : 1);
+                int deletion = previous[j] + 1;
+                int insertion = current[j - 1] + 1;
+                int cost = Math.min(substitution, Math.min(deletion, insertion));
+                if (i > 1 && j > 1 && query[i - 1] == name[j - 2] && query[i - 2] == name[j - 1]) {
+                    cost = Math.min(cost, beforePrevious[j - 2] + 1);
+                }
+                current[j] = cost;
+                rowMin = Math.min(rowMin, cost);
+            }
+            if (rowMin > maxDistance) {
+                return maxDistance + 1;
+            }
+            int[] swap = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = swap;
+        }
+
+        int best = previous[0];
+        for (int j = 1; j <= name.length; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    private static boolean contains(char[] name, char[] part) {
+        outer:
+        for (int start = 0; start + part.length <= name.length; start++) {
+            for (int i = 0; i < part.length; i++) {
+                if (name[start + i] != part[i]) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static char[] compact(String text) {
+        if (text == null) {
+            return new char[0];
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        StringBuilder compact = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                compact.append(c);
+            }
+        }
+        return compact.toString().toCharArray();
+    }
+
+    private static long[] grams(char[] compact) {
+        if (compact.length < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[compact.length - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) compact[i] << 32) | ((long) compact[i + 1] << 16) | compact[i + 2];
+        }
+        return grams;
+    }
+
+    /**
+     * Growable int array, avoids boxing in posting lists
+     */
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
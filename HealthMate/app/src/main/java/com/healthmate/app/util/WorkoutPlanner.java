@@ -0,0 +1,425 @@
+package com.healthmate.app.util;
+
+import com.healthmate.app.db.DatabaseHelper;
+import com.healthmate.app.model.BodyPart;
+import com.healthmate.app.model.Exercise;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds weekly workout plans that reach a calorie burn target derived
+ * from the user's BMI category.
+ *
+ * Training days rotate through the body parts and only exercises up to a
+ * difficulty cap are used. Each session is a small bounded knapsack over
+ * 10 minute exercise blocks, solved with a DP over calorie units. Exercise
+ * pools and solved sessions are memoized per (body part, difficulty cap,
+ * calorie target, minutes), so regenerating a plan after changing the
+ * number of training days or the cap only solves the sessions that changed.
+ *
+ * Not thread safe; use one instance from a single background thread.
+ */
+public class WorkoutPlanner {
+
+    // Calorie figures on exercises are per 30 minutes
+    private static final int CALORIE_MINUTES = 30;
+
+    // Exercises are scheduled in blocks of this many minutes
+    public static final int BLOCK_MINUTES = 10;
+    private static final int MAX_BLOCKS_PER_EXERCISE = 3;
+
+    // Resolution of the calorie DP in kcal
+    private static final int CALORIE_UNIT = 5;
+
+    // Sessions may overshoot their calorie target by at most this fraction
+    private static final float MAX_OVERSHOOT = 0.15f;
+
+    // Largest exercise pool considered per session, keeps the DP small
+    private static final int MAX_POOL_SIZE = 40;
+
+    public static final int DEFAULT_TRAINING_DAYS = 5;
+    public static final int DEFAULT_MAX_MINUTES_PER_DAY = 60;
+
+    private static final int DAYS_PER_WEEK = 7;
+
+    // Lower body, upper body and core alternate so consecutive sessions rest each other
+    private static final BodyPart[] ROTATION = {
+            BodyPart.LEGS, BodyPart.CHEST, BodyPart.ABS,
+            BodyPart.BACK, BodyPart.ARMS, BodyPart.FULL_BODY
+    };
+
+    // Difficulty levels from easiest to hardest
+    private static final List<String> DIFFICULTY_ORDER = Collections.unmodifiableList(Arrays.asList(
+            Constants.DIFFICULTY_EASY, Constants.DIFFICULTY_MEDIUM, Constants.DIFFICULTY_HARD));
+
+    private final DatabaseHelper dbHelper;
+
+    // Memoized exercise pools and solved sessions
+    private final Map<String, List<Exercise>> pools = new HashMap<>();
+    private final Map<String, Session> sessions = new HashMap<>();
+
+    /**
+     * A single workout session for one body part
+     */
+    public static class Session {
+        private final BodyPart bodyPart;
+        private final List<Exercise> exercises;
+        private final List<Integer> minutes;
+        private final int calorieTarget;
+        private final int calories;
+        private final int totalMinutes;
+
+        Session(BodyPart bodyPart, List<Exercise> exercises, List<Integer> minutes,
+                int calorieTarget, int calories, int totalMinutes) {
+            this.bodyPart = bodyPart;
+            this.exercises = Collections.unmodifiableList(exercises);
+            this.minutes = Collections.unmodifiableList(minutes);
+            this.calorieTarget = calorieTarget;
+            this.calories = calories;
+            this.totalMinutes = totalMinutes;
+        }
+
+        /**
+         * Get the body part trained in this session
+         * @return Body part
+         */
+        public BodyPart getBodyPart() {
+            return bodyPart;
+        }
+
+        /**
+         * Get the exercises in this session
+         * @return Exercises, in the same order as getMinutes()
+         */
+        public List<Exercise> getExercises() {
+            return exercises;
+        }
+
+        /**
+         * Get the minutes planned for each exercise
+         * @return Minutes, in the same order as getExercises()
+         */
+        public List<Integer> getMinutes() {
+            return minutes;
+        }
+
+        /**
+         * Get the calorie burn this session aimed for
+         * @return Target in kcal
+         */
+        public int getCalorieTarget() {
+            return calorieTarget;
+        }
+
+        /**
+         * Get the estimated calorie burn of this session
+         * @return Calories in kcal
+         */
+        public int getCalories() {
+            return calories;
+        }
+
+        /**
+         * Get the total length of this session
+         * @return Length in minutes
+         */
+        public int getTotalMinutes() {
+            return totalMinutes;
+        }
+
+        /**
+         * Check whether the session has no exercises
+         * @return True if no exercises were available for the body part
+         */
+        public boolean isEmpty() {
+            return exercises.isEmpty();
+        }
+    }
+
+    /**
+     * A training day of a weekly plan
+     */
+    public static class WorkoutDay {
+        private final int dayOfWeek;
+        private final Session session;
+
+        WorkoutDay(int dayOfWeek, Session session) {
+            this.dayOfWeek = dayOfWeek;
+            this.session = session;
+        }
+
+        /**
+         * Get the day of the week
+         * @return Day index, 0 for the first day of the plan up to 6
+         */
+        public int getDayOfWeek() {
+            return dayOfWeek;
+        }
+
+        /**
+         * Get the session planned for this day
+         * @return Session
+         */
+        public Session getSession() {
+            return session;
+        }
+    }
+
+    /**
+     * A weekly workout plan
+     */
+    public static class WeeklyPlan {
+        private final List<WorkoutDay> days;
+        private final int weeklyTarget;
+        private final String difficultyCap;
+        private final int calories;
+
+        WeeklyPlan(List<WorkoutDay> days, int weeklyTarget, String difficultyCap) {
+            this.days = Collections.unmodifiableList(days);
+            this.weeklyTarget = weeklyTarget;
+            this.difficultyCap = difficultyCap;
+
+            int total = 0;
+            for (WorkoutDay day : days) {
+                total += day.getSession().getCalories();
+            }
+            this.calories = total;
+        }
+
+        /**
+         * Get the training days, rest days are not included
+         * @return Training days in week order
+         */
+        public List<WorkoutDay> getDays() {
+            return days;
+        }
+
+        /**
+         * Get the weekly calorie burn target
+         * @return Target in kcal
+         */
+        public int getWeeklyTarget() {
+            return weeklyTarget;
+        }
+
+        /**
+         * Get the hardest difficulty level used in this plan
+         * @return One of the Constants.DIFFICULTY_* values
+         */
+        public String getDifficultyCap() {
+            return difficultyCap;
+        }
+
+        /**
+         * Get the estimated calorie burn of the whole week
+         * @return Calories in kcal
+         */
+        public int getCalories() {
+            return calories;
+        }
+    }
+
+    /**
+     * Constructor
+     * @param dbHelper Database the exercises are read from
+     */
+    public WorkoutPlanner(DatabaseHelper dbHelper) {
+        this.dbHelper = dbHelper;
+    }
+
+    /**
+     * Get the weekly calorie burn target for a BMI value
+     * @param bmi BMI value
+     * @return Weekly target in kcal
+     */
+    public static int getWeeklyBurnTarget(float bmi) {
+        if (bmi < Constants.BMI_UNDERWEIGHT) {
+            // Underweight: light activity to build strength without a large deficit
+            return 900;
+        } else if (bmi < Constants.BMI_NORMAL) {
+            return 1500;
+        } else if (bmi < Constants.BMI_OVERWEIGHT) {
+            return 2000;
+        } else {
+            // Obese: high target, reached through longer easier sessions
+            return 2200;
+        }
+    }
+
+    /**
+     * Get the hardest difficulty level recommended for a BMI value
+     * @param bmi BMI value
+     * @return One of the Constants.DIFFICULTY_* values
+     */
+    public static String getDifficultyCap(float bmi) {
+        if (bmi < Constants.BMI_SEVERELY_UNDERWEIGHT || bmi >= Constants.BMI_OBESE_CLASS_1) {
+            return Constants.DIFFICULTY_EASY;
+        } else if (bmi < Constants.BMI_UNDERWEIGHT || bmi >= Constants.BMI_OVERWEIGHT) {
+            return Constants.DIFFICULTY_MEDIUM;
+        }
+        return Constants.DIFFICULTY_HARD;
+    }
+
+    /**
+     * Build a weekly plan for a BMI value with the default number of training days
+     * @param bmi BMI value
+     * @return Weekly plan
+     */
+    public WeeklyPlan plan(float bmi) {
+        return plan(getWeeklyBurnTarget(bmi), DEFAULT_TRAINING_DAYS, getDifficultyCap(bmi),
+                DEFAULT_MAX_MINUTES_PER_DAY);
+    }
+
+    /**
+     * Build a weekly plan. Must be called off the main thread.
+     * @param weeklyTarget Weekly calorie burn target in kcal
+     * @param trainingDays Number of training days, 1 to 7
+     * @param difficultyCap Hardest allowed difficulty, one of the Constants.DIFFICULTY_* values
+     * @param maxMinutesPerDay Longest allowed session in minutes
+     * @return Weekly plan
+     */
+    public WeeklyPlan plan(int weeklyTarget, int trainingDays, String difficultyCap, int maxMinutesPerDay) {
+        int dayCount = Math.max(1, Math.min(DAYS_PER_WEEK, trainingDays));
+        int dayTarget = Math.round(weeklyTarget / (float) dayCount);
+        int maxBlocks = Math.max(1, maxMinutesPerDay / BLOCK_MINUTES);
+
+        List<WorkoutDay> days = new ArrayList<>(dayCount);
+        for (int i = 0; i < dayCount; i++) {
+            // Spread training days evenly over the week
+            int dayOfWeek = i * DAYS_PER_WEEK / dayCount;
+            BodyPart bodyPart = ROTATION[i % ROTATION.length];
+            days.add(new WorkoutDay(dayOfWeek, getSession(bodyPart, difficultyCap, dayTarget, maxBlocks)));
+        }
+
+        return new WeeklyPlan(days, weeklyTarget, difficultyCap);
+    }
+
+    /**
+     * Drop memoized pools and sessions, e.g. after the exercise catalog changed
+     */
+    public void invalidate() {
+        pools.clear();
+        sessions.clear();
+    }
+
+    private Session getSession(BodyPart bodyPart, String difficultyCap, int calorieTarget, int maxBlocks) {
+        String key = bodyPart.name() + '|' + difficultyCap + '|' + calorieTarget + '|' + maxBlocks;
+        Session session = sessions.get(key);
+        if (session == null) {
+            session = solveSession(bodyPart, getPool(bodyPart, difficultyCap), calorieTarget, maxBlocks);
+            sessions.put(key, session);
+        }
+        return session;
+    }
+
+    private List<Exercise> getPool(BodyPart bodyPart, String difficultyCap) {
+        String key = bodyPart.name() + '|' + difficultyCap;
+        List<Exercise> pool = pools.get(key);
+        if (pool == null) {
+            pool = dbHelper.getExercisesByBodyPart(bodyPart.getLabel(), allowedDifficulties(difficultyCap));
+            if (pool.size() > MAX_POOL_SIZE) {
+                pool = new ArrayList<>(pool.subList(0, MAX_POOL_SIZE));
+            }
+            pools.put(key, pool);
+        }
+        return pool;
+    }
+
+    private static List<String> allowedDifficulties(String difficultyCap) {
+        int cap = DIFFICULTY_ORDER.indexOf(difficultyCap);
+        if (cap < 0) {
+            cap = DIFFICULTY_ORDER.indexOf(Constants.DIFFICULTY_MEDIUM);
+        }
+        return DIFFICULTY_ORDER.subList(0, cap + 1);
+    }
+
+    /**
+     * Pick exercise blocks whose calorie burn is closest to the target.
+     * Every exercise is expanded into up to MAX_BLOCKS_PER_EXERCISE blocks,
+     * ordered so that first blocks of all exercises come before repeats;
+     * the 0/1 knapsack DP then finds the fewest blocks for each reachable
+     * calorie total, preferring variety over repeating one exercise.
+     */
+    private static Session solveSession(BodyPart bodyPart, List<Exercise> pool, int calorieTarget, int maxBlocks) {
+        int itemCount = pool.size() * MAX_BLOCKS_PER_EXERCISE;
+        int[] itemExercise = new int[itemCount];
+        int[] itemUnits = new int[itemCount];
+        int items = 0;
+        for (int copy = 0; copy < MAX_BLOCKS_PER_EXERCISE; copy++) {
+            for (int e = 0; e < pool.size(); e++) {
+                int kcal = pool.get(e).getCaloriesBurned() * BLOCK_MINUTES / CALORIE_MINUTES;
+                if (kcal <= 0) {
+                    continue;
+                }
+                itemExercise[items] = e;
+                itemUnits[items] = Math.max(1, Math.round(kcal / (float) CALORIE_UNIT));
+                items++;
+            }
+        }
+
+        int capacity = (int) Math.ceil(calorieTarget * (1 + MAX_OVERSHOOT) / CALORIE_UNIT);
+        int unreachable = Integer.MAX_VALUE;
+
+        // blocks[c] = fewest blocks reaching exactly c calorie units
+        int[] blocks = new int[capacity + 1];
+        Arrays.fill(blocks, unreachable);
+        blocks[0] = 0;
+        boolean[][] taken = new boolean[items][capacity + 1];
+
+        for (int i = 0; i < items; i++) {
+            int units = itemUnits[i];
+            for (int c = capacity; c >= units; c--) {
+                int previous = blocks[c - units];
+                if (previous != unreachable && previous + 1 <= maxBlocks && previous + 1 < blocks[c]) {
+                    blocks[c] = previous + 1;
+                    taken[i][c] = true;
+                }
+            }
+        }
+
+        // Closest reachable total to the target, fewer blocks on ties
+        int targetUnits = Math.round(calorieTarget / (float) CALORIE_UNIT);
+        int best = 0;
+        for (int c = 1; c <= capacity; c++) {
+            if (blocks[c] == unreachable) {
+                continue;
+            }
+            int distance = Math.abs(c - targetUnits);
+            int bestDistance = Math.abs(best - targetUnits);
+            if (distance < bestDistance || (distance == bestDistance && blocks[c] < blocks[best])) {
+                best = c;
+            }
+        }
+
+        int[] blocksPerExercise = new int[pool.size()];
+        for (int i = items - 1, c = best; i >= 0 && c > 0; i--) {
+            if (taken[i][c]) {
+                blocksPerExercise[itemExercise[i]]++;
+                c -= itemUnits[i];
+            }
+        }
+
+        List<Exercise> exercises = new ArrayList<>();
+        List<Integer> minutes = new ArrayList<>();
+        int calories = 0;
+        int totalMinutes = 0;
+        for (int e = 0; e < pool.size(); e++) {
+            if (blocksPerExercise[e] == 0) {
+                continue;
+            }
+            Exercise exercise = pool.get(e);
+            int exerciseMinutes = blocksPerExercise[e] * BLOCK_MINUTES;
+            exercises.add(exercise);
+            minutes.add(exerciseMinutes);
+            calories += exercise.getCaloriesBurned() * exerciseMinutes / CALORIE_MINUTES;
+            totalMinutes += exerciseMinutes;
+        }
+
+        return new Session(bodyPart, exercises, minutes, calorieTarget, calories, totalMinutes);
+    }
+}
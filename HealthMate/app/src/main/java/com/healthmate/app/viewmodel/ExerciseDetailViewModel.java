@@ -0,0 +1,293 @@
+package com.healthmate.app.viewmodel;
+
+import android.app.Application;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.healthmate.app.AppContainer;
+import com.healthmate.app.api.CircuitBreaker;
+import com.healthmate.app.api.EndpointTimeouts;
+import com.healthmate.app.api.RequestBudget;
+import com.healthmate.app.db.SimilarExerciseStore;
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.SimilarExercise;
+import com.healthmate.app.model.api.ApiExerciseList;
+import com.healthmate.app.util.Constants;
+
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Callback;
+import retrofit2.Response;
+
+/**
+ * Loads one exercise for ExerciseDetailActivity. The request is made once
+ * per exercise and its result is kept across configuration changes, so a
+ * rotated screen does not fetch the exercise again.
+ */
+public class ExerciseDetailViewModel extends AndroidViewModel {
+    private static final String TAG = "ExerciseDetailViewModel";
+
+    // Time from load() to the exercise or "not found" on screen
+    private static final String METRIC_CONTENT = "exercise_detail.content";
+
+    private final AppContainer container;
+
+    private final MutableLiveData<ExerciseDetailState> state =
+            new MutableLiveData<>(ExerciseDetailState.loading());
+    private final MutableLiveData<String> message = new MutableLiveData<>();
+    private final MutableLiveData<List<SimilarExercise>> similarExercises = new MutableLiveData<>();
+
+    private String exerciseId;
+    private Call<ApiExerciseList.ApiExerciseItem> currentCall;
+    private long loadStartMs;
+
+    /**
+     * Constructor, called by the ViewModelProvider
+     * @param application The application
+     */
+    public ExerciseDetailViewModel(@NonNull Application application) {
+        super(application);
+        container = AppContainer.from(application);
+    }
+
+    /**
+     * Get the observable detail state
+     * @return State of the detail screen
+     */
+    public LiveData<ExerciseDetailState> getState() {
+        return state;
+    }
+
+    /**
+     * Get the precomputed similar exercises of the loaded exercise
+     * @return Similar exercises, null until they have been read
+     */
+    public LiveData<List<SimilarExercise>> getSimilarExercises() {
+        return similarExercises;
+    }
+
+    /**
+     * Get a message to show once, e.g. a load error
+     * @return Message text, or null when there is nothing to show
+     */
+    public LiveData<String> getMessage() {
+        return message;
+    }
+
+    /**
+     * Mark the current message as shown so it is not shown again after rotation
+     */
+    public void onMessageShown() {
+        message.setValue(null);
+    }
+
+    /**
+     * Load an exercise. Calling it again with the same ID, e.g. after a
+     * rotation, keeps the result or the request already in flight.
+     * @param exerciseId Exercise ID
+     */
+    public void load(String exerciseId) {
+        if (exerciseId.equals(this.exerciseId)) {
+            return;
+        }
+        this.exerciseId = exerciseId;
+        cancelCall();
+        loadStartMs = SystemClock.elapsedRealtime();
+        state.setValue(ExerciseDetailState.loading());
+        loadSimilarExercises(exerciseId);
+
+        // Wger exercises are stored when they are found, and ExerciseDB does not know their IDs
+        if (exerciseId.startsWith(Constants.WGER_ID_PREFIX)) {
+            loadFromDatabase(exerciseId);
+            return;
+        }
+
+        // Try to get from API first, unless its circuit is open. The check may
+        // read the API config and budget counters, so it runs off the main thread.
+        container.getExecutors().diskIO().execute(() -> {
+            boolean available = container.isExerciseDbAvailable();
+            String apiKey = container.getExerciseDbApiKey();
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (!exerciseId.equals(this.exerciseId)) {
+                    // Another exercise was requested meanwhile
+                    return;
+                }
+                if (available) {
+                    loadFromApi(exerciseId, apiKey);
+                } else {
+                    // If no API key, fall back to local database
+                    loadFromDatabase(exerciseId);
+                }
+            });
+        });
+    }
+
+    private void loadFromApi(String exerciseId, String apiKey) {
+        Call<ApiExerciseList.ApiExerciseItem> call = EndpointTimeouts.applyCallTimeout(
+                container.getExerciseDbService().getExerciseById(
+                        exerciseId,
+                        apiKey,
+                        Constants.EXERCISE_DB_HOST_VALUE));
+        currentCall = call;
+
+        call.enqueue(new Callback<ApiExerciseList.ApiExerciseItem>() {
+            @Override
+            public void onResponse(Call<ApiExerciseList.ApiExerciseItem> call, Response<ApiExerciseList.ApiExerciseItem> response) {
+                if (call != currentCall) {
+                    return;
+                }
+                currentCall = null;
+
+                if (response.isSuccessful() && response.body() != null) {
+                    showContent(ExerciseDetailState.fromApi(response.body()));
+                } else {
+                    message.setValue("Error loading from API: " + response.code());
+                    // Fall back to local database
+                    loadFromDatabase(exerciseId);
+                }
+            }
+
+            @Override
+            public void onFailure(Call<ApiExerciseList.ApiExerciseItem> call, Throwable t) {
+                if (call.isCanceled() || call != currentCall) {
+                    return;
+                }
+                currentCall = null;
+
+                Log.e(TAG, "API request failed: " + t.getMessage(), t);
+                // Refused locally, the saved exercise is shown without an error
+                if (!(t instanceof CircuitBreaker.CircuitOpenException)
+                        && !(t instanceof RequestBudget.BudgetExceededException)) {
+                    message.setValue("Failed to load exercise details: " + t.getMessage());
+                }
+                // Fall back to local database
+                loadFromDatabase(exerciseId);
+            }
+        });
+    }
+
+    private void loadSimilarExercises(String exerciseId) {
+        // Neighbours are precomputed, this is one indexed read
+        similarExercises.setValue(null);
+        container.getExecutors().diskIO().execute(() -> {
+            List<SimilarExercise> similar = container.getSimilarExerciseStore()
+                    .getSimilarExercises(exerciseId, SimilarExerciseStore.NEIGHBOUR_COUNT);
+            container.getExecutors().mainThread().execute(() -> {
+                if (exerciseId.equals(this.exerciseId)) {
+                    similarExercises.setValue(similar);
+                }
+            });
+        });
+    }
+
+    private void loadFromDatabase(String exerciseId) {
+        container.getExecutors().diskIO().execute(() -> {
+            // Steps are only read here, list queries leave them out
+            Exercise result = container.getDatabase().getExerciseById(exerciseId);
+            if (result != null) {
+                result.setSteps(container.getExerciseStepStore().getSteps(exerciseId));
+            }
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (!exerciseId.equals(this.exerciseId)) {
+                    // Another exercise was requested meanwhile
+                    return;
+                }
+                showContent(result != null
+                        ? ExerciseDetailState.fromDatabase(result)
+                        : ExerciseDetailState.notFound());
+            });
+        });
+    }
+
+    private void showContent(ExerciseDetailState content) {
+        container.getLatencyRecorder().record(METRIC_CONTENT, SystemClock.elapsedRealtime() - loadStartMs);
+        state.setValue(content);
+    }
+
+    private void cancelCall() {
+        if (currentCall != null) {
+            currentCall.cancel();
+            currentCall = null;
+        }
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // The screen is gone for good, drop the pending request
+        cancelCall();
+    }
+
+    /**
+     * Immutable snapshot of the detail screen. Once loaded it holds either
+     * the API item or the local exercise.
+     */
+    public static final class ExerciseDetailState {
+        private final boolean loading;
+        private final ApiExerciseList.ApiExerciseItem apiExercise;
+        private final Exercise localExercise;
+
+        private ExerciseDetailState(boolean loading, ApiExerciseList.ApiExerciseItem apiExercise,
+                                    Exercise localExercise) {
+            this.loading = loading;
+            this.apiExercise = apiExercise;
+            this.localExercise = localExercise;
+        }
+
+        static ExerciseDetailState loading() {
+            return new ExerciseDetailState(true, null, null);
+        }
+
+        static ExerciseDetailState fromApi(ApiExerciseList.ApiExerciseItem exercise) {
+            return new ExerciseDetailState(false, exercise, null);
+        }
+
+        static ExerciseDetailState fromDatabase(Exercise exercise) {
+            return new ExerciseDetailState(false, null, exercise);
+        }
+
+        static ExerciseDetailState notFound() {
+            return new ExerciseDetailState(false, null, null);
+        }
+
+        /**
+         * Check whether the exercise is still being loaded
+         * @return True while loading
+         */
+        public boolean isLoading() {
+            return loading;
+        }
+
+        /**
+         * Check whether the exercise was found neither in the API nor locally
+         * @return True if the exercise does not exist
+         */
+        public boolean isNotFound() {
+            return !loading && apiExercise == null && localExercise == null;
+        }
+
+        /**
+         * Get the exercise loaded from the API
+         * @return API item, or null if it was not loaded from the API
+         */
+        public ApiExerciseList.ApiExerciseItem getApiExercise() {
+            return apiExercise;
+        }
+
+        /**
+         * Get the exercise loaded from the local database
+         * @return Local exercise, or null if it was not loaded locally
+         */
+        public Exercise getLocalExercise() {
+            return localExercise;
+        }
+    }
+}
@@ -0,0 +1,761 @@
+package com.healthmate.app.viewmodel;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.WorkerThread;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.healthmate.app.AppContainer;
+import com.healthmate.app.R;
+import com.healthmate.app.api.CircuitBreaker;
+import com.healthmate.app.api.EndpointTimeouts;
+import com.healthmate.app.api.ExerciseStreamIngestor;
+import com.healthmate.app.api.MultiSourceExerciseFetcher;
+import com.healthmate.app.api.RequestBudget;
+import com.healthmate.app.db.ExerciseCatalog;
+import com.healthmate.app.model.BodyPart;
+import com.healthmate.app.model.ExerciseSummary;
+import com.healthmate.app.util.Constants;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import okhttp3.ResponseBody;
+import retrofit2.Call;
+import retrofit2.HttpException;
+
+/**
+ * Owns the exercise list for ExerciseSuggestionActivity. Loaded rows and
+ * the in-flight stream survive configuration changes, so a rotated screen
+ * re-renders from memory without touching the network or the database.
+ *
+ * Loads are hedged: if ExerciseDB has not answered within HEDGE_DELAY_MS
+ * the saved exercises are shown, while the stream goes on and replaces
+ * them once its first batch arrives. Time-to-content is recorded in the
+ * LatencyRecorder, with and without the hedge.
+ *
+ * Once a load has finished the list can be narrowed by target, equipment
+ * and difficulty. Those refinements are answered by the ExerciseCatalog
+ * on the diskIO executor, together with how many exercises each body part
+ * and chip would leave, counted from the catalog's bitmaps rather than a
+ * SQL GROUP BY per toggle.
+ *
+ * Typed searches match names in the catalog's trigram index, so
+ * misspellings such as "benchpres" still find the exercise. Submitting a
+ * search also asks ExerciseDB and Wger through a MultiSourceExerciseFetcher;
+ * their results are appended below the saved matches, minus names already
+ * shown.
+ */
+public class ExerciseListViewModel extends AndroidViewModel {
+    private static final String TAG = "ExerciseListViewModel";
+
+    // Wait for the network before showing saved exercises in the meantime
+    private static final long HEDGE_DELAY_MS = 1200;
+
+    // Most names returned by a typed search
+    private static final int SEARCH_LIMIT = 50;
+
+    // Time from selection to rows on screen, and to the first rows from ExerciseDB
+    private static final String METRIC_CONTENT = "exercise_list.content";
+    private static final String METRIC_NETWORK = "exercise_list.network";
+
+    // Attributes counted for the body part buttons and the refinement chips
+    private static final ExerciseCatalog.Attribute[] FACETS = {
+            ExerciseCatalog.Attribute.BODY_PART,
+            ExerciseCatalog.Attribute.TARGET,
+            ExerciseCatalog.Attribute.EQUIPMENT,
+            ExerciseCatalog.Attribute.DIFFICULTY
+    };
+
+    private final AppContainer container;
+    private final ExerciseStreamIngestor ingestor;
+    private final ExerciseCatalog catalog;
+    // Created on the diskIO executor by the first online search, since it resolves the API config
+    private volatile MultiSourceExerciseFetcher fetcher;
+
+    private final MutableLiveData<ExerciseListState> state =
+            new MutableLiveData<>(ExerciseListState.idle());
+    private final MutableLiveData<Integer> message = new MutableLiveData<>();
+    private final MutableLiveData<RefinementState> refinements =
+            new MutableLiveData<>(RefinementState.none());
+
+    // Rows of the current load, only touched on the main thread
+    private final LoadedRows loaded = new LoadedRows();
+    private int generation = 0;
+
+    // Body part, search and refinements of the current list, only touched on the main thread
+    private String currentBodyPart;
+    private String currentQuery;
+    private boolean searchingOnline;
+    private final Set<String> shownNames = new HashSet<>();
+    private ExerciseCatalog.Filter selected = new ExerciseCatalog.Filter();
+
+    // Progress of the current load, only touched on the main thread
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private Runnable pendingHedge;
+    private long loadStartMs;
+    private boolean contentShown;
+    private boolean waitingForNetwork;
+    private boolean showingSaved;
+
+    /**
+     * Constructor, called by the ViewModelProvider
+     * @param application The application
+     */
+    public ExerciseListViewModel(@NonNull Application application) {
+        super(application);
+        container = AppContainer.from(application);
+        ingestor = new ExerciseStreamIngestor(container.getDatabase());
+        catalog = container.getExerciseCatalog();
+    }
+
+    /**
+     * Get the observable list state
+     * @return State of the list
+     */
+    public LiveData<ExerciseListState> getState() {
+        return state;
+    }
+
+    /**
+     * Get the observable refinement chips
+     * @return Picked refinements and the values available for each attribute
+     */
+    public LiveData<RefinementState> getRefinements() {
+        return refinements;
+    }
+
+    /**
+     * Get a message to show once, e.g. a load error
+     * @return String resource ID, or null when there is nothing to show
+     */
+    public LiveData<Integer> getMessage() {
+        return message;
+    }
+
+    /**
+     * Mark the current message as shown so it is not shown again after rotation
+     */
+    public void onMessageShown() {
+        message.setValue(null);
+    }
+
+    /**
+     * Load the exercises for a body part, replacing the current list
+     * @param bodyPart Body part selector value such as "arms" or "full body"
+     */
+    public void selectBodyPart(String bodyPart) {
+        final int loadGeneration = ++generation;
+        loaded.clear();
+        cancelHedge();
+        ingestor.cancel();
+        loadStartMs = SystemClock.elapsedRealtime();
+        contentShown = false;
+        waitingForNetwork = false;
+        showingSaved = false;
+        currentBodyPart = bodyPart;
+        currentQuery = null;
+        searchingOnline = false;
+        cancelSearch();
+        selected = new ExerciseCatalog.Filter();
+        refinements.setValue(RefinementState.none());
+        Log.d(TAG, "Loading exercises for body part: " + bodyPart);
+        state.setValue(ExerciseListState.loading(bodyPart, loadGeneration));
+
+        // The check and the call read the API config and budget counters, keep them off the main thread
+        container.getExecutors().diskIO().execute(() -> {
+            Call<ResponseBody> call = container.isExerciseDbAvailable()
+                    ? EndpointTimeouts.applyCallTimeout(container.getExerciseDbService().streamExercisesByBodyPart(
+                            bodyPart, container.getExerciseDbApiKey(), Constants.EXERCISE_DB_HOST_VALUE))
+                    : null;
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (loadGeneration != generation) {
+                    // A newer selection replaced this one
+                    return;
+                }
+                if (call != null) {
+                    streamBodyPart(bodyPart, loadGeneration, call);
+                } else {
+                    // No API key, ExerciseDB is failing and its circuit is open, or the budget is used up
+                    Log.w(TAG, "ExerciseDB unavailable, falling back to local database");
+                    loadFromLocalDatabase(bodyPart, loadGeneration);
+                }
+            });
+        });
+    }
+
+    private void streamBodyPart(String bodyPart, int loadGeneration, Call<ResponseBody> call) {
+        // Show saved exercises if the network is slow, the stream below keeps going
+        waitingForNetwork = true;
+        pendingHedge = () -> {
+            pendingHedge = null;
+            Log.d(TAG, "No answer from API after " + HEDGE_DELAY_MS + " ms, showing saved exercises");
+            loadSavedWhileWaiting(bodyPart, loadGeneration);
+        };
+        handler.postDelayed(pendingHedge, HEDGE_DELAY_MS);
+
+        // Stream the response into the local database and show rows batch by batch.
+        // Callbacks of a load that was replaced are dropped, even if it could not be cancelled in time.
+        ingestor.ingest(call, new ExerciseStreamIngestor.Listener() {
+            @Override
+            public void onBatch(List<ExerciseSummary> summaries) {
+                if (loadGeneration != generation) {
+                    return;
+                }
+                if (waitingForNetwork) {
+                    recordLatency(METRIC_NETWORK);
+                }
+                cancelHedge();
+                if (showingSaved) {
+                    // The late answer replaces the saved rows
+                    showingSaved = false;
+                    loaded.clear();
+                    loaded.addAll(summaries);
+                    showContent(ExerciseListState.swapped(bodyPart, loadGeneration, loaded.snapshot()));
+                    return;
+                }
+                loaded.addAll(summaries);
+                showContent(ExerciseListState.loaded(bodyPart, loadGeneration, loaded.snapshot()));
+            }
+
+            @Override
+            public void onComplete(int total) {
+                if (loadGeneration != generation) {
+                    return;
+                }
+                cancelHedge();
+                if (total == 0 && showingSaved) {
+                    Log.d(TAG, "API returned empty exercise list, keeping saved exercises");
+                } else if (total == 0) {
+                    Log.d(TAG, "API returned empty exercise list, falling back to local database");
+                    loadFromLocalDatabase(bodyPart, loadGeneration);
+                } else {
+                    Log.d(TAG, "Successfully streamed " + total + " exercises from API");
+                }
+                if (total > 0 || showingSaved) {
+                    refine(bodyPart, loadGeneration, false);
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (loadGeneration != generation) {
+                    return;
+                }
+                cancelHedge();
+                Log.e(TAG, "API request failed: " + t.getMessage(), t);
+                if (t instanceof HttpException && isThrottledOrDown(((HttpException) t).code())) {
+                    message.setValue(R.string.exercise_service_busy);
+                } else if (t instanceof RequestBudget.BudgetExceededException) {
+                    message.setValue(R.string.exercise_budget_used_up);
+                } else if (!(t instanceof CircuitBreaker.CircuitOpenException)) {
+                    message.setValue(R.string.error_loading_exercises);
+                }
+                if (showingSaved) {
+                    refine(bodyPart, loadGeneration, false);
+                } else {
+                    loadFromLocalDatabase(bodyPart, loadGeneration);
+                }
+            }
+        });
+    }
+
+    /**
+     * Search the saved exercises by name, allowing typos. An empty query
+     * goes back to the selected body part.
+     * @param query Text typed by the user
+     */
+    public void search(String query) {
+        String trimmed = query.trim();
+        if (trimmed.isEmpty() ? currentQuery == null : trimmed.equals(currentQuery)) {
+            // Unchanged, e.g. the search box restoring its text after rotation
+            return;
+        }
+
+        if (trimmed.isEmpty()) {
+            final int searchGeneration = ++generation;
+            cancelHedge();
+            ingestor.cancel();
+            cancelSearch();
+            currentQuery = null;
+            searchingOnline = false;
+            if (currentBodyPart != null) {
+                refine(currentBodyPart, searchGeneration, true);
+            } else {
+                loaded.clear();
+                state.setValue(ExerciseListState.idle());
+            }
+            return;
+        }
+        startSearch(trimmed, false);
+    }
+
+    /**
+     * Search the saved exercises and the online sources by name
+     * @param query Text submitted by the user
+     */
+    public void submitSearch(String query) {
+        String trimmed = query.trim();
+        if (!trimmed.isEmpty()) {
+            startSearch(trimmed, true);
+        }
+    }
+
+    private void startSearch(String query, boolean online) {
+        final int searchGeneration = ++generation;
+        cancelHedge();
+        ingestor.cancel();
+        cancelSearch();
+        currentQuery = query;
+        searchingOnline = online;
+        loaded.clear();
+        shownNames.clear();
+        // Refinement chips belong to a body part list
+        refinements.setValue(RefinementState.none());
+        if (online) {
+            state.setValue(ExerciseListState.searching(query, searchGeneration));
+        }
+
+        container.getExecutors().diskIO().execute(() -> {
+            List<ExerciseSummary> matches = catalog.searchByName(query, SEARCH_LIMIT);
+            MultiSourceExerciseFetcher onlineFetcher = online ? getFetcher() : null;
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (searchGeneration != generation) {
+                    return;
+                }
+                showSearchResults(query, searchGeneration, matches);
+                if (onlineFetcher != null) {
+                    searchOnline(onlineFetcher, query, searchGeneration);
+                }
+            });
+        });
+    }
+
+    /**
+     * Get the fetcher for online searches, creating it on first use. Must be
+     * called on the diskIO executor, it reads the API config.
+     */
+    @WorkerThread
+    private MultiSourceExerciseFetcher getFetcher() {
+        if (fetcher == null) {
+            fetcher = container.newExerciseFetcher();
+        }
+        return fetcher;
+    }
+
+    private void cancelSearch() {
+        MultiSourceExerciseFetcher current = fetcher;
+        if (current != null) {
+            current.cancel();
+        }
+    }
+
+    private void searchOnline(MultiSourceExerciseFetcher onlineFetcher, String query, int searchGeneration) {
+        onlineFetcher.searchByName(query, new MultiSourceExerciseFetcher.Listener() {
+            @Override
+            public void onBatch(List<ExerciseSummary> exercises, String source) {
+                if (searchGeneration != generation) {
+                    return;
+                }
+                Log.d(TAG, source + " found " + exercises.size() + " exercises for " + query);
+                showSearchResults(query, searchGeneration, exercises);
+            }
+
+            @Override
+            public void onComplete(int total, int failedSources) {
+                if (searchGeneration != generation) {
+                    return;
+                }
+                searchingOnline = false;
+                if (failedSources > 0 && loaded.isEmpty()) {
+                    message.setValue(R.string.error_loading_exercises);
+                }
+                showSearchResults(query, searchGeneration, Collections.emptyList());
+            }
+        });
+    }
+
+    /**
+     * Append search results not shown under the same name yet. The list
+     * stays in the loading state until something was found or every
+     * source has answered.
+     */
+    private void showSearchResults(String query, int searchGeneration, List<ExerciseSummary> results) {
+        List<ExerciseSummary> added = new ArrayList<>();
+        for (ExerciseSummary result : results) {
+            if (shownNames.add(MultiSourceExerciseFetcher.normalizeName(result.getName()))) {
+                added.add(result);
+            }
+        }
+        loaded.addAll(added);
+        if (loaded.isEmpty() && searchingOnline) {
+            return;
+        }
+        state.setValue(ExerciseListState.searched(query, searchGeneration, loaded.snapshot()));
+    }
+
+    /**
+     * Add a refinement to the current list, or remove it if it is already picked
+     * @param attribute Attribute of the refinement chip
+     * @param value Value of the refinement chip
+     */
+    public void toggleRefinement(ExerciseCatalog.Attribute attribute, String value) {
+        if (currentBodyPart == null || currentQuery != null) {
+            return;
+        }
+        // Copy so a query already running keeps the filter it was started with
+        selected = new ExerciseCatalog.Filter(selected);
+        if (selected.contains(attribute, value)) {
+            selected.without(attribute, value);
+        } else {
+            selected.with(attribute, value);
+        }
+        refine(currentBodyPart, ++generation, true);
+    }
+
+    /**
+     * Count the refinement values left for the body part and the picked
+     * refinements, and optionally replace the list with the matches.
+     * Dropped if a newer load or refinement started in the meantime.
+     * @param replaceList True to show the catalog matches, false to only update the chips
+     */
+    private void refine(String bodyPart, int refineGeneration, boolean replaceList) {
+        ExerciseCatalog.Filter picked = selected;
+        ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter(picked)
+                .with(ExerciseCatalog.Attribute.BODY_PART, BodyPart.fromLabel(bodyPart).getLabel());
+
+        container.getExecutors().diskIO().execute(() -> {
+            List<ExerciseSummary> matches = replaceList ? catalog.find(filter) : null;
+            EnumMap<ExerciseCatalog.Attribute, Map<String, Integer>> counts =
+                    new EnumMap<>(ExerciseCatalog.Attribute.class);
+            for (ExerciseCatalog.Attribute attribute : FACETS) {
+                counts.put(attribute, catalog.getFacetCounts(filter, attribute));
+            }
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (refineGeneration != generation) {
+                    return;
+                }
+                if (matches != null) {
+                    loaded.clear();
+                    loaded.addAll(matches);
+                    state.setValue(ExerciseListState.loaded(bodyPart, refineGeneration, loaded.snapshot()));
+                }
+                refinements.setValue(new RefinementState(picked, counts));
+            });
+        });
+    }
+
+    private void cancelHedge() {
+        waitingForNetwork = false;
+        if (pendingHedge != null) {
+            handler.removeCallbacks(pendingHedge);
+            pendingHedge = null;
+        }
+    }
+
+    private void showContent(ExerciseListState content) {
+        if (!contentShown) {
+            contentShown = true;
+            recordLatency(METRIC_CONTENT);
+        }
+        state.setValue(content);
+    }
+
+    private void recordLatency(String metric) {
+        container.getLatencyRecorder().record(metric, SystemClock.elapsedRealtime() - loadStartMs);
+    }
+
+    /**
+     * Show the saved exercises while the stream is still pending. Dropped
+     * if the stream delivered rows in the meantime.
+     */
+    private void loadSavedWhileWaiting(String bodyPart, int loadGeneration) {
+        String appBodyPart = BodyPart.fromLabel(bodyPart).getLabel();
+
+        container.getExecutors().diskIO().execute(() -> {
+            List<ExerciseSummary> summaries = container.getDatabase().getExerciseSummariesByBodyPart(appBodyPart);
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (loadGeneration != generation || !waitingForNetwork || summaries.isEmpty()) {
+                    // Superseded, the network answered first, or nothing saved to show meanwhile
+                    return;
+                }
+                showingSaved = true;
+                loaded.addAll(summaries);
+                showContent(ExerciseListState.loaded(bodyPart, loadGeneration, loaded.snapshot()));
+            });
+        });
+    }
+
+    private static boolean isThrottledOrDown(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    private void loadFromLocalDatabase(String bodyPart, int loadGeneration) {
+        state.setValue(ExerciseListState.loading(bodyPart, loadGeneration));
+
+        // Unknown selector values map to full body
+        String appBodyPart = BodyPart.fromLabel(bodyPart).getLabel();
+
+        container.getExecutors().diskIO().execute(() -> {
+            List<ExerciseSummary> summaries = container.getDatabase().getExerciseSummariesByBodyPart(appBodyPart);
+            Log.d(TAG, "Loaded " + summaries.size() + " exercises from local database for " + appBodyPart);
+
+            container.getExecutors().mainThread().execute(() -> {
+                if (loadGeneration != generation) {
+                    // A newer selection replaced this one
+                    return;
+                }
+                loaded.clear();
+                loaded.addAll(summaries);
+                showContent(ExerciseListState.loaded(bodyPart, loadGeneration, loaded.snapshot()));
+                if (!summaries.isEmpty()) {
+                    refine(bodyPart, loadGeneration, false);
+                }
+            });
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        // The screen is gone for good, stop streaming into it
+        cancelHedge();
+        ingestor.cancel();
+        cancelSearch();
+        generation++;
+    }
+
+    /**
+     * Rows of the current load. Publishing the list after every streamed
+     * batch used to copy it, which is quadratic over a long stream. Slots
+     * below a snapshot's size are never written again and a full array is
+     * copied rather than resized in place, so snapshots share the array and
+     * stay valid while later batches are appended.
+     */
+    private static final class LoadedRows {
+        private static final int INITIAL_CAPACITY = 64;
+
+        private ExerciseSummary[] rows = new ExerciseSummary[INITIAL_CAPACITY];
+        private int size;
+
+        void addAll(List<ExerciseSummary> batch) {
+            if (size + batch.size() > rows.length) {
+                rows = Arrays.copyOf(rows, Math.max(rows.length * 2, size + batch.size()));
+            }
+            for (ExerciseSummary summary : batch) {
+                rows[size++] = summary;
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void clear() {
+            // Published snapshots keep the old array
+            rows = new ExerciseSummary[INITIAL_CAPACITY];
+            size = 0;
+        }
+
+        List<ExerciseSummary> snapshot() {
+            return new Snapshot(rows, size);
+        }
+    }
+
+    /**
+     * Read-only view of the first rows of a LoadedRows array
+     */
+    private static final class Snapshot extends AbstractList<ExerciseSummary> implements RandomAccess {
+        private final ExerciseSummary[] rows;
+        private final int size;
+
+        Snapshot(ExerciseSummary[] rows, int size) {
+            this.rows = rows;
+            this.size = size;
+        }
+
+        @Override
+        public ExerciseSummary get(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index " + index + " of " + size);
+            }
+            return rows[index];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the refinement chips
+     */
+    public static final class RefinementState {
+        private final ExerciseCatalog.Filter selected;
+        private final Map<ExerciseCatalog.Attribute, Map<String, Integer>> counts;
+
+        private RefinementState(ExerciseCatalog.Filter selected,
+                                Map<ExerciseCatalog.Attribute, Map<String, Integer>> counts) {
+            this.selected = selected;
+            this.counts = counts;
+        }
+
+        static RefinementState none() {
+            return new RefinementState(new ExerciseCatalog.Filter(),
+                    new EnumMap<>(ExerciseCatalog.Attribute.class));
+        }
+
+        /**
+         * Get the values of an attribute with the number of exercises each
+         * would leave, most common first
+         * @param attribute Attribute of the chips
+         * @return Lower-case values and counts, empty before a load has finished
+         */
+        public Map<String, Integer> getCounts(ExerciseCatalog.Attribute attribute) {
+            Map<String, Integer> values = counts.get(attribute);
+            return values != null ? values : Collections.emptyMap();
+        }
+
+        /**
+         * Check whether a value has been picked
+         * @param attribute Attribute of the chip
+         * @param value Value of the chip
+         * @return True if the list is narrowed to the value
+         */
+        public boolean isSelected(ExerciseCatalog.Attribute attribute, String value) {
+            return selected.contains(attribute, value);
+        }
+    }
+
+    /**
+     * Immutable snapshot of the exercise list
+     */
+    public static final class ExerciseListState {
+        private final boolean loading;
+        private final String bodyPart;
+        private final String query;
+        private final int generation;
+        private final boolean replacesRows;
+        private final List<ExerciseSummary> exercises;
+
+        private ExerciseListState(boolean loading, String bodyPart, String query, int generation,
+                                  List<ExerciseSummary> exercises) {
+            this(loading, bodyPart, query, generation, false, exercises);
+        }
+
+        private ExerciseListState(boolean loading, String bodyPart, String query, int generation,
+                                  boolean replacesRows, List<ExerciseSummary> exercises) {
+            this.loading = loading;
+            this.bodyPart = bodyPart;
+            this.query = query;
+            this.generation = generation;
+            this.replacesRows = replacesRows;
+            this.exercises = exercises;
+        }
+
+        static ExerciseListState idle() {
+            return new ExerciseListState(false, null, null, 0, Collections.emptyList());
+        }
+
+        static ExerciseListState loading(String bodyPart, int generation) {
+            return new ExerciseListState(true, bodyPart, null, generation, Collections.emptyList());
+        }
+
+        static ExerciseListState loaded(String bodyPart, int generation, List<ExerciseSummary> exercises) {
+            // Snapshots of LoadedRows are already immutable and shared, not copied
+            return new ExerciseListState(false, bodyPart, null, generation, exercises);
+        }
+
+        static ExerciseListState swapped(String bodyPart, int generation, List<ExerciseSummary> exercises) {
+            // Network rows in place of the saved rows shown while waiting, same load
+            return new ExerciseListState(false, bodyPart, null, generation, true, exercises);
+        }
+
+        static ExerciseListState searching(String query, int generation) {
+            return new ExerciseListState(true, null, query, generation, Collections.emptyList());
+        }
+
+        static ExerciseListState searched(String query, int generation, List<ExerciseSummary> exercises) {
+            return new ExerciseListState(false, null, query, generation, exercises);
+        }
+
+        /**
+         * Check whether a load is in progress and nothing has arrived yet
+         * @return True while loading
+         */
+        public boolean isLoading() {
+            return loading;
+        }
+
+        /**
+         * Get the selected body part
+         * @return Body part selector value, or null before the first selection
+         */
+        public String getBodyPart() {
+            return bodyPart;
+        }
+
+        /**
+         * Get the search the list shows
+         * @return Trimmed query, or null when the list shows a body part
+         */
+        public String getQuery() {
+            return query;
+        }
+
+        /**
+         * Get the load this state belongs to. Rows of states with the same
+         * generation only ever grow, so a screen can append the new tail,
+         * unless replacesRows() is set.
+         * @return Load generation
+         */
+        public int getGeneration() {
+            return generation;
+        }
+
+        /**
+         * Check whether the rows replace those of earlier states of the same
+         * load, as when the network answers after saved rows were shown
+         * @return True if the whole list must be redrawn
+         */
+        public boolean replacesRows() {
+            return replacesRows;
+        }
+
+        /**
+         * Get the exercises loaded so far
+         * @return Unmodifiable list of exercises
+         */
+        public List<ExerciseSummary> getExercises() {
+            return exercises;
+        }
+
+        /**
+         * Check whether a finished load found no exercises
+         * @return True if there is nothing to show
+         */
+        public boolean isEmpty() {
+            return !loading && (bodyPart != null || query != null) && exercises.isEmpty();
+        }
+    }
+}
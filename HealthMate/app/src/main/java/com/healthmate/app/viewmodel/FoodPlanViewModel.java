@@ -0,0 +1,106 @@
+package com.healthmate.app.viewmodel;
+
+import android.app.Application;
+import android.text.TextUtils;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.healthmate.app.AppContainer;
+import com.healthmate.app.model.Food;
+import com.healthmate.app.model.User;
+import com.healthmate.app.util.AppExecutors;
+import com.healthmate.app.util.BMICalculator;
+import com.healthmate.app.util.Constants;
+import com.healthmate.app.util.MealPlanner;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the meal plan for FoodSuggestionActivity. The plan is computed
+ * once on the disk executor and kept across configuration changes, so a
+ * rotated screen does not read the catalog or run the planner again.
+ */
+public class FoodPlanViewModel extends AndroidViewModel {
+    private static final String TAG = "FoodPlanViewModel";
+
+    private final AppContainer container;
+    private final MutableLiveData<MealPlanner.MealPlan> mealPlan = new MutableLiveData<>();
+    private boolean started;
+
+    /**
+     * Constructor, called by the ViewModelProvider
+     * @param application The application
+     */
+    public FoodPlanViewModel(@NonNull Application application) {
+        super(application);
+        container = AppContainer.from(application);
+    }
+
+    /**
+     * Get the meal plan, building it on first use
+     * @return Meal plan, null until it has been built
+     */
+    public LiveData<MealPlanner.MealPlan> getMealPlan() {
+        if (!started) {
+            started = true;
+            loadMealPlan();
+        }
+        return mealPlan;
+    }
+
+    /**
+     * Build a meal plan for the saved profile on a background thread
+     */
+    private void loadMealPlan() {
+        AppExecutors executors = container.getExecutors();
+        executors.diskIO().execute(() -> {
+            User profile = container.getProfileStore().getProfile();
+            int calorieTarget = getCalorieTarget(profile);
+
+            List<Food> catalog = container.getSeedCatalog().getAllFoods();
+            MealPlanner.MealPlan plan = new MealPlanner().plan(catalog, calorieTarget, getPlanPreferences(profile));
+            Log.d(TAG, "Planned " + plan.getFoods().size() + " foods from " + catalog.size()
+                    + " for " + calorieTarget + " kcal");
+
+            mealPlan.postValue(plan);
+        });
+    }
+
+    /**
+     * Get the daily calorie target for the saved profile
+     * @param profile Saved profile, or null if none was saved
+     * @return Calorie target in kcal
+     */
+    private static int getCalorieTarget(User profile) {
+        if (profile == null || profile.getAge() <= 0 || profile.getBmi() <= 0) {
+            return Constants.DEFAULT_CALORIE_TARGET;
+        }
+
+        // The profile does not record gender, so use the lower of the two requirements
+        return BMICalculator.getDailyCalorieRequirement(profile.getBmi(), profile.getAge(), false);
+    }
+
+    /**
+     * Get diet and cuisine preferences of the profile
+     * @param profile Saved profile, or null if none was saved
+     * @return Planner preferences
+     */
+    private static MealPlanner.Preferences getPlanPreferences(User profile) {
+        MealPlanner.Preferences planPreferences = new MealPlanner.Preferences();
+        if (profile == null) {
+            return planPreferences;
+        }
+
+        planPreferences.setDietCategory(profile.getDietCategory());
+        if (!TextUtils.isEmpty(profile.getCuisine())) {
+            planPreferences.setCuisines(Collections.singleton(profile.getCuisine()));
+        }
+
+        return planPreferences;
+    }
+}
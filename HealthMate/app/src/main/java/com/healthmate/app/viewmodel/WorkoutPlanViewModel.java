@@ -0,0 +1,105 @@
+package com.healthmate.app.viewmodel;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.healthmate.app.AppContainer;
+import com.healthmate.app.db.DatabaseHelper;
+import com.healthmate.app.model.User;
+import com.healthmate.app.util.WorkoutPlanner;
+
+/**
+ * Builds the weekly workout plan for WorkoutPlanActivity. The planner is
+ * kept for the life of the screen and only used on the disk executor, so
+ * changing the number of training days reuses its memoized sessions and
+ * only solves the days that changed.
+ */
+public class WorkoutPlanViewModel extends AndroidViewModel {
+    private static final String TAG = "WorkoutPlanViewModel";
+
+    // Middle of the normal range, used until a profile is saved
+    private static final float DEFAULT_BMI = 22f;
+
+    private final AppContainer container;
+    private final WorkoutPlanner planner;
+    private final MutableLiveData<WorkoutPlanner.WeeklyPlan> weeklyPlan = new MutableLiveData<>();
+
+    // New or changed exercises may give better sessions
+    private final DatabaseHelper.OnExercisesChangedListener exercisesChanged;
+
+    private int trainingDays = WorkoutPlanner.DEFAULT_TRAINING_DAYS;
+    private boolean started;
+
+    /**
+     * Constructor, called by the ViewModelProvider
+     * @param application The application
+     */
+    public WorkoutPlanViewModel(@NonNull Application application) {
+        super(application);
+        container = AppContainer.from(application);
+        planner = new WorkoutPlanner(container.getDatabase());
+        exercisesChanged = exercises -> container.getExecutors().diskIO().execute(planner::invalidate);
+        container.getDatabase().addOnExercisesChangedListener(exercisesChanged);
+    }
+
+    /**
+     * Get the weekly plan, building it on first use
+     * @return Weekly plan, null until it has been built
+     */
+    public LiveData<WorkoutPlanner.WeeklyPlan> getWeeklyPlan() {
+        if (!started) {
+            started = true;
+            loadPlan();
+        }
+        return weeklyPlan;
+    }
+
+    /**
+     * Get the number of training days the plan is built for
+     * @return Training days per week
+     */
+    public int getTrainingDays() {
+        return trainingDays;
+    }
+
+    /**
+     * Rebuild the plan for another number of training days
+     * @param days Training days per week, 1 to 7
+     */
+    public void setTrainingDays(int days) {
+        if (days == trainingDays) {
+            return;
+        }
+        trainingDays = days;
+        loadPlan();
+    }
+
+    /**
+     * Plan the week for the saved profile on a background thread
+     */
+    private void loadPlan() {
+        final int days = trainingDays;
+        container.getExecutors().diskIO().execute(() -> {
+            User profile = container.getProfileStore().getProfile();
+            float bmi = profile != null && profile.getBmi() > 0 ? profile.getBmi() : DEFAULT_BMI;
+
+            WorkoutPlanner.WeeklyPlan plan = planner.plan(WorkoutPlanner.getWeeklyBurnTarget(bmi), days,
+                    WorkoutPlanner.getDifficultyCap(bmi), WorkoutPlanner.DEFAULT_MAX_MINUTES_PER_DAY);
+            Log.d(TAG, "Planned " + days + " training days, " + plan.getCalories()
+                    + " of " + plan.getWeeklyTarget() + " kcal");
+
+            weeklyPlan.postValue(plan);
+        });
+    }
+
+    @Override
+    protected void onCleared() {
+        super.onCleared();
+        container.getDatabase().removeOnExercisesChangedListener(exercisesChanged);
+    }
+}
@@ -0,0 +1,223 @@
+package com.healthmate.app.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import com.healthmate.app.db.DatabaseHelper;
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.ExerciseSummary;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import retrofit2.Retrofit;
+import retrofit2.converter.gson.GsonConverterFactory;
+
+/**
+ * Tests for MultiSourceExerciseFetcher against two local mock servers,
+ * one standing in for ExerciseDB and one for Wger
+ */
+public class MultiSourceExerciseFetcherTest {
+
+    private static final String EXERCISE_DB_BODY = "["
+            + "{\"id\":\"0662\",\"name\":\"push-up\",\"bodyPart\":\"chest\",\"target\":\"pectorals\","
+            + "\"equipment\":\"body weight\",\"gifUrl\":\"https://example.com/0662.gif\"},"
+            + "{\"id\":\"0043\",\"name\":\"barbell full squat\",\"bodyPart\":\"upper legs\","
+            + "\"target\":\"glutes\",\"equipment\":\"barbell\"}]";
+
+    private static final String WGER_BODY = "{\"suggestions\":["
+            + "{\"value\":\"Push Up\",\"data\":{\"id\":1551,\"base_id\":1551,\"name\":\"Push Up\","
+            + "\"category\":\"Chest\",\"image\":null,\"image_thumbnail\":null}},"
+            + "{\"value\":\"Bench Press\",\"data\":{\"id\":73,\"base_id\":192,\"name\":\"Bench Press\","
+            + "\"category\":\"Chest\",\"image\":\"/media/exercise-images/192/Bench-press-1.png\","
+            + "\"image_thumbnail\":null}}]}";
+
+    private MockWebServer exerciseDbServer;
+    private MockWebServer wgerServer;
+    private ExerciseDbService exerciseDbService;
+    private WgerService wgerService;
+    private RecordingDatabase database;
+    private ExecutorService mainThread;
+
+    @Before
+    public void setUp() throws Exception {
+        exerciseDbServer = new MockWebServer();
+        wgerServer = new MockWebServer();
+        exerciseDbServer.start();
+        wgerServer.start();
+
+        OkHttpClient client = new OkHttpClient();
+        exerciseDbService = retrofit(exerciseDbServer, client).create(ExerciseDbService.class);
+        wgerService = retrofit(wgerServer, client).create(WgerService.class);
+        database = new RecordingDatabase();
+        mainThread = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mainThread.shutdownNow();
+        exerciseDbServer.shutdown();
+        wgerServer.shutdown();
+    }
+
+    @Test
+    public void mergesBothSourcesAndDropsDuplicateNames() throws Exception {
+        exerciseDbServer.enqueue(new MockResponse().setBody(EXERCISE_DB_BODY));
+        wgerServer.enqueue(new MockResponse().setBody(WGER_BODY)
+                .setBodyDelay(300, TimeUnit.MILLISECONDS));
+
+        RecordingListener listener = search("push up", "key");
+
+        assertEquals(3, listener.total);
+        assertEquals(0, listener.failedSources);
+        assertEquals(3, names(listener.exercises).size());
+        assertTrue(names(listener.exercises).contains("push-up"));
+        assertTrue(names(listener.exercises).contains("Bench Press"));
+        assertEquals(3, database.stored.size());
+    }
+
+    @Test
+    public void fastestSourceIsDeliveredFirst() throws Exception {
+        exerciseDbServer.enqueue(new MockResponse().setBody(EXERCISE_DB_BODY)
+                .setBodyDelay(500, TimeUnit.MILLISECONDS));
+        wgerServer.enqueue(new MockResponse().setBody(WGER_BODY));
+
+        RecordingListener listener = search("push up", "key");
+
+        assertEquals(2, listener.sources.size());
+        assertEquals(MultiSourceExerciseFetcher.SOURCE_WGER, listener.sources.get(0));
+        assertEquals(MultiSourceExerciseFetcher.SOURCE_EXERCISE_DB, listener.sources.get(1));
+        // Wger's "Push Up" came first, so ExerciseDB's "push-up" is dropped
+        assertTrue(names(listener.exercises).contains("Push Up"));
+        assertFalse(names(listener.exercises).contains("push-up"));
+    }
+
+    @Test
+    public void failingSourceStillCompletesWithTheOther() throws Exception {
+        exerciseDbServer.enqueue(new MockResponse().setResponseCode(500));
+        wgerServer.enqueue(new MockResponse().setBody(WGER_BODY));
+
+        RecordingListener listener = search("push up", "key");
+
+        assertEquals(2, listener.total);
+        assertEquals(1, listener.failedSources);
+        assertEquals(Collections.singletonList(MultiSourceExerciseFetcher.SOURCE_WGER), listener.sources);
+    }
+
+    @Test
+    public void wgerIsAskedThroughItsSearchEndpoint() throws Exception {
+        wgerServer.enqueue(new MockResponse().setBody(WGER_BODY));
+
+        RecordingListener listener = search("bench", "");
+
+        RecordedRequest request = wgerServer.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("/exercise/search/", request.getRequestUrl().encodedPath());
+        assertEquals("bench", request.getRequestUrl().queryParameter("term"));
+        assertEquals("en", request.getRequestUrl().queryParameter("language"));
+        // Without an API key ExerciseDB is not asked at all
+        assertEquals(0, exerciseDbServer.getRequestCount());
+        assertEquals(2, listener.total);
+    }
+
+    @Test
+    public void suggestionsBecomeExercises() throws Exception {
+        wgerServer.enqueue(new MockResponse().setBody(WGER_BODY));
+
+        search("bench", "");
+
+        Exercise benchPress = database.find("Bench Press");
+        assertEquals("wger-73", benchPress.getId());
+        assertEquals("Chest", benchPress.getBodyPart());
+        assertEquals("https://wger.de/media/exercise-images/192/Bench-press-1.png", benchPress.getGifUrl());
+        assertNull(benchPress.getDescription());
+    }
+
+    private RecordingListener search(String name, String apiKey) throws InterruptedException {
+        MultiSourceExerciseFetcher fetcher = new MultiSourceExerciseFetcher(exerciseDbService, wgerService,
+                apiKey, database, mainThread, Runnable::run);
+        RecordingListener listener = new RecordingListener();
+        mainThread.execute(() -> fetcher.searchByName(name, listener));
+        assertTrue("Search did not complete", listener.completed.await(5, TimeUnit.SECONDS));
+        return listener;
+    }
+
+    private static Retrofit retrofit(MockWebServer server, OkHttpClient client) {
+        return new Retrofit.Builder()
+                .baseUrl(server.url("/"))
+                .addConverterFactory(GsonConverterFactory.create())
+                .client(client)
+                .build();
+    }
+
+    private static List<String> names(List<ExerciseSummary> exercises) {
+        List<String> names = new ArrayList<>();
+        for (ExerciseSummary exercise : exercises) {
+            names.add(exercise.getName());
+        }
+        return names;
+    }
+
+    /**
+     * Listener recording batches in order, called on the test's main thread executor
+     */
+    private static final class RecordingListener implements MultiSourceExerciseFetcher.Listener {
+        final List<ExerciseSummary> exercises = new ArrayList<>();
+        final List<String> sources = new ArrayList<>();
+        final CountDownLatch completed = new CountDownLatch(1);
+        int total;
+        int failedSources;
+
+        @Override
+        public void onBatch(List<ExerciseSummary> batch, String source) {
+            exercises.addAll(batch);
+            sources.add(source);
+        }
+
+        @Override
+        public void onComplete(int total, int failedSources) {
+            this.total = total;
+            this.failedSources = failedSources;
+            completed.countDown();
+        }
+    }
+
+    /**
+     * Database that keeps upserted exercises in memory
+     */
+    private static final class RecordingDatabase extends DatabaseHelper {
+        final List<Exercise> stored = Collections.synchronizedList(new ArrayList<>());
+
+        RecordingDatabase() {
+            super(null);
+        }
+
+        @Override
+        public void upsertExercises(List<Exercise> exercises) {
+            stored.addAll(exercises);
+        }
+
+        Exercise find(String name) {
+            for (Exercise exercise : stored) {
+                if (name.equals(exercise.getName())) {
+                    return exercise;
+                }
+            }
+            throw new AssertionError("No stored exercise named " + name);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.healthmate.app.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Tests for RequestBudget counting and the server's remaining-calls header
+ */
+public class RequestBudgetTest {
+
+    private MockWebServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void callsToTheHostAreCounted() throws Exception {
+        RequestBudget budget = new RequestBudget(server.getHostName());
+        server.enqueue(new MockResponse());
+        server.enqueue(new MockResponse());
+
+        call(budget);
+        call(budget);
+
+        assertEquals(2, budget.getUsage().getDayCount());
+        assertEquals(2, budget.getUsage().getMonthCount());
+    }
+
+    @Test
+    public void callsToOtherHostsAreNotCounted() throws Exception {
+        RequestBudget budget = new RequestBudget("exercisedb.example.com");
+        server.enqueue(new MockResponse());
+
+        call(budget);
+
+        assertEquals(0, budget.getUsage().getMonthCount());
+    }
+
+    @Test
+    public void fewerCallsLeftOnTheServerLowerTheBudget() throws Exception {
+        RequestBudget budget = new RequestBudget(server.getHostName());
+        server.enqueue(remaining("10"));
+
+        call(budget);
+
+        RequestBudget.Usage usage = budget.getUsage();
+        assertEquals(usage.getMonthlyLimit() - 10, usage.getMonthCount());
+    }
+
+    @Test
+    public void moreCallsLeftOnTheServerNeverRaiseTheBudget() throws Exception {
+        RequestBudget budget = new RequestBudget(server.getHostName());
+        server.enqueue(remaining("100"));
+        // A larger plan, or the count after a reset, reports more than is left here
+        server.enqueue(remaining("100000"));
+
+        call(budget);
+        int afterFirst = budget.getUsage().getMonthCount();
+        call(budget);
+
+        assertEquals(afterFirst + 1, budget.getUsage().getMonthCount());
+    }
+
+    @Test
+    public void invalidRemainingHeaderIsIgnored() throws Exception {
+        RequestBudget budget = new RequestBudget(server.getHostName());
+        server.enqueue(remaining("lots"));
+
+        call(budget);
+
+        assertEquals(1, budget.getUsage().getMonthCount());
+    }
+
+    @Test
+    public void exhaustedBudgetRefusesWithoutCallingTheHost() throws Exception {
+        RequestBudget budget = new RequestBudget(server.getHostName());
+        server.enqueue(remaining("0"));
+
+        call(budget);
+        assertFalse(budget.allowsRequests(RequestBudget.Priority.INTERACTIVE));
+        try {
+            call(budget);
+            fail("Expected the call to be refused");
+        } catch (RequestBudget.BudgetExceededException expected) {
+            // Refused locally
+        }
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, budget.getUsage().getRefusedCount());
+    }
+
+    @Test
+    public void priorityHeaderIsNotSent() throws Exception {
+        RequestBudget budget = new RequestBudget(server.getHostName());
+        server.enqueue(new MockResponse());
+
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(budget).build();
+        Request request = new Request.Builder()
+                .url(server.url("/"))
+                .header(RequestBudget.PRIORITY_HEADER, "SYNC")
+                .build();
+        client.newCall(request).execute().close();
+
+        assertNull(server.takeRequest().getHeader(RequestBudget.PRIORITY_HEADER));
+        assertTrue(budget.allowsRequests(RequestBudget.Priority.SYNC));
+    }
+
+    private void call(RequestBudget budget) throws Exception {
+        OkHttpClient client = new OkHttpClient.Builder().addInterceptor(budget).build();
+        try (Response response = client.newCall(new Request.Builder().url(server.url("/")).build()).execute()) {
+            assertEquals(200, response.code());
+        }
+    }
+
+    private static MockResponse remaining(String value) {
+        return new MockResponse().setHeader(RequestBudget.REMAINING_HEADER, value);
+    }
+}
@@ -0,0 +1,145 @@
+package com.healthmate.app.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+/**
+ * Tests for RetryInterceptor's Retry-After parsing and retry decisions
+ */
+public class RetryInterceptorTest {
+
+    private MockWebServer server;
+    private OkHttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        client = new OkHttpClient.Builder()
+                .addInterceptor(new RetryInterceptor())
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    public void retryAfterInSeconds() {
+        assertEquals(120000, RetryInterceptor.parseRetryAfterMillis("120"));
+        assertEquals(5000, RetryInterceptor.parseRetryAfterMillis(" 5 "));
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis("0"));
+    }
+
+    @Test
+    public void retryAfterAsHttpDate() {
+        long inOneMinute = System.currentTimeMillis() + 60000;
+
+        long waitMs = RetryInterceptor.parseRetryAfterMillis(httpDate(inOneMinute));
+
+        // The date has whole seconds, and a little time passes while parsing
+        assertTrue("Got " + waitMs, waitMs > 55000 && waitMs <= 60000);
+    }
+
+    @Test
+    public void retryAfterInThePastIsZero() {
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis("-30"));
+    }
+
+    @Test
+    public void missingOrInvalidRetryAfterIsZero() {
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis(null));
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis(""));
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis("soon"));
+        assertEquals(0, RetryInterceptor.parseRetryAfterMillis("1.5"));
+    }
+
+    @Test
+    public void onlyThrottlingAndGatewayErrorsAreRetryable() {
+        assertTrue(RetryInterceptor.isRetryable(429));
+        assertTrue(RetryInterceptor.isRetryable(502));
+        assertTrue(RetryInterceptor.isRetryable(503));
+        assertTrue(RetryInterceptor.isRetryable(504));
+        assertFalse(RetryInterceptor.isRetryable(400));
+        assertFalse(RetryInterceptor.isRetryable(404));
+        assertFalse(RetryInterceptor.isRetryable(500));
+    }
+
+    @Test
+    public void retriesAfterTheRequestedWait() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "1"));
+        server.enqueue(new MockResponse().setBody("ok"));
+
+        long start = System.nanoTime();
+        try (Response response = get()) {
+            assertEquals(200, response.code());
+        }
+
+        assertEquals(2, server.getRequestCount());
+        assertTrue((System.nanoTime() - start) / 1000000 >= 1000);
+    }
+
+    @Test
+    public void longRetryAfterIsReturnedToTheCaller() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "3600"));
+
+        try (Response response = get()) {
+            assertEquals(429, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void clientErrorsAreNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(404));
+
+        try (Response response = get()) {
+            assertEquals(404, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    @Test
+    public void postIsNeverRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        Request request = new Request.Builder()
+                .url(server.url("/"))
+                .post(RequestBody.create("{}", MediaType.get("application/json")))
+                .build();
+        try (Response response = client.newCall(request).execute()) {
+            assertEquals(503, response.code());
+        }
+        assertEquals(1, server.getRequestCount());
+    }
+
+    private Response get() throws Exception {
+        return client.newCall(new Request.Builder().url(server.url("/")).build()).execute();
+    }
+
+    private static String httpDate(long millis) {
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        return format.format(new Date(millis));
+    }
+}
@@ -0,0 +1,211 @@
+package com.healthmate.app.db;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.healthmate.app.model.Exercise;
+import com.healthmate.app.model.ExerciseSummary;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for the ExerciseCatalog filters and facet counts. The faceted
+ * query benchmarks at 10k and 100k exercises are ExerciseCatalogBenchmark
+ * under androidTest.
+ */
+public class ExerciseCatalogTest {
+
+    private static final String[] BODY_PARTS = {"Arms", "Chest", "Back", "Abs", "Legs", "Full Body"};
+    private static final String[] TARGETS = {
+            "biceps", "triceps", "pectorals", "lats", "abs", "quads", "glutes", "hamstrings",
+            "calves", "delts", "traps", "forearms", "obliques", "cardiovascular system"
+    };
+    private static final String[] EQUIPMENT = {
+            "body weight", "dumbbell", "barbell", "cable", "kettlebell", "band", "leverage machine",
+            "smith machine", "ez barbell", "medicine ball", "stability ball", "rope"
+    };
+    private static final String[] DIFFICULTIES = {"Easy", "Medium", "Hard"};
+
+    @Test
+    public void emptyFilterMatchesEverything() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        assertEquals(6, catalog.count(new ExerciseCatalog.Filter()));
+        assertEquals(6, catalog.size());
+    }
+
+    @Test
+    public void valuesOfOneAttributeAreOred() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.EQUIPMENT, "dumbbell")
+                .with(ExerciseCatalog.Attribute.EQUIPMENT, "barbell");
+
+        assertEquals(Arrays.asList("1", "2", "3", "4"), ids(catalog.find(filter)));
+    }
+
+    @Test
+    public void attributesAreAndedAndMatchedIgnoringCase() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.BODY_PART, "ARMS")
+                .with(ExerciseCatalog.Attribute.EQUIPMENT, "Dumbbell");
+
+        assertEquals(Collections.singletonList("1"), ids(catalog.find(filter)));
+    }
+
+    @Test
+    public void secondaryMusclesAreIndexed() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.SECONDARY_MUSCLE, "forearms");
+
+        assertEquals(Arrays.asList("1", "2"), ids(catalog.find(filter)));
+    }
+
+    @Test
+    public void replacingAnExerciseKeepsItsRowAndMovesItsBits() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        catalog.onExercisesChanged(Collections.singletonList(
+                exercise("1", "Hammer Curl", "Arms", "biceps", "cable", "Easy")));
+
+        ExerciseCatalog.Filter dumbbell = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.EQUIPMENT, "dumbbell");
+        ExerciseCatalog.Filter cable = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.EQUIPMENT, "cable");
+        assertEquals(Collections.singletonList("2"), ids(catalog.find(dumbbell)));
+        assertEquals(Collections.singletonList("1"), ids(catalog.find(cable)));
+        assertEquals(6, catalog.size());
+    }
+
+    @Test
+    public void removingTheLastValueDropsTheClause() {
+        ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.TARGET, "biceps")
+                .without(ExerciseCatalog.Attribute.TARGET, "Biceps");
+
+        assertTrue(filter.isEmpty());
+    }
+
+    @Test
+    public void facetCountsIgnoreTheirOwnClause() {
+        ExerciseCatalog catalog = catalog(sample());
+        ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter()
+                .with(ExerciseCatalog.Attribute.BODY_PART, "Arms")
+                .with(ExerciseCatalog.Attribute.EQUIPMENT, "dumbbell");
+
+        Map<String, Integer> equipment = catalog.getFacetCounts(filter, ExerciseCatalog.Attribute.EQUIPMENT);
+        Map<String, Integer> bodyParts = catalog.getFacetCounts(filter, ExerciseCatalog.Attribute.BODY_PART);
+
+        // Arms exercises per equipment, the dumbbell choice itself does not narrow them
+        assertEquals(Integer.valueOf(1), equipment.get("dumbbell"));
+        assertEquals(Integer.valueOf(1), equipment.get("barbell"));
+        assertEquals(Integer.valueOf(0), equipment.get("body weight"));
+        // Dumbbell exercises per body part
+        assertEquals(Integer.valueOf(1), bodyParts.get("arms"));
+        assertEquals(Integer.valueOf(1), bodyParts.get("chest"));
+    }
+
+    @Test
+    public void facetCountsAreSortedByCount() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        Map<String, Integer> counts = catalog.getFacetCounts(new ExerciseCatalog.Filter(),
+                ExerciseCatalog.Attribute.BODY_PART);
+
+        assertEquals(Arrays.asList("chest", "arms", "legs"), new ArrayList<>(counts.keySet()));
+    }
+
+    @Test
+    public void searchByNameToleratesTypos() {
+        ExerciseCatalog catalog = catalog(sample());
+
+        List<ExerciseSummary> matches = catalog.searchByName("benchpres", 1);
+
+        assertEquals("Bench Press", matches.get(0).getName());
+    }
+
+    @Test
+    public void countsAgreeAtTenThousand() {
+        ExerciseCatalog catalog = catalog(synthetic(10000, 42));
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            ExerciseCatalog.Filter filter = new ExerciseCatalog.Filter()
+                    .with(ExerciseCatalog.Attribute.EQUIPMENT, pick(EQUIPMENT, random))
+                    .with(ExerciseCatalog.Attribute.EQUIPMENT, pick(EQUIPMENT, random))
+                    .with(ExerciseCatalog.Attribute.DIFFICULTY, pick(DIFFICULTIES, random));
+
+            // Every exercise has one body part, so the body part facet splits the matches
+            int bodyPartTotal = 0;
+            for (int count : catalog.getFacetCounts(filter, ExerciseCatalog.Attribute.BODY_PART).values()) {
+                bodyPartTotal += count;
+            }
+            int count = catalog.count(filter);
+            assertEquals(count, catalog.find(filter).size());
+            assertEquals(count, bodyPartTotal);
+        }
+    }
+
+    private static List<Exercise> sample() {
+        return Arrays.asList(
+                exercise("1", "Dumbbell Curl", "Arms", "biceps", "dumbbell", "Easy", "forearms"),
+                exercise("2", "Dumbbell Fly", "Chest", "pectorals", "dumbbell", "Medium", "forearms"),
+                exercise("3", "Barbell Curl", "Arms", "biceps", "barbell", "Medium"),
+                exercise("4", "Bench Press", "Chest", "pectorals", "barbell", "Hard", "triceps"),
+                exercise("5", "Push Up", "Chest", "pectorals", "body weight", "Easy", "triceps"),
+                exercise("6", "Squat", "Legs", "quads", "body weight", "Medium", "glutes"));
+    }
+
+    private static List<Exercise> synthetic(int size, long seed) {
+        Random random = new Random(seed);
+        List<Exercise> exercises = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            exercises.add(exercise(String.valueOf(i), "Exercise " + i, pick(BODY_PARTS, random),
+                    pick(TARGETS, random), pick(EQUIPMENT, random), pick(DIFFICULTIES, random),
+                    pick(TARGETS, random), pick(TARGETS, random)));
+        }
+        return exercises;
+    }
+
+    private static ExerciseCatalog catalog(List<Exercise> exercises) {
+        ExerciseCatalog catalog = new ExerciseCatalog();
+        catalog.onExercisesChanged(exercises);
+        return catalog;
+    }
+
+    private static Exercise exercise(String id, String name, String bodyPart, String target,
+                                     String equipment, String difficulty, String... secondaryMuscles) {
+        Exercise exercise = new Exercise();
+        exercise.setId(id);
+        exercise.setName(name);
+        exercise.setBodyPart(bodyPart);
+        exercise.setTarget(target);
+        exercise.setEquipment(equipment);
+        exercise.setDifficultyLevel(difficulty);
+        exercise.setSecondaryMuscles(Arrays.asList(secondaryMuscles));
+        return exercise;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static List<String> ids(List<ExerciseSummary> summaries) {
+        List<String> ids = new ArrayList<>();
+        for (ExerciseSummary summary : summaries) {
+            ids.add(summary.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,177 @@
+package com.healthmate.app.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+/**
+ * Tests for CompressedText round trips and storage size on a catalog-sized
+ * set of instructions. Decode time is measured by CompressedTextBenchmark
+ * under androidTest.
+ */
+public class CompressedTextTest {
+
+    // About the size of the full ExerciseDB catalog
+    private static final int CATALOG_SIZE = 1300;
+
+    private static final String[] EQUIPMENT = {
+            "barbell", "dumbbell", "kettlebell", "cable handle", "resistance band", "EZ bar", "medicine ball"
+    };
+    private static final String[] MUSCLES = {
+            "biceps", "triceps", "glutes", "hamstrings", "quadriceps", "lats", "pectorals", "calves", "delts"
+    };
+    private static final String[] OPENINGS = {
+            "Stand with your feet shoulder-width apart and your arms at your sides, holding a %s.",
+            "Lie flat on your back with your knees bent and feet flat on the floor.",
+            "Sit on the bench with your back against the pad and grasp the %s.",
+            "Start in a plank position with your hands directly under your shoulders.",
+            "Hold a %s in each hand with your palms facing forward."
+    };
+    private static final String[] MOVES = {
+            "Engage your core and keep your back straight throughout the movement.",
+            "Slowly lower the weight back down to the starting position.",
+            "Lower your body until your thighs are parallel to the ground.",
+            "Push through your heels to return to the starting position.",
+            "Keep your elbows close to your body as you lift the %s.",
+            "Squeeze your %s at the top of the movement and pause for a moment.",
+            "Exhale as you lift and inhale as you lower.",
+            "Keep your knees slightly bent and your chest up."
+    };
+
+    @Test
+    public void nullAndEmptyRoundTrip() {
+        assertNull(CompressedText.encode(null));
+        assertNull(CompressedText.decode(null));
+        assertEquals("", CompressedText.decode(CompressedText.encode("")));
+        assertEquals("", CompressedText.decode(new byte[0]));
+    }
+
+    @Test
+    public void tinyTextIsStoredPlain() {
+        byte[] encoded = CompressedText.encode("Rest.");
+
+        assertEquals(0, encoded[0]);
+        assertEquals("Rest.", CompressedText.decode(encoded));
+    }
+
+    @Test
+    public void singleStepSentencesShrink() {
+        // One row of ExerciseStepStore each, most far shorter than a whole instruction text
+        String[] steps = {
+                "Switch sides.",
+                "Keep your back straight.",
+                "Pause for a second at the top.",
+                "Squeeze your glutes at the top.",
+                "Slowly lower the weight back down to the starting position.",
+                "Curl the weights up towards your shoulders while keeping your elbows stationary."
+        };
+
+        for (String step : steps) {
+            byte[] encoded = CompressedText.encode(step);
+            assertTrue(step + " took " + encoded.length + " bytes",
+                    encoded.length < step.getBytes(StandardCharsets.UTF_8).length);
+            assertEquals(step, CompressedText.decode(encoded));
+        }
+    }
+
+    @Test
+    public void longInstructionsShrinkAndRoundTrip() {
+        String text = instructions(new Random(1));
+        byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+
+        byte[] encoded = CompressedText.encode(text);
+
+        assertEquals(1, encoded[0]);
+        assertTrue(encoded.length < utf8.length / 2);
+        assertEquals(text, CompressedText.decode(encoded));
+    }
+
+    @Test
+    public void nonAsciiTextRoundTrips() {
+        String text = "Strecken Sie die Arme \u00fcber den Kopf und halten Sie die Position f\u00fcr f\u00fcnf Sekunden. "
+                + "R\u00e9p\u00e9tez l'exercice dix fois, en gardant le dos droit. \ud83d\udcaa";
+
+        assertEquals(text, CompressedText.decode(CompressedText.encode(text)));
+    }
+
+    @Test
+    public void legacyPlainTextStillDecodes() {
+        String legacy = "1. Stand up straight.\n2. Curl the weights.";
+
+        assertEquals(legacy, CompressedText.decode(legacy.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedValueIsRejected() {
+        byte[] encoded = CompressedText.encode(instructions(new Random(2)));
+        byte[] truncated = new byte[encoded.length / 2];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+
+        CompressedText.decode(truncated);
+    }
+
+    @Test
+    public void encodingIsStable() {
+        String text = instructions(new Random(3));
+
+        assertArrayEquals(CompressedText.encode(text), CompressedText.encode(text));
+    }
+
+    @Test
+    public void catalogStoresInUnderHalfItsUtf8Size() {
+        Random random = new Random(42);
+        long plainBytes = 0;
+        long deflateBytes = 0;
+        long encodedBytes = 0;
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            String text = instructions(random);
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            plainBytes += utf8.length;
+            deflateBytes += deflateWithoutDictionary(utf8);
+            byte[] value = CompressedText.encode(text);
+            encodedBytes += value.length;
+            assertEquals(text, CompressedText.decode(value));
+        }
+
+        assertTrue("Stored " + encodedBytes + " of " + plainBytes + " bytes", encodedBytes * 2 < plainBytes);
+        assertTrue("The dictionary should beat plain Deflate", encodedBytes < deflateBytes);
+    }
+
+    private static String instructions(Random random) {
+        StringBuilder text = new StringBuilder();
+        text.append(String.format(pick(OPENINGS, random), pick(EQUIPMENT, random)));
+        int steps = 3 + random.nextInt(4);
+        for (int i = 0; i < steps; i++) {
+            text.append(' ').append(String.format(pick(MOVES, random),
+                    random.nextBoolean() ? pick(EQUIPMENT, random) : pick(MUSCLES, random)));
+        }
+        text.append(" Repeat for the desired number of repetitions.");
+        return text.toString();
+    }
+
+    private static int deflateWithoutDictionary(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        deflater.setInput(utf8);
+        deflater.finish();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[1024];
+        while (!deflater.finished()) {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        // Plus the format byte CompressedText would add
+        return out.size() + 1;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,90 @@
+package com.healthmate.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests for LatencyRecorder percentiles and its ring buffer
+ */
+public class LatencyRecorderTest {
+
+    @Test
+    public void unknownMetricHasNoSummary() {
+        assertNull(new LatencyRecorder().getSummary("exercise_list.content"));
+    }
+
+    @Test
+    public void singleSampleIsEveryPercentile() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("metric", 42);
+
+        LatencyRecorder.Summary summary = recorder.getSummary("metric");
+
+        assertEquals(1, summary.getCount());
+        assertEquals(42, summary.getP50());
+        assertEquals(42, summary.getP95());
+        assertEquals(42, summary.getP99());
+        assertEquals(42, summary.getMax());
+    }
+
+    @Test
+    public void percentilesUseNearestRank() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        // Recorded out of order, 1 to 100 ms
+        for (int i = 100; i >= 1; i--) {
+            recorder.record("metric", i);
+        }
+
+        LatencyRecorder.Summary summary = recorder.getSummary("metric");
+
+        assertEquals(100, summary.getCount());
+        assertEquals(50, summary.getP50());
+        assertEquals(95, summary.getP95());
+        assertEquals(99, summary.getP99());
+        assertEquals(100, summary.getMax());
+    }
+
+    @Test
+    public void fewSamplesReportTheSlowestAsTail() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("metric", 10);
+        recorder.record("metric", 20);
+        recorder.record("metric", 900);
+
+        LatencyRecorder.Summary summary = recorder.getSummary("metric");
+
+        assertEquals(20, summary.getP50());
+        assertEquals(900, summary.getP95());
+        assertEquals(900, summary.getP99());
+    }
+
+    @Test
+    public void onlyTheLatestSamplesAreKept() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        // 200 slow samples, then 200 fast ones overwrite them
+        for (int i = 0; i < 200; i++) {
+            recorder.record("metric", 5000);
+        }
+        for (int i = 0; i < 200; i++) {
+            recorder.record("metric", 100);
+        }
+
+        LatencyRecorder.Summary summary = recorder.getSummary("metric");
+
+        assertEquals(200, summary.getCount());
+        assertEquals(100, summary.getP99());
+        assertEquals(100, summary.getMax());
+    }
+
+    @Test
+    public void metricsAreKeptApart() {
+        LatencyRecorder recorder = new LatencyRecorder();
+        recorder.record("exercise_list.content", 300);
+        recorder.record("exercise_detail.content", 80);
+
+        assertEquals(300, recorder.getSummary("exercise_list.content").getMax());
+        assertEquals(80, recorder.getSummary("exercise_detail.content").getMax());
+    }
+}
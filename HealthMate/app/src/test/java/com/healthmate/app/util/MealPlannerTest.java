@@ -0,0 +1,214 @@
+package com.healthmate.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.gson.Gson;
+import com.healthmate.app.model.Food;
+
+import org.junit.Test;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for MealPlanner. Planning time over a 10k-food catalog is measured
+ * by MealPlannerBenchmark under androidTest.
+ */
+public class MealPlannerTest {
+
+    private static final String[] CATEGORIES = {
+            Constants.CATEGORY_VEGAN, Constants.CATEGORY_VEGETARIAN, Constants.CATEGORY_NON_VEGETARIAN
+    };
+    private static final String[] CUISINES = {"Indian", "Italian", "Chinese", "Western"};
+
+    // Budget long enough for the search to finish on any machine, so quality does not depend on load
+    private static final long UNHURRIED_BUDGET_MS = 5000;
+
+    @Test
+    public void planStaysWithinCalorieAndSizeBounds() {
+        List<Food> catalog = catalog(500, 1);
+
+        MealPlanner.MealPlan plan = new MealPlanner().plan(catalog, 2000, new MealPlanner.Preferences());
+
+        assertFalse(plan.isEmpty());
+        assertTrue(plan.getFoods().size() <= 6);
+        assertTrue(plan.getCalories() <= 2000 * 1.10f);
+        // A 500-food catalog always allows a plan within 5% of the target
+        assertEquals(2000f, plan.getCalories(), 100f);
+        for (int servings : plan.getServings()) {
+            assertTrue(servings >= 1 && servings <= 2);
+        }
+        assertEquals(2000, plan.getCalorieTarget());
+    }
+
+    @Test
+    public void totalsMatchTheChosenFoods() {
+        MealPlanner.MealPlan plan = new MealPlanner().plan(catalog(300, 2), 1800, new MealPlanner.Preferences());
+
+        float calories = 0, proteins = 0;
+        for (int i = 0; i < plan.getFoods().size(); i++) {
+            calories += plan.getFoods().get(i).getCalories() * plan.getServings().get(i);
+            proteins += plan.getFoods().get(i).getProteins() * plan.getServings().get(i);
+        }
+        assertEquals(calories, plan.getCalories(), 0.01f);
+        assertEquals(proteins, plan.getProteins(), 0.01f);
+    }
+
+    @Test
+    public void veganPlanOnlyHasVeganFoods() {
+        MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+        preferences.setDietCategory(Constants.CATEGORY_VEGAN);
+
+        MealPlanner.MealPlan plan = new MealPlanner().plan(catalog(500, 3), 2000, preferences);
+
+        assertFalse(plan.isEmpty());
+        for (Food food : plan.getFoods()) {
+            assertEquals(Constants.CATEGORY_VEGAN, food.getCategory());
+        }
+    }
+
+    @Test
+    public void vegetarianPlanAllowsVeganFoods() {
+        MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+        preferences.setDietCategory(Constants.CATEGORY_VEGETARIAN);
+
+        MealPlanner.MealPlan plan = new MealPlanner().plan(catalog(500, 4), 2000, preferences);
+
+        assertFalse(plan.isEmpty());
+        for (Food food : plan.getFoods()) {
+            assertFalse(Constants.CATEGORY_NON_VEGETARIAN.equals(food.getCategory()));
+        }
+    }
+
+    @Test
+    public void cuisinePreferenceIsRespected() {
+        MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+        preferences.setCuisines(new HashSet<>(Arrays.asList("Indian", "Chinese")));
+
+        MealPlanner.MealPlan plan = new MealPlanner().plan(catalog(500, 5), 2200, preferences);
+
+        assertFalse(plan.isEmpty());
+        for (Food food : plan.getFoods()) {
+            assertTrue(food.getCuisine().equals("Indian") || food.getCuisine().equals("Chinese"));
+        }
+    }
+
+    @Test
+    public void noAllowedFoodGivesEmptyPlan() {
+        MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+        preferences.setCuisines(Collections.singleton("Martian"));
+
+        MealPlanner.MealPlan plan = new MealPlanner().plan(catalog(100, 6), 2000, preferences);
+
+        assertTrue(plan.isEmpty());
+        assertEquals(0f, plan.getCalories(), 0f);
+    }
+
+    @Test
+    public void seedFoodsPlanForEveryDietOffered() throws IOException {
+        List<Food> seedFoods;
+        // Unit tests run in the module directory
+        try (Reader reader = new InputStreamReader(new FileInputStream("src/main/seed/food_database.json"),
+                StandardCharsets.UTF_8)) {
+            seedFoods = Arrays.asList(new Gson().fromJson(reader, Food[].class));
+        }
+
+        String[] diets = {null, Constants.CATEGORY_VEGETARIAN, Constants.CATEGORY_VEGAN};
+        for (String diet : diets) {
+            MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+            preferences.setDietCategory(diet);
+
+            MealPlanner.MealPlan plan = new MealPlanner().plan(seedFoods, 2000, preferences, UNHURRIED_BUDGET_MS);
+
+            assertFalse("No plan for diet " + diet, plan.isEmpty());
+            for (Food food : plan.getFoods()) {
+                assertTrue(preferences.allows(food));
+            }
+        }
+    }
+
+    @Test
+    public void highProteinRatioRaisesProteinShare() {
+        List<Food> catalog = catalog(2000, 7);
+        MealPlanner.Preferences balanced = new MealPlanner.Preferences();
+        MealPlanner.Preferences highProtein = new MealPlanner.Preferences();
+        highProtein.setMacroRatios(0.40f, 0.30f, 0.30f);
+
+        MealPlanner.MealPlan balancedPlan = new MealPlanner().plan(catalog, 2000, balanced);
+        MealPlanner.MealPlan proteinPlan = new MealPlanner().plan(catalog, 2000, highProtein);
+
+        assertTrue(proteinPlan.getProteins() / proteinPlan.getCalories()
+                > balancedPlan.getProteins() / balancedPlan.getCalories());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroMacroRatiosAreRejected() {
+        new MealPlanner.Preferences().setMacroRatios(0f, 0f, 0f);
+    }
+
+    @Test
+    public void tenThousandFoodCatalogLandsNearTargetForEveryDiet() {
+        List<Food> catalog = catalog(10000, 42);
+        MealPlanner planner = new MealPlanner();
+
+        String[] diets = {null, Constants.CATEGORY_VEGETARIAN, Constants.CATEGORY_VEGAN};
+        int[] targets = {1500, 2000, 2500, 3000};
+        for (String diet : diets) {
+            MealPlanner.Preferences preferences = new MealPlanner.Preferences();
+            preferences.setDietCategory(diet);
+            for (int target : targets) {
+                MealPlanner.MealPlan plan = planner.plan(catalog, target, preferences, UNHURRIED_BUDGET_MS);
+
+                assertEquals(target, plan.getCalories(), target * 0.10f);
+                for (Food food : plan.getFoods()) {
+                    assertTrue(preferences.allows(food));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void exhaustedBudgetReturnsBestPlanSoFar() {
+        List<Food> catalog = catalog(10000, 42);
+        MealPlanner planner = new MealPlanner();
+
+        // The deadline has passed before the search starts, so the first clock check stops it
+        MealPlanner.MealPlan hurried = planner.plan(catalog, 2000, new MealPlanner.Preferences(), 0);
+
+        // At least the greedy seed, within the same bounds as a finished search
+        assertFalse(hurried.isEmpty());
+        assertEquals(2000, hurried.getCalorieTarget());
+        assertTrue(hurried.getFoods().size() <= 6);
+        assertTrue(hurried.getCalories() <= 2000 * 1.10f);
+    }
+
+    /**
+     * Synthetic catalog with realistic per-serving values
+     */
+    private static List<Food> catalog(int size, long seed) {
+        Random random = new Random(seed);
+        List<Food> foods = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            float proteins = 1 + random.nextFloat() * 35;
+            float carbs = random.nextFloat() * 70;
+            float fats = random.nextFloat() * 25;
+            float calories = proteins * 4 + carbs * 4 + fats * 9;
+            foods.add(new Food("f" + i, "Food " + i, calories, proteins, carbs, fats,
+                    random.nextFloat() * 8, 100f, "g",
+                    CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    CUISINES[random.nextInt(CUISINES.length)]));
+        }
+        return foods;
+    }
+}
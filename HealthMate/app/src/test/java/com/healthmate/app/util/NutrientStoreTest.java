@@ -0,0 +1,163 @@
+package com.healthmate.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.healthmate.app.model.Food;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests for NutrientStore. The timing of the 10k-entry history is measured
+ * by NutrientStoreBenchmark under androidTest.
+ */
+public class NutrientStoreTest {
+
+    private static final long MONDAY = 19000;
+    private static final float DELTA = 0.01f;
+
+    // 100 g of rice: 130 kcal, 2.7 g protein, 28 g carbs, 0.3 g fat, 0.4 g fiber
+    private static final Food RICE = new Food("f001", "Rice", 130f, 2.7f, 28f, 0.3f, 0.4f,
+            100f, "g", "vegan", "asian");
+    private static final Food EGG = new Food("f002", "Egg", 78f, 6.3f, 0.6f, 5.3f, 0f,
+            1f, "piece", "vegetarian", "any");
+
+    @Test
+    public void addScalesByBaseAmount() {
+        NutrientStore store = new NutrientStore(MONDAY, 1);
+
+        store.add(RICE, 150f, MONDAY);
+        store.addServings(EGG, 2f, MONDAY);
+
+        assertEquals(195f + 156f, store.getTotal(NutrientStore.CALORIES), DELTA);
+        assertEquals(4.05f + 12.6f, store.getTotal(NutrientStore.PROTEINS), DELTA);
+        assertEquals(0.6f, store.getTotal(NutrientStore.FIBER), DELTA);
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void zeroBaseAmountAddsNothing() {
+        Food unknown = new Food("f003", "Unknown", 500f, 10f, 10f, 10f, 1f, 0f, "g", "any", "any");
+        NutrientStore store = new NutrientStore(MONDAY, 1);
+
+        store.add(unknown, 100f, MONDAY);
+
+        assertEquals(0f, store.getTotal(NutrientStore.CALORIES), 0f);
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    public void dayTotalsAreKeptPerDay() {
+        NutrientStore store = new NutrientStore(MONDAY, 7);
+
+        store.add(RICE, 100f, MONDAY);
+        store.add(RICE, 200f, MONDAY + 3);
+
+        assertEquals(130f, store.getDayTotal(NutrientStore.CALORIES, MONDAY), DELTA);
+        assertEquals(0f, store.getDayTotal(NutrientStore.CALORIES, MONDAY + 1), DELTA);
+        assertEquals(260f, store.getDayTotal(NutrientStore.CALORIES, MONDAY + 3), DELTA);
+        assertEquals(390f, store.getTotal(NutrientStore.CALORIES), DELTA);
+    }
+
+    @Test
+    public void removeUpdatesTotalsAndReusesSlot() {
+        NutrientStore store = new NutrientStore(MONDAY, 1);
+        int rice = store.add(RICE, 100f, MONDAY);
+        store.addServings(EGG, 1f, MONDAY);
+
+        store.remove(rice);
+        int reused = store.addServings(EGG, 1f, MONDAY);
+
+        assertEquals(rice, reused);
+        assertEquals(156f, store.getTotal(NutrientStore.CALORIES), DELTA);
+        assertEquals("f002", store.getFoodId(reused));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void removingEverythingResetsTotalsToZero() {
+        NutrientStore store = new NutrientStore(MONDAY, 1);
+        int first = store.add(RICE, 33.3f, MONDAY);
+        int second = store.add(RICE, 66.7f, MONDAY);
+
+        store.remove(first);
+        store.remove(second);
+
+        assertEquals(0f, store.getTotal(NutrientStore.CALORIES), 0f);
+        assertEquals(0f, store.getDayTotal(NutrientStore.CARBS, MONDAY), 0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void removeTwiceFails() {
+        NutrientStore store = new NutrientStore(MONDAY, 1);
+        int handle = store.add(RICE, 100f, MONDAY);
+
+        store.remove(handle);
+        store.remove(handle);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void dayOutsideWindowFails() {
+        new NutrientStore(MONDAY, 7).add(RICE, 100f, MONDAY + 7);
+    }
+
+    @Test
+    public void clearKeepsStoreUsable() {
+        NutrientStore store = new NutrientStore(MONDAY, 1);
+        store.add(RICE, 100f, MONDAY);
+
+        store.clear();
+        store.addServings(EGG, 1f, MONDAY);
+
+        assertEquals(1, store.size());
+        assertEquals(78f, store.getTotal(NutrientStore.CALORIES), DELTA);
+    }
+
+    /**
+     * A week of 10k logged entries with 5k removals in between. Totals read
+     * after every update must still match a full recount.
+     */
+    @Test
+    public void tenThousandEntryWeekMatchesRecount() {
+        final int entries = 10000;
+        Food[] foods = new Food[50];
+        Random random = new Random(42);
+        for (int i = 0; i < foods.length; i++) {
+            foods[i] = new Food("f" + i, "Food " + i, 50 + random.nextInt(400), random.nextFloat() * 30,
+                    random.nextFloat() * 60, random.nextFloat() * 25, random.nextFloat() * 8,
+                    100f, "g", "any", "any");
+        }
+
+        NutrientStore store = runHistory(foods, entries, new Random(7));
+
+        double recount = 0;
+        for (int handle = 0; handle < entries; handle++) {
+            try {
+                recount += store.getValue(handle, NutrientStore.CALORIES);
+            } catch (IllegalArgumentException removed) {
+                // Slot freed by the history and not reused
+            }
+        }
+        assertEquals(entries - entries / 2, store.size());
+        assertEquals(recount, store.getTotal(NutrientStore.CALORIES), recount * 1e-4);
+    }
+
+    private static NutrientStore runHistory(Food[] foods, int entries, Random random) {
+        NutrientStore store = new NutrientStore(MONDAY, 7);
+        int[] handles = new int[entries];
+        float sink = 0;
+        for (int i = 0; i < entries; i++) {
+            handles[i] = store.add(foods[random.nextInt(foods.length)], 50 + random.nextInt(250),
+                    MONDAY + random.nextInt(7));
+            sink += store.getTotal(NutrientStore.CALORIES);
+        }
+        for (int i = 0; i < entries; i += 2) {
+            store.remove(handles[i]);
+            sink += store.getDayTotal(NutrientStore.PROTEINS, MONDAY + random.nextInt(7));
+        }
+        assertTrue(sink > 0);
+        return store;
+    }
+}
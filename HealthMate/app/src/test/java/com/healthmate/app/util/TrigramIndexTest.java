@@ -0,0 +1,125 @@
+package com.healthmate.app.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for TrigramIndex ranking and updates. Search time over 100k names
+ * is measured by TrigramIndexBenchmark under androidTest.
+ */
+public class TrigramIndexTest {
+
+    private static final String[] MODIFIERS = {
+            "Seated", "Standing", "Incline", "Decline", "Single Arm", "Alternating", "Reverse",
+            "Wide Grip", "Close Grip", "Kneeling", "Lying", "Weighted", "Assisted", "Bent Over"
+    };
+    private static final String[] EQUIPMENT = {
+            "Dumbbell", "Barbell", "Cable", "Kettlebell", "Band", "Smith Machine", "Lever",
+            "EZ Bar", "Medicine Ball", "Body Weight", "Sled", "Trap Bar"
+    };
+    private static final String[] MOVEMENTS = {
+            "Bench Press", "Curl", "Row", "Squat", "Deadlift", "Lunge", "Fly", "Pulldown",
+            "Shoulder Press", "Lateral Raise", "Shrug", "Crunch", "Extension", "Kickback",
+            "Hip Thrust", "Calf Raise", "Push Up", "Pull Up", "Chicken Wing Stretch", "Upright Row"
+    };
+
+    @Test
+    public void findsMisspeltNames() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "Bench Press");
+        index.put("2", "Chicken Breast");
+        index.put("3", "Barbell Curl");
+
+        assertEquals("1", index.search("benchpres", 10).get(0).getKey());
+        assertEquals("2", index.search("chiken", 10).get(0).getKey());
+    }
+
+    @Test
+    public void exactMatchesRankBeforeTypos() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "Bench Dip");
+        index.put("2", "Bench Press");
+        index.put("3", "Incline Bench Press");
+
+        List<TrigramIndex.Match> matches = index.search("bench press", 10);
+
+        assertEquals("2", matches.get(0).getKey());
+        assertEquals(0, matches.get(0).getDistance());
+        assertEquals("3", matches.get(1).getKey());
+    }
+
+    @Test
+    public void putReplacesTheNameOfAKey() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "Bench Press");
+        index.put("1", "Deadlift");
+
+        assertTrue(index.search("bench press", 10).isEmpty());
+        assertEquals("1", index.search("deadlift", 10).get(0).getKey());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void removedNamesAreNotFound() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "Bench Press");
+        index.remove("1");
+
+        assertTrue(index.search("bench press", 10).isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void shortQueriesScanForSubstrings() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "Row");
+        index.put("2", "Squat");
+
+        assertEquals("1", index.search("ro", 10).get(0).getKey());
+    }
+
+    @Test
+    public void unrelatedQueriesFindNothing() {
+        TrigramIndex index = new TrigramIndex();
+        index.put("1", "Bench Press");
+
+        assertTrue(index.search("zzzzzz", 10).isEmpty());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    public void misspeltQueriesFindTheirMovementAmongOneHundredThousandNames() {
+        Random random = new Random(42);
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < 100000; i++) {
+            index.put(String.valueOf(i), pick(MODIFIERS, random) + " " + pick(EQUIPMENT, random)
+                    + " " + pick(MOVEMENTS, random) + " " + i);
+        }
+
+        String[][] queries = {
+                {"benchpres", "Bench Press"}, {"dumbell curl", "Dumbbell Curl"},
+                {"chiken wing", "Chicken Wing"}, {"inclne dumbbell fly", "Incline Dumbbell Fly"},
+                {"cable pulldwn", "Cable Pulldown"}, {"deadlft", "Deadlift"},
+                {"lateral rase", "Lateral Raise"}, {"hip thurst", "Hip Thrust"}
+        };
+        for (String[] query : queries) {
+            List<TrigramIndex.Match> matches = index.search(query[0], 10);
+
+            assertEquals(query[0], 10, matches.size());
+            assertTrue(query[0] + " found " + matches.get(0).getName(),
+                    matches.get(0).getName().contains(query[1]));
+            for (int i = 1; i < matches.size(); i++) {
+                assertTrue(matches.get(i - 1).getDistance() <= matches.get(i).getDistance());
+            }
+        }
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -0,0 +1,104 @@
+package com.healthmate.macrobenchmark;
+
+import androidx.benchmark.macro.CompilationMode;
+import androidx.benchmark.macro.FrameTimingMetric;
+import androidx.benchmark.macro.Metric;
+import androidx.benchmark.macro.StartupMode;
+import androidx.benchmark.macro.StartupTimingMetric;
+import androidx.benchmark.macro.TraceSectionMetric;
+import androidx.benchmark.macro.junit4.MacrobenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.uiautomator.By;
+import androidx.test.uiautomator.UiDevice;
+import androidx.test.uiautomator.UiObject2;
+import androidx.test.uiautomator.Until;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import kotlin.Unit;
+
+/**
+ * Measures cold, warm and hot starts of MainActivity, and the step from
+ * the menu to ExerciseSuggestionActivity. The trace sections added by
+ * StartupTracer (database creation, ApiConfig, API clients, first adapter
+ * bind) show up in the traces captured for each iteration.
+ *
+ * The menu step is a navigation inside a running app, not a startup, so
+ * it is measured by its frames and by the first bind of the exercise list
+ * rather than by StartupTimingMetric, which needs a startup mode.
+ */
+@RunWith(AndroidJUnit4.class)
+public class StartupBenchmark {
+
+    private static final String TARGET_PACKAGE = "com.healthmate.app";
+    private static final int ITERATIONS = 10;
+    private static final long UI_TIMEOUT_MS = 5000;
+
+    @Rule
+    public MacrobenchmarkRule benchmarkRule = new MacrobenchmarkRule();
+
+    @Test
+    public void coldStart() {
+        measureMenuStart(StartupMode.COLD);
+    }
+
+    @Test
+    public void warmStart() {
+        measureMenuStart(StartupMode.WARM);
+    }
+
+    @Test
+    public void hotStart() {
+        measureMenuStart(StartupMode.HOT);
+    }
+
+    /**
+     * From the menu on screen to the exercise list, the MainActivity to
+     * ExerciseSuggestionActivity step of the activity chain
+     */
+    @Test
+    public void menuToExerciseSuggestions() {
+        benchmarkRule.measureRepeated(
+                TARGET_PACKAGE,
+                Arrays.<Metric>asList(new FrameTimingMetric(),
+                        new TraceSectionMetric("ExerciseAdapter.firstBind")),
+                CompilationMode.DEFAULT,
+                null,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    UiDevice device = scope.getDevice();
+                    UiObject2 button = device.wait(Until.findObject(By.res(TARGET_PACKAGE, "btnExercise")),
+                            UI_TIMEOUT_MS);
+                    button.click();
+                    device.wait(Until.hasObject(By.res(TARGET_PACKAGE, "rvExercises")), UI_TIMEOUT_MS);
+                    return Unit.INSTANCE;
+                });
+    }
+
+    private void measureMenuStart(StartupMode startupMode) {
+        benchmarkRule.measureRepeated(
+                TARGET_PACKAGE,
+                Collections.singletonList(new StartupTimingMetric()),
+                CompilationMode.DEFAULT,
+                startupMode,
+                ITERATIONS,
+                scope -> {
+                    scope.pressHome();
+                    return Unit.INSTANCE;
+                },
+                scope -> {
+                    scope.startActivityAndWait();
+                    return Unit.INSTANCE;
+                });
+    }
+}